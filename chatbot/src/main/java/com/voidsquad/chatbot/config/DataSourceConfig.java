@@ -1,5 +1,6 @@
 package com.voidsquad.chatbot.config;
 
+import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
@@ -18,6 +19,10 @@ public class DataSourceConfig {
     @Value("${DB_PASSWORD}")
     String password;
 
+    // HNSW candidate list size per search: higher finds more true neighbours, lower is faster (pgvector default 40)
+    @Value("${app.vector-search.ef-search:40}")
+    int efSearch;
+
     @Bean
     public DataSource dataSource() {
         if (url == null || username == null || password == null) {
@@ -30,11 +35,14 @@ public class DataSourceConfig {
             throw new IllegalStateException(msg);
         }
 
-        return DataSourceBuilder.create()
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
                 .url(url)
                 .username(username)
                 .password(password)
                 .driverClassName("org.postgresql.Driver")
                 .build();
+        dataSource.setConnectionInitSql("SET hnsw.ef_search = " + efSearch);
+        return dataSource;
     }
 }
\ No newline at end of file
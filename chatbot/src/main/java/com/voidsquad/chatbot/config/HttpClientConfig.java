@@ -0,0 +1,34 @@
+package com.voidsquad.chatbot.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * One HTTP client shared by every LLM and embedding provider, so they share one pool of kept-alive
+ * connections (HTTP/2 where the server offers it) and the same timeouts, whether they are called through
+ * RestTemplate, RestClient or WebClient. Providers opt in through {@link ProviderHttpClients}; nothing is
+ * applied to the application-wide builders.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public HttpClient providerHttpClient(@Value("${app.http.connect-timeout-ms:2000}") long connectTimeoutMillis) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .executor(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("provider-http-", 0).factory()))
+                .build();
+    }
+
+    @Bean
+    public ProviderHttpClients providerHttpClients(HttpClient providerHttpClient,
+                                                   @Value("${app.http.read-timeout-ms:120000}") long readTimeoutMillis) {
+        return new ProviderHttpClients(providerHttpClient, Duration.ofMillis(readTimeoutMillis));
+    }
+}
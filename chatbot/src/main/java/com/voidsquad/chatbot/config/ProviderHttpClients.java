@@ -0,0 +1,40 @@
+package com.voidsquad.chatbot.config;
+
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.reactive.JdkClientHttpConnector;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Hands the shared provider {@link HttpClient} to the LLM and embedding clients that ask for it. Each call
+ * returns a new builder, so the pool and timeouts reach only those clients; every other RestClient and
+ * WebClient in the application keeps Spring Boot's defaults.
+ */
+public class ProviderHttpClients {
+
+    private final JdkClientHttpRequestFactory requestFactory;
+    private final JdkClientHttpConnector connector;
+
+    public ProviderHttpClients(HttpClient httpClient, Duration readTimeout) {
+        this.requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        this.requestFactory.setReadTimeout(readTimeout);
+        this.connector = new JdkClientHttpConnector(httpClient);
+        this.connector.setReadTimeout(readTimeout);
+    }
+
+    public ClientHttpRequestFactory requestFactory() {
+        return requestFactory;
+    }
+
+    public RestClient.Builder restClientBuilder() {
+        return RestClient.builder().requestFactory(requestFactory);
+    }
+
+    public WebClient.Builder webClientBuilder() {
+        return WebClient.builder().clientConnector(connector);
+    }
+}
@@ -0,0 +1,75 @@
+package com.voidsquad.chatbot.config;
+
+import com.voidsquad.chatbot.service.auth.AuthInfo;
+import com.voidsquad.chatbot.service.auth.AuthPrincipal;
+import com.voidsquad.chatbot.service.auth.JwtService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Authenticates STOMP sessions: CONNECT must carry an {@code Authorization: Bearer <jwt>} header that
+ * {@link JwtService} accepts, and the session's user becomes an {@link AuthPrincipal}. SUBSCRIBE to anything
+ * under {@code /queue/} is only allowed for the caller's own queue, spelled out exactly, since the simple broker
+ * treats subscription destinations as patterns.
+ */
+@Component
+public class StompAuthInterceptor implements ChannelInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(StompAuthInterceptor.class);
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtService jwtService;
+
+    public StompAuthInterceptor(JwtService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            accessor.setUser(authenticate(accessor.getFirstNativeHeader("Authorization")));
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            checkSubscription(accessor.getDestination(), accessor.getUser());
+        }
+        return message;
+    }
+
+    private AuthPrincipal authenticate(String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            throw new MessageDeliveryException("Missing bearer token");
+        }
+        AuthInfo info = jwtService.verify(authorization.substring(BEARER_PREFIX.length()).trim());
+        if (!info.isValid()) {
+            throw new MessageDeliveryException("Invalid token");
+        }
+        String name = info.getUserId() != null ? info.getUserId().toString() : info.getEmail();
+        if (name == null || name.isBlank()) {
+            throw new MessageDeliveryException("Token does not identify a user");
+        }
+        return new AuthPrincipal(name, info);
+    }
+
+    private void checkSubscription(String destination, Principal user) {
+        if (destination == null || !destination.startsWith("/queue/")) {
+            return;
+        }
+        if (user == null || !destination.equals(WebSocketConfig.USER_QUEUE_PREFIX + user.getName())) {
+            log.warn("Rejected subscription to {} by {}", destination, user == null ? "anonymous" : user.getName());
+            throw new MessageDeliveryException("Not allowed to subscribe to " + destination);
+        }
+    }
+}
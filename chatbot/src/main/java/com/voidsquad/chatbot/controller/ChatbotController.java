@@ -1,27 +1,38 @@
 package com.voidsquad.chatbot.controller;
 
+import com.voidsquad.chatbot.config.WebSocketConfig;
 import com.voidsquad.chatbot.entities.WorkflowStep;
 import com.voidsquad.chatbot.repository.WorkflowStepRepository;
 import com.voidsquad.chatbot.service.AIService;
 import com.voidsquad.chatbot.service.embedding.EmbeddingService;
+import com.voidsquad.chatbot.service.staticinfo.StaticInfoImportService;
 import com.voidsquad.chatbot.service.workflow.WorkflowStepService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.repository.query.Param;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.security.Principal;
 import java.util.List;
 import java.util.Map;
 import com.voidsquad.chatbot.dto.ChatbotResponseDTO;
 import com.voidsquad.chatbot.dto.AuthInfoDTO;
+import com.voidsquad.chatbot.dto.ChatStreamEvent;
+import com.voidsquad.chatbot.dto.StaticInfoImportReport;
 import com.voidsquad.chatbot.service.auth.AuthInfo;
+import com.voidsquad.chatbot.service.auth.AuthPrincipal;
 import com.voidsquad.chatbot.mapper.ChatbotResponseMapper;
 import com.voidsquad.chatbot.mapper.AuthInfoMapper;
 import com.voidsquad.chatbot.service.auth.AuthHeaderDecoderService;
@@ -37,6 +48,7 @@ public class ChatbotController {
     private final ChatbotResponseMapper responseMapper;
     private final AuthHeaderDecoderService authHeaderDecoderService;
     private final AuthInfoMapper authInfoMapper;
+    private final StaticInfoImportService staticInfoImportService;
 
 
     public ChatbotController(SimpMessagingTemplate messaging,
@@ -46,13 +58,15 @@ public class ChatbotController {
                              WorkflowStepService workflowStepService,
                              ChatbotResponseMapper responseMapper,
                              AuthHeaderDecoderService authHeaderDecoderService,
-                             AuthInfoMapper authInfoMapper){
+                             AuthInfoMapper authInfoMapper,
+                             StaticInfoImportService staticInfoImportService){
         this.aiService = aiService;
         this.messaging = messaging;
         this.workflowStepService = workflowStepService;
         this.responseMapper = responseMapper;
         this.authHeaderDecoderService = authHeaderDecoderService;
         this.authInfoMapper = authInfoMapper;
+        this.staticInfoImportService = staticInfoImportService;
     }
 
     @GetMapping("/debug/auth")
@@ -76,25 +90,34 @@ public class ChatbotController {
     public void handleChatMessage(@Payload Map<String, Object> msg,
                                   Principal principal,
                                   @Header("simpSessionId") String sessionId){
-        log.info("websocket private echo");
+        log.info("websocket private message");
         log.info("sessionId "+sessionId);
-        Object senderObj = msg.get("sender");
-        Object tokenObj = msg.get("token");
-        String sender = (senderObj != null) ? senderObj.toString() : null;
-        String token = (tokenObj != null) ? tokenObj.toString() : null;
-        if (sender == null || sender.isEmpty()) {
-            log.warn("No sender provided in message payload; cannot send private reply");
+        // the user is the one StompAuthInterceptor verified on CONNECT, never something named in the payload
+        if (!(principal instanceof AuthPrincipal user)) {
+            log.warn("Message from an unauthenticated session; cannot send private reply");
             return;
         }
-        if( token == null || token.isEmpty() ){
-            log.warn("No token provided for sender");
+        Object contentObj = msg.get("content");
+        String prompt = (contentObj != null) ? contentObj.toString() : null;
+        String dest = WebSocketConfig.USER_QUEUE_PREFIX + user.getName();
+        if (prompt == null || prompt.isBlank()) {
+            log.warn("No content provided by sender");
+            messaging.convertAndSend(dest, new ChatStreamEvent(ChatStreamEvent.ERROR, "Empty message"));
             return;
         }
-        //TODO: validate auth token
-        //TODO: generate replay from message
-        String dest = "/queue/user/" + sender;
-        log.info("destination user "+ dest);
-        messaging.convertAndSend(dest, "[private reply] "+msg);
+        AuthInfo authInfo = user.authInfo();
+        log.info("streaming reply to "+ dest);
+        StringBuilder answer = new StringBuilder();
+        aiService.streamRequest(prompt, authInfo).subscribe(
+                text -> {
+                    answer.append(text);
+                    messaging.convertAndSend(dest, new ChatStreamEvent(ChatStreamEvent.TOKEN, text));
+                },
+                e -> {
+                    log.error("Error in streamed AI response: " + e.getMessage());
+                    messaging.convertAndSend(dest, new ChatStreamEvent(ChatStreamEvent.ERROR, "Error processing request"));
+                },
+                () -> messaging.convertAndSend(dest, new ChatStreamEvent(ChatStreamEvent.DONE, answer.toString())));
     }
 
 
@@ -126,6 +149,25 @@ public class ChatbotController {
         }
     }
 
+    /**
+     * Server-sent events version of {@link #simpleAIResponse}: "token" events as the answer is written, then a
+     * "done" event with the whole answer, or an "error" event.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamAIResponse(@Param("prompt") String prompt,
+                                                          @RequestHeader(value = "Authorization", required = false) String authorization) {
+        AuthInfo authInfo = authHeaderDecoderService.decode(authorization);
+        StringBuilder answer = new StringBuilder();
+        return aiService.streamRequest(prompt, authInfo)
+                .doOnNext(answer::append)
+                .map(text -> ServerSentEvent.builder(text).event(ChatStreamEvent.TOKEN).build())
+                .concatWith(Mono.fromSupplier(() -> ServerSentEvent.builder(answer.toString()).event(ChatStreamEvent.DONE).build()))
+                .onErrorResume(e -> {
+                    log.error("Error in streamed AI response: " + e.getMessage());
+                    return Mono.just(ServerSentEvent.builder("Error processing request").event(ChatStreamEvent.ERROR).build());
+                });
+    }
+
     @Profile("default")
     @GetMapping("/workflowSteps")
     public Iterable<WorkflowStep> getAllWorkflowSteps(
@@ -171,17 +213,19 @@ public class ChatbotController {
 
     @Profile("default")
     @PostMapping("/staticInfo/bulk" )
-    public String addBulkStaticInfo(
+    public ResponseEntity<StaticInfoImportReport> addBulkStaticInfo(
             @RequestParam("file") MultipartFile file
     ) {
         log.info("Adding bulk static info from file");
         try {
-            var staticInfoList = aiService.ReadStaticInfoFromCSV(file);
-            aiService.addBulkStaticInfo(staticInfoList);
-            return "Bulk static info added: " + staticInfoList.size() + " entries.";
+            StaticInfoImportReport report = staticInfoImportService.importCsv(file.getInputStream());
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            log.error("Rejected bulk static info file: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error adding bulk static info: " + e.getMessage());
-            return "Error adding bulk static info: " + e.getMessage();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 }
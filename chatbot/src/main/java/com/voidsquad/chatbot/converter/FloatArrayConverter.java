@@ -8,27 +8,45 @@ public class FloatArrayConverter implements AttributeConverter<float[], String>
 
     @Override
     public String convertToDatabaseColumn(float[] attribute) {
-        if (attribute == null) return null;
-        // Convert to PostgreSQL vector format: [0.1,0.2,0.3]
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < attribute.length; i++) {
-            if (i > 0) sb.append(",");
-            sb.append(attribute[i]);
-        }
-        sb.append("]");
-        return sb.toString();
+        return format(attribute);
     }
 
     @Override
     public float[] convertToEntityAttribute(String dbData) {
-        if (dbData == null) return null;
-        // Parse PostgreSQL vector string: [0.1,0.2,0.3] to float[]
-        String cleaned = dbData.replace("[", "").replace("]", "");
-        String[] parts = cleaned.split(",");
-        float[] result = new float[parts.length];
-        for (int i = 0; i < parts.length; i++) {
-            result[i] = Float.parseFloat(parts[i].trim());
+        return parse(dbData);
+    }
+
+    // PostgreSQL vector text format: [0.1,0.2,0.3]. Float.toString dominates the cost; PgVector avoids it
+    static String format(float[] vector) {
+        if (vector == null) return null;
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(vector[i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    // Scans the text once instead of stripping brackets and splitting into an intermediate array
+    static float[] parse(String text) {
+        if (text == null) return null;
+        int start = text.indexOf('[') + 1;
+        int end = text.lastIndexOf(']');
+        if (end < 0) end = text.length();
+        if (text.substring(start, end).isBlank()) return new float[0];
+
+        int count = 1;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == ',') count++;
+        }
+        float[] result = new float[count];
+        int from = start;
+        for (int n = 0; n < count; n++) {
+            int comma = text.indexOf(',', from);
+            int to = comma < 0 || comma > end ? end : comma;
+            result[n] = Float.parseFloat(text.substring(from, to)); // ignores surrounding spaces
+            from = to + 1;
         }
         return result;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package com.voidsquad.chatbot.converter;
+
+import org.postgresql.core.BaseConnection;
+import org.postgresql.util.PGBinaryObject;
+import org.postgresql.util.PGobject;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A pgvector {@code vector} JDBC parameter. Bound with {@code setObject} it arrives typed, so the SQL needs
+ * no {@code CAST(? AS vector)}. On connections passed through {@link #enableBinarySend(Connection)} the
+ * driver sends pgvector's binary format (dimension count, then big-endian float4s), which skips formatting
+ * and parsing decimal text on both ends; elsewhere it falls back to the text form.
+ */
+public class PgVector extends PGobject implements PGBinaryObject {
+    public static final String TYPE = "vector";
+
+    private float[] values;
+
+    public PgVector() {
+        setType(TYPE);
+    }
+
+    public PgVector(float[] values) {
+        this();
+        this.values = values;
+    }
+
+    /**
+     * Lets the driver send {@link PgVector} parameters in binary. Results are left in text so JPA reads of
+     * vector columns through {@link FloatArrayConverter} are unaffected. A no-op on non-PostgreSQL
+     * connections and databases without the extension.
+     */
+    public static void enableBinarySend(Connection connection) throws SQLException {
+        if (!connection.isWrapperFor(BaseConnection.class)) return;
+        BaseConnection pg = connection.unwrap(BaseConnection.class);
+        int oid = pg.getTypeInfo().getPGType(TYPE);
+        if (oid > 0 && !pg.binaryTransferSend(oid)) {
+            pg.getQueryExecutor().addBinarySendOid(oid);
+        }
+    }
+
+    public float[] toArray() {
+        return values;
+    }
+
+    @Override
+    public String getValue() {
+        return FloatArrayConverter.format(values);
+    }
+
+    @Override
+    public void setValue(String value) {
+        values = FloatArrayConverter.parse(value);
+    }
+
+    @Override
+    public int lengthInBytes() {
+        return values == null ? 0 : 4 + 4 * values.length;
+    }
+
+    @Override
+    public void toBytes(byte[] bytes, int offset) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, lengthInBytes());
+        buffer.putShort((short) values.length);
+        buffer.putShort((short) 0); // unused
+        for (float v : values) {
+            buffer.putFloat(v);
+        }
+    }
+
+    @Override
+    public void setByteValue(byte[] bytes, int offset) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, bytes.length - offset);
+        int dimensions = buffer.getShort();
+        buffer.getShort();
+        values = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            values[i] = buffer.getFloat();
+        }
+    }
+}
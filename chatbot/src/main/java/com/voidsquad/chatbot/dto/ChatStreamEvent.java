@@ -0,0 +1,21 @@
+package com.voidsquad.chatbot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One message of a streamed answer sent to /queue/user/{user id}: any number of "token" events carrying the
+ * next piece of text, then a "done" event with the whole answer, or an "error" event.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatStreamEvent {
+    public static final String TOKEN = "token";
+    public static final String DONE = "done";
+    public static final String ERROR = "error";
+
+    private String type;
+    private String content;
+}
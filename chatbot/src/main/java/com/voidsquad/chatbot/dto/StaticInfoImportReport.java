@@ -0,0 +1,31 @@
+package com.voidsquad.chatbot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk static-info CSV import. Row numbers count the header as row 1.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StaticInfoImportReport {
+    private int imported;
+    // rows without a topic or description
+    private List<Integer> skippedRows;
+    private List<RowFailure> failures;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowFailure {
+        private int row;
+        private String topic;
+        private String reason;
+    }
+}
@@ -2,27 +2,43 @@ package com.voidsquad.chatbot.model;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Single tool call entry returned by the LLM.
+ * <p>
+ * {@code id} and {@code depends_on} are optional hints: a call waits for the calls named in
+ * {@code depends_on} (by id, or by tool name) and receives their results. Calls without them run concurrently.
  */
 public class ToolCall {
+    private final String id;
     private final String toolName;
     private final Map<String, Object> parameters;
     private final String explanation;
+    private final List<String> dependsOn;
+
+    public ToolCall(String toolName, Map<String, Object> parameters, String explanation) {
+        this(null, toolName, parameters, explanation, null);
+    }
 
     @JsonCreator
     public ToolCall(
+            @JsonProperty("id") String id,
             @JsonProperty("tool_name") String toolName,
             @JsonProperty("parameters") Map<String, Object> parameters,
-            @JsonProperty("explanation") String explanation) {
+            @JsonProperty("explanation") String explanation,
+            @JsonProperty("depends_on") List<String> dependsOn) {
+        this.id = id;
         this.toolName = toolName;
         this.parameters = parameters;
         this.explanation = explanation;
+        this.dependsOn = dependsOn == null ? List.of() : List.copyOf(dependsOn);
     }
 
+    public String getId() { return id; }
     public String getToolName() { return toolName; }
     public Map<String, Object> getParameters() { return parameters; }
     public String getExplanation() { return explanation; }
+    public List<String> getDependsOn() { return dependsOn; }
 }
@@ -14,10 +14,14 @@ import com.voidsquad.chatbot.model.ToolCall;
 import com.voidsquad.chatbot.repository.WorkflowStepRepository;
 import com.voidsquad.chatbot.service.auth.AuthInfo;
 import com.voidsquad.chatbot.service.promptmanager.core.ProcessingResult;
+import com.voidsquad.chatbot.service.promptmanager.core.ProcessingType;
 import com.voidsquad.chatbot.service.promptmanager.impl.FinalOutputStrategy;
+import com.voidsquad.chatbot.service.responsecache.SemanticResponseCache;
 import com.voidsquad.chatbot.service.tool.ToolCallResult;
 import com.voidsquad.chatbot.service.tool.ToolExecutionService;
 import com.voidsquad.chatbot.service.tool.ToolRegistry;
+import com.voidsquad.chatbot.service.vectorindex.VectorIndexService;
+import com.voidsquad.chatbot.util.JsonFieldStreamReader;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,13 +31,21 @@ import com.voidsquad.chatbot.repository.StaticInfoRepository;
 import com.voidsquad.chatbot.service.language.LanguageProcessor;
 import com.voidsquad.chatbot.entities.StaticInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service
 public class AIService {
@@ -51,6 +63,11 @@ public class AIService {
     private final ToolCallResponseDecoder toolCallResponseDecoder;
     private final ToolRegistry toolRegistry;
     private final ToolExecutionService toolExecutionService;
+    private final VectorIndexService vectorIndexService;
+    private final SemanticResponseCache responseCache;
+    // runs the speculative workflow step search alongside the simple-reply call
+    private final ExecutorService retrievalExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("retrieval-", 0).factory());
 
     public AIService(
             @Autowired(required = false) EmbeddingService embeddingService,
@@ -62,7 +79,9 @@ public class AIService {
             WorkflowStepRepository workflowStepRepository,
         ToolCallResponseDecoder toolCallResponseDecoder,
         ToolRegistry toolRegistry,
-            ToolExecutionService toolExecutionService) {
+            ToolExecutionService toolExecutionService,
+            @Autowired(required = false) VectorIndexService vectorIndexService,
+            @Autowired(required = false) SemanticResponseCache responseCache) {
         this.embeddingService = embeddingService;
         this.staticInfoRepository = staticInfoRepository;
         this.languageProcessor = languageProcessor;
@@ -73,6 +92,8 @@ public class AIService {
         this.toolCallResponseDecoder = toolCallResponseDecoder;
         this.toolRegistry = toolRegistry;
         this.toolExecutionService = toolExecutionService;
+        this.vectorIndexService = vectorIndexService;
+        this.responseCache = responseCache;
     }
 
     public String generation(String userInput) {
@@ -105,7 +126,10 @@ public class AIService {
             staticInfo.setTopic(topic);
             staticInfo.setDescription(description);
             staticInfo.setEmbedding(embedding);
-            staticInfoRepository.saveWithVector(staticInfo);
+            StaticInfo saved = staticInfoRepository.saveWithVector(staticInfo);
+            if (vectorIndexService != null) {
+                vectorIndexService.indexStaticInfo(saved != null ? saved : staticInfo);
+            }
             log.info("StaticInfo added: " + topic);
         } catch (Exception e) {
             log.error("Error adding StaticInfo: " + e.getMessage());
@@ -153,26 +177,6 @@ public class AIService {
     }
 
 
-    public void addBulkStaticInfo(List<StaticInfo> staticInfoList) {
-        log.info("Adding bulk StaticInfo: " + staticInfoList.size() + " entries.");
-        try {
-            for (StaticInfo info : staticInfoList) {
-                float[] embedding = null;
-                if (embeddingService != null) {
-                    embedding = embeddingService.generateEmbedding(info.getTopic() + ": " + info.getDescription());
-                } else {
-                    throw new NullPointerException("EmbeddingService is not available");
-                }
-                info.setId(UUID.randomUUID());
-                info.setEmbedding(embedding);
-                staticInfoRepository.saveWithVector(info);
-            }
-            log.info("Bulk StaticInfo added: " + staticInfoList.size() + " entries.");
-        } catch (Exception e) {
-            log.error("Error adding bulk StaticInfo: " + e.getMessage());
-        }
-    }
-
     public String requestHandler(String userPrompt, AuthInfo authInfo) throws JsonDecodeException, NoAnswerException, IOException {
         log.info("user prompt: "+userPrompt);
             if (embeddingService == null || staticInfoRepository == null || languageProcessor == null) {
@@ -182,22 +186,21 @@ public class AIService {
 
             float[] qEmbedding = embeddingService.generateEmbedding(userPrompt);
             log.info("getting embeddings"+(qEmbedding.length==384?" (384-dim)":"(not 384-dim)"));
-            List<StaticInfo> hits = staticInfoRepository.findSimilarStaticInfo(qEmbedding, 5);
-            log.info("hits:"+hits.size());
-
-            StringBuilder contextBuilder = new StringBuilder();
-            for (StaticInfo s : hits) {
-                contextBuilder.append("Topic: ").append(s.getTopic()).append("\n");
-                contextBuilder.append(s.getDescription()).append("\n---\n");
+            String role = authInfo != null && authInfo.getRole() != null ? authInfo.getRole() : "GUEST";
+            String cached = cachedAnswer(role, qEmbedding);
+            if (cached != null) {
+                log.info("answer served from the response cache");
+                return cached;
             }
-            String vectorContext = contextBuilder.toString();
+            long kbVersion = responseCache != null ? responseCache.version() : 0;
+            CompletableFuture<List<WorkflowStep>> stepHits = speculateWorkflowSteps(qEmbedding);
+
+            String vectorContext = staticInfoContext(qEmbedding);
 
             log.info("genarated context: "+vectorContext);
 
             log.info("sending for simple reply with context");
 
-            String role = authInfo != null && authInfo.getRole() != null ? authInfo.getRole() : "GUEST";
-
             var simpleResult = languageProcessor.evaluateSimpleReply(userPrompt, vectorContext, role);
             log.info("LM RESULT => "+simpleResult);
 
@@ -205,18 +208,145 @@ public class AIService {
 
         if(structuredOutput.isSimple()) {
             log.info("simple reply found, returning");
+            stepHits.cancel(false);
+            cacheAnswer(role, qEmbedding, structuredOutput.data(), kbVersion);
             return structuredOutput.data();
         } else {
             log.info("not a simple reply, need complex processing");
-            return prepareWorkflow(userPrompt,qEmbedding,structuredOutput.data(), authInfo);
+            return prepareWorkflow(userPrompt,stepHits,structuredOutput.data(), authInfo);
+        }
+
+    }
+
+
+    /**
+     * Same flow as {@link #requestHandler}, but the answer arrives as chunks of text while the model writes it.
+     * Retrieval, the simple-reply check and tool calls still run to completion first; only the text of the
+     * answer shown to the user is streamed. The "data" field is read out of the model's JSON as it arrives and
+     * held back until the answer is known to be final, so the reason for needing tools is never shown. Output
+     * that cannot be read incrementally falls back to the same decoders the blocking path uses.
+     */
+    public Flux<String> streamRequest(String userPrompt, AuthInfo authInfo) {
+        if (embeddingService == null || staticInfoRepository == null || languageProcessor == null) {
+            log.info("direct answer from language model");
+            return Mono.fromCallable(() -> generation(userPrompt)).subscribeOn(Schedulers.boundedElastic()).flux();
+        }
+        String role = authInfo != null && authInfo.getRole() != null ? authInfo.getRole() : "GUEST";
+
+        return Mono.fromCallable(() -> embeddingService.generateEmbedding(userPrompt))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(qEmbedding -> {
+                    String cached = cachedAnswer(role, qEmbedding);
+                    if (cached != null) {
+                        log.info("answer served from the response cache");
+                        return Flux.just(cached);
+                    }
+                    long kbVersion = responseCache != null ? responseCache.version() : 0;
+                    CompletableFuture<List<WorkflowStep>> stepHits = speculateWorkflowSteps(qEmbedding);
+                    String vectorContext = staticInfoContext(qEmbedding);
+                    JsonFieldStreamReader simpleReply = new JsonFieldStreamReader("data", "isSimple");
+                    return languageProcessor.streamSimpleReply(userPrompt, vectorContext, role)
+                            .map(simpleReply::accept)
+                            .concatWith(Flux.defer(() -> afterSimpleReply(simpleReply, userPrompt, qEmbedding, stepHits, authInfo, kbVersion))
+                                    .subscribeOn(Schedulers.boundedElastic()))
+                            .doFinally(signal -> stepHits.cancel(false));
+                })
+                .filter(text -> !text.isEmpty());
+    }
+
+    private Flux<String> afterSimpleReply(JsonFieldStreamReader simpleReply, String userPrompt, float[] qEmbedding,
+                                          CompletableFuture<List<WorkflowStep>> stepHits, AuthInfo authInfo, long kbVersion) {
+        String role = authInfo != null && authInfo.getRole() != null ? authInfo.getRole() : "GUEST";
+        String rest = simpleReply.finish();
+        if (Boolean.TRUE.equals(simpleReply.gate())) {
+            log.info("simple reply streamed");
+            if (simpleReply.fieldComplete()) cacheAnswer(role, qEmbedding, simpleReply.value(), kbVersion);
+            return Flux.just(rest);
+        }
+
+        SimpleChatStrategyResponse structuredOutput = simpleReply.gate() != null && simpleReply.fieldComplete()
+                ? new SimpleChatStrategyResponse(false, simpleReply.value())
+                : simpleAiResponseDecoder.decode(languageProcessor.postProcess(ProcessingType.SIMPLE_CHAT, simpleReply.raw()));
+        if (structuredOutput.isSimple()) {
+            cacheAnswer(role, qEmbedding, structuredOutput.data(), kbVersion);
+            return Flux.just(structuredOutput.data());
+        }
+
+        log.info("not a simple reply, need complex processing");
+        String context = workflowContext(userPrompt, stepHits, structuredOutput.data(), authInfo);
+        JsonFieldStreamReader finalOutput = new JsonFieldStreamReader("data", "isComplete");
+        return languageProcessor.streamFinalOutput(userPrompt, context, authInfo != null ? authInfo.getRole() : "GUEST")
+                .map(finalOutput::accept)
+                .concatWith(Mono.fromCallable(() -> afterFinalOutput(finalOutput)));
+    }
+
+    private String afterFinalOutput(JsonFieldStreamReader finalOutput) {
+        String rest = finalOutput.finish();
+        if (Boolean.TRUE.equals(finalOutput.gate())) {
+            return rest;
+        }
+        if (finalOutput.gate() == null || !finalOutput.fieldFound()) {
+            ProcessingResult finalResult = languageProcessor.postProcess(ProcessingType.FINAL_OUTPUT_GENERATION, finalOutput.raw());
+            FinalOutputStrategyResponse finalResponse = finalOutputStrategyDecoder.decode(finalResult);
+            if (finalResponse != null && finalResponse.isComplete()) {
+                return finalResponse.getData();
+            }
         }
+        return "Unknown error";
+    }
 
+    private String cachedAnswer(String role, float[] qEmbedding) {
+        return responseCache != null ? responseCache.get(role, qEmbedding) : null;
     }
 
+    // Only simple replies are cached: answers built from tool calls depend on the user's own data
+    private void cacheAnswer(String role, float[] qEmbedding, String answer, long kbVersion) {
+        if (responseCache != null) responseCache.put(role, qEmbedding, answer, kbVersion);
+    }
 
-    private String prepareWorkflow(String userPrompt, float[] embiddings , String toolCallReason ,AuthInfo userInfo ) {
+    private String staticInfoContext(float[] qEmbedding) {
+        List<StaticInfo> hits = findSimilarStaticInfo(qEmbedding, 5);
+        log.info("hits:"+hits.size());
 
-        List<WorkflowStep> hits = workflowStepRepository.findSimilarSteps(embiddings,5);
+        StringBuilder contextBuilder = new StringBuilder();
+        for (StaticInfo s : hits) {
+            contextBuilder.append("Topic: ").append(s.getTopic()).append("\n");
+            contextBuilder.append(s.getDescription()).append("\n---\n");
+        }
+        return contextBuilder.toString();
+    }
+
+    /**
+     * Starts the workflow step search as soon as the query embedding exists, so a request that turns out to
+     * need tools does not wait for it after the simple-reply call. Simple replies cancel it unread.
+     */
+    private CompletableFuture<List<WorkflowStep>> speculateWorkflowSteps(float[] qEmbedding) {
+        return CompletableFuture.supplyAsync(() -> vectorIndexService != null
+                ? vectorIndexService.findSimilarSteps(qEmbedding, 5)
+                : workflowStepRepository.findSimilarSteps(qEmbedding, 5), retrievalExecutor);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        retrievalExecutor.shutdownNow();
+    }
+
+    private String prepareWorkflow(String userPrompt, CompletableFuture<List<WorkflowStep>> stepHits , String toolCallReason ,AuthInfo userInfo ) {
+        return finalOutputGenarator(userPrompt, workflowContext(userPrompt, stepHits, toolCallReason, userInfo), userInfo);
+    }
+
+    /**
+     * Picks and runs the tools for a request that needs them.
+     * @return user info and tool results, the context the final answer is written from
+     */
+    private String workflowContext(String userPrompt, CompletableFuture<List<WorkflowStep>> stepHits , String toolCallReason ,AuthInfo userInfo ) {
+
+        List<WorkflowStep> hits;
+        try {
+            hits = stepHits.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
         StringBuilder contextBuilder = new StringBuilder();
         for (WorkflowStep s : hits) {
             contextBuilder.append("Name: ").append(s.getName()).append("\n");
@@ -248,8 +378,7 @@ public class AIService {
             toolResultsBuilder.append(result.getResult()).append("\n");
         }
 
-        String cat = userInfoStr + toolResultsBuilder.toString();
-        return finalOutputGenarator(userPrompt,cat ,userInfo);
+        return userInfoStr + toolResultsBuilder.toString();
     }
 
     public String finalOutputGenarator(String userPrompt, String toolResults, AuthInfo authInfo) {
@@ -265,7 +394,7 @@ public class AIService {
     public List<String> getAllStaticInfoByEmbeddings(String keyword) {
                 float[] emb = embeddingService.generateEmbedding(keyword);
                 int count = 0;
-                return staticInfoRepository.findSimilarStaticInfo(emb,5).stream().map(staticInfo -> {
+                return findSimilarStaticInfo(emb,5).stream().map(staticInfo -> {
                     return String.format("""
                                 Topic %s
                                 Description: %s
@@ -273,4 +402,10 @@ public class AIService {
                 }).toList();
             }
 
+    private List<StaticInfo> findSimilarStaticInfo(float[] embedding, int limit) {
+        return vectorIndexService != null
+                ? vectorIndexService.findSimilarStaticInfo(embedding, limit)
+                : staticInfoRepository.findSimilarStaticInfo(embedding, limit);
+    }
+
 }
@@ -0,0 +1,15 @@
+package com.voidsquad.chatbot.service.auth;
+
+import java.security.Principal;
+
+/**
+ * The user a STOMP session authenticated as on CONNECT. The name is the token's user id (or its email when the
+ * token has none) and is what private replies are addressed to.
+ */
+public record AuthPrincipal(String name, AuthInfo authInfo) implements Principal {
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
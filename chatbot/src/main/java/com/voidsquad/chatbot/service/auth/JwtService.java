@@ -0,0 +1,62 @@
+package com.voidsquad.chatbot.service.auth;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.Key;
+
+/**
+ * Verifies tokens issued by the auth service (HS256 over the shared, base64-encoded {@code jwt.secret}).
+ * {@link AuthHeaderDecoderService} only reads the payload, so anything that acts on a user's behalf has to go
+ * through {@link #verify} first.
+ */
+@Service
+public class JwtService {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtService.class);
+
+    private final String secret;
+    private final AuthHeaderDecoderService decoder;
+
+    public JwtService(@Value("${jwt.secret}") String secret, AuthHeaderDecoderService decoder) {
+        this.secret = secret;
+        this.decoder = decoder;
+    }
+
+    /**
+     * Returns the token's claims when its signature and expiry check out, otherwise an invalid {@link AuthInfo}
+     * carrying the reason.
+     */
+    public AuthInfo verify(String token) {
+        if (token == null || token.isBlank()) {
+            return AuthInfo.builder()
+                    .valid(false)
+                    .error("Token is missing")
+                    .build();
+        }
+        try {
+            Jwts.parserBuilder()
+                    .setSigningKey(getSigningKey())
+                    .build()
+                    .parseClaimsJws(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.warn("Rejected token: {}", e.getMessage());
+            return AuthInfo.builder()
+                    .scheme("Bearer")
+                    .valid(false)
+                    .error("Invalid token: " + e.getMessage())
+                    .build();
+        }
+        return decoder.decode("Bearer " + token);
+    }
+
+    private Key getSigningKey() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+    }
+}
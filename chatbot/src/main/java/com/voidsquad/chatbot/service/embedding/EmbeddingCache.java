@@ -0,0 +1,201 @@
+package com.voidsquad.chatbot.service.embedding;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Two-tier cache of embeddings keyed by a hash of the model and the normalised text.
+ * <p>
+ * The first tier is an LRU map on the heap. The second tier is a directory of one small file per
+ * embedding ({@code <dir>/<2 hex>/<hash>.f32}), so the cache survives restarts and stays warm across
+ * deploys when the directory is on a volume. An empty {@code dir} disables the disk tier. Disk
+ * errors only cost a cache miss.
+ * <p>
+ * The disk tier is pruned periodically: files older than {@code max-age} are deleted, then the least
+ * recently used ones until the directory is under {@code max-size}. A disk hit refreshes the file's
+ * modification time, so it counts as a use.
+ */
+@Component
+public class EmbeddingCache {
+    private static final Logger log = LoggerFactory.getLogger(EmbeddingCache.class);
+
+    private final Map<String, float[]> memory;
+    private final Path dir;
+    private final long maxDiskBytes;
+    private final Duration maxAge;
+    private final Counter memoryHits;
+    private final Counter diskHits;
+    private final Counter misses;
+
+    @Autowired
+    public EmbeddingCache(@Value("${app.embedding.cache.max-entries:10000}") int maxEntries,
+                          @Value("${app.embedding.cache.dir:}") String dir,
+                          @Value("${app.embedding.cache.max-size:512MB}") DataSize maxSize,
+                          @Value("${app.embedding.cache.max-age:30d}") Duration maxAge,
+                          MeterRegistry meterRegistry) {
+        this(maxEntries, dir == null || dir.isBlank() ? null : Path.of(dir), maxSize.toBytes(), maxAge, meterRegistry);
+    }
+
+    EmbeddingCache(int maxEntries, Path dir, MeterRegistry meterRegistry) {
+        this(maxEntries, dir, Long.MAX_VALUE, null, meterRegistry);
+    }
+
+    EmbeddingCache(int maxEntries, Path dir, long maxDiskBytes, Duration maxAge, MeterRegistry meterRegistry) {
+        this.memory = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.dir = dir;
+        this.maxDiskBytes = maxDiskBytes;
+        this.maxAge = maxAge;
+        this.memoryHits = Counter.builder("embedding.cache.requests").tag("result", "hit-memory").register(meterRegistry);
+        this.diskHits = Counter.builder("embedding.cache.requests").tag("result", "hit-disk").register(meterRegistry);
+        this.misses = Counter.builder("embedding.cache.requests").tag("result", "miss").register(meterRegistry);
+        meterRegistry.gauge("embedding.cache.size", this, EmbeddingCache::size);
+    }
+
+    /**
+     * @return a copy of the cached embedding, or null on a miss
+     */
+    public float[] get(String key) {
+        float[] cached;
+        synchronized (memory) {
+            cached = memory.get(key);
+        }
+        if (cached != null) {
+            memoryHits.increment();
+            return cached.clone();
+        }
+
+        cached = readFromDisk(key);
+        if (cached != null) {
+            diskHits.increment();
+            synchronized (memory) {
+                memory.put(key, cached);
+            }
+            return cached.clone();
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(String key, float[] embedding) {
+        float[] copy = embedding.clone();
+        synchronized (memory) {
+            memory.put(key, copy);
+        }
+        writeToDisk(key, copy);
+    }
+
+    public int size() {
+        synchronized (memory) {
+            return memory.size();
+        }
+    }
+
+    /**
+     * Deletes disk entries older than the max age, then the least recently used ones beyond the max size.
+     * @return the number of files deleted
+     */
+    @Scheduled(initialDelayString = "${app.embedding.cache.prune-interval-ms:600000}",
+            fixedDelayString = "${app.embedding.cache.prune-interval-ms:600000}")
+    public int prune() {
+        if (dir == null || !Files.isDirectory(dir)) return 0;
+        List<DiskEntry> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(dir, 2)) {
+            files.filter(p -> p.getFileName().toString().endsWith(".f32")).forEach(p -> {
+                try {
+                    BasicFileAttributes attrs = Files.readAttributes(p, BasicFileAttributes.class);
+                    entries.add(new DiskEntry(p, attrs.size(), attrs.lastModifiedTime().toMillis()));
+                } catch (IOException e) {
+                    // deleted meanwhile
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Could not scan the embedding cache directory: {}", e.getMessage());
+            return 0;
+        }
+
+        entries.sort(Comparator.comparingLong(DiskEntry::lastUsedMillis));
+        long total = entries.stream().mapToLong(DiskEntry::size).sum();
+        long expiredBefore = maxAge == null ? Long.MIN_VALUE : System.currentTimeMillis() - maxAge.toMillis();
+        int deleted = 0;
+        for (DiskEntry entry : entries) {
+            if (entry.lastUsedMillis() >= expiredBefore && total <= maxDiskBytes) break;
+            try {
+                Files.deleteIfExists(entry.path());
+                total -= entry.size();
+                deleted++;
+            } catch (IOException e) {
+                log.warn("Could not delete cached embedding {}: {}", entry.path(), e.getMessage());
+            }
+        }
+        if (deleted > 0) log.info("Pruned {} cached embeddings from disk", deleted);
+        return deleted;
+    }
+
+    private float[] readFromDisk(String key) {
+        if (dir == null) return null;
+        try {
+            Path file = pathOf(key);
+            ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            float[] embedding = new float[bytes.remaining() / Float.BYTES];
+            bytes.asFloatBuffer().get(embedding);
+            return embedding;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Could not read cached embedding {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, float[] embedding) {
+        if (dir == null) return;
+        try {
+            Path target = pathOf(key);
+            Files.createDirectories(target.getParent());
+            ByteBuffer bytes = ByteBuffer.allocate(embedding.length * Float.BYTES);
+            bytes.asFloatBuffer().put(embedding);
+            // write aside and move, so a concurrent reader or a crash never sees a partial vector
+            Path tmp = Files.createTempFile(target.getParent(), key, ".tmp");
+            Files.write(tmp, bytes.array());
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not persist embedding {}: {}", key, e.getMessage());
+        }
+    }
+
+    private Path pathOf(String key) {
+        return dir.resolve(key.substring(0, 2)).resolve(key + ".f32");
+    }
+
+    private record DiskEntry(Path path, long size, long lastUsedMillis) {}
+}
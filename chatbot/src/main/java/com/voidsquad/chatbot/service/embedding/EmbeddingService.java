@@ -1,31 +1,147 @@
 package com.voidsquad.chatbot.service.embedding;
 
+import com.voidsquad.chatbot.config.ProviderHttpClients;
+import com.voidsquad.chatbot.service.http.ProviderCallExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @Service
 public class EmbeddingService {
 
     private final RestTemplate restTemplate;
-    private final String OLLAMA_URL = "http://localhost:11434/api/embeddings";
+    private final ProviderCallExecutor providerCalls;
+    private final EmbeddingCache cache;
+    private final Timer generateTimer;
+    private final Timer batchTimer;
+    private final String ollamaUrl;
+    private final String ollamaBatchUrl;
+    private final String model;
 
-    public EmbeddingService() {
-        this.restTemplate = new RestTemplate();
+    @Autowired
+    public EmbeddingService(EmbeddingCache cache,
+                            MeterRegistry meterRegistry,
+                            ProviderHttpClients providerHttpClients,
+                            ProviderCallExecutor providerCalls,
+                            @Value("${app.embedding.url:http://localhost:11434/api/embeddings}") String ollamaUrl,
+                            @Value("${app.embedding.batch-url:http://localhost:11434/api/embed}") String ollamaBatchUrl,
+                            @Value("${app.embedding.model:all-minilm}") String model) {
+        this(new RestTemplate(providerHttpClients.requestFactory()), providerCalls, cache, meterRegistry, ollamaUrl, ollamaBatchUrl, model);
     }
 
+    EmbeddingService(RestTemplate restTemplate, EmbeddingCache cache, MeterRegistry meterRegistry,
+                     String ollamaUrl, String ollamaBatchUrl, String model) {
+        this(restTemplate, ProviderCallExecutor.direct(), cache, meterRegistry, ollamaUrl, ollamaBatchUrl, model);
+    }
+
+    EmbeddingService(RestTemplate restTemplate, ProviderCallExecutor providerCalls, EmbeddingCache cache,
+                     MeterRegistry meterRegistry, String ollamaUrl, String ollamaBatchUrl, String model) {
+        this.restTemplate = restTemplate;
+        this.providerCalls = providerCalls;
+        this.cache = cache;
+        this.generateTimer = Timer.builder("embedding.generate").tag("model", model).register(meterRegistry);
+        this.batchTimer = Timer.builder("embedding.generate.batch").tag("model", model).register(meterRegistry);
+        this.ollamaUrl = ollamaUrl;
+        this.ollamaBatchUrl = ollamaBatchUrl;
+        this.model = model;
+    }
+
+    /**
+     * Embeds the text, or returns the cached embedding of an earlier text that normalises to the same string.
+     */
     public float[] generateEmbedding(String text) {
+        String normalised = normalise(text);
+        String key = cacheKey(model, normalised);
+        float[] cached = cache.get(key);
+        if (cached != null) return cached;
+
+        float[] embedding = generateTimer.record(() -> providerCalls.call("embedding", () -> requestEmbedding(normalised)));
+        cache.put(key, embedding);
+        return embedding;
+    }
+
+    /**
+     * Embeds several texts with one model call for those not already cached.
+     * @return the embeddings in the order of {@code texts}
+     */
+    public List<float[]> generateEmbeddings(List<String> texts) {
+        float[][] embeddings = new float[texts.size()][];
+        // cache key -> normalised text still to embed; identical texts in the batch are embedded once
+        Map<String, String> missing = new LinkedHashMap<>();
+        List<String> keys = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            String normalised = normalise(texts.get(i));
+            String key = cacheKey(model, normalised);
+            keys.add(key);
+            embeddings[i] = cache.get(key);
+            if (embeddings[i] == null) missing.put(key, normalised);
+        }
+
+        if (!missing.isEmpty()) {
+            List<String> toEmbed = new ArrayList<>(missing.values());
+            List<float[]> generated = batchTimer.record(() -> providerCalls.call("embedding-batch", () -> requestEmbeddings(toEmbed)));
+            Map<String, float[]> byKey = new LinkedHashMap<>();
+            int n = 0;
+            for (String key : missing.keySet()) {
+                float[] embedding = generated.get(n++);
+                cache.put(key, embedding);
+                byKey.put(key, embedding);
+            }
+            for (int i = 0; i < embeddings.length; i++) {
+                if (embeddings[i] == null) embeddings[i] = byKey.get(keys.get(i)).clone();
+            }
+        }
+        return List.of(embeddings);
+    }
+
+    private List<float[]> requestEmbeddings(List<String> texts) {
+        try {
+            Map<String, Object> request = Map.of("model", model, "input", texts);
+            ResponseEntity<Map> response = restTemplate.postForEntity(ollamaBatchUrl, request, Map.class);
+            List<List<Double>> embeddingLists = (List<List<Double>>) response.getBody().get("embeddings");
+            if (embeddingLists == null || embeddingLists.size() != texts.size()) {
+                throw new IllegalStateException("expected " + texts.size() + " embeddings, got "
+                        + (embeddingLists == null ? "none" : embeddingLists.size()));
+            }
+
+            List<float[]> embeddings = new ArrayList<>(texts.size());
+            for (List<Double> values : embeddingLists) {
+                float[] embedding = new float[values.size()];
+                for (int i = 0; i < values.size(); i++) {
+                    embedding[i] = values.get(i).floatValue();
+                }
+                embeddings.add(embedding);
+            }
+            return embeddings;
+        } catch (Exception e) {
+            throw new RuntimeException("Batch embedding generation failed: " + e.getMessage(), e);
+        }
+    }
+
+    private float[] requestEmbedding(String text) {
         try {
             Map<String, Object> request = Map.of(
-                    "model", "all-minilm",  // Embedding model
+                    "model", model,  // Embedding model
                     "prompt", text
             );
 
             ResponseEntity<Map> response = restTemplate.postForEntity(
-                    OLLAMA_URL, request, Map.class);
+                    ollamaUrl, request, Map.class);
 
             List<Double> embeddingList = (List<Double>) response.getBody().get("embedding");
 
@@ -41,4 +157,24 @@ public class EmbeddingService {
             throw new RuntimeException("Embedding generation failed: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    // Differences that do not change the embedding: Unicode forms, runs of whitespace and, since all-minilm
+    // is an uncased model, letter case
+    static String normalise(String text) {
+        if (text == null) return "";
+        String nfkc = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        return nfkc.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    // The model is part of the key so switching models never serves stale vectors
+    static String cacheKey(String model, String normalisedText) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(model.getBytes(StandardCharsets.UTF_8));
+            sha.update((byte) 0);
+            return HexFormat.of().formatHex(sha.digest(normalisedText.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
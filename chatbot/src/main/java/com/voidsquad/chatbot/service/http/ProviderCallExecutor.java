@@ -0,0 +1,223 @@
+package com.voidsquad.chatbot.service.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Runs blocking calls to the LLM and embedding providers with retries and, for the providers listed in
+ * {@code app.http.hedging.targets}, request hedging.
+ * <p>
+ * Transient failures (I/O errors, timeouts, 429 and 5xx responses) are retried up to
+ * {@code app.http.retry.max-attempts} times with exponential backoff. A hedged call that has not answered
+ * within the provider's recent p95 latency is sent a second time; the first answer wins and the other
+ * request is cancelled. That cuts the slowest few percent of calls at the cost of about 5% more requests,
+ * so it is only worth it where a duplicate request is cheap, like embeddings. Hedging starts once a
+ * provider has {@value #MIN_SAMPLES} recorded latencies.
+ */
+@Component
+public class ProviderCallExecutor {
+    private static final Logger log = LoggerFactory.getLogger(ProviderCallExecutor.class);
+    static final int MIN_SAMPLES = 20;
+    private static final int WINDOW = 256;
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final Set<String> hedgedTargets;
+    private final long minHedgeDelayMillis;
+    private final Map<String, Target> targets = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("provider-call-", 0).factory());
+
+    public ProviderCallExecutor(MeterRegistry meterRegistry,
+                                @Value("${app.http.retry.max-attempts:3}") int maxAttempts,
+                                @Value("${app.http.retry.backoff-ms:200}") long backoffMillis,
+                                @Value("${app.http.hedging.targets:embedding}") String hedgedTargets,
+                                @Value("${app.http.hedging.min-delay-ms:20}") long minHedgeDelayMillis) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = backoffMillis;
+        this.hedgedTargets = Arrays.stream(hedgedTargets.split(","))
+                .map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.toSet());
+        this.minHedgeDelayMillis = minHedgeDelayMillis;
+    }
+
+    /**
+     * A single attempt per call, no hedging; for code constructed outside Spring.
+     */
+    public static ProviderCallExecutor direct() {
+        return new ProviderCallExecutor(new SimpleMeterRegistry(), 1, 0, "", 0);
+    }
+
+    /**
+     * Runs {@code request} against {@code target} ("gemini", "ollama", "embedding") with retries and hedging.
+     */
+    public <T> T call(String target, Callable<T> request) {
+        Target t = target(target);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return t.hedged ? hedged(t, request) : t.timed(request);
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || !isTransient(e)) throw e;
+                t.retries.increment();
+                long delay = backoffMillis << (attempt - 1);
+                log.warn("{} call failed ({}), retry {} of {} in {} ms", target, e.getMessage(), attempt, maxAttempts - 1, delay);
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Like {@link #call} without retries, for clients that already retry on their own.
+     */
+    public <T> T callOnce(String target, Callable<T> request) {
+        Target t = target(target);
+        return t.hedged ? hedged(t, request) : t.timed(request);
+    }
+
+    /**
+     * Whether a failure is worth another attempt: I/O errors and timeouts anywhere in the cause chain, or a
+     * 429 or 5xx response (which Spring AI clients report as {@link TransientAiException}).
+     */
+    public static boolean isTransient(Throwable e) {
+        for (Throwable c = e; c != null; c = c.getCause() == c ? null : c.getCause()) {
+            if (c instanceof IOException || c instanceof TimeoutException || c instanceof TransientAiException) return true;
+            if (c instanceof RestClientResponseException r) return retryableStatus(r.getStatusCode().value());
+            if (c instanceof WebClientResponseException r) return retryableStatus(r.getStatusCode().value());
+        }
+        return false;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static boolean retryableStatus(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    private <T> T hedged(Target t, Callable<T> request) {
+        long delay = t.hedgeDelayMillis();
+        ExecutorCompletionService<T> attempts = new ExecutorCompletionService<>(executor);
+        Future<T> primary = attempts.submit(() -> t.timedChecked(request));
+        Future<T> hedge = null;
+        try {
+            Future<T> first = delay < 0 ? attempts.take() : attempts.poll(delay, TimeUnit.MILLISECONDS);
+            if (first == null) {
+                t.hedges.increment();
+                hedge = attempts.submit(() -> t.timedChecked(request));
+                first = attempts.take();
+            }
+            try {
+                return first.get();
+            } catch (ExecutionException e) {
+                if (hedge == null) throw unwrap(e);
+                // one of the two failed; the other may still answer
+                try {
+                    return attempts.take().get();
+                } catch (ExecutionException second) {
+                    throw unwrap(second);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling " + t.name, e);
+        } finally {
+            primary.cancel(true);
+            if (hedge != null) hedge.cancel(true);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        return cause instanceof RuntimeException r ? r : new IllegalStateException(cause.getMessage(), cause);
+    }
+
+    private Target target(String name) {
+        return targets.computeIfAbsent(name, n -> new Target(n, hedgedTargets.contains(n)));
+    }
+
+    private final class Target {
+        final String name;
+        final boolean hedged;
+        final Timer timer;
+        final Counter retries;
+        final Counter hedges;
+        // recent latencies of completed calls, a ring buffer
+        private final long[] latencies = new long[WINDOW];
+        private int count;
+
+        Target(String name, boolean hedged) {
+            this.name = name;
+            this.hedged = hedged;
+            this.timer = Timer.builder("provider.call").tag("target", name).register(meterRegistry);
+            this.retries = Counter.builder("provider.call.retries").tag("target", name).register(meterRegistry);
+            this.hedges = Counter.builder("provider.call.hedges").tag("target", name).register(meterRegistry);
+        }
+
+        <T> T timed(Callable<T> request) {
+            try {
+                return timedChecked(request);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }
+
+        <T> T timedChecked(Callable<T> request) throws Exception {
+            long start = System.nanoTime();
+            T result = request.call();
+            long elapsed = System.nanoTime() - start;
+            timer.record(elapsed, TimeUnit.NANOSECONDS);
+            record(TimeUnit.NANOSECONDS.toMillis(elapsed));
+            return result;
+        }
+
+        synchronized void record(long millis) {
+            latencies[count++ % WINDOW] = millis;
+        }
+
+        /**
+         * @return the p95 of recent latencies, or -1 while there are too few to tell
+         */
+        synchronized long hedgeDelayMillis() {
+            int n = Math.min(count, WINDOW);
+            if (n < MIN_SAMPLES) return -1;
+            long[] sorted = Arrays.copyOf(latencies, n);
+            Arrays.sort(sorted);
+            return Math.max(minHedgeDelayMillis, sorted[(int) Math.ceil(n * 0.95) - 1]);
+        }
+    }
+}
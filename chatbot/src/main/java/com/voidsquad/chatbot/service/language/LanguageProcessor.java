@@ -15,6 +15,7 @@ import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
 import java.util.Map;
 
@@ -79,15 +80,41 @@ public class LanguageProcessor {
         }
     }
 
+    /**
+     * Sends the prompt once and returns the raw model text as it is generated, without post-processing.
+     */
+    private Flux<String> streamUserMessage(ProcessingRequest request) {
+        log.info("Streaming request of type: " + request.type());
+        String userPrompt = promptManager.buildUserPrompt(request);
+        PromptConfig config = promptManager.getPromptConfig(request.type());
+        return chatClient.prompt()
+                .system(sanitizeInput(config.systemPrompt()))
+                .user(sanitizeInput(userPrompt))
+                .stream();
+    }
+
+    /**
+     * Applies the strategy post-processing to model text collected from one of the stream methods.
+     */
+    public ProcessingResult postProcess(ProcessingType type, String llmOutput) {
+        return promptManager.postProcess(type, llmOutput);
+    }
+
     public ProcessingResult evaluateSimpleReply(String userPrompt, String vectorContext, String userRole) {
-        ProcessingRequest request = new ProcessingRequest(
+        return processUserMessage(simpleReplyRequest(userPrompt, vectorContext, userRole));
+    }
+
+    public Flux<String> streamSimpleReply(String userPrompt, String vectorContext, String userRole) {
+        return streamUserMessage(simpleReplyRequest(userPrompt, vectorContext, userRole));
+    }
+
+    private ProcessingRequest simpleReplyRequest(String userPrompt, String vectorContext, String userRole) {
+        return new ProcessingRequest(
                 userPrompt,
                 vectorContext,
                 ProcessingType.SIMPLE_CHAT,
                 Map.of("userRole", userRole)
         );
-
-        return processUserMessage(request);
     }
 
     public ProcessingResult findHelperToolCalls(String userPrompt, String vectorContext, String userRole) {
@@ -102,13 +129,20 @@ public class LanguageProcessor {
     }
 
     public ProcessingResult finalOutputPrepWithData(String userPrompt, String extractedContext, String userInfo) {
-        ProcessingRequest request = new ProcessingRequest(
+        return processUserMessage(finalOutputRequest(userPrompt, extractedContext, userInfo));
+    }
+
+    public Flux<String> streamFinalOutput(String userPrompt, String extractedContext, String userInfo) {
+        return streamUserMessage(finalOutputRequest(userPrompt, extractedContext, userInfo));
+    }
+
+    private ProcessingRequest finalOutputRequest(String userPrompt, String extractedContext, String userInfo) {
+        return new ProcessingRequest(
                 userPrompt,
                 extractedContext,
                 ProcessingType.FINAL_OUTPUT_GENERATION,
                 Map.of("userInfo", userInfo != null ? userInfo : "GUEST")
         );
-        return processUserMessage(request);
     }
 
     private String callLanguageModel(String systemPrompt, String userPrompt, PromptConfig config) {
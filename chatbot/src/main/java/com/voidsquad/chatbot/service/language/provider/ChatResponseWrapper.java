@@ -1,8 +1,14 @@
 package com.voidsquad.chatbot.service.language.provider;
 
+import reactor.core.publisher.Flux;
 
 public interface ChatResponseWrapper {
     ChatResponseWrapper system(String text);
     ChatResponseWrapper user(String text);
     ChatResponse call();
+
+    /**
+     * Same request as {@link #call()}, answered as chunks of text in the order the model produces them.
+     */
+    Flux<String> stream();
 }
@@ -19,6 +19,7 @@ import org.springframework.ai.vertexai.gemini.VertexAiGeminiChatOptions;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 
@@ -68,6 +69,19 @@ public class GeminiChatClient implements ChatClient {
                 GeminiResponseDecoder.DecodedResponse decoded = GeminiResponseDecoder.decode(response);
                 return new ChatResponse(decoded.content());
             }
+
+            @Override
+            public Flux<String> stream() {
+                String jsonRequest = AiRequestBuilder.create()
+                        .model(modelName)
+                        .stream(true)
+                        .message("system", systemPrompt)
+                        .message("user", userPrompt)
+                        .buildJson();
+                return vertexApiService.streamVertexApiWithApiKey(jsonRequest)
+                        .map(GeminiResponseDecoder::decodeDelta)
+                        .filter(text -> !text.isEmpty());
+            }
         };
     }
 
@@ -1,8 +1,10 @@
 package com.voidsquad.chatbot.service.language.provider.impl;
 
+import com.voidsquad.chatbot.config.ProviderHttpClients;
 import com.voidsquad.chatbot.service.language.provider.ChatClient;
 import com.voidsquad.chatbot.service.language.provider.ChatResponse;
 import com.voidsquad.chatbot.service.language.provider.ChatResponseWrapper;
+import com.voidsquad.chatbot.service.http.ProviderCallExecutor;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.prompt.Prompt;
@@ -13,7 +15,9 @@ import org.springframework.ai.ollama.api.OllamaOptions;
 import org.springframework.ai.ollama.management.ModelManagementOptions;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 
@@ -22,17 +26,31 @@ import java.util.List;
 public class OllamaChatClient implements ChatClient {
 
     private final OllamaChatModel ollamaChatModel;
+    private final ProviderCallExecutor providerCalls;
 
     public OllamaChatClient(
-            @Value("${app.llm.ollama.apiUrl:http://localhost:11434}") String ollamaApiUrl
+            @Value("${app.llm.ollama.apiUrl:http://localhost:11434}") String ollamaApiUrl,
+            ProviderHttpClients providerHttpClients,
+            ProviderCallExecutor providerCalls,
+            @Value("${app.http.retry.max-attempts:3}") int maxAttempts,
+            @Value("${app.http.retry.backoff-ms:200}") long backoffMillis
     ) {
         OllamaApi ollamaApi = OllamaApi.builder()
                 .baseUrl(ollamaApiUrl)
+                .restClientBuilder(providerHttpClients.restClientBuilder())
+                .webClientBuilder(providerHttpClients.webClientBuilder())
                 .build();
+        // the model retries on its own (ten attempts by default), so it gets the shared retry settings here
         this.ollamaChatModel = OllamaChatModel.builder()
                 .defaultOptions(OllamaOptions.builder().model(OllamaModel.LLAMA3).build())
                 .ollamaApi(ollamaApi)
+                .retryTemplate(RetryTemplate.builder()
+                        .maxAttempts(Math.max(1, maxAttempts))
+                        .exponentialBackoff(Math.max(1, backoffMillis), 2, 10_000)
+                        .retryOn(e -> ProviderCallExecutor.isTransient(e))
+                        .build())
                 .build();
+        this.providerCalls = providerCalls;
     }
 
     @Override
@@ -55,15 +73,26 @@ public class OllamaChatClient implements ChatClient {
 
             @Override
             public ChatResponse call() {
-                Prompt prompt = Prompt.builder()
+                org.springframework.ai.chat.model.ChatResponse chatResponse =
+                        providerCalls.callOnce("ollama", () -> ollamaChatModel.call(buildPrompt()));
+                return new ChatResponse(chatResponse.getResult().getOutput().getText());
+            }
+
+            @Override
+            public Flux<String> stream() {
+                return ollamaChatModel.stream(buildPrompt())
+                        .mapNotNull(chunk -> chunk.getResult() == null ? null : chunk.getResult().getOutput().getText())
+                        .filter(text -> !text.isEmpty());
+            }
+
+            private Prompt buildPrompt() {
+                return Prompt.builder()
                         .messages(
                                 List.of(
                                         SystemMessage.builder().text(systemPrompt).build(),
                                         UserMessage.builder().text(userPrompt).build()
                                 )
                         ).build();
-                org.springframework.ai.chat.model.ChatResponse chatResponse = ollamaChatModel.call(prompt);
-                return new ChatResponse(chatResponse.getResult().getOutput().getText());
             }
         };
     }
@@ -5,6 +5,7 @@ import java.util.*;
 
 public class AiRequestBuilder {
     private String model;
+    private boolean stream;
     private final List<Map<String, String>> messages = new ArrayList<>();
 
     public static AiRequestBuilder create() {
@@ -16,6 +17,14 @@ public class AiRequestBuilder {
         return this;
     }
 
+    /**
+     * Ask for the answer as server-sent events of partial deltas instead of one response.
+     */
+    public AiRequestBuilder stream(boolean stream) {
+        this.stream = stream;
+        return this;
+    }
+
     public AiRequestBuilder message(String role, String content) {
         Map<String, String> msg = new HashMap<>();
         msg.put("role", role);
@@ -29,6 +38,7 @@ public class AiRequestBuilder {
             Map<String, Object> request = new HashMap<>();
             request.put("model", model);
             request.put("messages", messages);
+            if (stream) request.put("stream", true);
             return new ObjectMapper().writeValueAsString(request);
         } catch (Exception e) {
             throw new RuntimeException("Failed to build AI request JSON", e);
@@ -39,6 +49,7 @@ public class AiRequestBuilder {
         Map<String, Object> request = new HashMap<>();
         request.put("model", model);
         request.put("messages", messages);
+        if (stream) request.put("stream", true);
         return request;
     }
 }
@@ -23,5 +23,18 @@ public class GeminiResponseDecoder {
         }
     }
 
+    /**
+     * Decodes one event of a streamed completion.
+     * @return the text added by this event, empty for events that carry none (role or finish markers)
+     */
+    public static String decodeDelta(String jsonChunk) {
+        try {
+            return mapper.readTree(jsonChunk).path("choices").path(0)
+                    .path("delta").path("content").asText("");
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to decode Gemini stream chunk", e);
+        }
+    }
+
     public record DecodedResponse(String content, int completionTokens, int promptTokens) {}
 }
\ No newline at end of file
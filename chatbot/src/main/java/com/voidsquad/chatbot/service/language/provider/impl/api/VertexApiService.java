@@ -1,33 +1,57 @@
 package com.voidsquad.chatbot.service.language.provider.impl.api;
 
+import com.voidsquad.chatbot.config.ProviderHttpClients;
+import com.voidsquad.chatbot.service.http.ProviderCallExecutor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class VertexApiService {
 
+    static final String TARGET = "gemini";
+
     private final WebClient webClient;
+    private final ProviderCallExecutor providerCalls;
+    private final int maxAttempts;
+    private final long backoffMillis;
 
     private final String apikey;
     private final String model;
 
     public VertexApiService(
             @Value("${app.llm.gemini.model}") String model,
-            @Value("${app.llm.gemini.apikey}") String apikey
+            @Value("${app.llm.gemini.apikey}") String apikey,
+            ProviderHttpClients providerHttpClients,
+            ProviderCallExecutor providerCalls,
+            @Value("${app.http.retry.max-attempts:3}") int maxAttempts,
+            @Value("${app.http.retry.backoff-ms:200}") long backoffMillis
     ) {
         this.apikey=apikey;
         this.model=model;
+        this.providerCalls = providerCalls;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = backoffMillis;
 
-        this.webClient = WebClient.builder()
+        this.webClient = providerHttpClients.webClientBuilder()
 //                .baseUrl("https://generativelanguage.googleapis.com/v1beta/models")
                 .baseUrl("https://generativelanguage.googleapis.com/v1beta/openai/chat/completions")
                 .build();
     }
 
     public String callVertexApiWithApiKey(String jsonBody) {
+        return providerCalls.call(TARGET, () -> post(jsonBody));
+    }
 
+    private String post(String jsonBody) {
         var req = webClient.post()
 //                .uri("/{model}:generateContent", this.model)
 //                .header("X-goog-api-key", this.apikey)
@@ -39,4 +63,26 @@ public class VertexApiService {
                 .block();
         return req;
     }
-}
\ No newline at end of file
+
+    /**
+     * Sends a request built with {@code stream: true} and returns the JSON payload of each event, up to the
+     * closing {@code [DONE]} marker. Transient failures are retried only until the first event arrives, so a
+     * retry never repeats text the caller has already seen.
+     */
+    public Flux<String> streamVertexApiWithApiKey(String jsonBody) {
+        AtomicBoolean started = new AtomicBoolean();
+        return webClient.post()
+                .header("Authorization", "Bearer " + this.apikey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(jsonBody)
+                .retrieve()
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {})
+                .doOnNext(event -> started.set(true))
+                .retryWhen(Retry.backoff(maxAttempts - 1, Duration.ofMillis(Math.max(1, backoffMillis)))
+                        .filter(e -> !started.get() && ProviderCallExecutor.isTransient(e))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .mapNotNull(ServerSentEvent::data)
+                .takeWhile(data -> !"[DONE]".equals(data.trim()));
+    }
+}
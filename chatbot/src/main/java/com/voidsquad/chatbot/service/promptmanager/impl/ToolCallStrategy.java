@@ -41,14 +41,16 @@ public class ToolCallStrategy implements PromptStrategy {
                         === RULES ===
                         3. If additional context-specific tools exist, they will be provided in the context.
                         4. Suggest only relevant tools. If none apply, return an empty tool_calls array.
-                        5. Follow tool dependency order when needed.
+                        5. Tools run at the same time unless a call lists in "depends_on" the ids of the calls whose results it needs.
                         6. Output JSON only and do not include any explanations outside the JSON or formatting keywords.
                         
                         {
                           "tool_calls": [
                             {
+                              "id": "short unique id",
                               "tool_name": "string",
                               "parameters": {},
+                              "depends_on": [],
                               "explanation": "Short continuous-tense explanation."
                             }
                           ]
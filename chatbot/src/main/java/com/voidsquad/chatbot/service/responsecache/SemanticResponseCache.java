@@ -0,0 +1,145 @@
+package com.voidsquad.chatbot.service.responsecache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Answers to earlier questions, looked up by meaning instead of exact text: a question whose embedding has a
+ * cosine similarity of at least {@code similarity-threshold} with a cached one, asked by the same role,
+ * gets the cached answer.
+ * <p>
+ * Entries are evicted least-recently-used beyond {@code max-entries} and expire after {@code ttl-ms}.
+ * {@link #invalidate()} drops everything when the static info the answers were written from changes. Answers
+ * computed while an invalidation happened are not stored: callers take {@link #version()} before retrieval
+ * and pass it to {@link #put}. Lookups scan every entry, which at a few thousand 384-dim entries costs well
+ * under a millisecond.
+ */
+@Component
+public class SemanticResponseCache {
+
+    private final boolean enabled;
+    private final double threshold;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+    private long nextId;
+    private long version;
+
+    @Autowired
+    public SemanticResponseCache(@Value("${app.response-cache.enabled:true}") boolean enabled,
+                                 @Value("${app.response-cache.similarity-threshold:0.95}") double threshold,
+                                 @Value("${app.response-cache.max-entries:2000}") int maxEntries,
+                                 @Value("${app.response-cache.ttl-ms:3600000}") long ttlMillis,
+                                 MeterRegistry meterRegistry) {
+        this(enabled, threshold, maxEntries, ttlMillis, meterRegistry, System::currentTimeMillis);
+    }
+
+    SemanticResponseCache(boolean enabled, double threshold, int maxEntries, long ttlMillis,
+                          MeterRegistry meterRegistry, LongSupplier clock) {
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.hits = Counter.builder("response.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("response.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.invalidations = Counter.builder("response.cache.invalidations").register(meterRegistry);
+        meterRegistry.gauge("response.cache.size", this, SemanticResponseCache::size);
+    }
+
+    /**
+     * @return the answer to the most similar cached question from the same role, or null on a miss
+     */
+    public synchronized String get(String role, float[] embedding) {
+        if (!enabled) return null;
+        float[] query = unit(embedding);
+        if (query == null) return null;
+
+        long now = clock.getAsLong();
+        Long bestId = null;
+        double bestScore = threshold;
+        for (Iterator<Map.Entry<Long, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Long, Entry> e = it.next();
+            Entry entry = e.getValue();
+            if (now - entry.createdAt() > ttlMillis) {
+                it.remove();
+                continue;
+            }
+            if (!entry.role().equals(role) || entry.unit().length != query.length) continue;
+            double score = dot(query, entry.unit());
+            if (score >= bestScore) {
+                bestScore = score;
+                bestId = e.getKey();
+            }
+        }
+        if (bestId == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entries.get(bestId).answer(); // get() marks it recently used
+    }
+
+    /**
+     * Caches an answer unless the static info changed since {@code kbVersion} was read.
+     */
+    public synchronized void put(String role, float[] embedding, String answer, long kbVersion) {
+        if (!enabled || kbVersion != version || role == null || answer == null || answer.isBlank()) return;
+        float[] unit = unit(embedding);
+        if (unit == null) return;
+        entries.put(nextId++, new Entry(role, unit, answer, clock.getAsLong()));
+        if (entries.size() > maxEntries) {
+            Iterator<Long> eldest = entries.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Version of the static info the cached answers were written from; read it before retrieving context.
+     */
+    public synchronized long version() {
+        return version;
+    }
+
+    public synchronized void invalidate() {
+        version++;
+        if (!entries.isEmpty()) invalidations.increment();
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static float[] unit(float[] v) {
+        if (v == null || v.length == 0) return null;
+        double norm = 0;
+        for (float x : v) norm += x * x;
+        if (norm == 0) return null;
+        float scale = (float) (1 / Math.sqrt(norm));
+        float[] unit = new float[v.length];
+        for (int i = 0; i < v.length; i++) unit[i] = v[i] * scale;
+        return unit;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) sum += a[i] * b[i];
+        return sum;
+    }
+
+    private record Entry(String role, float[] unit, String answer, long createdAt) {}
+}
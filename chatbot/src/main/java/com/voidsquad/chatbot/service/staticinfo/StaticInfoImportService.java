@@ -0,0 +1,263 @@
+package com.voidsquad.chatbot.service.staticinfo;
+
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import com.voidsquad.chatbot.converter.PgVector;
+import com.voidsquad.chatbot.dto.StaticInfoImportReport;
+import com.voidsquad.chatbot.dto.StaticInfoImportReport.RowFailure;
+import com.voidsquad.chatbot.entities.StaticInfo;
+import com.voidsquad.chatbot.service.embedding.EmbeddingService;
+import com.voidsquad.chatbot.service.vectorindex.VectorIndexService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.SqlProvider;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports static info from a topic/description CSV without holding the file in memory. Rows are read as a
+ * stream and grouped into batches; each batch is embedded with one call to the embedding endpoint and
+ * written with one multi-row INSERT. Up to {@code parallelism} batches are in flight at a time, and reading
+ * waits for a free slot so a large file never queues up ahead of the model.
+ * <p>
+ * A failing batch falls back to row-by-row embedding and inserts, so one bad row only fails itself.
+ */
+@Service
+public class StaticInfoImportService {
+    private static final Logger log = LoggerFactory.getLogger(StaticInfoImportService.class);
+    private static final String INSERT = "INSERT INTO static_info_vector_db (id, topic, description, embedding) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?)";
+
+    private final EmbeddingService embeddingService;
+    private final JdbcTemplate jdbcTemplate;
+    private final VectorIndexService vectorIndexService;
+    private final int batchSize;
+    private final int parallelism;
+
+    public StaticInfoImportService(EmbeddingService embeddingService,
+                                   JdbcTemplate jdbcTemplate,
+                                   VectorIndexService vectorIndexService,
+                                   @Value("${app.static-info.import.batch-size:32}") int batchSize,
+                                   @Value("${app.static-info.import.parallelism:4}") int parallelism) {
+        this.embeddingService = embeddingService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.vectorIndexService = vectorIndexService;
+        this.batchSize = Math.max(1, batchSize);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the CSV has no topic or description column
+     */
+    public StaticInfoImportReport importCsv(InputStream csv) throws IOException, CsvValidationException {
+        Progress progress = new Progress();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("static-info-import-"));
+        Semaphore slots = new Semaphore(parallelism);
+        List<Future<?>> batches = new ArrayList<>();
+
+        try (CSVReader reader = new CSVReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            String[] header = reader.readNext();
+            if (header == null) return progress.report();
+            int topicIndex = -1, descriptionIndex = -1;
+            for (int i = 0; i < header.length; i++) {
+                if (header[i].trim().equalsIgnoreCase("topic")) topicIndex = i;
+                if (header[i].trim().equalsIgnoreCase("description")) descriptionIndex = i;
+            }
+            if (topicIndex == -1 || descriptionIndex == -1) {
+                throw new IllegalArgumentException("CSV missing required headers 'topic' or 'description'");
+            }
+
+            List<Row> batch = new ArrayList<>(batchSize);
+            String[] record;
+            int rowNumber = 1;
+            while ((record = reader.readNext()) != null) {
+                rowNumber++;
+                String topic = record.length > topicIndex ? record[topicIndex].trim() : "";
+                String description = record.length > descriptionIndex ? record[descriptionIndex].trim() : "";
+                if (topic.isEmpty() || description.isEmpty()) {
+                    progress.skipped.add(rowNumber);
+                    continue;
+                }
+                batch.add(new Row(rowNumber, topic, description));
+                if (batch.size() == batchSize) {
+                    batches.add(submit(pool, slots, batch, progress));
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                batches.add(submit(pool, slots, batch, progress));
+            }
+            for (Future<?> f : batches) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Static info import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Static info import failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        StaticInfoImportReport report = progress.report();
+        log.info("Static info import finished: {} imported, {} skipped, {} failed",
+                report.getImported(), report.getSkippedRows().size(), report.getFailures().size());
+        return report;
+    }
+
+    private Future<?> submit(ExecutorService pool, Semaphore slots, List<Row> batch, Progress progress)
+            throws InterruptedException {
+        slots.acquire();
+        try {
+            return pool.submit(() -> {
+                try {
+                    importBatch(batch, progress);
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    private void importBatch(List<Row> batch, Progress progress) {
+        List<float[]> embeddings = embed(batch, progress);
+        List<Row> rows = new ArrayList<>(batch.size());
+        List<float[]> vectors = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (embeddings.get(i) == null) continue;
+            rows.add(batch.get(i));
+            vectors.add(embeddings.get(i));
+        }
+        if (rows.isEmpty()) return;
+
+        try {
+            insert(rows, vectors);
+            progress.imported.addAndGet(rows.size());
+        } catch (Exception e) {
+            log.warn("Multi-row insert of {} rows failed, retrying row by row: {}", rows.size(), e.getMessage());
+            for (int i = 0; i < rows.size(); i++) {
+                try {
+                    insert(List.of(rows.get(i)), List.of(vectors.get(i)));
+                    progress.imported.incrementAndGet();
+                } catch (Exception rowError) {
+                    progress.fail(rows.get(i), "insert failed: " + rowError.getMessage());
+                }
+            }
+        }
+        log.info("Static info import: {} rows imported so far", progress.imported.get());
+    }
+
+    // One call for the whole batch; if it fails, each row on its own. Rows that cannot be embedded are null
+    private List<float[]> embed(List<Row> batch, Progress progress) {
+        try {
+            return embeddingService.generateEmbeddings(batch.stream().map(Row::text).toList());
+        } catch (Exception e) {
+            log.warn("Embedding a batch of {} rows failed, retrying row by row: {}", batch.size(), e.getMessage());
+        }
+        List<float[]> embeddings = new ArrayList<>(batch.size());
+        for (Row row : batch) {
+            try {
+                embeddings.add(embeddingService.generateEmbedding(row.text()));
+            } catch (Exception e) {
+                progress.fail(row, "embedding failed: " + e.getMessage());
+                embeddings.add(null);
+            }
+        }
+        return embeddings;
+    }
+
+    private void insert(List<Row> rows, List<float[]> embeddings) {
+        StringBuilder sql = new StringBuilder(INSERT);
+        Object[] args = new Object[rows.size() * 4];
+        List<StaticInfo> inserted = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            StaticInfo info = new StaticInfo(UUID.randomUUID(), rows.get(i).topic(), rows.get(i).description(), embeddings.get(i));
+            inserted.add(info);
+            if (i > 0) sql.append(", ");
+            sql.append(ROW);
+            args[i * 4] = info.getId();
+            args[i * 4 + 1] = info.getTopic();
+            args[i * 4 + 2] = info.getDescription();
+            args[i * 4 + 3] = new PgVector(info.getEmbedding());
+        }
+        jdbcTemplate.update(new InsertStatement(sql.toString(), args));
+        vectorIndexService.indexAllStaticInfo(inserted);
+    }
+
+    // Embeddings go over the wire in pgvector's binary format rather than as decimal text
+    record InsertStatement(String sql, Object[] args) implements PreparedStatementCreator, SqlProvider {
+        @Override
+        public PreparedStatement createPreparedStatement(Connection con) throws SQLException {
+            PgVector.enableBinarySend(con);
+            PreparedStatement ps = con.prepareStatement(sql);
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            return ps;
+        }
+
+        @Override
+        public String getSql() {
+            return sql;
+        }
+    }
+
+    private record Row(int number, String topic, String description) {
+        // same text the single-row addStaticInfo embeds
+        String text() {
+            return topic + ": " + description;
+        }
+    }
+
+    private static final class Progress {
+        private final AtomicInteger imported = new AtomicInteger();
+        private final List<Integer> skipped = Collections.synchronizedList(new ArrayList<>());
+        private final List<RowFailure> failures = Collections.synchronizedList(new ArrayList<>());
+
+        private void fail(Row row, String reason) {
+            log.warn("Static info row {} ('{}') not imported: {}", row.number(), row.topic(), reason);
+            failures.add(new RowFailure(row.number(), row.topic(), reason));
+        }
+
+        private StaticInfoImportReport report() {
+            List<RowFailure> sortedFailures;
+            synchronized (failures) {
+                sortedFailures = new ArrayList<>(failures);
+            }
+            sortedFailures.sort((a, b) -> Integer.compare(a.getRow(), b.getRow()));
+            List<Integer> skippedRows;
+            synchronized (skipped) {
+                skippedRows = new ArrayList<>(skipped);
+            }
+            return StaticInfoImportReport.builder()
+                    .imported(imported.get())
+                    .skippedRows(skippedRows)
+                    .failures(sortedFailures)
+                    .build();
+        }
+    }
+}
@@ -2,6 +2,9 @@ package com.voidsquad.chatbot.service.tool;
 
 import com.voidsquad.chatbot.service.auth.AuthInfo;
 
+import java.time.Duration;
+import java.util.Optional;
+
 /**
  * Generic tool contract. Implementations should be stateless and thread-safe.
  */
@@ -15,4 +18,11 @@ public interface Tool {
      * Execute the tool with the provided request.
      */
     ToolCallResult execute(ToolCallRequest request);
+
+    /**
+     * How long one call may run before it is cancelled; empty uses {@code app.tools.timeout-ms}.
+     */
+    default Optional<Duration> timeout() {
+        return Optional.empty();
+    }
 }
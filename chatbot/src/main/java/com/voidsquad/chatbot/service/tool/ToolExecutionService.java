@@ -2,58 +2,199 @@ package com.voidsquad.chatbot.service.tool;
 
 import com.voidsquad.chatbot.model.ToolCall;
 import com.voidsquad.chatbot.service.auth.AuthInfo;
-import com.voidsquad.chatbot.service.tool.Tool;
-import com.voidsquad.chatbot.service.tool.ToolCallRequest;
-import com.voidsquad.chatbot.service.tool.ToolCallResult;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Orchestrates execution of tools based on decoded `ToolCall` instructions.
+ * <p>
+ * Each call runs on its own virtual thread, so independent tools overlap and a turn costs about as much as
+ * its slowest tool instead of the sum. A call that lists others in {@code depends_on} starts once they have
+ * finished and gets their results under the {@code dependencyResults} parameter; if one of them failed it
+ * fails without running. Each call is cancelled after its tool's timeout (default {@code app.tools.timeout-ms}).
+ * Results come back in the order of the calls whatever order they finish in.
  */
 @Service
 public class ToolExecutionService {
     private static final Logger log = LoggerFactory.getLogger(ToolExecutionService.class);
+    private static final long DEFAULT_TIMEOUT_MS = 10_000;
 
     private final ToolRegistry registry;
+    private final Duration defaultTimeout;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("tool-", 0).factory());
 
     public ToolExecutionService(ToolRegistry registry) {
+        this(registry, DEFAULT_TIMEOUT_MS);
+    }
+
+    @Autowired
+    public ToolExecutionService(ToolRegistry registry, @Value("${app.tools.timeout-ms:10000}") long timeoutMillis) {
         this.registry = registry;
+        this.defaultTimeout = Duration.ofMillis(timeoutMillis);
     }
 
     public List<ToolCallResult> executeAll(List<ToolCall> calls, String userInput ,AuthInfo userInfo) {
         List<ToolCallResult> results = new ArrayList<>();
         if (calls == null) return results;
+        List<ToolCall> plan = calls.stream().filter(c -> c != null).toList();
+        if (plan.isEmpty()) return results;
+
+        List<List<Integer>> dependencies = resolveDependencies(plan);
+        List<CompletableFuture<ToolCallResult>> pending = new ArrayList<>(plan.size());
+        for (int i = 0; i < plan.size(); i++) {
+            pending.add(new CompletableFuture<>());
+        }
+        List<Future<?>> running = new ArrayList<>(plan.size());
+        for (int i = 0; i < plan.size(); i++) {
+            int index = i;
+            running.add(executor.submit(() -> pending.get(index).complete(
+                    run(plan.get(index), dependencies.get(index), plan, pending, userInput, userInfo))));
+        }
 
-        for (ToolCall c : calls) {
-            if (c == null) continue;
-            String toolName = c.getToolName();
-            var opt = registry.find(toolName);
-            if (opt.isEmpty()) {
-                String msg = "Tool not found: " + toolName;
-                log.warn(msg);
-                results.add(ToolCallResult.failure(msg,toolName));
-                continue;
+        try {
+            for (CompletableFuture<ToolCallResult> result : pending) {
+                results.add(result.get());
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running.forEach(f -> f.cancel(true));
+            throw new IllegalStateException("Interrupted while waiting for tool calls", e);
+        } catch (ExecutionException e) {
+            // run() turns every failure into a result, so this is a bug rather than a tool error
+            throw new IllegalStateException("Tool orchestration failed", e.getCause());
+        }
+        return results;
+    }
 
-            c.getParameters().put("userInput",userInput);
-            c.getParameters().put("userInfo",userInfo);
-
-            Tool t = opt.get();
-            try {
-                ToolCallRequest req = new ToolCallRequest(c.getParameters());
-                ToolCallResult res = t.execute(req);
-                results.add(res);
-            } catch (Exception ex) {
-                log.error("Tool '{}' execution failed: {}", toolName, ex.toString());
-                results.add(ToolCallResult.failure("execution error: " + ex.getMessage(), toolName));
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private ToolCallResult run(ToolCall c, List<Integer> dependsOn, List<ToolCall> plan,
+                               List<CompletableFuture<ToolCallResult>> pending, String userInput, AuthInfo userInfo) {
+        String toolName = c.getToolName();
+        var opt = registry.find(toolName);
+        if (opt.isEmpty()) {
+            String msg = "Tool not found: " + toolName;
+            log.warn(msg);
+            return ToolCallResult.failure(msg,toolName);
+        }
+        if (dependsOn == null) {
+            log.warn("Tool '{}' is part of a dependency cycle", toolName);
+            return ToolCallResult.failure("dependency cycle", toolName);
+        }
+
+        Map<String, Object> parameters = c.getParameters() == null ? new HashMap<>() : new HashMap<>(c.getParameters());
+        parameters.put("userInput",userInput);
+        parameters.put("userInfo",userInfo);
+        if (!dependsOn.isEmpty()) {
+            Map<String, Object> dependencyResults = new LinkedHashMap<>();
+            for (int d : dependsOn) {
+                ToolCallResult dependency = pending.get(d).join();
+                String key = keyOf(plan.get(d));
+                if (!dependency.isSuccess()) {
+                    return ToolCallResult.failure("dependency '" + key + "' failed: " + dependency.getMessage(), toolName);
+                }
+                dependencyResults.put(key, dependency.getResult());
             }
+            parameters.put("dependencyResults", dependencyResults);
         }
 
-        return results;
+        Tool t = opt.get();
+        Duration timeout = t.timeout().orElse(defaultTimeout);
+        Future<ToolCallResult> execution = executor.submit(() -> t.execute(new ToolCallRequest(parameters)));
+        try {
+            ToolCallResult res = execution.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return res != null ? res : ToolCallResult.failure("no result", toolName);
+        } catch (TimeoutException ex) {
+            execution.cancel(true);
+            log.warn("Tool '{}' timed out after {} ms", toolName, timeout.toMillis());
+            return ToolCallResult.failure("timed out after " + timeout.toMillis() + " ms", toolName);
+        } catch (InterruptedException ex) {
+            execution.cancel(true);
+            Thread.currentThread().interrupt();
+            return ToolCallResult.failure("cancelled", toolName);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            log.error("Tool '{}' execution failed: {}", toolName, cause.toString());
+            return ToolCallResult.failure("execution error: " + cause.getMessage(), toolName);
+        }
+    }
+
+    /**
+     * Maps each call's {@code depends_on} entries to the indexes of the calls they name, by id first and then
+     * by tool name. Unknown names and self references are ignored; calls on or behind a cycle get null.
+     */
+    private static List<List<Integer>> resolveDependencies(List<ToolCall> plan) {
+        Map<String, List<Integer>> byId = new HashMap<>();
+        Map<String, List<Integer>> byName = new HashMap<>();
+        for (int i = 0; i < plan.size(); i++) {
+            ToolCall c = plan.get(i);
+            if (c.getId() != null) byId.computeIfAbsent(c.getId(), k -> new ArrayList<>()).add(i);
+            if (c.getToolName() != null) byName.computeIfAbsent(c.getToolName(), k -> new ArrayList<>()).add(i);
+        }
+
+        List<List<Integer>> dependencies = new ArrayList<>(plan.size());
+        for (int i = 0; i < plan.size(); i++) {
+            List<Integer> resolved = new ArrayList<>();
+            for (String ref : plan.get(i).getDependsOn()) {
+                List<Integer> targets = Optional.ofNullable(byId.get(ref)).orElse(byName.get(ref));
+                if (targets == null) {
+                    log.warn("Tool call '{}' depends on unknown call '{}', ignoring", keyOf(plan.get(i)), ref);
+                    continue;
+                }
+                for (int t : targets) {
+                    if (t != i && !resolved.contains(t)) resolved.add(t);
+                }
+            }
+            dependencies.add(resolved);
+        }
+
+        // depth-first search; anything that reaches a cycle would wait forever, so it fails instead
+        int[] state = new int[plan.size()]; // 0 unvisited, 1 in progress, 2 runnable, 3 blocked
+        for (int i = 0; i < plan.size(); i++) {
+            visit(i, dependencies, state);
+        }
+        for (int i = 0; i < plan.size(); i++) {
+            if (state[i] == 3) dependencies.set(i, null);
+        }
+        return dependencies;
+    }
+
+    private static boolean visit(int i, List<List<Integer>> dependencies, int[] state) {
+        if (state[i] == 2) return true;
+        if (state[i] != 0) return false;
+        state[i] = 1;
+        boolean runnable = true;
+        for (int d : dependencies.get(i)) {
+            if (!visit(d, dependencies, state)) runnable = false;
+        }
+        state[i] = runnable ? 2 : 3;
+        return runnable;
+    }
+
+    private static String keyOf(ToolCall c) {
+        return c.getId() != null ? c.getId() : c.getToolName();
     }
 }
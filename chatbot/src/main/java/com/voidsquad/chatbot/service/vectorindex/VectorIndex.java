@@ -0,0 +1,234 @@
+package com.voidsquad.chatbot.service.vectorindex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Exact nearest-neighbour index over embeddings, ordered by cosine distance like pgvector's {@code <=>}.
+ * <p>
+ * Vectors are normalised once on insert and kept in one contiguous array, so a search is a single pass of
+ * dot products over memory the CPU can stream. At the size of the static info and workflow step tables a
+ * flat scan is well under a millisecond and, unlike an approximate index, never misses a neighbour.
+ * <p>
+ * Searches read an immutable snapshot without locking; writes copy the snapshot once per call, so a batch
+ * of rows should go through {@link #upsertAll} rather than one {@link #upsert} each.
+ */
+public class VectorIndex<T> {
+
+    private final int dimensions;
+    private final Function<T, UUID> idOf;
+    private final Function<T, float[]> embeddingOf;
+    private volatile Snapshot<T> snapshot;
+    // Upserts made while a reload is reading the table, replayed over what it read; guarded by this
+    private final Map<UUID, Write<T>> writesDuringLoad = new HashMap<>();
+    private long writeSequence;
+    private int loadsInProgress;
+
+    public VectorIndex(int dimensions, Function<T, UUID> idOf, Function<T, float[]> embeddingOf) {
+        this.dimensions = dimensions;
+        this.idOf = idOf;
+        this.embeddingOf = embeddingOf;
+        this.snapshot = new Snapshot<>(List.of(), new float[0], Map.of());
+    }
+
+    /**
+     * Replaces the whole index. Items without an id or with an embedding of the wrong size are left out.
+     * @return the number of items indexed
+     */
+    public synchronized int replaceAll(Collection<T> items) {
+        List<T> kept = new ArrayList<>(items.size());
+        for (T item : items) {
+            if (indexable(item)) kept.add(item);
+        }
+        float[] vectors = new float[kept.size() * dimensions];
+        Map<UUID, Integer> positions = new HashMap<>();
+        for (int i = 0; i < kept.size(); i++) {
+            T item = kept.get(i);
+            Integer previous = positions.put(idOf.apply(item), i);
+            if (previous != null) kept.set(previous, null);
+            normaliseInto(embeddingOf.apply(item), vectors, i * dimensions);
+        }
+        snapshot = compact(kept, vectors);
+        return snapshot.items.size();
+    }
+
+    /**
+     * Replaces the whole index with what {@code loader} reads, keeping items upserted after the read began.
+     * A row saved while the table is being read may be missing from the result, and replacing the index
+     * with it as-is would hide that row until the next reload.
+     * @return what the loader returned
+     */
+    public <C extends Collection<T>> C reload(Supplier<C> loader) {
+        long loadStart;
+        synchronized (this) {
+            loadsInProgress++;
+            loadStart = writeSequence;
+        }
+        try {
+            C items = loader.get();
+            synchronized (this) {
+                List<T> merged = new ArrayList<>(items);
+                for (Write<T> write : writesDuringLoad.values()) {
+                    if (write.sequence > loadStart) merged.add(write.item);
+                }
+                replaceAll(merged);
+            }
+            return items;
+        } finally {
+            synchronized (this) {
+                if (--loadsInProgress == 0) writesDuringLoad.clear();
+            }
+        }
+    }
+
+    /**
+     * Adds the item, or replaces the one with the same id.
+     * @return false if the item has no id or its embedding is the wrong size
+     */
+    public boolean upsert(T item) {
+        return upsertAll(Collections.singletonList(item)) == 1;
+    }
+
+    /**
+     * Adds the items, replacing any with the same id, with a single copy of the index. Items without an id
+     * or with an embedding of the wrong size are left out.
+     * @return the number of items indexed
+     */
+    public synchronized int upsertAll(Collection<T> items) {
+        Snapshot<T> current = snapshot;
+        List<T> merged = new ArrayList<>(current.items.size() + items.size());
+        merged.addAll(current.items);
+        Map<UUID, Integer> positions = new HashMap<>(current.positions);
+        List<T> accepted = new ArrayList<>(items.size());
+        for (T item : items) {
+            if (!indexable(item)) continue;
+            UUID id = idOf.apply(item);
+            Integer position = positions.putIfAbsent(id, merged.size());
+            if (position == null) merged.add(item);
+            else merged.set(position, item);
+            accepted.add(item);
+            writeSequence++;
+            if (loadsInProgress > 0) writesDuringLoad.put(id, new Write<>(item, writeSequence));
+        }
+        if (accepted.isEmpty()) return 0;
+
+        float[] vectors = Arrays.copyOf(current.vectors, merged.size() * dimensions);
+        for (T item : accepted) {
+            normaliseInto(embeddingOf.apply(item), vectors, positions.get(idOf.apply(item)) * dimensions);
+        }
+        snapshot = new Snapshot<>(List.copyOf(merged), vectors, positions);
+        return accepted.size();
+    }
+
+    /**
+     * @return up to {@code limit} items, nearest first; ties keep insertion order
+     */
+    public List<T> search(float[] query, int limit) {
+        Snapshot<T> current = snapshot;
+        int n = current.items.size();
+        if (limit <= 0 || n == 0) return List.of();
+        if (query == null || query.length != dimensions) {
+            throw new IllegalArgumentException("expected a " + dimensions + "-dim query, got "
+                    + (query == null ? "null" : query.length));
+        }
+
+        float[] q = new float[dimensions];
+        normaliseInto(query, q, 0);
+        int k = Math.min(limit, n);
+        // best k so far, sorted by descending similarity
+        int[] best = new int[k];
+        float[] bestScores = new float[k];
+        int found = 0;
+        float[] vectors = current.vectors;
+        for (int i = 0; i < n; i++) {
+            float score = dot(q, vectors, i * dimensions);
+            if (found == k && score <= bestScores[k - 1]) continue;
+            int at = found < k ? found++ : k - 1;
+            while (at > 0 && bestScores[at - 1] < score) {
+                best[at] = best[at - 1];
+                bestScores[at] = bestScores[at - 1];
+                at--;
+            }
+            best[at] = i;
+            bestScores[at] = score;
+        }
+
+        List<T> result = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            result.add(current.items.get(best[i]));
+        }
+        return result;
+    }
+
+    public int size() {
+        return snapshot.items.size();
+    }
+
+    private boolean indexable(T item) {
+        if (item == null || idOf.apply(item) == null) return false;
+        float[] embedding = embeddingOf.apply(item);
+        return embedding != null && embedding.length == dimensions;
+    }
+
+    // Four independent sums let the JIT keep several multiply-adds in flight instead of one serial chain
+    private float dot(float[] q, float[] vectors, int offset) {
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int i = 0;
+        for (; i + 3 < dimensions; i += 4) {
+            s0 += q[i] * vectors[offset + i];
+            s1 += q[i + 1] * vectors[offset + i + 1];
+            s2 += q[i + 2] * vectors[offset + i + 2];
+            s3 += q[i + 3] * vectors[offset + i + 3];
+        }
+        for (; i < dimensions; i++) {
+            s0 += q[i] * vectors[offset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    // A zero vector stays zero and scores 0 against everything
+    private void normaliseInto(float[] source, float[] target, int offset) {
+        double sumOfSquares = 0;
+        for (float v : source) {
+            sumOfSquares += (double) v * v;
+        }
+        float scale = sumOfSquares == 0 ? 0f : (float) (1 / Math.sqrt(sumOfSquares));
+        for (int i = 0; i < dimensions; i++) {
+            target[offset + i] = source[i] * scale;
+        }
+    }
+
+    // Drops the slots of items that a later duplicate id replaced
+    private Snapshot<T> compact(List<T> items, float[] vectors) {
+        List<T> kept = new ArrayList<>(items.size());
+        float[] packed = new float[vectors.length];
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i) == null) continue;
+            System.arraycopy(vectors, i * dimensions, packed, kept.size() * dimensions, dimensions);
+            kept.add(items.get(i));
+        }
+        return new Snapshot<>(List.copyOf(kept), Arrays.copyOf(packed, kept.size() * dimensions), positionsOf(kept));
+    }
+
+    private Map<UUID, Integer> positionsOf(List<T> items) {
+        Map<UUID, Integer> positions = new HashMap<>(items.size() * 2);
+        for (int i = 0; i < items.size(); i++) {
+            positions.put(idOf.apply(items.get(i)), i);
+        }
+        return positions;
+    }
+
+    private record Snapshot<T>(List<T> items, float[] vectors, Map<UUID, Integer> positions) {
+    }
+
+    private record Write<T>(T item, long sequence) {
+    }
+}
@@ -0,0 +1,153 @@
+package com.voidsquad.chatbot.service.vectorindex;
+
+import com.voidsquad.chatbot.entities.StaticInfo;
+import com.voidsquad.chatbot.entities.WorkflowStep;
+import com.voidsquad.chatbot.repository.StaticInfoRepository;
+import com.voidsquad.chatbot.repository.WorkflowStepRepository;
+import com.voidsquad.chatbot.service.responsecache.SemanticResponseCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Serves similarity searches over static info and workflow steps from in-memory {@link VectorIndex}es.
+ * <p>
+ * Both tables are loaded once the application is ready and reloaded every
+ * {@code app.vector-index.refresh-interval-ms} to pick up rows written by other replicas; rows written
+ * through this instance are added as soon as they are saved, and survive a reload that read the table before
+ * they were. Until an index has loaded, or when
+ * {@code app.vector-index.enabled} is false, searches fall back to the pgvector queries.
+ * <p>
+ * Static info is the knowledge cached answers are written from, so saving a row or a reload that finds
+ * different rows invalidates the {@link SemanticResponseCache}.
+ */
+@Service
+public class VectorIndexService {
+    private static final Logger log = LoggerFactory.getLogger(VectorIndexService.class);
+    // all-minilm, matching the vector(384) columns
+    static final int DIMENSIONS = 384;
+
+    private final StaticInfoRepository staticInfoRepository;
+    private final WorkflowStepRepository workflowStepRepository;
+    private final SemanticResponseCache responseCache;
+    private final boolean enabled;
+    private final VectorIndex<StaticInfo> staticInfoIndex =
+            new VectorIndex<>(DIMENSIONS, StaticInfo::getId, StaticInfo::getEmbedding);
+    private final VectorIndex<WorkflowStep> workflowStepIndex =
+            new VectorIndex<>(DIMENSIONS, WorkflowStep::getId, WorkflowStep::getEmbedding);
+    private final Timer staticInfoSearches;
+    private final Timer workflowStepSearches;
+    private volatile boolean staticInfoLoaded;
+    private volatile boolean workflowStepsLoaded;
+    private long staticInfoFingerprint;
+
+    public VectorIndexService(StaticInfoRepository staticInfoRepository,
+                              WorkflowStepRepository workflowStepRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.vector-index.enabled:true}") boolean enabled,
+                              @Autowired(required = false) SemanticResponseCache responseCache) {
+        this.staticInfoRepository = staticInfoRepository;
+        this.workflowStepRepository = workflowStepRepository;
+        this.responseCache = responseCache;
+        this.enabled = enabled;
+        this.staticInfoSearches = Timer.builder("vector.index.search").tag("index", "static_info").register(meterRegistry);
+        this.workflowStepSearches = Timer.builder("vector.index.search").tag("index", "workflow_steps").register(meterRegistry);
+        meterRegistry.gauge("vector.index.size", List.of(Tag.of("index", "static_info")),
+                staticInfoIndex, VectorIndex::size);
+        meterRegistry.gauge("vector.index.size", List.of(Tag.of("index", "workflow_steps")),
+                workflowStepIndex, VectorIndex::size);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        reload();
+    }
+
+    @Scheduled(initialDelayString = "${app.vector-index.refresh-interval-ms:300000}",
+            fixedDelayString = "${app.vector-index.refresh-interval-ms:300000}")
+    public void reload() {
+        if (!enabled) return;
+        try {
+            List<StaticInfo> rows = staticInfoIndex.reload(staticInfoRepository::findAll);
+            staticInfoLoaded = true;
+            long fingerprint = fingerprint(rows);
+            if (fingerprint != staticInfoFingerprint) {
+                staticInfoFingerprint = fingerprint;
+                invalidateCachedAnswers();
+            }
+            log.debug("Static info index loaded with {} rows", staticInfoIndex.size());
+        } catch (Exception e) {
+            log.warn("Could not load the static info index, searches stay on pgvector: {}", e.getMessage());
+        }
+        try {
+            workflowStepIndex.reload(workflowStepRepository::findAll);
+            workflowStepsLoaded = true;
+            log.debug("Workflow step index loaded with {} rows", workflowStepIndex.size());
+        } catch (Exception e) {
+            log.warn("Could not load the workflow step index, searches stay on pgvector: {}", e.getMessage());
+        }
+    }
+
+    public List<StaticInfo> findSimilarStaticInfo(float[] embedding, int limit) {
+        if (!staticInfoLoaded) return staticInfoRepository.findSimilarStaticInfo(embedding, limit);
+        return staticInfoSearches.record(() -> staticInfoIndex.search(embedding, limit));
+    }
+
+    public List<WorkflowStep> findSimilarSteps(float[] embedding, int limit) {
+        if (!workflowStepsLoaded) return workflowStepRepository.findSimilarSteps(embedding, limit);
+        return workflowStepSearches.record(() -> workflowStepIndex.search(embedding, limit));
+    }
+
+    /**
+     * Makes a saved row searchable straight away instead of at the next reload.
+     */
+    public void indexStaticInfo(StaticInfo info) {
+        invalidateCachedAnswers();
+        if (enabled && !staticInfoIndex.upsert(info)) {
+            log.warn("Static info {} not indexed: missing id or not a {}-dim embedding", info == null ? null : info.getId(), DIMENSIONS);
+        }
+    }
+
+    /**
+     * Indexes a batch of saved rows with one copy of the index and one invalidation of cached answers.
+     */
+    public void indexAllStaticInfo(Collection<StaticInfo> rows) {
+        invalidateCachedAnswers();
+        if (!enabled) return;
+        int indexed = staticInfoIndex.upsertAll(rows);
+        if (indexed < rows.size()) {
+            log.warn("{} of {} static info rows not indexed: missing id or not a {}-dim embedding", rows.size() - indexed, rows.size(), DIMENSIONS);
+        }
+    }
+
+    public void indexWorkflowStep(WorkflowStep step) {
+        if (enabled && !workflowStepIndex.upsert(step)) {
+            log.warn("Workflow step {} not indexed: missing id or not a {}-dim embedding", step == null ? null : step.getId(), DIMENSIONS);
+        }
+    }
+
+    private void invalidateCachedAnswers() {
+        if (responseCache != null) responseCache.invalidate();
+    }
+
+    // Order-independent, so only added, removed or edited rows count as a change
+    private static long fingerprint(List<StaticInfo> rows) {
+        long sum = rows.size();
+        for (StaticInfo row : rows) {
+            sum += Objects.hash(row.getId(), row.getTopic(), row.getDescription());
+        }
+        return sum;
+    }
+}
@@ -3,7 +3,9 @@ package com.voidsquad.chatbot.service.workflow;
 import com.voidsquad.chatbot.entities.WorkflowStep;
 import com.voidsquad.chatbot.repository.WorkflowStepRepository;
 import com.voidsquad.chatbot.service.embedding.EmbeddingService;
+import com.voidsquad.chatbot.service.vectorindex.VectorIndexService;
 import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 
@@ -16,11 +18,14 @@ public class WorkflowStepService {
 
     private final WorkflowStepRepository workflowStepRepository;
     private final EmbeddingService embeddingService; // Changed to Ollama service
+    private final VectorIndexService vectorIndexService;
 
     public WorkflowStepService(WorkflowStepRepository workflowStepRepository,
-                               EmbeddingService embeddingService) {
+                               EmbeddingService embeddingService,
+                               @Autowired(required = false) VectorIndexService vectorIndexService) {
         this.workflowStepRepository = workflowStepRepository;
         this.embeddingService = embeddingService;
+        this.vectorIndexService = vectorIndexService;
 
     }
 
@@ -35,12 +40,14 @@ public class WorkflowStepService {
             step.setEmbedding(embedding);
         }
 
-        return workflowStepRepository.saveWithVector(
+        WorkflowStep saved = workflowStepRepository.saveWithVector(
                 step.getId(),
                 step.getName(),
                 step.getDescription(),
                 step.getEmbedding()
         );
+        index(saved);
+        return saved;
     }
 
     public WorkflowStep addWorkflowStep(String name, String description) {
@@ -53,10 +60,15 @@ public class WorkflowStepService {
         step.setDescription(description);
         step.setEmbedding(embedding); // 384-dimensional vector from all-minilm
 
-        return workflowStepRepository.save(step);
+        WorkflowStep saved = workflowStepRepository.save(step);
+        index(saved);
+        return saved;
     }
 
     public List<WorkflowStep> findSimilarSteps(float[] embedding, int limit) {
+        if (vectorIndexService != null) {
+            return vectorIndexService.findSimilarSteps(embedding, limit);
+        }
         return workflowStepRepository.findSimilarSteps(embedding, limit);
     }
 
@@ -64,4 +76,10 @@ public class WorkflowStepService {
         float[] embedding = embeddingService.generateEmbedding(text);
         return findSimilarSteps(embedding, limit);
     }
-}
\ No newline at end of file
+
+    private void index(WorkflowStep saved) {
+        if (vectorIndexService != null && saved != null) {
+            vectorIndexService.indexWorkflowStep(saved);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.voidsquad.chatbot.util;
+
+/**
+ * Reads one string field of a JSON object while the object is still arriving in chunks, so the field can be
+ * shown to a user token by token. Used for the {"isSimple"|"isComplete": ..., "data": "..."} answers the
+ * prompt strategies ask the model for.
+ * <p>
+ * An optional boolean gate field decides whether the text may be shown at all: nothing is released until
+ * the gate has been read as true, and text that arrived earlier is released then. Anything before the first
+ * '{' (such as a code fence) is ignored, and nested objects and arrays are skipped. Not thread-safe; feed
+ * chunks in order from one subscriber.
+ */
+public class JsonFieldStreamReader {
+
+    private final String field;
+    private final String gateField;
+    private final StringBuilder raw = new StringBuilder();
+    private final StringBuilder value = new StringBuilder();
+
+    private int pos;
+    private int depth;
+    private boolean inString;
+    // string being read at depth 1: a key, a plain value, or the field itself (then it is `value`)
+    private StringBuilder current;
+    private String pendingKey;
+    private String key;
+    private boolean expectingValue;
+    private StringBuilder literal;
+    private boolean fieldStarted;
+    private boolean fieldComplete;
+    private Boolean gate;
+    private int released;
+
+    /**
+     * @param gateField boolean field that must be true before any text is released, or null to release as read
+     */
+    public JsonFieldStreamReader(String field, String gateField) {
+        this.field = field;
+        this.gateField = gateField;
+    }
+
+    /**
+     * @return text of the field that can be shown now, possibly empty
+     */
+    public String accept(String chunk) {
+        if (chunk != null) raw.append(chunk);
+        scan();
+        return release();
+    }
+
+    /**
+     * @return whatever is left to show once the input has ended
+     */
+    public String finish() {
+        scan();
+        if (literal != null) endLiteral();
+        return release();
+    }
+
+    public Boolean gate() {
+        return gate;
+    }
+
+    public boolean fieldFound() {
+        return fieldStarted;
+    }
+
+    public boolean fieldComplete() {
+        return fieldComplete;
+    }
+
+    /**
+     * @return the field text read so far, released or not
+     */
+    public String value() {
+        return value.toString();
+    }
+
+    /**
+     * @return all input received, for falling back to a non-streaming decoder
+     */
+    public String raw() {
+        return raw.toString();
+    }
+
+    private String release() {
+        boolean open = gateField == null || Boolean.TRUE.equals(gate);
+        int end = value.length();
+        // keep half of a surrogate pair back until its other half arrives
+        if (end > released && !fieldComplete && Character.isHighSurrogate(value.charAt(end - 1))) end--;
+        if (!open || released == end) return "";
+        String text = value.substring(released, end);
+        released = end;
+        return text;
+    }
+
+    private void scan() {
+        while (pos < raw.length()) {
+            char c = raw.charAt(pos);
+            if (inString) {
+                if (c == '\\') {
+                    if (!readEscape()) return; // rest of the escape has not arrived yet
+                    continue;
+                }
+                if (c == '"') {
+                    inString = false;
+                    endString();
+                } else if (current != null) {
+                    current.append(c);
+                }
+                pos++;
+                continue;
+            }
+
+            switch (c) {
+                case '"' -> {
+                    inString = true;
+                    if (depth != 1) {
+                        current = null;
+                    } else if (expectingValue && field.equals(key)) {
+                        fieldStarted = true;
+                        current = value;
+                    } else {
+                        current = new StringBuilder();
+                    }
+                }
+                case '{', '[' -> {
+                    if (depth == 1) expectingValue = false;
+                    depth++;
+                }
+                case '}', ']' -> {
+                    if (depth == 1 && literal != null) endLiteral();
+                    if (depth > 0) depth--;
+                }
+                case ':' -> {
+                    if (depth == 1) {
+                        key = pendingKey;
+                        expectingValue = true;
+                    }
+                }
+                case ',' -> {
+                    if (depth == 1) {
+                        if (literal != null) endLiteral();
+                        expectingValue = false;
+                    }
+                }
+                default -> {
+                    if (depth == 1 && expectingValue && !Character.isWhitespace(c)) {
+                        if (literal == null) literal = new StringBuilder();
+                        literal.append(c);
+                    }
+                }
+            }
+            pos++;
+        }
+    }
+
+    // Decodes the escape at pos if all of it has arrived
+    private boolean readEscape() {
+        if (pos + 1 >= raw.length()) return false;
+        char kind = raw.charAt(pos + 1);
+        int length = kind == 'u' ? 6 : 2;
+        if (pos + length > raw.length()) return false;
+        if (current != null) {
+            switch (kind) {
+                case 'n' -> current.append('\n');
+                case 't' -> current.append('\t');
+                case 'r' -> current.append('\r');
+                case 'b' -> current.append('\b');
+                case 'f' -> current.append('\f');
+                case 'u' -> {
+                    try {
+                        current.append((char) Integer.parseInt(raw.substring(pos + 2, pos + 6), 16));
+                    } catch (NumberFormatException e) {
+                        current.append(raw, pos, pos + 6);
+                    }
+                }
+                default -> current.append(kind); // \" \\ \/
+            }
+        }
+        pos += length;
+        return true;
+    }
+
+    private void endString() {
+        if (current == null) return;
+        if (!expectingValue) {
+            pendingKey = current.toString();
+        } else {
+            if (current == value) fieldComplete = true;
+            else if (key != null && key.equals(gateField)) gate = Boolean.parseBoolean(current.toString().trim());
+            expectingValue = false;
+        }
+        current = null;
+    }
+
+    private void endLiteral() {
+        if (key != null && key.equals(gateField)) gate = "true".contentEquals(literal);
+        literal = null;
+        expectingValue = false;
+    }
+}
@@ -0,0 +1,16 @@
+-- The ivfflat indexes from V1/V3 were built on empty tables, so their lists have no
+-- centroids to speak of and searches through them miss most rows. HNSW needs no training
+-- data and stays accurate as rows are added; recall is tuned per session with
+-- hnsw.ef_search (see app.vector-search.ef-search).
+DROP INDEX IF EXISTS idx_workflow_steps_embedding;
+DROP INDEX IF EXISTS idx_static_info_embedding;
+
+CREATE INDEX IF NOT EXISTS idx_workflow_steps_embedding_hnsw
+    ON workflow_steps
+    USING hnsw (embedding vector_cosine_ops)
+    WITH (m = 16, ef_construction = 64);
+
+CREATE INDEX IF NOT EXISTS idx_static_info_embedding_hnsw
+    ON static_info_vector_db
+    USING hnsw (embedding vector_cosine_ops)
+    WITH (m = 16, ef_construction = 64);
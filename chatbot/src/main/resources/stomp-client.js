@@ -9,8 +9,8 @@
 
  This edited version prompts for:
   - WebSocket/STOMP endpoint (e.g. ws://localhost:8080/chat/websocket)
-  - Broker destination(s) to subscribe to (comma-separated, e.g. /topic/messages)
-  - Username to use as sender
+  - JWT issued by the auth service (sent as the Authorization header on CONNECT)
+  - Broker destination(s) to subscribe to (comma-separated; private replies go to /queue/user/<userId>)
 */
 
 const { Client } = require('C:/Program Files/nodejs/node_modules/@stomp/stompjs');
@@ -46,31 +46,38 @@ function question(prompt) {
   return new Promise(resolve => rl.question(prompt, answer => resolve(answer.trim())));
 }
 
+// the server addresses private replies by the token's userId claim (its signature is checked on CONNECT)
+function tokenUserId(token) {
+  try {
+    return JSON.parse(Buffer.from(token.split('.')[1], 'base64url').toString()).userId;
+  } catch (e) {
+    return 'unknown';
+  }
+}
+
 (async function main(){
   try {
     const defaultUrl = urlArg || 'ws://localhost:8080/chatbot/websocket';
     const endpoint = await question(`WebSocket URL [${defaultUrl}]: `) || defaultUrl;
 
-    // subscribe to private user queue and broadcast by default for MVP
-    const defaultSubs = '/queue/msg,/broadcast/msg';
+    const token = await question('Authentication token (JWT): ');
+    const userId = tokenUserId(token);
+
+    // subscribe to the private queue of the token's user and broadcast by default for MVP
+    const defaultSubs = `/queue/user/${userId},/broadcast/msg`;
     const subsInput = await question(`Broker destination(s) to subscribe (comma-separated) [${defaultSubs}]: `) || defaultSubs;
     const subscriptions = subsInput.split(',').map(s => s.trim()).filter(Boolean);
 
-    const defaultUser = 'cmd-client';
-    const username = await question(`Username to use as sender [${defaultUser}]: `) || defaultUser;
-
     // prompt for the send destination (where messages will be published)
     // default targets the private message handler on the server
     const defaultSendDest = '/app/message';
     const sendDestination = await question(`Send destination [${defaultSendDest}]: `) || defaultSendDest;
 
-    const defaultToken = 'default-token';
-    const token = await question(`Authentication token [${defaultToken}]: `) || defaultToken;
-
     blue(`Connecting to: ${endpoint}`);
 
     const client = new Client({
       webSocketFactory: () => new WebSocket(endpoint),
+      connectHeaders: { Authorization: 'Bearer ' + token },
       reconnectDelay: 5000,
       debug: (str) => { blue('[STOMP] ' + str); }
     });
@@ -103,7 +110,7 @@ function question(prompt) {
           rl.close();
           return;
         }
-        const payload = { sender: username, token:token, content: trimmed };
+        const payload = { content: trimmed };
         try {
           if (client.publish) {
             client.publish({ destination: sendDestination, body: JSON.stringify(payload) });
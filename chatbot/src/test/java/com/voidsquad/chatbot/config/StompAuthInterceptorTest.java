@@ -0,0 +1,94 @@
+package com.voidsquad.chatbot.config;
+
+import com.voidsquad.chatbot.service.auth.AuthHeaderDecoderService;
+import com.voidsquad.chatbot.service.auth.AuthInfo;
+import com.voidsquad.chatbot.service.auth.AuthPrincipal;
+import com.voidsquad.chatbot.service.auth.JwtService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.security.Principal;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StompAuthInterceptorTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+    private final StompAuthInterceptor interceptor =
+            new StompAuthInterceptor(new JwtService(SECRET, new AuthHeaderDecoderService()));
+
+    private static String token(String secret) {
+        return Jwts.builder()
+                .setClaims(Map.of("userId", 42L, "email", "user@example.com"))
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    private static Message<byte[]> connect(String authorization) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        if (authorization != null) {
+            accessor.addNativeHeader("Authorization", authorization);
+        }
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Message<byte[]> subscribe(String destination, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(destination);
+        accessor.setUser(user);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static AuthPrincipal user(String name) {
+        return new AuthPrincipal(name, AuthInfo.builder().valid(true).build());
+    }
+
+    @Test
+    void connect_withAValidToken_setsTheTokensUserAsThePrincipal() {
+        Message<?> message = interceptor.preSend(connect("Bearer " + token(SECRET)), null);
+
+        Principal principal = StompHeaderAccessor.wrap(message).getUser();
+        assertThat(principal).isInstanceOf(AuthPrincipal.class);
+        assertThat(principal.getName()).isEqualTo("42");
+        assertThat(((AuthPrincipal) principal).authInfo().getEmail()).isEqualTo("user@example.com");
+    }
+
+    @Test
+    void connect_withoutAVerifiableToken_isRejected() {
+        String forged = Base64.getEncoder().encodeToString("fedcba9876543210fedcba9876543210".getBytes());
+
+        assertThatThrownBy(() -> interceptor.preSend(connect(null), null))
+                .isInstanceOf(MessageDeliveryException.class);
+        assertThatThrownBy(() -> interceptor.preSend(connect("Bearer " + token(forged)), null))
+                .isInstanceOf(MessageDeliveryException.class);
+    }
+
+    @Test
+    void subscribe_isLimitedToTheCallersOwnQueue() {
+        interceptor.preSend(subscribe("/queue/user/42", user("42")), null);
+        interceptor.preSend(subscribe("/broadcast/msg", user("42")), null);
+
+        assertThatThrownBy(() -> interceptor.preSend(subscribe("/queue/user/7", user("42")), null))
+                .isInstanceOf(MessageDeliveryException.class);
+        assertThatThrownBy(() -> interceptor.preSend(subscribe("/queue/user/*", user("42")), null))
+                .isInstanceOf(MessageDeliveryException.class);
+        assertThatThrownBy(() -> interceptor.preSend(subscribe("/queue/user/42", null), null))
+                .isInstanceOf(MessageDeliveryException.class);
+    }
+}
@@ -0,0 +1,56 @@
+package com.voidsquad.chatbot.controller;
+
+import com.voidsquad.chatbot.dto.ChatStreamEvent;
+import com.voidsquad.chatbot.service.AIService;
+import com.voidsquad.chatbot.service.auth.AuthInfo;
+import com.voidsquad.chatbot.service.auth.AuthPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChatbotControllerMessageTest {
+
+    @Mock SimpMessagingTemplate messaging;
+    @Mock AIService aiService;
+
+    private ChatbotController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new ChatbotController(messaging, aiService, null, null, null, null, null, null, null);
+    }
+
+    @Test
+    void handleChatMessage_repliesToTheAuthenticatedUserNotThePayloadSender() {
+        AuthInfo info = AuthInfo.builder().userId(42L).valid(true).build();
+        when(aiService.streamRequest("hi", info)).thenReturn(Flux.just("hello"));
+
+        controller.handleChatMessage(Map.of("sender", "7", "token", "forged", "content", "hi"),
+                new AuthPrincipal("42", info), "session-1");
+
+        verify(messaging, times(2)).convertAndSend(eq("/queue/user/42"), any(ChatStreamEvent.class));
+        verify(messaging, never()).convertAndSend(eq("/queue/user/7"), any(Object.class));
+    }
+
+    @Test
+    void handleChatMessage_withoutAnAuthenticatedUser_doesNothing() {
+        controller.handleChatMessage(Map.of("sender", "7", "content", "hi"), null, "session-1");
+
+        verifyNoInteractions(messaging, aiService);
+    }
+}
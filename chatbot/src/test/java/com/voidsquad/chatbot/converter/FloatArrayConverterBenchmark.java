@@ -0,0 +1,105 @@
+package com.voidsquad.chatbot.converter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of moving one 384-dim embedding to and from the database: the previous text conversion, the current
+ * one, and pgvector's binary format as {@link PgVector} sends it.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.voidsquad.chatbot.converter.FloatArrayConverterBenchmark};
+ * the GC profiler reports allocated bytes per call ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FloatArrayConverterBenchmark {
+
+    private final FloatArrayConverter converter = new FloatArrayConverter();
+    private float[] embedding;
+    private String text;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        embedding = new float[384];
+        for (int i = 0; i < embedding.length; i++) {
+            embedding[i] = (float) random.nextGaussian() * 0.05f;
+        }
+        text = converter.convertToDatabaseColumn(embedding);
+        PgVector vector = new PgVector(embedding);
+        binary = new byte[vector.lengthInBytes()];
+        vector.toBytes(binary, 0);
+    }
+
+    @Benchmark
+    public String previousFormat() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < embedding.length; i++) {
+            if (i > 0) sb.append(",");
+            sb.append(embedding[i]);
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+    @Benchmark
+    public float[] previousParse() {
+        String cleaned = text.replace("[", "").replace("]", "");
+        String[] parts = cleaned.split(",");
+        float[] result = new float[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Float.parseFloat(parts[i].trim());
+        }
+        return result;
+    }
+
+    @Benchmark
+    public String format() {
+        return converter.convertToDatabaseColumn(embedding);
+    }
+
+    @Benchmark
+    public float[] parse() {
+        return converter.convertToEntityAttribute(text);
+    }
+
+    @Benchmark
+    public byte[] binaryWrite() {
+        PgVector vector = new PgVector(embedding);
+        byte[] bytes = new byte[vector.lengthInBytes()];
+        vector.toBytes(bytes, 0);
+        return bytes;
+    }
+
+    @Benchmark
+    public float[] binaryRead() {
+        PgVector vector = new PgVector();
+        vector.setByteValue(binary, 0);
+        return vector.toArray();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(FloatArrayConverterBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,43 @@
+package com.voidsquad.chatbot.converter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FloatArrayConverterTest {
+
+    private final FloatArrayConverter converter = new FloatArrayConverter();
+
+    @Test
+    void textFormat_roundTripsExactly() {
+        float[] vector = {0.1f, -2.5e-7f, 3f, Float.MIN_VALUE, -0f};
+
+        String text = converter.convertToDatabaseColumn(vector);
+
+        assertEquals("[0.1,-2.5E-7,3.0,1.4E-45,-0.0]", text);
+        assertArrayEquals(vector, converter.convertToEntityAttribute(text));
+    }
+
+    @Test
+    void parse_acceptsSpacesAndEmptyVectors() {
+        assertArrayEquals(new float[]{1f, 2f, 3f}, converter.convertToEntityAttribute("[1, 2 ,3]"));
+        assertArrayEquals(new float[0], converter.convertToEntityAttribute("[]"));
+        assertNull(converter.convertToEntityAttribute(null));
+        assertNull(converter.convertToDatabaseColumn(null));
+    }
+
+    @Test
+    void pgVector_binaryFormatIsDimensionsThenBigEndianFloats() throws Exception {
+        PgVector vector = new PgVector(new float[]{1f, -0.5f});
+        byte[] bytes = new byte[vector.lengthInBytes() + 2];
+
+        vector.toBytes(bytes, 2);
+
+        assertArrayEquals(new byte[]{0, 0, 0, 2, 0, 0, 0x3f, (byte) 0x80, 0, 0, (byte) 0xbf, 0, 0, 0}, bytes);
+        PgVector read = new PgVector();
+        read.setByteValue(bytes, 2);
+        assertArrayEquals(new float[]{1f, -0.5f}, read.toArray());
+        assertEquals("vector", read.getType());
+        assertEquals("[1.0,-0.5]", read.getValue());
+    }
+}
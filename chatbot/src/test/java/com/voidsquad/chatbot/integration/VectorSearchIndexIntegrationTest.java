@@ -0,0 +1,136 @@
+package com.voidsquad.chatbot.integration;
+
+import com.voidsquad.chatbot.converter.FloatArrayConverter;
+import com.voidsquad.chatbot.converter.PgVector;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the migrations against a real pgvector database and checks that the similarity queries in
+ * {@code StaticInfoRepository} and {@code WorkflowStepRepository} are planned through the HNSW indexes,
+ * and that vectors bound as {@link PgVector} survive the binary round trip.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class VectorSearchIndexIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+            DockerImageName.parse("pgvector/pgvector:pg16").asCompatibleSubstituteFor("postgres"))
+            .withDatabaseName("vector_db")
+            .withUsername("test")
+            .withPassword("test");
+
+    private static final Random RANDOM = new Random(1);
+
+    @BeforeAll
+    static void migrateAndSeed() throws SQLException {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+        try (Connection con = connect()) {
+            PgVector.enableBinarySend(con);
+            seed(con, "INSERT INTO static_info_vector_db (id, topic, description, embedding) VALUES (?, ?, ?, ?)");
+            seed(con, "INSERT INTO workflow_steps (id, step_name, step_description, embedding) VALUES (?, ?, ?, ?)");
+            try (Statement st = con.createStatement()) {
+                st.execute("ANALYZE");
+            }
+        }
+    }
+
+    @Test
+    void staticInfoSimilarityQueryUsesTheHnswIndex() throws SQLException {
+        assertThat(plan("SELECT * FROM static_info_vector_db ORDER BY embedding <=> CAST(? AS vector) LIMIT 5"))
+                .contains("idx_static_info_embedding_hnsw");
+    }
+
+    @Test
+    void workflowStepSimilarityQueryUsesTheHnswIndex() throws SQLException {
+        assertThat(plan("SELECT * FROM workflow_steps ORDER BY embedding <=> CAST(? AS vector) LIMIT 5"))
+                .contains("idx_workflow_steps_embedding_hnsw");
+    }
+
+    @Test
+    void binaryBoundVectorsReadBackUnchanged() throws SQLException {
+        float[] embedding = randomVector();
+        UUID id = UUID.randomUUID();
+        try (Connection con = connect()) {
+            PgVector.enableBinarySend(con);
+            try (PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO static_info_vector_db (id, topic, description, embedding) VALUES (?, 'Round trip', 'x', ?)")) {
+                ps.setObject(1, id);
+                ps.setObject(2, new PgVector(embedding));
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = con.prepareStatement("SELECT embedding FROM static_info_vector_db WHERE id = ?")) {
+                ps.setObject(1, id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertThat(rs.next()).isTrue();
+                    assertThat(new FloatArrayConverter().convertToEntityAttribute(rs.getString(1))).containsExactly(embedding);
+                }
+            }
+        }
+    }
+
+    // The tables are small enough that the planner would rather scan them, so sequential scans are ruled out
+    private static String plan(String query) throws SQLException {
+        try (Connection con = connect()) {
+            con.setAutoCommit(false);
+            try (Statement st = con.createStatement()) {
+                st.execute("SET LOCAL enable_seqscan = off");
+            }
+            StringBuilder plan = new StringBuilder();
+            try (PreparedStatement ps = con.prepareStatement("EXPLAIN " + query)) {
+                ps.setObject(1, new PgVector(randomVector()));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) plan.append(rs.getString(1)).append('\n');
+                }
+            }
+            con.rollback();
+            return plan.toString();
+        }
+    }
+
+    private static void seed(Connection con, String insert) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(insert)) {
+            for (int i = 0; i < 200; i++) {
+                ps.setObject(1, UUID.randomUUID());
+                ps.setString(2, "row " + i);
+                ps.setString(3, "description " + i);
+                ps.setObject(4, new PgVector(randomVector()));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    }
+
+    private static float[] randomVector() {
+        float[] v = new float[384];
+        for (int i = 0; i < v.length; i++) {
+            v[i] = (float) RANDOM.nextGaussian();
+        }
+        return v;
+    }
+}
@@ -1 +1 @@
-package com.voidsquad.chatbot.service;import org.junit.jupiter.api.Test;import org.springframework.mock.web.MockMultipartFile;import java.util.List;import static org.assertj.core.api.Assertions.assertThat;class AIServiceCSVEdgeTest {    @Test void readStaticInfoFromCSV_handlesMissingHeadersGracefully() throws Exception {        AIService service = new AIService(null,null,null,null,null,null,null,null,null,null);        String csv = "wrong,headers\nA,B\n";        MockMultipartFile file = new MockMultipartFile("file","f.csv","text/csv", csv.getBytes());        List<?> list = service.ReadStaticInfoFromCSV(file);        assertThat(list).isEmpty();    }    @Test void readStaticInfoFromCSV_skipsInvalidRows(){        AIService service = new AIService(null,null,null,null,null,null,null,null,null,null);        String csv = "topic,description\n,Missing topic\nValid,Desc\nBad,\n";        MockMultipartFile file = new MockMultipartFile("file","f2.csv","text/csv", csv.getBytes());        try {            var list = service.ReadStaticInfoFromCSV(file);            assertThat(list).hasSize(1);            assertThat(list.get(0).getTopic()).isEqualTo("Valid");        } catch (Exception e) {            throw new RuntimeException(e);        }    }}
\ No newline at end of file
+package com.voidsquad.chatbot.service;import org.junit.jupiter.api.Test;import org.springframework.mock.web.MockMultipartFile;import java.util.List;import static org.assertj.core.api.Assertions.assertThat;class AIServiceCSVEdgeTest {    @Test void readStaticInfoFromCSV_handlesMissingHeadersGracefully() throws Exception {        AIService service = new AIService(null,null,null,null,null,null,null,null,null,null,null,null);        String csv = "wrong,headers\nA,B\n";        MockMultipartFile file = new MockMultipartFile("file","f.csv","text/csv", csv.getBytes());        List<?> list = service.ReadStaticInfoFromCSV(file);        assertThat(list).isEmpty();    }    @Test void readStaticInfoFromCSV_skipsInvalidRows(){        AIService service = new AIService(null,null,null,null,null,null,null,null,null,null,null,null);        String csv = "topic,description\n,Missing topic\nValid,Desc\nBad,\n";        MockMultipartFile file = new MockMultipartFile("file","f2.csv","text/csv", csv.getBytes());        try {            var list = service.ReadStaticInfoFromCSV(file);            assertThat(list).hasSize(1);            assertThat(list.get(0).getTopic()).isEqualTo("Valid");        } catch (Exception e) {            throw new RuntimeException(e);        }    }}
\ No newline at end of file
@@ -12,9 +12,11 @@ import com.voidsquad.chatbot.service.language.LanguageProcessor;
 import com.voidsquad.chatbot.service.promptmanager.core.OutputFormat;
 import com.voidsquad.chatbot.service.promptmanager.core.ProcessingResult;
 import com.voidsquad.chatbot.service.promptmanager.core.ProcessingType;
+import com.voidsquad.chatbot.service.responsecache.SemanticResponseCache;
 import com.voidsquad.chatbot.service.tool.ToolCallResult;
 import com.voidsquad.chatbot.service.tool.ToolExecutionService;
 import com.voidsquad.chatbot.service.tool.ToolRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -25,9 +27,13 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -93,8 +99,56 @@ class AIServiceRequestFlowTest {
     void requestHandler_withoutCoreDeps_fallsBackToGeneration() throws Exception {
         // EmbeddingService mocked but we simulate missing other deps by setting them null via reflection (simpler: return null ProcessingResult)
         when(languageProcessor.evaluateSimpleReply(any(), any(), any())).thenReturn(new ProcessingResult("fallback", OutputFormat.TEXT, ProcessingType.SIMPLE_CHAT, Map.of()));
-        AIService local = new AIService(embeddingService, null, languageProcessor, null, simpleDecoder, finalDecoder, workflowStepRepository, toolCallDecoder, toolRegistry, toolExecutionService);
+        AIService local = new AIService(embeddingService, null, languageProcessor, null, simpleDecoder, finalDecoder, workflowStepRepository, toolCallDecoder, toolRegistry, toolExecutionService, null, null);
         String out = local.requestHandler("x", AuthInfo.builder().role("X").build());
         assertThat(out).isEqualTo("fallback");
     }
+
+    @Test
+    void requestHandler_similarSimpleQuestion_isAnsweredFromTheResponseCache() throws Exception {
+        SemanticResponseCache cache = new SemanticResponseCache(true, 0.95, 100, 60_000, new SimpleMeterRegistry());
+        AIService cached = new AIService(embeddingService, staticInfoRepository, languageProcessor, null, simpleDecoder, finalDecoder,
+                workflowStepRepository, toolCallDecoder, toolRegistry, toolExecutionService, null, cache);
+        when(embeddingService.generateEmbedding("how long does an oil change take")).thenReturn(new float[]{1f, 0f, 0f});
+        when(embeddingService.generateEmbedding("how long is an oil change")).thenReturn(new float[]{0.99f, 0.05f, 0f});
+        when(staticInfoRepository.findSimilarStaticInfo(any(), anyInt())).thenReturn(List.of());
+        ProcessingResult simpleResult = new ProcessingResult("{\"isSimple\":true,\"data\":\"About 30 minutes\"}", OutputFormat.JSON, ProcessingType.SIMPLE_CHAT, Map.of());
+        when(languageProcessor.evaluateSimpleReply(any(), any(), any())).thenReturn(simpleResult);
+        when(simpleDecoder.decode(simpleResult)).thenReturn(new SimpleChatStrategyResponse(true, "About 30 minutes"));
+        AuthInfo user = AuthInfo.builder().role("USER").build();
+
+        assertThat(cached.requestHandler("how long does an oil change take", user)).isEqualTo("About 30 minutes");
+        assertThat(cached.requestHandler("how long is an oil change", user)).isEqualTo("About 30 minutes");
+
+        verify(languageProcessor, times(1)).evaluateSimpleReply(any(), any(), any());
+        verify(staticInfoRepository, times(1)).findSimilarStaticInfo(any(), anyInt());
+    }
+
+    @Test
+    void requestHandler_searchesWorkflowStepsWhileTheSimpleReplyIsGenerated() throws Exception {
+        when(embeddingService.generateEmbedding(any())).thenReturn(new float[]{1f, 2f, 3f});
+        when(staticInfoRepository.findSimilarStaticInfo(any(), anyInt())).thenReturn(List.of());
+        CountDownLatch stepsSearched = new CountDownLatch(1);
+        when(workflowStepRepository.findSimilarSteps(any(), anyInt())).thenAnswer(inv -> {
+            stepsSearched.countDown();
+            return List.of();
+        });
+        ProcessingResult first = new ProcessingResult("{\"isSimple\":false,\"data\":\"Need tools\"}", OutputFormat.JSON, ProcessingType.SIMPLE_CHAT, Map.of());
+        // the model "answers" only once the step search has run, so a sequential search would never get there
+        when(languageProcessor.evaluateSimpleReply(any(), any(), any())).thenAnswer(inv ->
+                stepsSearched.await(2, TimeUnit.SECONDS) ? first : null);
+        when(simpleDecoder.decode(first)).thenReturn(new SimpleChatStrategyResponse(false, "Need tools"));
+        when(languageProcessor.findHelperToolCalls(any(), any(), any())).thenReturn(
+                new ProcessingResult("{}", OutputFormat.JSON, ProcessingType.TOOL_CALL_IDENTIFICATION, Map.of()));
+        when(toolCallDecoder.decode(any())).thenReturn(List.of());
+        when(toolExecutionService.executeAll(any(), any(), any())).thenReturn(List.of());
+        ProcessingResult finalProc = new ProcessingResult("{\"isComplete\":true,\"data\":\"DONE\"}", OutputFormat.JSON, ProcessingType.FINAL_OUTPUT_GENERATION, Map.of());
+        when(languageProcessor.finalOutputPrepWithData(any(), any(), any())).thenReturn(finalProc);
+        when(finalDecoder.decode(finalProc)).thenReturn(new com.voidsquad.chatbot.decoder.FinalOutputStrategyResponse(true, "DONE"));
+
+        String out = aiService.requestHandler("complex", AuthInfo.builder().role("ADMIN").firstName("B").userId(5L).build());
+
+        assertThat(out).isEqualTo("DONE");
+        verify(workflowStepRepository, times(1)).findSimilarSteps(any(), anyInt());
+    }
 }
@@ -0,0 +1,116 @@
+package com.voidsquad.chatbot.service;
+
+import com.voidsquad.chatbot.decoder.FinalOutputStrategyDecoder;
+import com.voidsquad.chatbot.decoder.FinalOutputStrategyResponse;
+import com.voidsquad.chatbot.decoder.SimpleAiResponseDecoder;
+import com.voidsquad.chatbot.decoder.ToolCallResponseDecoder;
+import com.voidsquad.chatbot.model.SimpleChatStrategyResponse;
+import com.voidsquad.chatbot.model.ToolCall;
+import com.voidsquad.chatbot.repository.StaticInfoRepository;
+import com.voidsquad.chatbot.repository.WorkflowStepRepository;
+import com.voidsquad.chatbot.service.auth.AuthInfo;
+import com.voidsquad.chatbot.service.embedding.EmbeddingService;
+import com.voidsquad.chatbot.service.language.LanguageProcessor;
+import com.voidsquad.chatbot.service.promptmanager.core.OutputFormat;
+import com.voidsquad.chatbot.service.promptmanager.core.ProcessingResult;
+import com.voidsquad.chatbot.service.promptmanager.core.ProcessingType;
+import com.voidsquad.chatbot.service.tool.ToolCallResult;
+import com.voidsquad.chatbot.service.tool.ToolExecutionService;
+import com.voidsquad.chatbot.service.tool.ToolRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AIServiceStreamingTest {
+
+    @Mock LanguageProcessor languageProcessor;
+    @Mock StaticInfoRepository staticInfoRepository;
+    @Mock WorkflowStepRepository workflowStepRepository;
+    @Mock ToolRegistry toolRegistry;
+    @Mock ToolExecutionService toolExecutionService;
+    @Mock SimpleAiResponseDecoder simpleDecoder;
+    @Mock FinalOutputStrategyDecoder finalDecoder;
+    @Mock ToolCallResponseDecoder toolCallDecoder;
+    @Mock EmbeddingService embeddingService;
+
+    private AIService aiService;
+    private final AuthInfo user = AuthInfo.builder().role("USER").firstName("A").userId(1L).build();
+
+    @BeforeEach
+    void setUp() {
+        aiService = new AIService(embeddingService, staticInfoRepository, languageProcessor, null, simpleDecoder,
+                finalDecoder, workflowStepRepository, toolCallDecoder, toolRegistry, toolExecutionService, null, null);
+        when(embeddingService.generateEmbedding(any())).thenReturn(new float[]{1f, 2f, 3f});
+        when(staticInfoRepository.findSimilarStaticInfo(any(), anyInt())).thenReturn(List.of());
+    }
+
+    @Test
+    void simpleReply_isStreamedChunkByChunk() {
+        when(languageProcessor.streamSimpleReply(any(), any(), eq("USER")))
+                .thenReturn(Flux.just("{\"isSimple\": true, \"data\": \"Op", "ening hours", " are 9-5\"}"));
+
+        List<String> chunks = aiService.streamRequest("hours?", user).collectList().block();
+
+        assertThat(chunks).containsExactly("Op", "ening hours", " are 9-5");
+        verify(simpleDecoder, never()).decode(any());
+    }
+
+    @Test
+    void complexReply_hidesToolReason_andStreamsFinalAnswer() {
+        when(languageProcessor.streamSimpleReply(any(), any(), any()))
+                .thenReturn(Flux.just("{\"isSimple\": false, ", "\"data\": \"Need the orders tool\"}"));
+        when(workflowStepRepository.findSimilarSteps(any(), anyInt())).thenReturn(List.of());
+        when(languageProcessor.findHelperToolCalls(any(), any(), any())).thenReturn(
+                new ProcessingResult("{}", OutputFormat.JSON, ProcessingType.TOOL_CALL_IDENTIFICATION, Map.of()));
+        when(toolCallDecoder.decode(any())).thenReturn(List.of(new ToolCall("orders", Map.of(), "explanation")));
+        when(toolExecutionService.executeAll(any(), any(), any())).thenReturn(List.of(ToolCallResult.success("2 orders", "orders")));
+        when(languageProcessor.streamFinalOutput(any(), contains("2 orders"), eq("USER")))
+                .thenReturn(Flux.just("{\"isComplete\": true, \"data\": \"You have", " 2 orders\"}"));
+
+        List<String> chunks = aiService.streamRequest("my orders", user).collectList().block();
+
+        assertThat(chunks).containsExactly("You have", " 2 orders");
+    }
+
+    @Test
+    void unstructuredOutput_fallsBackToTheBlockingDecoder() {
+        when(languageProcessor.streamSimpleReply(any(), any(), any())).thenReturn(Flux.just("%7B\"isSimple\":true", ",\"data\":\"Hi\"%7D"));
+        ProcessingResult processed = new ProcessingResult("%7B\"isSimple\":true,\"data\":\"Hi\"%7D", OutputFormat.JSON, ProcessingType.SIMPLE_CHAT, Map.of());
+        when(languageProcessor.postProcess(ProcessingType.SIMPLE_CHAT, processed.output())).thenReturn(processed);
+        when(simpleDecoder.decode(processed)).thenReturn(new SimpleChatStrategyResponse(true, "Hi"));
+
+        List<String> chunks = aiService.streamRequest("hello", user).collectList().block();
+
+        assertThat(chunks).containsExactly("Hi");
+    }
+
+    @Test
+    void incompleteFinalOutput_endsWithUnknownError() {
+        when(languageProcessor.streamSimpleReply(any(), any(), any())).thenReturn(Flux.just("{\"isSimple\": false, \"data\": \"tools\"}"));
+        when(workflowStepRepository.findSimilarSteps(any(), anyInt())).thenReturn(List.of());
+        when(languageProcessor.findHelperToolCalls(any(), any(), any())).thenReturn(
+                new ProcessingResult("{}", OutputFormat.JSON, ProcessingType.TOOL_CALL_IDENTIFICATION, Map.of()));
+        when(toolCallDecoder.decode(any())).thenReturn(List.of());
+        when(toolExecutionService.executeAll(any(), any(), any())).thenReturn(List.of());
+        when(languageProcessor.streamFinalOutput(any(), any(), any()))
+                .thenReturn(Flux.just("{\"data\": \"partial\", \"isComplete\": false}"));
+
+        List<String> chunks = aiService.streamRequest("my orders", user).collectList().block();
+
+        assertThat(chunks).containsExactly("Unknown error");
+        verify(finalDecoder, never()).decode(any());
+    }
+}
@@ -0,0 +1,67 @@
+package com.voidsquad.chatbot.service.auth;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+    private static final String OTHER_SECRET = Base64.getEncoder().encodeToString("fedcba9876543210fedcba9876543210".getBytes());
+
+    private final JwtService jwtService = new JwtService(SECRET, new AuthHeaderDecoderService());
+
+    private static String token(String secret, long userId, Date expiration) {
+        return Jwts.builder()
+                .setClaims(Map.of("userId", userId, "email", "user@example.com", "role", "CUSTOMER"))
+                .setSubject("user@example.com")
+                .setExpiration(expiration)
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    private static Date inAnHour() {
+        return new Date(System.currentTimeMillis() + 3_600_000);
+    }
+
+    @Test
+    void verify_acceptsATokenSignedWithTheSharedSecret() {
+        AuthInfo info = jwtService.verify(token(SECRET, 42L, inAnHour()));
+
+        assertThat(info.isValid()).isTrue();
+        assertThat(info.getUserId()).isEqualTo(42L);
+        assertThat(info.getRole()).isEqualTo("CUSTOMER");
+    }
+
+    @Test
+    void verify_rejectsATokenSignedWithAnotherKey() {
+        AuthInfo info = jwtService.verify(token(OTHER_SECRET, 42L, inAnHour()));
+
+        assertThat(info.isValid()).isFalse();
+        assertThat(info.getUserId()).isNull();
+    }
+
+    @Test
+    void verify_rejectsAnExpiredToken() {
+        AuthInfo info = jwtService.verify(token(SECRET, 42L, new Date(System.currentTimeMillis() - 1000)));
+
+        assertThat(info.isValid()).isFalse();
+    }
+
+    @Test
+    void verify_rejectsAnUnsignedToken() {
+        String payload = Base64.getUrlEncoder().withoutPadding().encodeToString("{\"userId\":42}".getBytes());
+        String header = Base64.getUrlEncoder().withoutPadding().encodeToString("{\"alg\":\"none\"}".getBytes());
+
+        assertThat(jwtService.verify(header + "." + payload + ".").isValid()).isFalse();
+        assertThat(jwtService.verify(null).isValid()).isFalse();
+    }
+}
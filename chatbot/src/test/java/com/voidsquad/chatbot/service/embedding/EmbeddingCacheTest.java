@@ -0,0 +1,103 @@
+package com.voidsquad.chatbot.service.embedding;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddingCacheTest {
+
+    private static final Path NO_DISK = null;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void get_returnsNullOnMissAndTheStoredVectorAfterPut() {
+        EmbeddingCache cache = new EmbeddingCache(10, dir, new SimpleMeterRegistry());
+        String key = EmbeddingService.cacheKey("all-minilm", "hello");
+
+        assertNull(cache.get(key));
+        cache.put(key, new float[]{0.1f, 0.2f, 0.3f});
+
+        assertArrayEquals(new float[]{0.1f, 0.2f, 0.3f}, cache.get(key));
+    }
+
+    @Test
+    void get_returnsCopiesSoCallersCannotCorruptTheCache() {
+        EmbeddingCache cache = new EmbeddingCache(10, NO_DISK, new SimpleMeterRegistry());
+        cache.put("ab12", new float[]{1f, 2f});
+
+        cache.get("ab12")[0] = 42f;
+
+        assertArrayEquals(new float[]{1f, 2f}, cache.get("ab12"));
+    }
+
+    @Test
+    void diskTier_survivesARestartAndBacksEvictedEntries() {
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        EmbeddingCache before = new EmbeddingCache(1, dir, meters);
+        String first = EmbeddingService.cacheKey("all-minilm", "first");
+        String second = EmbeddingService.cacheKey("all-minilm", "second");
+        before.put(first, new float[]{1f, -1f});
+        before.put(second, new float[]{2f, -2f});
+        assertEquals(1, before.size());
+
+        EmbeddingCache restarted = new EmbeddingCache(1, dir, new SimpleMeterRegistry());
+
+        assertArrayEquals(new float[]{1f, -1f}, restarted.get(first));
+        assertArrayEquals(new float[]{2f, -2f}, restarted.get(second));
+        // evicted from memory, served from disk
+        assertArrayEquals(new float[]{1f, -1f}, before.get(first));
+        assertEquals(1.0, meters.get("embedding.cache.requests").tag("result", "hit-disk").counter().count());
+    }
+
+    @Test
+    void withoutADirectory_evictedEntriesAreMisses() {
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        EmbeddingCache cache = new EmbeddingCache(1, NO_DISK, meters);
+        cache.put("aa01", new float[]{1f});
+        cache.put("aa02", new float[]{2f});
+
+        assertNull(cache.get("aa01"));
+        assertArrayEquals(new float[]{2f}, cache.get("aa02"));
+        assertEquals(1.0, meters.get("embedding.cache.requests").tag("result", "miss").counter().count());
+        assertEquals(1.0, meters.get("embedding.cache.requests").tag("result", "hit-memory").counter().count());
+    }
+
+    @Test
+    void prune_dropsExpiredEntriesThenTheLeastRecentlyUsedBeyondTheSizeCap() throws Exception {
+        // three 2-float vectors of 8 bytes each; room for two
+        EmbeddingCache cache = new EmbeddingCache(0, dir, 16, Duration.ofDays(1), new SimpleMeterRegistry());
+        String stale = EmbeddingService.cacheKey("all-minilm", "stale");
+        String old = EmbeddingService.cacheKey("all-minilm", "old");
+        String recent = EmbeddingService.cacheKey("all-minilm", "recent");
+        cache.put(stale, new float[]{1f, 1f});
+        cache.put(old, new float[]{2f, 2f});
+        cache.put(recent, new float[]{3f, 3f});
+        long now = System.currentTimeMillis();
+        touch(stale, now - Duration.ofDays(2).toMillis());
+        touch(old, now - 2_000);
+        touch(recent, now - 1_000);
+
+        assertEquals(1, cache.prune());
+        assertNull(cache.get(stale));
+
+        // reading refreshes an entry, so the other one is the least recently used once over the cap
+        assertNotNull(cache.get(old));
+        cache.put(EmbeddingService.cacheKey("all-minilm", "new"), new float[]{4f, 4f});
+        assertEquals(1, cache.prune());
+        assertNull(cache.get(recent));
+        assertArrayEquals(new float[]{2f, 2f}, cache.get(old));
+    }
+
+    private void touch(String key, long millis) throws Exception {
+        Files.setLastModifiedTime(dir.resolve(key.substring(0, 2)).resolve(key + ".f32"), FileTime.fromMillis(millis));
+    }
+}
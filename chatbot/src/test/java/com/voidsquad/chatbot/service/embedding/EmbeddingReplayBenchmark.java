@@ -0,0 +1,79 @@
+package com.voidsquad.chatbot.service.embedding;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to embed the test prompt log against a model answering in 5 ms, with a cold cache on every replay
+ * and without any cache; the difference is the model calls the cache saves on repeated prompts.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.voidsquad.chatbot.service.embedding.EmbeddingReplayBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmbeddingReplayBenchmark {
+
+    private static final long MODEL_LATENCY_MS = 5;
+
+    private List<String> prompts;
+    private EmbeddingService uncached;
+    private EmbeddingService cached;
+
+    @Setup
+    public void loadPrompts() throws IOException {
+        prompts = EmbeddingServiceTest.promptLog();
+        uncached = EmbeddingServiceTest.service(new EmbeddingServiceTest.FakeOllama(MODEL_LATENCY_MS),
+                new EmbeddingCache(0, null, new SimpleMeterRegistry()));
+    }
+
+    // a fresh cache per replay, so every run pays for the first occurrence of each prompt
+    @Setup(Level.Invocation)
+    public void coldCache() {
+        cached = EmbeddingServiceTest.service(new EmbeddingServiceTest.FakeOllama(MODEL_LATENCY_MS),
+                new EmbeddingCache(100, null, new SimpleMeterRegistry()));
+    }
+
+    @Benchmark
+    public int replayUncached() {
+        return replay(uncached);
+    }
+
+    @Benchmark
+    public int replayCached() {
+        return replay(cached);
+    }
+
+    private int replay(EmbeddingService service) {
+        int dims = 0;
+        for (String prompt : prompts) {
+            dims += service.generateEmbedding(prompt).length;
+        }
+        return dims;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(EmbeddingReplayBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,146 @@
+package com.voidsquad.chatbot.service.embedding;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddingServiceTest {
+
+    private static final Path NO_DISK = null;
+
+    private static final String URL = "http://ollama/api/embeddings";
+    private static final String BATCH_URL = "http://ollama/api/embed";
+
+    @Test
+    void generateEmbedding_callsTheModelOncePerNormalisedText() {
+        FakeOllama ollama = new FakeOllama(0);
+        EmbeddingService service = service(ollama, new EmbeddingCache(100, NO_DISK, new SimpleMeterRegistry()));
+
+        float[] first = service.generateEmbedding("What are your opening hours?");
+        float[] again = service.generateEmbedding("  what are your\topening HOURS? ");
+
+        assertEquals(1, ollama.calls.get());
+        assertArrayEquals(first, again);
+        assertEquals("what are your opening hours?", ollama.lastPrompt);
+    }
+
+    @Test
+    void generateEmbeddings_sendsOnlyUncachedDistinctTextsInOneCall() {
+        FakeOllama ollama = new FakeOllama(0);
+        EmbeddingService service = service(ollama, new EmbeddingCache(100, NO_DISK, new SimpleMeterRegistry()));
+        float[] cached = service.generateEmbedding("Brake failure");
+
+        List<float[]> embeddings = service.generateEmbeddings(List.of("Engine overheating", "brake  failure", "Engine Overheating", "Flat tyre"));
+
+        assertEquals(2, ollama.calls.get());
+        assertEquals(List.of("engine overheating", "flat tyre"), ollama.lastBatch);
+        assertEquals(4, embeddings.size());
+        assertArrayEquals(cached, embeddings.get(1));
+        assertArrayEquals(embeddings.get(0), embeddings.get(2));
+        assertArrayEquals(service.generateEmbedding("flat tyre"), embeddings.get(3));
+        assertEquals(2, ollama.calls.get());
+    }
+
+    @Test
+    void cacheKey_dependsOnTheModel() {
+        assertNotEquals(EmbeddingService.cacheKey("all-minilm", "brakes"), EmbeddingService.cacheKey("nomic-embed-text", "brakes"));
+    }
+
+    @Test
+    void generateEmbedding_doesNotCacheFailures() {
+        RestTemplate failing = new RestTemplate() {
+            @Override
+            public <T> ResponseEntity<T> postForEntity(String url, Object request, Class<T> responseType, Object... vars) {
+                throw new IllegalStateException("connection refused");
+            }
+        };
+        EmbeddingCache cache = new EmbeddingCache(100, NO_DISK, new SimpleMeterRegistry());
+        EmbeddingService service = new EmbeddingService(failing, cache, new SimpleMeterRegistry(), URL, BATCH_URL, "all-minilm");
+
+        assertThrows(RuntimeException.class, () -> service.generateEmbedding("hello"));
+        assertEquals(0, cache.size());
+    }
+
+    // Replays a prompt log: only distinct prompts reach the model (timings: EmbeddingReplayBenchmark)
+    @Test
+    void replayedPromptLog_onlyEmbedsDistinctPrompts() throws IOException {
+        List<String> prompts = promptLog();
+        Set<String> distinct = new HashSet<>();
+        prompts.forEach(p -> distinct.add(EmbeddingService.normalise(p)));
+
+        FakeOllama uncachedModel = new FakeOllama(0);
+        EmbeddingService uncached = service(uncachedModel, new EmbeddingCache(0, NO_DISK, new SimpleMeterRegistry()));
+        prompts.forEach(uncached::generateEmbedding);
+
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        FakeOllama cachedModel = new FakeOllama(0);
+        EmbeddingService cached = service(cachedModel, new EmbeddingCache(100, NO_DISK, meters));
+        prompts.forEach(cached::generateEmbedding);
+
+        double hits = meters.get("embedding.cache.requests").tag("result", "hit-memory").counter().count();
+        assertEquals(prompts.size(), uncachedModel.calls.get());
+        assertEquals(distinct.size(), cachedModel.calls.get());
+        assertEquals(prompts.size() - distinct.size(), (int) hits);
+    }
+
+    static List<String> promptLog() throws IOException {
+        try (InputStream in = EmbeddingServiceTest.class.getResourceAsStream("/embedding/prompt-log.txt")) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines()
+                    .filter(line -> !line.isBlank() && !line.startsWith("#"))
+                    .toList();
+        }
+    }
+
+    static EmbeddingService service(RestTemplate ollama, EmbeddingCache cache) {
+        return new EmbeddingService(ollama, cache, new SimpleMeterRegistry(), URL, BATCH_URL, "all-minilm");
+    }
+
+    // Answers /api/embeddings like Ollama, with a vector derived from the prompt, after latencyMs
+    static class FakeOllama extends RestTemplate {
+        private final long latencyMs;
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile String lastPrompt;
+        private volatile List<String> lastBatch;
+
+        FakeOllama(long latencyMs) {
+            this.latencyMs = latencyMs;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> ResponseEntity<T> postForEntity(String url, Object request, Class<T> responseType, Object... vars) {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Map<String, Object> body = (Map<String, Object>) request;
+            if (url.equals(BATCH_URL)) {
+                List<String> inputs = (List<String>) body.get("input");
+                lastBatch = inputs;
+                return (ResponseEntity<T>) ResponseEntity.ok(Map.of("embeddings", inputs.stream().map(FakeOllama::vector).toList()));
+            }
+            lastPrompt = (String) body.get("prompt");
+            return (ResponseEntity<T>) ResponseEntity.ok(Map.of("embedding", vector(lastPrompt)));
+        }
+
+        private static List<Double> vector(String text) {
+            double seed = text.hashCode();
+            return List.of(seed, seed / 2, seed / 3);
+        }
+    }
+}
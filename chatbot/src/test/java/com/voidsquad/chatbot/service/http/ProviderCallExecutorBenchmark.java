@@ -0,0 +1,71 @@
+package com.voidsquad.chatbot.service.http;
+
+import com.sun.net.httpserver.HttpServer;
+import com.voidsquad.chatbot.config.HttpClientConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a provider call against a stub LLM that stalls one request in 25 for 300 ms, with and without
+ * hedging; compare the p0.99 rows. Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.voidsquad.chatbot.service.http.ProviderCallExecutorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class ProviderCallExecutorBenchmark {
+
+    @Param({"false", "true"})
+    public boolean hedged;
+
+    private HttpServer stubLlm;
+    private HttpClient httpClient;
+    private RestClient client;
+    private ProviderCallExecutor calls;
+
+    @Setup
+    public void setUp() throws IOException {
+        stubLlm = ProviderCallExecutorTest.startStubLlm(25);
+        httpClient = new HttpClientConfig().providerHttpClient(2000);
+        client = ProviderCallExecutorTest.stubClient(stubLlm, httpClient);
+        calls = new ProviderCallExecutor(new SimpleMeterRegistry(), 1, 0, hedged ? "gemini" : "", 10);
+    }
+
+    @TearDown
+    public void tearDown() {
+        stubLlm.stop(0);
+        httpClient.close();
+    }
+
+    @Benchmark
+    public String call() {
+        return ProviderCallExecutorTest.call(calls, client);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ProviderCallExecutorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,160 @@
+package com.voidsquad.chatbot.service.http;
+
+import com.sun.net.httpserver.HttpServer;
+import com.voidsquad.chatbot.config.HttpClientConfig;
+import com.voidsquad.chatbot.config.ProviderHttpClients;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProviderCallExecutorTest {
+
+    static {
+        // the JDK stub server otherwise waits on delayed ACKs, adding ~40 ms to every response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private HttpServer stubLlm;
+    private HttpClient httpClient;
+
+    @BeforeEach
+    void startStubLlm() throws IOException {
+        // the first request after the warm-up history stalls
+        stubLlm = startStubLlm(ProviderCallExecutor.MIN_SAMPLES + 1);
+        httpClient = new HttpClientConfig().providerHttpClient(2000);
+    }
+
+    /** A stub LLM that answers in 5 ms, except every {@code stallEvery}th request, which stalls for 300 ms. */
+    static HttpServer startStubLlm(int stallEvery) throws IOException {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v1/chat/completions", exchange -> {
+            int n = requests.incrementAndGet();
+            try {
+                Thread.sleep(n % stallEvery == 0 ? 300 : 5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"choices\":[{\"message\":{\"content\":\"ok\"}}]}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    @AfterEach
+    void stopStubLlm() {
+        stubLlm.stop(0);
+        httpClient.close();
+    }
+
+    @Test
+    void retriesTransientFailuresOnly() {
+        ProviderCallExecutor calls = new ProviderCallExecutor(registry, 3, 1, "", 0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String answer = calls.call("gemini", () -> {
+            if (attempts.incrementAndGet() < 3) throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+            return "ok";
+        });
+
+        assertEquals("ok", answer);
+        assertEquals(2.0, registry.counter("provider.call.retries", "target", "gemini").count());
+
+        AtomicInteger rejected = new AtomicInteger();
+        assertThrows(HttpClientErrorException.class, () -> calls.call("gemini", () -> {
+            rejected.incrementAndGet();
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+        }));
+        assertEquals(1, rejected.get());
+        assertTrue(ProviderCallExecutor.isTransient(new RuntimeException(new ResourceAccessException("reset", new IOException()))));
+    }
+
+    @Test
+    void hedgesOnlyOnceThereIsALatencyHistory_andCancelsTheSlowRequest() throws InterruptedException {
+        ProviderCallExecutor calls = new ProviderCallExecutor(registry, 1, 0, "embedding", 10);
+        for (int i = 0; i < ProviderCallExecutor.MIN_SAMPLES; i++) {
+            calls.call("embedding", () -> "warm");
+        }
+        AtomicInteger started = new AtomicInteger();
+        CountDownLatch slowCancelled = new CountDownLatch(1);
+
+        String answer = calls.call("embedding", () -> {
+            if (started.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(5_000);
+                } catch (InterruptedException e) {
+                    slowCancelled.countDown();
+                    throw e;
+                }
+                return "slow";
+            }
+            return "hedge";
+        });
+
+        assertEquals("hedge", answer);
+        assertEquals(2, started.get());
+        assertTrue(slowCancelled.await(1, TimeUnit.SECONDS));
+        assertEquals(1.0, registry.counter("provider.call.hedges", "target", "embedding").count());
+    }
+
+    /**
+     * A stalled request through the shared client is overtaken by its duplicate, and cancelling the stalled one
+     * leaves the pool usable. Tail latency over many requests is measured by {@link ProviderCallExecutorBenchmark}.
+     */
+    @Test
+    void hedgeOvertakesAStalledRequestThroughTheSharedClient() {
+        RestClient client = stubClient(stubLlm, httpClient);
+        ProviderCallExecutor calls = new ProviderCallExecutor(registry, 1, 0, "gemini", 10);
+        for (int i = 0; i < ProviderCallExecutor.MIN_SAMPLES; i++) {
+            call(calls, client);
+        }
+
+        long start = System.nanoTime();
+        call(calls, client);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMillis < 250, "stalled request took " + elapsedMillis + " ms");
+        assertEquals(1.0, registry.counter("provider.call.hedges", "target", "gemini").count());
+        call(calls, client);
+    }
+
+    static RestClient stubClient(HttpServer stubLlm, HttpClient httpClient) {
+        return new ProviderHttpClients(httpClient, Duration.ofSeconds(5)).restClientBuilder()
+                .baseUrl("http://127.0.0.1:" + stubLlm.getAddress().getPort())
+                .build();
+    }
+
+    static String call(ProviderCallExecutor calls, RestClient client) {
+        String body = calls.call("gemini", () -> client.post().uri("/v1/chat/completions")
+                .body("{}").retrieve().body(String.class));
+        assertTrue(body.contains("ok"));
+        return body;
+    }
+}
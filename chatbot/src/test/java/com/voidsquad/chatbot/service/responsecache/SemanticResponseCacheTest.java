@@ -0,0 +1,58 @@
+package com.voidsquad.chatbot.service.responsecache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SemanticResponseCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SemanticResponseCache cache = new SemanticResponseCache(true, 0.95, 2, 1_000, registry, now::get);
+
+    @Test
+    void similarQuestionFromTheSameRole_getsTheCachedAnswer() {
+        cache.put("USER", new float[]{1f, 0f, 0f}, "About an hour", cache.version());
+
+        // cosine ~0.995 with the cached question, scale does not matter
+        assertEquals("About an hour", cache.get("USER", new float[]{10f, 1f, 0f}));
+        // cosine ~0.89
+        assertNull(cache.get("USER", new float[]{2f, 1f, 0f}));
+        assertNull(cache.get("ADMIN", new float[]{1f, 0f, 0f}));
+        assertEquals(1.0, registry.counter("response.cache.requests", "result", "hit").count());
+        assertEquals(2.0, registry.counter("response.cache.requests", "result", "miss").count());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed_andExpiresOldEntries() {
+        cache.put("USER", new float[]{1f, 0f, 0f}, "a", cache.version());
+        cache.put("USER", new float[]{0f, 1f, 0f}, "b", cache.version());
+        assertEquals("a", cache.get("USER", new float[]{1f, 0f, 0f}));
+
+        cache.put("USER", new float[]{0f, 0f, 1f}, "c", cache.version());
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get("USER", new float[]{0f, 1f, 0f}));
+        assertEquals("a", cache.get("USER", new float[]{1f, 0f, 0f}));
+
+        now.addAndGet(1_001);
+        assertNull(cache.get("USER", new float[]{1f, 0f, 0f}));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void invalidate_dropsEntriesAndRejectsAnswersFromBeforeIt() {
+        long before = cache.version();
+        cache.put("USER", new float[]{1f, 0f, 0f}, "old", before);
+
+        cache.invalidate();
+        cache.put("USER", new float[]{1f, 0f, 0f}, "computed from old static info", before);
+
+        assertNull(cache.get("USER", new float[]{1f, 0f, 0f}));
+        cache.put("USER", new float[]{1f, 0f, 0f}, "new", cache.version());
+        assertEquals("new", cache.get("USER", new float[]{1f, 0f, 0f}));
+    }
+}
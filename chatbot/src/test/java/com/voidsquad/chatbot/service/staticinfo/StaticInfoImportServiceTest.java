@@ -0,0 +1,132 @@
+package com.voidsquad.chatbot.service.staticinfo;
+
+import com.voidsquad.chatbot.converter.PgVector;
+import com.voidsquad.chatbot.dto.StaticInfoImportReport;
+import com.voidsquad.chatbot.service.embedding.EmbeddingService;
+import com.voidsquad.chatbot.service.vectorindex.VectorIndexService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StaticInfoImportServiceTest {
+
+    @Mock
+    EmbeddingService embeddingService;
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    VectorIndexService vectorIndexService;
+
+    @Test
+    void importCsv_embedsAndInsertsRowsInBatches() throws Exception {
+        when(embeddingService.generateEmbeddings(anyList())).thenAnswer(inv -> vectors(inv.getArgument(0)));
+        StaticInfoImportService service = new StaticInfoImportService(embeddingService, jdbcTemplate, vectorIndexService, 2, 2);
+
+        StaticInfoImportReport report = service.importCsv(csv("""
+                topic,description
+                Engine Overheating,  Coolant or thermostat issues
+                Brake Failure,Worn pads or leaking fluid
+                Flat Tyre,Puncture or valve leak
+                """));
+
+        assertThat(report.getImported()).isEqualTo(3);
+        assertThat(report.getFailures()).isEmpty();
+        // one index write per inserted batch
+        verify(vectorIndexService, times(2)).indexAllStaticInfo(anyList());
+        verify(embeddingService, times(2)).generateEmbeddings(anyList());
+        verify(embeddingService, never()).generateEmbedding(anyString());
+        // one multi-row statement per batch: 2 rows, then 1
+        ArgumentCaptor<PreparedStatementCreator> statements = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate, times(2)).update(statements.capture());
+        assertThat(statements.getAllValues()).extracting(s -> ((StaticInfoImportService.InsertStatement) s).args().length)
+                .containsExactlyInAnyOrder(8, 4);
+        assertThat(((StaticInfoImportService.InsertStatement) statements.getValue()).args()[3]).isInstanceOf(PgVector.class);
+        verify(embeddingService).generateEmbeddings(List.of("Engine Overheating: Coolant or thermostat issues", "Brake Failure: Worn pads or leaking fluid"));
+    }
+
+    @Test
+    void importCsv_reportsSkippedAndFailedRowsAndImportsTheRest() throws Exception {
+        when(embeddingService.generateEmbeddings(anyList())).thenThrow(new RuntimeException("model overloaded"));
+        when(embeddingService.generateEmbedding(anyString())).thenAnswer(inv -> {
+            String text = inv.getArgument(0);
+            if (text.startsWith("Bad")) throw new RuntimeException("input too long");
+            return new float[]{1f, 2f};
+        });
+        when(jdbcTemplate.update(any(PreparedStatementCreator.class))).thenAnswer(inv -> {
+            Object[] args = inv.<StaticInfoImportService.InsertStatement>getArgument(0).args();
+            if (args.length > 4) throw new DataIntegrityViolationException("value too long for column topic");
+            if ("Duplicate".equals(args[1])) throw new DataIntegrityViolationException("duplicate key");
+            return 1;
+        });
+        StaticInfoImportService service = new StaticInfoImportService(embeddingService, jdbcTemplate, vectorIndexService, 10, 1);
+
+        StaticInfoImportReport report = service.importCsv(csv("""
+                topic,description
+                Good,Fine
+                ,Missing topic
+                Bad,Cannot embed
+                Duplicate,Cannot insert
+                Also good,Fine too
+                """));
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getSkippedRows()).containsExactly(3);
+        assertThat(report.getFailures()).extracting(StaticInfoImportReport.RowFailure::getRow).containsExactly(4, 5);
+        assertThat(report.getFailures().get(0).getReason()).contains("embedding failed");
+        assertThat(report.getFailures().get(1).getReason()).contains("insert failed");
+        verify(vectorIndexService, times(2)).indexAllStaticInfo(anyList());
+    }
+
+    @Test
+    void importCsv_rejectsFilesWithoutTheRequiredHeaders() {
+        StaticInfoImportService service = new StaticInfoImportService(embeddingService, jdbcTemplate, vectorIndexService, 10, 1);
+
+        assertThatThrownBy(() -> service.importCsv(csv("wrong,headers\nA,B\n")))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(embeddingService, jdbcTemplate, vectorIndexService);
+    }
+
+    @Test
+    void importCsv_importsTheBundledKnowledgeBase() throws Exception {
+        when(embeddingService.generateEmbeddings(anyList())).thenAnswer(inv -> vectors(inv.getArgument(0)));
+        StaticInfoImportService service = new StaticInfoImportService(embeddingService, jdbcTemplate, vectorIndexService, 16, 4);
+
+        try (InputStream in = getClass().getResourceAsStream("/Vehical issues and solutions.csv")) {
+            StaticInfoImportReport report = service.importCsv(in);
+
+            assertThat(report.getImported()).isEqualTo(41);
+            assertThat(report.getFailures()).isEmpty();
+        }
+        verify(jdbcTemplate, times(3)).update(argThat((PreparedStatementCreator st) ->
+                ((StaticInfoImportService.InsertStatement) st).getSql().startsWith("INSERT INTO static_info_vector_db")));
+    }
+
+    private static List<float[]> vectors(List<String> texts) {
+        return texts.stream().map(t -> new float[]{t.length(), 0.5f}).toList();
+    }
+
+    private static InputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
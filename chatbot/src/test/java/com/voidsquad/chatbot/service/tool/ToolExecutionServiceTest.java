@@ -6,9 +6,15 @@ import com.voidsquad.chatbot.service.tool.ToolCallRequest;
 import com.voidsquad.chatbot.service.tool.ToolCallResult;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -60,4 +66,98 @@ class ToolExecutionServiceTest {
         assertEquals(1, res.size());
         assertFalse(res.get(0).isSuccess());
     }
+
+    static Tool tool(String name, Function<ToolCallRequest, ToolCallResult> body) {
+        return tool(name, null, body);
+    }
+
+    static Tool tool(String name, Duration timeout, Function<ToolCallRequest, ToolCallResult> body) {
+        return new Tool() {
+            @Override public String name() { return name; }
+            @Override public ToolCallResult execute(ToolCallRequest request) { return body.apply(request); }
+            @Override public Optional<Duration> timeout() { return Optional.ofNullable(timeout); }
+        };
+    }
+
+    @Test
+    void independentCallsRunConcurrently_andKeepTheirOrder() {
+        // each tool only finishes once both have started, so running them one after another would time out
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Function<ToolCallRequest, ToolCallResult> awaitOther = request -> {
+            bothStarted.countDown();
+            try {
+                if (!bothStarted.await(2, TimeUnit.SECONDS)) return ToolCallResult.failure("ran alone", "x");
+            } catch (InterruptedException e) {
+                return ToolCallResult.failure("interrupted", "x");
+            }
+            return ToolCallResult.success(String.valueOf(request.getParameters().get("n")), "x");
+        };
+        ToolExecutionService svc = new ToolExecutionService(new ToolRegistry(List.of(tool("slow", awaitOther))));
+
+        List<ToolCallResult> res = svc.executeAll(List.of(
+                new ToolCall("slow", Map.of("n", "first"), "a"),
+                new ToolCall("slow", Map.of("n", "second"), "b")), "q", null);
+
+        assertEquals(List.of("first", "second"), res.stream().map(ToolCallResult::getResult).toList());
+    }
+
+    @Test
+    void dependentCallWaitsForAndReceivesItsDependencyResult() {
+        Tool orders = tool("orders", request -> ToolCallResult.success("order-7", "orders"));
+        Tool status = tool("status", request -> {
+            Object deps = request.getParameters().get("dependencyResults");
+            return ToolCallResult.success("status of " + ((Map<?, ?>) deps).get("o"), "status");
+        });
+        ToolExecutionService svc = new ToolExecutionService(new ToolRegistry(List.of(orders, status)));
+
+        List<ToolCallResult> res = svc.executeAll(List.of(
+                new ToolCall("s", "status", Map.of(), "checking status", List.of("o")),
+                new ToolCall("o", "orders", Map.of(), "finding the order", List.of())), "q", null);
+
+        assertEquals("status of order-7", res.get(0).getResult());
+        assertEquals("order-7", res.get(1).getResult());
+    }
+
+    @Test
+    void failedDependencyAndCyclesFailWithoutRunningTheTool() {
+        AtomicBoolean ran = new AtomicBoolean();
+        Tool broken = tool("broken", request -> { throw new IllegalStateException("down"); });
+        Tool after = tool("after", request -> { ran.set(true); return ToolCallResult.success("ran", "after"); });
+        ToolExecutionService svc = new ToolExecutionService(new ToolRegistry(List.of(broken, after)));
+
+        List<ToolCallResult> res = svc.executeAll(List.of(
+                new ToolCall("b", "broken", null, "x", List.of()),
+                new ToolCall("a", "after", null, "x", List.of("broken")),
+                new ToolCall("c1", "after", null, "x", List.of("c2")),
+                new ToolCall("c2", "after", null, "x", List.of("c1"))), "q", null);
+
+        assertEquals("execution error: down", res.get(0).getMessage());
+        assertTrue(res.get(1).getMessage().startsWith("dependency 'b' failed"));
+        assertEquals("dependency cycle", res.get(2).getMessage());
+        assertEquals("dependency cycle", res.get(3).getMessage());
+        assertFalse(ran.get());
+    }
+
+    @Test
+    void slowToolIsCancelledAtItsTimeout() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Tool hanging = tool("hanging", Duration.ofMillis(50), request -> {
+            try {
+                Thread.sleep(10_000);
+                return ToolCallResult.success("late", "hanging");
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                return ToolCallResult.failure("interrupted", "hanging");
+            }
+        });
+        ToolExecutionService svc = new ToolExecutionService(new ToolRegistry(List.of(hanging, new DummyTool("d1"))), 5_000);
+
+        List<ToolCallResult> res = svc.executeAll(List.of(
+                new ToolCall("hanging", new HashMap<>(), "x"),
+                new ToolCall("d1", new HashMap<>(), "x")), "q", null);
+
+        assertEquals("timed out after 50 ms", res.get(0).getMessage());
+        assertTrue(res.get(1).isSuccess());
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
 }
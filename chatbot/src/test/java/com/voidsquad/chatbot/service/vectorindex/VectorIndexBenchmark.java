@@ -0,0 +1,71 @@
+package com.voidsquad.chatbot.service.vectorindex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-5 search latency of the in-memory index at the size of the bundled knowledge base and at ten times it.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.voidsquad.chatbot.service.vectorindex.VectorIndexBenchmark}; recall is checked by
+ * {@code VectorIndexTest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorIndexBenchmark {
+
+    @Param({"500", "5000"})
+    public int rows;
+
+    private VectorIndex<VectorIndexTest.Doc> index;
+    private float[][] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        int dimensions = VectorIndexService.DIMENSIONS;
+        Random random = new Random(42);
+        List<VectorIndexTest.Doc> docs = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            docs.add(new VectorIndexTest.Doc(UUID.randomUUID(), "doc-" + i, VectorIndexTest.randomVector(random, dimensions)));
+        }
+        index = new VectorIndex<>(dimensions, VectorIndexTest.Doc::id, VectorIndexTest.Doc::embedding);
+        index.replaceAll(docs);
+        queries = new float[256][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = VectorIndexTest.randomVector(random, dimensions);
+        }
+    }
+
+    @Benchmark
+    public List<VectorIndexTest.Doc> searchTop5() {
+        next = (next + 1) % queries.length;
+        return index.search(queries[next], 5);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(VectorIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,158 @@
+package com.voidsquad.chatbot.service.vectorindex;
+
+import com.voidsquad.chatbot.entities.StaticInfo;
+import com.voidsquad.chatbot.entities.WorkflowStep;
+import com.voidsquad.chatbot.repository.StaticInfoRepository;
+import com.voidsquad.chatbot.repository.WorkflowStepRepository;
+import com.voidsquad.chatbot.service.responsecache.SemanticResponseCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VectorIndexServiceTest {
+
+    @Mock
+    StaticInfoRepository staticInfoRepository;
+
+    @Mock
+    WorkflowStepRepository workflowStepRepository;
+
+    @Test
+    void findSimilar_usesPgvectorUntilTheIndexHasLoaded() {
+        StaticInfo fromDb = staticInfo("Brakes", 0);
+        when(staticInfoRepository.findSimilarStaticInfo(any(), anyInt())).thenReturn(List.of(fromDb));
+        VectorIndexService service = service(true);
+
+        assertThat(service.findSimilarStaticInfo(unit(0), 5)).containsExactly(fromDb);
+    }
+
+    @Test
+    void reload_servesSearchesFromMemoryAndSavedRowsJoinStraightAway() {
+        StaticInfo brakes = staticInfo("Brakes", 0);
+        StaticInfo tyres = staticInfo("Tyres", 1);
+        when(staticInfoRepository.findAll()).thenReturn(List.of(brakes, tyres));
+        when(workflowStepRepository.findAll()).thenReturn(List.of());
+        VectorIndexService service = service(true);
+
+        service.reload();
+        StaticInfo engine = staticInfo("Engine", 2);
+        service.indexStaticInfo(engine);
+
+        assertThat(service.findSimilarStaticInfo(unit(1), 1)).containsExactly(tyres);
+        assertThat(service.findSimilarStaticInfo(unit(2), 1)).containsExactly(engine);
+        assertThat(service.findSimilarSteps(unit(0), 5)).isEmpty();
+        verify(staticInfoRepository, never()).findSimilarStaticInfo(any(), anyInt());
+        verify(workflowStepRepository, never()).findSimilarSteps(any(), anyInt());
+    }
+
+    @Test
+    void reload_keepsRowsSavedAfterItReadTheTable() {
+        StaticInfo brakes = staticInfo("Brakes", 0);
+        StaticInfo engine = staticInfo("Engine", 2);
+        when(workflowStepRepository.findAll()).thenReturn(List.of());
+        VectorIndexService service = service(true);
+        when(staticInfoRepository.findAll()).thenAnswer(inv -> {
+            service.indexStaticInfo(engine);
+            return List.of(brakes);
+        });
+
+        service.reload();
+
+        assertThat(service.findSimilarStaticInfo(unit(2), 1)).containsExactly(engine);
+        assertThat(service.findSimilarStaticInfo(unit(0), 1)).containsExactly(brakes);
+    }
+
+    @Test
+    void indexAllStaticInfo_indexesTheBatchAndInvalidatesCachedAnswersOnce() {
+        when(staticInfoRepository.findAll()).thenReturn(List.of());
+        when(workflowStepRepository.findAll()).thenReturn(List.of());
+        SemanticResponseCache cache = mock(SemanticResponseCache.class);
+        VectorIndexService service = new VectorIndexService(staticInfoRepository, workflowStepRepository,
+                new SimpleMeterRegistry(), true, cache);
+        service.reload();
+        clearInvocations(cache);
+        StaticInfo brakes = staticInfo("Brakes", 0);
+        StaticInfo tyres = staticInfo("Tyres", 1);
+
+        service.indexAllStaticInfo(List.of(brakes, tyres, new StaticInfo(UUID.randomUUID(), "Bad", "Bad", new float[]{1f})));
+
+        verify(cache, times(1)).invalidate();
+        assertThat(service.findSimilarStaticInfo(unit(1), 1)).containsExactly(tyres);
+        assertThat(service.findSimilarStaticInfo(unit(0), 5)).hasSize(2);
+    }
+
+    @Test
+    void reload_keepsTheFallbackForATableThatFailsToLoad() {
+        WorkflowStep step = new WorkflowStep(UUID.randomUUID(), "Book service", unit(0), "Books a slot");
+        when(staticInfoRepository.findAll()).thenThrow(new DataAccessResourceFailureException("db down"));
+        when(workflowStepRepository.findAll()).thenReturn(List.of(step));
+        when(staticInfoRepository.findSimilarStaticInfo(any(), anyInt())).thenReturn(List.of());
+        VectorIndexService service = service(true);
+
+        service.reload();
+
+        assertThat(service.findSimilarStaticInfo(unit(0), 5)).isEmpty();
+        verify(staticInfoRepository).findSimilarStaticInfo(any(), anyInt());
+        assertThat(service.findSimilarSteps(unit(0), 5)).containsExactly(step);
+    }
+
+    @Test
+    void disabled_neverLoadsAndAlwaysAsksPgvector() {
+        VectorIndexService service = service(false);
+
+        service.reload();
+        service.findSimilarSteps(unit(0), 5);
+
+        verify(workflowStepRepository, never()).findAll();
+        verify(workflowStepRepository).findSimilarSteps(any(), eq(5));
+    }
+
+    @Test
+    void staticInfoChanges_invalidateCachedAnswers() {
+        StaticInfo brakes = staticInfo("Brakes", 0);
+        when(staticInfoRepository.findAll()).thenReturn(List.of(brakes));
+        when(workflowStepRepository.findAll()).thenReturn(List.of());
+        SemanticResponseCache cache = new SemanticResponseCache(true, 0.95, 10, 60_000, new SimpleMeterRegistry());
+        VectorIndexService service = new VectorIndexService(staticInfoRepository, workflowStepRepository,
+                new SimpleMeterRegistry(), true, cache);
+        service.reload();
+
+        cache.put("USER", unit(0), "Brakes are checked yearly", cache.version());
+        service.reload();
+        assertThat(cache.get("USER", unit(0))).isEqualTo("Brakes are checked yearly");
+
+        when(staticInfoRepository.findAll()).thenReturn(List.of(brakes, staticInfo("Tyres", 1)));
+        service.reload();
+        assertThat(cache.get("USER", unit(0))).isNull();
+
+        cache.put("USER", unit(0), "Brakes are checked yearly", cache.version());
+        service.indexStaticInfo(staticInfo("Engine", 2));
+        assertThat(cache.get("USER", unit(0))).isNull();
+    }
+
+    private VectorIndexService service(boolean enabled) {
+        return new VectorIndexService(staticInfoRepository, workflowStepRepository, new SimpleMeterRegistry(), enabled, null);
+    }
+
+    private static StaticInfo staticInfo(String topic, int axis) {
+        return new StaticInfo(UUID.randomUUID(), topic, topic + " help", unit(axis));
+    }
+
+    private static float[] unit(int axis) {
+        float[] v = new float[VectorIndexService.DIMENSIONS];
+        v[axis] = 1f;
+        return v;
+    }
+}
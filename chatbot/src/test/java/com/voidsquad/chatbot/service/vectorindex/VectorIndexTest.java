@@ -0,0 +1,191 @@
+package com.voidsquad.chatbot.service.vectorindex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VectorIndexTest {
+
+    record Doc(UUID id, String name, float[] embedding) {
+    }
+
+    private static VectorIndex<Doc> index(int dimensions) {
+        return new VectorIndex<>(dimensions, Doc::id, Doc::embedding);
+    }
+
+    @Test
+    void search_ordersByCosineSimilarityIgnoringMagnitude() {
+        VectorIndex<Doc> index = index(2);
+        index.replaceAll(List.of(
+                doc("east", 10f, 0f),
+                doc("north", 0f, 1f),
+                doc("north-east", 1f, 1f),
+                doc("west", -3f, 0f)));
+
+        assertThat(index.search(new float[]{1f, 0.1f}, 3)).extracting(Doc::name)
+                .containsExactly("east", "north-east", "north");
+    }
+
+    @Test
+    void replaceAll_skipsUnusableRowsAndKeepsTheLastOfADuplicateId() {
+        VectorIndex<Doc> index = index(2);
+        UUID id = UUID.randomUUID();
+
+        int count = index.replaceAll(List.of(
+                new Doc(id, "old", new float[]{1f, 0f}),
+                new Doc(null, "no id", new float[]{1f, 0f}),
+                new Doc(UUID.randomUUID(), "no embedding", null),
+                new Doc(UUID.randomUUID(), "wrong size", new float[]{1f, 0f, 0f}),
+                new Doc(id, "new", new float[]{0f, 1f})));
+
+        assertThat(count).isEqualTo(1);
+        assertThat(index.search(new float[]{0f, 1f}, 5)).extracting(Doc::name).containsExactly("new");
+    }
+
+    @Test
+    void upsert_addsNewItemsAndReplacesExistingOnes() {
+        VectorIndex<Doc> index = index(2);
+        Doc first = doc("first", 1f, 0f);
+        index.replaceAll(List.of(first));
+
+        assertThat(index.upsert(doc("second", 0f, 1f))).isTrue();
+        assertThat(index.upsert(new Doc(first.id(), "first, moved", new float[]{0f, 2f}))).isTrue();
+        assertThat(index.upsert(new Doc(UUID.randomUUID(), "bad", new float[]{1f}))).isFalse();
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.search(new float[]{0f, 1f}, 2)).extracting(Doc::name)
+                .containsExactly("first, moved", "second");
+    }
+
+    @Test
+    void upsertAll_addsABatchAndCountsOnlyUsableItems() {
+        VectorIndex<Doc> index = index(2);
+        Doc first = doc("first", 1f, 0f);
+        index.replaceAll(List.of(first));
+
+        int count = index.upsertAll(List.of(
+                doc("second", 0f, 1f),
+                new Doc(first.id(), "first, moved", new float[]{-1f, 0f}),
+                new Doc(null, "no id", new float[]{1f, 0f}),
+                doc("third", 1f, 1f)));
+
+        assertThat(count).isEqualTo(3);
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.search(new float[]{-1f, 0f}, 1)).extracting(Doc::name).containsExactly("first, moved");
+        assertThat(index.search(new float[]{1f, 1f}, 1)).extracting(Doc::name).containsExactly("third");
+        assertThat(index.upsertAll(List.of())).isZero();
+    }
+
+    @Test
+    void reload_keepsItemsUpsertedWhileTheLoaderWasReading() {
+        VectorIndex<Doc> index = index(2);
+        Doc old = doc("old", 1f, 0f);
+        Doc edited = new Doc(old.id(), "edited", new float[]{0f, 1f});
+        Doc saved = doc("saved", 1f, 1f);
+        index.replaceAll(List.of(old));
+
+        // the table was read before either write landed
+        List<Doc> read = index.reload(() -> {
+            index.upsert(edited);
+            index.upsertAll(List.of(saved));
+            return List.of(old, doc("other replica", -1f, 0f));
+        });
+
+        assertThat(read).hasSize(2);
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.search(new float[]{0f, 1f}, 1)).extracting(Doc::name).containsExactly("edited");
+        assertThat(index.search(new float[]{1f, 1f}, 1)).extracting(Doc::name).containsExactly("saved");
+
+        // once a reload has finished, earlier writes are no longer replayed over what the next one reads
+        index.reload(() -> List.of(old));
+        assertThat(index.search(new float[]{1f, 1f}, 5)).extracting(Doc::name).containsExactly("old");
+    }
+
+    @Test
+    void reload_thatFailsLeavesTheIndexAsItWas() {
+        VectorIndex<Doc> index = index(2);
+        index.replaceAll(List.of(doc("kept", 1f, 0f)));
+
+        assertThatThrownBy(() -> index.reload(() -> {
+            throw new IllegalStateException("db down");
+        })).isInstanceOf(IllegalStateException.class);
+        index.upsert(doc("saved", 0f, 1f));
+        index.reload(() -> List.of(doc("reloaded", 1f, 0f)));
+
+        assertThat(index.search(new float[]{0f, 1f}, 5)).extracting(Doc::name).containsExactly("reloaded");
+    }
+
+    @Test
+    void search_handlesEmptyIndexesAndRejectsQueriesOfTheWrongSize() {
+        VectorIndex<Doc> index = index(2);
+        assertThat(index.search(new float[]{1f, 0f}, 5)).isEmpty();
+
+        index.replaceAll(List.of(doc("a", 1f, 0f)));
+        assertThat(index.search(new float[]{1f, 0f}, 0)).isEmpty();
+        assertThatThrownBy(() -> index.search(new float[]{1f}, 5)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Recall against a brute-force scan in double precision. The flat index is exact, so recall should only
+     * lose to float rounding on near ties. Search latency is measured by VectorIndexBenchmark.
+     */
+    @Test
+    void search_recallMatchesABruteForceScan() {
+        int dimensions = VectorIndexService.DIMENSIONS, rows = 1_000, queries = 50, k = 5;
+        Random random = new Random(42);
+        List<Doc> docs = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            docs.add(new Doc(UUID.randomUUID(), "doc-" + i, randomVector(random, dimensions)));
+        }
+        VectorIndex<Doc> index = index(dimensions);
+        index.replaceAll(docs);
+
+        int relevantFound = 0;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector(random, dimensions);
+            List<Doc> expected = bruteForce(docs, query, k);
+            relevantFound += (int) index.search(query, k).stream().filter(expected::contains).count();
+        }
+
+        assertThat(relevantFound / (double) (queries * k)).isGreaterThanOrEqualTo(0.99);
+    }
+
+    private static List<Doc> bruteForce(List<Doc> docs, float[] query, int k) {
+        double[] scores = docs.stream().mapToDouble(d -> cosine(query, d.embedding())).toArray();
+        return IntStream.range(0, docs.size()).boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> scores[i]).reversed())
+                .limit(k)
+                .map(docs::get)
+                .toList();
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0, na = 0, nb = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += (double) a[i] * b[i];
+            na += (double) a[i] * a[i];
+            nb += (double) b[i] * b[i];
+        }
+        return dot / Math.sqrt(na * nb);
+    }
+
+    static float[] randomVector(Random random, int dimensions) {
+        float[] v = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            v[i] = (float) random.nextGaussian();
+        }
+        return v;
+    }
+
+    private static Doc doc(String name, float... embedding) {
+        return new Doc(UUID.randomUUID(), name, embedding);
+    }
+}
@@ -0,0 +1,62 @@
+package com.voidsquad.chatbot.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonFieldStreamReaderTest {
+
+    @Test
+    void releasesFieldTextAsItArrives_onceGateIsTrue() {
+        JsonFieldStreamReader reader = new JsonFieldStreamReader("data", "isSimple");
+
+        assertEquals("", reader.accept("```json\n{\"isSimple\": tr"));
+        assertEquals("", reader.accept("ue, \"da"));
+        assertEquals("Hel", reader.accept("ta\": \"Hel"));
+        assertEquals("lo \"you\"", reader.accept("lo \\\"you\\\""));
+        assertEquals("", reader.accept("\"}\n```"));
+        assertEquals("", reader.finish());
+
+        assertTrue(reader.gate());
+        assertTrue(reader.fieldComplete());
+        assertEquals("Hello \"you\"", reader.value());
+    }
+
+    @Test
+    void holdsTextBackUntilALateGate_andNeverReleasesWhenGateIsFalse() {
+        JsonFieldStreamReader open = new JsonFieldStreamReader("data", "isComplete");
+        assertEquals("", open.accept("{\"data\": \"All done\", "));
+        assertEquals("All done", open.accept("\"isComplete\": true}"));
+
+        JsonFieldStreamReader closed = new JsonFieldStreamReader("data", "isSimple");
+        assertEquals("", closed.accept("{\"isSimple\": false, \"data\": \"needs the order tool\"}"));
+        assertEquals("", closed.finish());
+        assertFalse(closed.gate());
+        assertEquals("needs the order tool", closed.value());
+    }
+
+    @Test
+    void decodesEscapesSplitAcrossChunks_andSkipsNestedValues() {
+        JsonFieldStreamReader reader = new JsonFieldStreamReader("data", null);
+
+        StringBuilder out = new StringBuilder();
+        for (String chunk : new String[]{"{\"meta\": {\"data\": \"x\"}, \"data\": \"a\\", "n\\u00", "e9\\ud83d", "\\ude00\"}"}) {
+            out.append(reader.accept(chunk));
+        }
+        out.append(reader.finish());
+
+        assertEquals("a\né\uD83D\uDE00", out.toString());
+    }
+
+    @Test
+    void reportsMissingFieldForFallback() {
+        JsonFieldStreamReader reader = new JsonFieldStreamReader("data", "isSimple");
+
+        assertEquals("", reader.accept("Sorry, plain text answer"));
+        assertEquals("", reader.finish());
+
+        assertNull(reader.gate());
+        assertFalse(reader.fieldFound());
+        assertEquals("Sorry, plain text answer", reader.raw());
+    }
+}
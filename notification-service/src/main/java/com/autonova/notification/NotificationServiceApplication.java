@@ -3,8 +3,10 @@ package com.autonova.notification;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableRabbit
+@EnableScheduling
 @SpringBootApplication
 public class NotificationServiceApplication {
     public static void main(String[] args) {
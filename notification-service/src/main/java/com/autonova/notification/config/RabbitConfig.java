@@ -1,9 +1,13 @@
 package com.autonova.notification.config;
 
+import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.DirectExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
@@ -24,14 +28,39 @@ public class RabbitConfig {
     @Value("${app.rabbit.routingKey}")
     private String routingKey;
 
+    @Value("${app.rabbit.deadLetterExchange:${app.rabbit.queue}.dlx}")
+    private String deadLetterExchangeName;
+
+    @Value("${app.rabbit.deadLetterQueue:${app.rabbit.queue}.dlq}")
+    private String deadLetterQueueName;
+
+    @Value("${app.rabbit.listener.prefetch:50}")
+    private int prefetch;
+
+    @Value("${app.rabbit.listener.concurrency:2}")
+    private int concurrency;
+
+    @Value("${app.rabbit.listener.max-concurrency:4}")
+    private int maxConcurrency;
+
+    @Value("${app.rabbit.listener.batch-size:25}")
+    private int batchSize;
+
+    @Value("${app.rabbit.listener.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
     @Bean
     public TopicExchange appExchange() {
         return new TopicExchange(exchangeName, true, false);
     }
 
+    // Note: adding DLX arguments to an already-declared queue requires deleting it once on the broker
     @Bean
     public Queue appQueue() {
-        return new Queue(queueName, true);
+        return QueueBuilder.durable(queueName)
+                .deadLetterExchange(deadLetterExchangeName)
+                .deadLetterRoutingKey(deadLetterQueueName)
+                .build();
     }
 
     @Bean
@@ -39,6 +68,42 @@ public class RabbitConfig {
         return BindingBuilder.bind(appQueue).to(appExchange).with(routingKey);
     }
 
+    @Bean
+    public DirectExchange deadLetterExchange() {
+        return new DirectExchange(deadLetterExchangeName, true, false);
+    }
+
+    @Bean
+    public Queue deadLetterQueue() {
+        return QueueBuilder.durable(deadLetterQueueName).build();
+    }
+
+    @Bean
+    public Binding deadLetterBinding(Queue deadLetterQueue, DirectExchange deadLetterExchange) {
+        return BindingBuilder.bind(deadLetterQueue).to(deadLetterExchange).with(deadLetterQueueName);
+    }
+
+    /**
+     * Batching, manually-acked consumers: each consumer thread collects up to {@code batch-size} messages
+     * or until {@code flush-interval-ms} has passed since the batch's first message, whichever comes first,
+     * before handing the batch to the listener. The per-poll receive timeout stays at its default.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory notificationListenerContainerFactory(ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(Math.max(concurrency, maxConcurrency));
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setBatchReceiveTimeout(flushIntervalMs);
+        factory.setDefaultRequeueRejected(false);
+        return factory;
+    }
+
     @Bean
     public MessageConverter messageConverter() {
         return new Jackson2JsonMessageConverter();
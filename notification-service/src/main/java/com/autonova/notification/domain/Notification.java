@@ -7,6 +7,7 @@ import java.util.UUID;
 @Entity
 @Table(name = "notifications", indexes = {
         @Index(name = "idx_notifications_user_read", columnList = "userId,readFlag"),
+        @Index(name = "idx_notifications_user_created", columnList = "userId,createdAt DESC"),
         @Index(name = "idx_notifications_event_type", columnList = "eventType")
 }, uniqueConstraints = {
         @UniqueConstraint(name = "uk_notifications_msg_user", columnNames = {"messageId", "userId"})
@@ -40,8 +41,12 @@ public class Notification {
     @Column(nullable = false, length = 2000)
     private String message;
 
-    @Column(columnDefinition = "TEXT")
-    private String eventPayload; // raw JSON for client detail if needed
+    // Key into notification_payloads; shared by all recipients of the same message
+    @Column(length = 100)
+    private String payloadId;
+
+    @Transient
+    private String eventPayload; // raw JSON, persisted once per payloadId by the service
 
     @Column(nullable = false)
     private Instant createdAt;
@@ -49,6 +54,16 @@ public class Notification {
     @Column(nullable = false)
     private boolean readFlag = false;
 
+    // Number of events folded into this row by coalescing (1 for a plain notification)
+    @Column(nullable = false)
+    private int eventCount = 1;
+
+    @Column(length = 100)
+    private String aggregateId; // e.g. project_id; groups events for coalescing
+
+    // Set while this row anchors an open coalescing window
+    private Instant coalesceUntil;
+
     public Notification() {}
 
     @PrePersist
@@ -74,10 +89,18 @@ public class Notification {
     public void setTitle(String title) { this.title = title; }
     public String getMessage() { return message; }
     public void setMessage(String message) { this.message = message; }
+    public String getPayloadId() { return payloadId; }
+    public void setPayloadId(String payloadId) { this.payloadId = payloadId; }
     public String getEventPayload() { return eventPayload; }
     public void setEventPayload(String eventPayload) { this.eventPayload = eventPayload; }
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
     public boolean isReadFlag() { return readFlag; }
     public void setReadFlag(boolean readFlag) { this.readFlag = readFlag; }
+    public int getEventCount() { return eventCount; }
+    public void setEventCount(int eventCount) { this.eventCount = eventCount; }
+    public String getAggregateId() { return aggregateId; }
+    public void setAggregateId(String aggregateId) { this.aggregateId = aggregateId; }
+    public Instant getCoalesceUntil() { return coalesceUntil; }
+    public void setCoalesceUntil(Instant coalesceUntil) { this.coalesceUntil = coalesceUntil; }
 }
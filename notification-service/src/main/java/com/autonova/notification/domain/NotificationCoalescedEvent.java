@@ -0,0 +1,99 @@
+package com.autonova.notification.domain;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * An event folded into a coalescing window instead of getting its own notification row. Kept so redeliveries
+ * of the same message are recognised as duplicates and so the digest can show the latest event.
+ */
+@Entity
+@Table(name = "notification_coalesced_events")
+@IdClass(NotificationCoalescedEvent.Key.class)
+public class NotificationCoalescedEvent implements Persistable<NotificationCoalescedEvent.Key> {
+
+    @Id
+    @Column(nullable = false, updatable = false)
+    private UUID notificationId; // anchor row of the window
+
+    @Id
+    @Column(length = 100, nullable = false, updatable = false)
+    private String messageId;
+
+    private Long userId;
+
+    @Column(nullable = false)
+    private String eventType;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(nullable = false, length = 2000)
+    private String message;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    // Assigned ids would otherwise make save() issue a SELECT before every insert
+    @Transient
+    private boolean isNew = true;
+
+    public NotificationCoalescedEvent() {}
+
+    public NotificationCoalescedEvent(UUID notificationId, Notification event) {
+        this.notificationId = notificationId;
+        this.messageId = event.getMessageId();
+        this.userId = event.getUserId();
+        this.eventType = event.getEventType();
+        this.title = event.getTitle();
+        this.message = event.getMessage();
+        this.createdAt = event.getCreatedAt() != null ? event.getCreatedAt() : Instant.now();
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public Key getId() { return new Key(notificationId, messageId); }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+    public UUID getNotificationId() { return notificationId; }
+    public String getMessageId() { return messageId; }
+    public Long getUserId() { return userId; }
+    public String getEventType() { return eventType; }
+    public String getTitle() { return title; }
+    public String getMessage() { return message; }
+    public Instant getCreatedAt() { return createdAt; }
+
+    public static class Key implements Serializable {
+        private UUID notificationId;
+        private String messageId;
+
+        public Key() {}
+
+        public Key(UUID notificationId, String messageId) {
+            this.notificationId = notificationId;
+            this.messageId = messageId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && Objects.equals(notificationId, k.notificationId) && Objects.equals(messageId, k.messageId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(notificationId, messageId);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.autonova.notification.domain;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Raw event JSON stored once per message and shared by every recipient's notification row.
+ */
+@Entity
+@Table(name = "notification_payloads")
+public class NotificationPayload implements Persistable<String> {
+
+    @Id
+    @Column(length = 100, nullable = false, updatable = false)
+    private String messageId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    // Assigned ids would otherwise make save() issue a SELECT before every insert
+    @Transient
+    private boolean isNew = true;
+
+    public NotificationPayload() {}
+
+    public NotificationPayload(String messageId, String payload) {
+        this.messageId = messageId;
+        this.payload = payload;
+    }
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null) createdAt = Instant.now();
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public String getId() { return messageId; }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+    public String getMessageId() { return messageId; }
+    public String getPayload() { return payload; }
+    public Instant getCreatedAt() { return createdAt; }
+}
@@ -12,5 +12,6 @@ public record NotificationDto(
         String message,
         String messageId,
         Instant createdAt,
-        boolean read
+        boolean read,
+        int count
 ) {}
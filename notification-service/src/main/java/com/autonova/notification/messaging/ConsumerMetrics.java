@@ -0,0 +1,88 @@
+package com.autonova.notification.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Micrometer meters for the notification consumer: end-to-end lag (publish timestamp to consume),
+ * backlog depth of the queue, batch sizes and per-outcome message counts.
+ * <p>
+ * The depth needs a passive queue declare on the broker, so it is sampled on a schedule
+ * ({@code app.rabbit.queue-depth-interval-ms}) and the gauge reports the last sample rather than
+ * declaring on every scrape.
+ */
+@Component
+public class ConsumerMetrics {
+
+    private final Timer lag;
+    private final DistributionSummary batchSize;
+    private final Counter processed;
+    private final Counter deadLettered;
+    private final AmqpAdmin amqpAdmin;
+    private final String queueName;
+    private final AtomicLong queueDepth = new AtomicLong(-1);
+
+    public ConsumerMetrics(MeterRegistry registry, AmqpAdmin amqpAdmin, @Value("${app.rabbit.queue}") String queueName) {
+        this.amqpAdmin = amqpAdmin;
+        this.queueName = queueName;
+        this.lag = Timer.builder("notification.consumer.lag")
+                .description("Time between event publish and consumption")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        this.batchSize = DistributionSummary.builder("notification.consumer.batch.size")
+                .description("Messages persisted per consumer batch")
+                .register(registry);
+        this.processed = Counter.builder("notification.consumer.messages")
+                .tag("outcome", "processed")
+                .register(registry);
+        this.deadLettered = Counter.builder("notification.consumer.messages")
+                .tag("outcome", "dead_lettered")
+                .register(registry);
+        Gauge.builder("notification.consumer.queue.depth", queueDepth, depth -> depth.get() < 0 ? Double.NaN : depth.get())
+                .description("Ready messages waiting in the notification queue")
+                .tag("queue", queueName)
+                .register(registry);
+    }
+
+    public void recordReceived(Message message) {
+        Date timestamp = message.getMessageProperties().getTimestamp();
+        if (timestamp != null) {
+            lag.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - timestamp.getTime())));
+        }
+    }
+
+    public void recordBatch(int size) {
+        batchSize.record(size);
+    }
+
+    public void recordProcessed() {
+        processed.increment();
+    }
+
+    public void recordDeadLettered() {
+        deadLettered.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${app.rabbit.queue-depth-interval-ms:15000}")
+    public void sampleQueueDepth() {
+        try {
+            QueueInformation info = amqpAdmin.getQueueInfo(queueName);
+            queueDepth.set(info == null ? -1 : info.getMessageCount());
+        } catch (Exception e) {
+            queueDepth.set(-1);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.autonova.notification.messaging;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Typed view of an event payload holding only the fields notifications are built from.
+ * The {@code data} object is kept as a byte range of the original body and only rendered on demand.
+ * {@code aggregateId} is the {@code <group>_id} field (e.g. {@code project_id}) when the caller asked for one.
+ */
+public record NotificationEvent(
+        Set<Long> recipientIds,
+        String aggregateId,
+        String scheduledAt,
+        String amount,
+        byte[] body,
+        int dataStart,
+        int dataEnd
+) {
+    /**
+     * The whole event body as UTF-8 text, for storing alongside the notification.
+     */
+    public String payloadJson() {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    public String dataJson() {
+        if (dataStart < 0 || dataEnd <= dataStart) return "{}";
+        return new String(body, dataStart, dataEnd - dataStart, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,104 @@
+package com.autonova.notification.messaging;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Streams the raw message bytes with Jackson's token parser and pulls out only the {@code data} fields
+ * used for recipients and message templates. Everything else is skipped without building a tree.
+ * The recognised keys mirror the snake_case {@code data} fields of the contracts under contracts/events.
+ */
+@Component
+public class NotificationEventDecoder {
+
+    private final JsonFactory jsonFactory;
+
+    public NotificationEventDecoder(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public NotificationEvent decode(byte[] body) throws IOException {
+        return decode(body, null);
+    }
+
+    /**
+     * @param aggregateField optional {@code data} key whose scalar value is captured as the aggregate id
+     */
+    public NotificationEvent decode(byte[] body, String aggregateField) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Event payload must be a JSON object");
+            }
+            Set<Long> recipients = new LinkedHashSet<>(4);
+            String scheduledAt = null;
+            String amount = null;
+            String aggregateId = null;
+            int dataStart = -1;
+            int dataEnd = -1;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!"data".equals(field) || value != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                dataStart = (int) parser.currentTokenLocation().getByteOffset();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String key = parser.currentName();
+                    JsonToken token = parser.nextToken();
+                    switch (key) {
+                        case "customer_id", "user_id", "employee_id", "assigned_employee_id" -> addId(parser, token, recipients);
+                        case "assigned_employee_ids" -> {
+                            if (token == JsonToken.START_ARRAY) {
+                                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) addId(parser, token, recipients);
+                            } else {
+                                parser.skipChildren();
+                            }
+                        }
+                        case "scheduled_at" -> scheduledAt = scalarText(parser, token);
+                        case "amount" -> amount = scalarText(parser, token);
+                        default -> {
+                            if (key.equals(aggregateField)) aggregateId = scalarText(parser, token);
+                            else parser.skipChildren();
+                        }
+                    }
+                }
+                dataEnd = (int) parser.currentTokenLocation().getByteOffset() + 1;
+            }
+            return new NotificationEvent(recipients, aggregateId, scheduledAt, amount, body, dataStart, dataEnd);
+        }
+    }
+
+    private void addId(JsonParser parser, JsonToken token, Set<Long> ids) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            ids.add(parser.getLongValue());
+        } else if (token == JsonToken.VALUE_STRING) {
+            String s = parser.getText().trim();
+            if (!s.isEmpty()) {
+                try {
+                    ids.add(Long.parseLong(s));
+                } catch (NumberFormatException ignored) {
+                    // non-numeric ids (e.g. UUIDs) are not user recipients
+                }
+            }
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    private String scalarText(JsonParser parser, JsonToken token) throws IOException {
+        if (token.isScalarValue()) {
+            return token == JsonToken.VALUE_NULL ? null : parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+}
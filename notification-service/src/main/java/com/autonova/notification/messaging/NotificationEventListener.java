@@ -2,90 +2,138 @@ package com.autonova.notification.messaging;
 
 import com.autonova.notification.domain.Notification;
 import com.autonova.notification.service.NotificationService;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
-import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
-import static org.springframework.amqp.support.AmqpHeaders.RECEIVED_ROUTING_KEY;
 
 @Service
 public class NotificationEventListener {
     private static final Logger log = LoggerFactory.getLogger(NotificationEventListener.class);
 
     private final NotificationService notificationService;
-    private final ObjectMapper objectMapper;
+    private final NotificationEventDecoder decoder;
+    private final ConsumerMetrics metrics;
 
-    public NotificationEventListener(NotificationService notificationService, ObjectMapper objectMapper) {
+    public NotificationEventListener(NotificationService notificationService, NotificationEventDecoder decoder, ConsumerMetrics metrics) {
         this.notificationService = notificationService;
-        this.objectMapper = objectMapper;
+        this.decoder = decoder;
+        this.metrics = metrics;
     }
 
-    @RabbitListener(queues = "${app.rabbit.queue}")
-    public void handleEvent(
-            Message message,
-            @Header(RECEIVED_ROUTING_KEY) String routingKey,
-            @Header(name = "x-event-name", required = false) String eventName,
-            @Header(name = "x-recipients-user-ids", required = false) String recipientsUserIds,
-            @Header(name = "x-recipients-roles", required = false) String recipientsRoles,
-            @Header(name = "message_id", required = false) String legacyMessageId
-    ) {
-        String json = new String(message.getBody(), StandardCharsets.UTF_8);
-        String effectiveEventType = eventName != null ? eventName : routingKey;
-        String msgPropId = message.getMessageProperties().getMessageId();
-        String effectiveMessageId = firstNonBlank(legacyMessageId, msgPropId, java.util.UUID.randomUUID().toString());
-        try {
-            Map<String, Object> payload = objectMapper.readValue(json, new TypeReference<>() {});
-            Object dataObj = payload.getOrDefault("data", Collections.emptyMap());
-            Map<String, Object> data = dataObj instanceof Map ? (Map<String, Object>) dataObj : Collections.emptyMap();
-            Set<Long> userRecipients = parseLongCsv(recipientsUserIds);
-            Set<String> roleRecipients = parseCsv(recipientsRoles);
-            if (userRecipients.isEmpty()) userRecipients = deriveRecipientsFromPayload(data);
-            if (userRecipients.isEmpty() && roleRecipients.isEmpty()) {
-                log.warn("No recipients provided/derived for event {}. Users='{}' Roles='{}'", effectiveEventType, recipientsUserIds, recipientsRoles);
-                return;
+    /**
+     * Consumes a batch of events: decodes each message, persists all resulting notifications in one
+     * transaction and acks the batch once it is committed. Messages that cannot be decoded or persisted
+     * are rejected without requeue so the broker dead-letters them.
+     */
+    @RabbitListener(queues = "${app.rabbit.queue}", containerFactory = "notificationListenerContainerFactory")
+    public void handleBatch(List<Message> messages, Channel channel) throws IOException {
+        List<Message> decoded = new ArrayList<>(messages.size());
+        List<List<Notification>> decodedNotifications = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            metrics.recordReceived(message);
+            try {
+                decodedNotifications.add(decode(message));
+                decoded.add(message);
+            } catch (Exception ex) {
+                log.error("Failed to decode message routingKey={}, error={}",
+                        message.getMessageProperties().getReceivedRoutingKey(), ex.getMessage(), ex);
+                deadLetter(channel, message);
             }
-            String groupType = deriveGroupType(effectiveEventType);
-            String title = buildTitle(effectiveEventType, data);
-            String messageText = buildMessage(effectiveEventType, data);
-            List<Notification> notifications = new ArrayList<>();
-            for (Long userId : userRecipients) notifications.add(baseNotification(effectiveMessageId, userId, null, groupType, effectiveEventType, title, messageText, json));
-            for (String role : roleRecipients) notifications.add(baseNotification(effectiveMessageId + ":" + role, null, role.toUpperCase(Locale.ROOT), groupType, effectiveEventType, title, messageText, json));
-            notificationService.createAll(notifications);
+        }
+        if (decoded.isEmpty()) return;
+
+        List<Notification> batch = decodedNotifications.stream().flatMap(List::stream).toList();
+        try {
+            if (!batch.isEmpty()) notificationService.createAll(batch);
+            metrics.recordBatch(decoded.size());
+            for (Message message : decoded) ack(channel, message);
         } catch (Exception ex) {
-            log.error("Failed to process message routingKey={}, eventType={}, error={}", routingKey, effectiveEventType, ex.getMessage(), ex);
+            // Isolate the poison message(s): retry one message per transaction so the rest still land
+            log.warn("Batch of {} messages failed to persist, retrying individually: {}", decoded.size(), ex.getMessage());
+            for (int i = 0; i < decoded.size(); i++) {
+                Message message = decoded.get(i);
+                try {
+                    if (!decodedNotifications.get(i).isEmpty()) notificationService.createAll(decodedNotifications.get(i));
+                    ack(channel, message);
+                } catch (Exception single) {
+                    log.error("Failed to persist message routingKey={}, error={}",
+                            message.getMessageProperties().getReceivedRoutingKey(), single.getMessage(), single);
+                    deadLetter(channel, message);
+                }
+            }
         }
     }
 
-    private Set<Long> deriveRecipientsFromPayload(Map<String, Object> data) {
-        Set<Long> ids = new HashSet<>();
-        // common keys
-        Stream.of("customer_id", "user_id", "employee_id", "assigned_employee_id")
-                .map(data::get)
-                .map(this::toLong)
-                .filter(Objects::nonNull)
-                .forEach(ids::add);
-        Object list = data.get("assigned_employee_ids");
-        if (list instanceof Collection<?> c) {
-            for (Object v : c) {
-                Long id = toLong(v);
-                if (id != null) ids.add(id);
-            }
+    List<Notification> decode(Message message) throws IOException {
+        MessageProperties props = message.getMessageProperties();
+        String routingKey = props.getReceivedRoutingKey();
+        String eventName = header(props, "x-event-name");
+        String recipientsUserIds = header(props, "x-recipients-user-ids");
+        String recipientsRoles = header(props, "x-recipients-roles");
+        String legacyMessageId = header(props, "message_id");
+
+        String effectiveEventType = eventName != null ? eventName : routingKey;
+        String effectiveMessageId = firstNonBlank(legacyMessageId, props.getMessageId(), java.util.UUID.randomUUID().toString());
+        NotificationTemplates.Template template = NotificationTemplates.forEventType(effectiveEventType);
+        requireUtf8(props);
+        NotificationEvent event = decoder.decode(message.getBody(), template.groupType() + "_id");
+        Set<Long> userRecipients = parseLongCsv(recipientsUserIds);
+        Set<String> roleRecipients = parseCsv(recipientsRoles);
+        if (userRecipients.isEmpty()) userRecipients = event.recipientIds();
+        if (userRecipients.isEmpty() && roleRecipients.isEmpty()) {
+            log.warn("No recipients provided/derived for event {}. Users='{}' Roles='{}'", effectiveEventType, recipientsUserIds, recipientsRoles);
+            return Collections.emptyList();
+        }
+        String messageText = template.message().apply(event);
+        String json = event.payloadJson();
+        List<Notification> notifications = new ArrayList<>(userRecipients.size() + roleRecipients.size());
+        for (Long userId : userRecipients) notifications.add(baseNotification(effectiveMessageId, effectiveMessageId, userId, null, template.groupType(), effectiveEventType, template.title(), messageText, json, event.aggregateId()));
+        for (String role : roleRecipients) notifications.add(baseNotification(effectiveMessageId + ":" + role, effectiveMessageId, null, role.toUpperCase(Locale.ROOT), template.groupType(), effectiveEventType, template.title(), messageText, json, event.aggregateId()));
+        return notifications;
+    }
+
+    /**
+     * The decoder reads the body bytes as UTF-8 (byte offsets included), so a body declared in any other
+     * charset is rejected rather than silently mis-decoded.
+     */
+    private void requireUtf8(MessageProperties props) throws IOException {
+        String encoding = props.getContentEncoding();
+        if (encoding == null || encoding.isBlank()) return;
+        try {
+            if (Charset.forName(encoding.trim()).equals(StandardCharsets.UTF_8)) return;
+        } catch (IllegalArgumentException ignored) {
+            // unknown or malformed charset name, rejected below
         }
-        return ids;
+        throw new IOException("Unsupported content encoding: " + encoding);
+    }
+
+    private void ack(Channel channel, Message message) throws IOException {
+        channel.basicAck(message.getMessageProperties().getDeliveryTag(), false);
+        metrics.recordProcessed();
     }
 
-    private Notification baseNotification(String messageId, Long userId, String role, String type, String eventType, String title, String msg, String rawJson) {
+    private void deadLetter(Channel channel, Message message) throws IOException {
+        channel.basicNack(message.getMessageProperties().getDeliveryTag(), false, false);
+        metrics.recordDeadLettered();
+    }
+
+    private String header(MessageProperties props, String name) {
+        Object value = props.getHeader(name);
+        return value == null ? null : value.toString();
+    }
+
+    private Notification baseNotification(String messageId, String payloadId, Long userId, String role, String type, String eventType, String title, String msg, String rawJson, String aggregateId) {
         Notification n = new Notification();
         n.setMessageId(messageId);
         n.setUserId(userId);
@@ -94,75 +142,13 @@ public class NotificationEventListener {
         n.setEventType(eventType);
         n.setTitle(title);
         n.setMessage(msg);
+        n.setPayloadId(payloadId);
         n.setEventPayload(rawJson);
+        n.setAggregateId(aggregateId);
         n.setCreatedAt(Instant.now());
         return n;
     }
 
-    private String deriveGroupType(String eventType) {
-        if (eventType == null) return "event";
-        int dot = eventType.indexOf('.');
-        return dot > 0 ? eventType.substring(0, dot) : eventType;
-    }
-
-    private String buildTitle(String eventType, Map<String, Object> data) {
-        return switch (eventType) {
-            case "appointment.created" -> "Appointment Created";
-            case "appointment.accepted" -> "Appointment Accepted";
-            case "appointment.rejected" -> "Appointment Rejected";
-            case "appointment.rescheduled" -> "Appointment Rescheduled";
-            case "appointment.cancelled" -> "Appointment Cancelled";
-            case "appointment.in_progress" -> "Appointment In Progress";
-            case "appointment.completed" -> "Appointment Completed";
-            case "project.requested" -> "Modification Request Submitted";
-            case "project.approved" -> "Project Approved";
-            case "project.in_progress" -> "Project In Progress";
-            case "project.completed" -> "Project Completed";
-            case "project.cancelled" -> "Project Cancelled";
-            case "payment.succeeded" -> "Payment Successful";
-            case "payment.failed" -> "Payment Failed";
-            case "invoice.created" -> "Invoice Created";
-            case "invoice.updated" -> "Invoice Updated";
-            case "time_log.created" -> "Time Log Submitted";
-            case "time_log.approved" -> "Time Log Approved";
-            case "time_log.rejected" -> "Time Log Rejected";
-            case "quote.approved" -> "Quote Approved";
-            case "quote.rejected" -> "Quote Rejected";
-            default -> "Event: " + eventType;
-        };
-    }
-
-    private String buildMessage(String eventType, Map<String, Object> data) {
-        try {
-            return switch (eventType) {
-                case "appointment.created" -> "Your appointment is pending confirmation.";
-                case "appointment.accepted" -> "Your appointment has been accepted.";
-                case "appointment.rejected" -> "Your appointment was rejected.";
-                case "appointment.rescheduled" -> "Appointment rescheduled to " + data.getOrDefault("scheduled_at", "new time") + ".";
-                case "appointment.cancelled" -> "Your appointment was cancelled.";
-                case "appointment.in_progress" -> "Service work has started on your vehicle.";
-                case "appointment.completed" -> "Service appointment completed.";
-                case "project.requested" -> "Your modification request is awaiting review.";
-                case "project.approved" -> "Your project has been approved.";
-                case "project.in_progress" -> "Project is now in progress.";
-                case "project.completed" -> "Project completed. Please review.";
-                case "project.cancelled" -> "Project was cancelled.";
-                case "payment.succeeded" -> "Payment received: " + data.getOrDefault("amount", "");
-                case "payment.failed" -> "Payment failed. Please retry.";
-                case "invoice.created" -> "A new invoice is available.";
-                case "invoice.updated" -> "Invoice updated.";
-                case "time_log.created" -> "New time log submitted.";
-                case "time_log.approved" -> "Your time log was approved.";
-                case "time_log.rejected" -> "Your time log was rejected.";
-                case "quote.approved" -> "Your quote was approved.";
-                case "quote.rejected" -> "Your quote was rejected.";
-                default -> "Event payload: " + safeToString(data);
-            };
-        } catch (Exception e) {
-            return "Event received.";
-        }
-    }
-
     private Set<Long> parseLongCsv(String csv) {
         return parseCsv(csv).stream().map(this::toLong).filter(Objects::nonNull).collect(Collectors.toSet());
     }
@@ -190,8 +176,4 @@ public class NotificationEventListener {
         for (String v : values) if (v != null && !v.isBlank()) return v;
         return null;
     }
-
-    private String safeToString(Object o) {
-        try { return String.valueOf(o); } catch (Exception e) { return ""; }
-    }
 }
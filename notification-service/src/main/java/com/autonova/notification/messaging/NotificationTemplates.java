@@ -0,0 +1,73 @@
+package com.autonova.notification.messaging;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Title/message templates per event type, built once at class load instead of switching on every message.
+ */
+public final class NotificationTemplates {
+
+    private static final int MAX_MESSAGE_LENGTH = 2000;
+
+    record Template(String groupType, String title, Function<NotificationEvent, String> message) {}
+
+    private static final Map<String, Template> TEMPLATES = new HashMap<>();
+
+    static {
+        fixed("appointment.created", "Appointment Created", "Your appointment is pending confirmation.");
+        fixed("appointment.accepted", "Appointment Accepted", "Your appointment has been accepted.");
+        fixed("appointment.rejected", "Appointment Rejected", "Your appointment was rejected.");
+        register("appointment.rescheduled", "Appointment Rescheduled",
+                e -> "Appointment rescheduled to " + (e.scheduledAt() != null ? e.scheduledAt() : "new time") + ".");
+        fixed("appointment.cancelled", "Appointment Cancelled", "Your appointment was cancelled.");
+        fixed("appointment.in_progress", "Appointment In Progress", "Service work has started on your vehicle.");
+        fixed("appointment.completed", "Appointment Completed", "Service appointment completed.");
+        fixed("project.requested", "Modification Request Submitted", "Your modification request is awaiting review.");
+        fixed("project.approved", "Project Approved", "Your project has been approved.");
+        fixed("project.in_progress", "Project In Progress", "Project is now in progress.");
+        fixed("project.completed", "Project Completed", "Project completed. Please review.");
+        fixed("project.cancelled", "Project Cancelled", "Project was cancelled.");
+        register("payment.succeeded", "Payment Successful",
+                e -> "Payment received: " + (e.amount() != null ? e.amount() : ""));
+        fixed("payment.failed", "Payment Failed", "Payment failed. Please retry.");
+        fixed("invoice.created", "Invoice Created", "A new invoice is available.");
+        fixed("invoice.updated", "Invoice Updated", "Invoice updated.");
+        fixed("time_log.created", "Time Log Submitted", "New time log submitted.");
+        fixed("time_log.approved", "Time Log Approved", "Your time log was approved.");
+        fixed("time_log.rejected", "Time Log Rejected", "Your time log was rejected.");
+        fixed("quote.approved", "Quote Approved", "Your quote was approved.");
+        fixed("quote.rejected", "Quote Rejected", "Your quote was rejected.");
+    }
+
+    private NotificationTemplates() {}
+
+    static Template forEventType(String eventType) {
+        Template template = eventType == null ? null : TEMPLATES.get(eventType);
+        if (template != null) return template;
+        return new Template(groupType(eventType), "Event: " + eventType, e -> "Event payload: " + e.dataJson());
+    }
+
+    /**
+     * Message of a digest that replaced {@code count} coalesced events, quoting the latest of them.
+     */
+    public static String digestMessage(int count, String latestMessage) {
+        String message = count + " updates. Latest: " + latestMessage;
+        return message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message;
+    }
+
+    private static void fixed(String eventType, String title, String message) {
+        register(eventType, title, e -> message);
+    }
+
+    private static void register(String eventType, String title, Function<NotificationEvent, String> message) {
+        TEMPLATES.put(eventType, new Template(groupType(eventType), title, message));
+    }
+
+    private static String groupType(String eventType) {
+        if (eventType == null) return "event";
+        int dot = eventType.indexOf('.');
+        return dot > 0 ? eventType.substring(0, dot) : eventType;
+    }
+}
@@ -0,0 +1,12 @@
+package com.autonova.notification.repo;
+
+import com.autonova.notification.domain.NotificationCoalescedEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface NotificationCoalescedEventRepository extends JpaRepository<NotificationCoalescedEvent, NotificationCoalescedEvent.Key> {
+    boolean existsByMessageIdAndUserId(String messageId, Long userId);
+    Optional<NotificationCoalescedEvent> findFirstByNotificationIdOrderByCreatedAtDesc(UUID notificationId);
+}
@@ -0,0 +1,7 @@
+package com.autonova.notification.repo;
+
+import com.autonova.notification.domain.NotificationPayload;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface NotificationPayloadRepository extends JpaRepository<NotificationPayload, String> {
+}
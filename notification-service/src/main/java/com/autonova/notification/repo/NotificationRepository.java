@@ -1,11 +1,18 @@
 package com.autonova.notification.repo;
 
 import com.autonova.notification.domain.Notification;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,4 +24,36 @@ public interface NotificationRepository extends JpaRepository<Notification, UUID
     @Modifying
     @Query("update Notification n set n.readFlag = true where n.userId = :userId and n.readFlag = false")
     int markAllReadByUserId(@Param("userId") Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select n from Notification n where n.userId = :userId and n.type = :type and n.aggregateId = :aggregateId " +
+            "and n.coalesceUntil > :now order by n.createdAt")
+    List<Notification> lockOpenWindowsForUser(@Param("userId") Long userId, @Param("type") String type,
+                                              @Param("aggregateId") String aggregateId, @Param("now") Instant now);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select n from Notification n where n.userId is null and n.role = :role and n.type = :type " +
+            "and n.aggregateId = :aggregateId and n.coalesceUntil > :now order by n.createdAt")
+    List<Notification> lockOpenWindowsForRole(@Param("role") String role, @Param("type") String type,
+                                              @Param("aggregateId") String aggregateId, @Param("now") Instant now);
+
+    // -2 is SKIP LOCKED, so replicas flushing at the same time take disjoint windows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select n from Notification n where n.coalesceUntil <= :now order by n.coalesceUntil")
+    List<Notification> lockExpiredWindows(@Param("now") Instant now, Pageable page);
+
+    // Claims a coalescing window key, or takes over one whose window has expired but not been flushed yet.
+    // Returns 0 while another window holds the key; a concurrent claim is waited on until it commits
+    @Modifying
+    @Query(value = "insert into notification_coalescing_windows (window_key, coalesce_until) values (:key, :until) " +
+            "on conflict (window_key) do update set coalesce_until = excluded.coalesce_until " +
+            "where notification_coalescing_windows.coalesce_until <= :now", nativeQuery = true)
+    int claimWindow(@Param("key") String key, @Param("until") Instant until, @Param("now") Instant now);
+
+    // Keys already taken over by a newer window are still open and stay claimed
+    @Modifying
+    @Query(value = "delete from notification_coalescing_windows where window_key in (:keys) and coalesce_until <= :now",
+            nativeQuery = true)
+    int releaseWindows(@Param("keys") Collection<String> keys, @Param("now") Instant now);
 }
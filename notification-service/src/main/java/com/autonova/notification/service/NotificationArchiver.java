@@ -0,0 +1,142 @@
+package com.autonova.notification.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Moves read notifications older than the retention window into the month-partitioned
+ * {@code notifications_archive} table, in small batches so the hot table is never locked for long,
+ * then deletes payload rows that no hot notification references any more.
+ * <p>
+ * Each batch only reads its own created_at range through the partial (created_at) WHERE read_flag index,
+ * creates the partitions for those months and moves rows within them, so the run never scans the hot table.
+ */
+@Component
+public class NotificationArchiver {
+    private static final Logger log = LoggerFactory.getLogger(NotificationArchiver.class);
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static final String BATCH_BOUNDS_SQL = """
+            SELECT min(created_at), max(created_at) FROM (
+                SELECT created_at FROM notifications
+                WHERE read_flag = TRUE AND created_at < ?
+                ORDER BY created_at
+                LIMIT ?) batch
+            """;
+
+    private static final String MOVE_BATCH_SQL = """
+            WITH moved AS (
+                DELETE FROM notifications
+                WHERE id IN (
+                    SELECT id FROM notifications
+                    WHERE read_flag = TRUE AND created_at >= ? AND created_at < ?
+                    ORDER BY created_at
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED)
+                RETURNING id, message_id, user_id, role, type, event_type, title, message, payload_id, event_count, created_at)
+            INSERT INTO notifications_archive (id, message_id, user_id, role, type, event_type, title, message, payload_id, event_count, created_at)
+            SELECT id, message_id, user_id, role, type, event_type, title, message, payload_id, event_count, created_at FROM moved
+            """;
+
+    // Archived rows keep payload_id for reference only; the payload itself goes once no hot row needs it.
+    // The age check leaves payloads inserted ahead of their notification in a running transaction alone.
+    private static final String PURGE_PAYLOADS_SQL = """
+            DELETE FROM notification_payloads
+            WHERE message_id IN (
+                SELECT p.message_id FROM notification_payloads p
+                WHERE p.created_at < ?
+                  AND NOT EXISTS (SELECT 1 FROM notifications n WHERE n.payload_id = p.message_id)
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int batchSize;
+
+    public NotificationArchiver(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${app.notifications.archive.retention-days:90}") long retentionDays,
+                                @Value("${app.notifications.archive.batch-size:5000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.retention = Duration.ofDays(retentionDays);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${app.notifications.archive.cron:0 30 3 * * *}")
+    public void archive() {
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(retention));
+        try {
+            long archived = moveReadNotifications(cutoff);
+            long purged = purgeOrphanedPayloads(cutoff);
+            log.info("Archived {} read notifications and purged {} orphaned payloads created before {}",
+                    archived, purged, cutoff.toInstant());
+        } catch (Exception e) {
+            log.error("Notification archiving failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private long moveReadNotifications(Timestamp cutoff) {
+        Set<LocalDate> partitions = new HashSet<>();
+        long total = 0;
+        int moved;
+        do {
+            Timestamp[] bounds = jdbcTemplate.queryForObject(BATCH_BOUNDS_SQL,
+                    (rs, i) -> new Timestamp[]{rs.getTimestamp(1), rs.getTimestamp(2)}, cutoff, batchSize);
+            if (bounds == null || bounds[0] == null) break;
+            LocalDate firstMonth = monthOf(bounds[0]);
+            LocalDate lastMonth = monthOf(bounds[1]);
+            for (LocalDate month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+                if (partitions.add(month)) ensurePartition(month);
+            }
+            // Bound the move to the months just created so a row marked read meanwhile cannot miss its partition
+            Timestamp from = startOf(firstMonth);
+            Timestamp to = startOf(lastMonth.plusMonths(1));
+            Timestamp upper = to.before(cutoff) ? to : cutoff;
+            moved = transactionTemplate.execute(status -> jdbcTemplate.update(MOVE_BATCH_SQL, from, upper, batchSize));
+            total += moved;
+        } while (moved == batchSize);
+        return total;
+    }
+
+    private long purgeOrphanedPayloads(Timestamp cutoff) {
+        long total = 0;
+        int purged;
+        do {
+            purged = transactionTemplate.execute(status -> jdbcTemplate.update(PURGE_PAYLOADS_SQL, cutoff, batchSize));
+            total += purged;
+        } while (purged == batchSize);
+        return total;
+    }
+
+    private void ensurePartition(LocalDate from) {
+        LocalDate to = from.plusMonths(1);
+        jdbcTemplate.execute(String.format(
+                "CREATE TABLE IF NOT EXISTS notifications_archive_%s PARTITION OF notifications_archive FOR VALUES FROM ('%s 00:00:00+00') TO ('%s 00:00:00+00')",
+                from.format(PARTITION_SUFFIX), from, to));
+    }
+
+    private static LocalDate monthOf(Timestamp ts) {
+        return ts.toInstant().atOffset(ZoneOffset.UTC).toLocalDate().withDayOfMonth(1);
+    }
+
+    private static Timestamp startOf(LocalDate month) {
+        return Timestamp.from(month.atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+}
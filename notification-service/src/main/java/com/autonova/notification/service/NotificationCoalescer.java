@@ -0,0 +1,178 @@
+package com.autonova.notification.service;
+
+import com.autonova.notification.domain.Notification;
+import com.autonova.notification.domain.NotificationCoalescedEvent;
+import com.autonova.notification.messaging.NotificationTemplates;
+import com.autonova.notification.repo.NotificationCoalescedEventRepository;
+import com.autonova.notification.repo.NotificationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Coalesces bursts of events for the same recipient and aggregate (e.g. a project) into one digest row.
+ * The first event of a burst is stored and pushed as usual and opens a window on its row
+ * ({@code coalesce_until}); events arriving while the window is open are recorded against that row instead
+ * of stored. When the window closes, the row is rewritten once as a digest carrying the total count.
+ * <p>
+ * Windows live in the DB and are taken under a row lock, so replicas and redeliveries agree on them, and
+ * absorbed message ids count as delivered for idempotency. Opening a window also claims its key in
+ * {@code notification_coalescing_windows}, whose primary key lets only one of two consumers racing on the
+ * same burst anchor it; the other joins the winner's window. Coalescing is off unless windows are configured
+ * per event type or prefix, e.g. {@code project.*=60s,appointment.rescheduled=30s}.
+ */
+@Component
+public class NotificationCoalescer {
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private record Rule(String eventType, boolean prefix, Duration window) {
+        boolean matches(String type) {
+            return prefix ? type.startsWith(eventType) : type.equals(eventType);
+        }
+    }
+
+    /** An event folded into the window anchored on {@code anchor}. */
+    public record Absorbed(Notification anchor, Notification event) {}
+
+    /** What to do with a batch of fresh notifications: rows to insert and events absorbed into windows. */
+    public record Plan(List<Notification> toInsert, List<Absorbed> absorbed) {}
+
+    private final List<Rule> rules;
+    private final NotificationRepository notificationRepository;
+    private final NotificationCoalescedEventRepository coalescedEventRepository;
+
+    public NotificationCoalescer(@Value("${app.notifications.coalescing.windows:}") String windowSpec,
+                                 NotificationRepository notificationRepository,
+                                 NotificationCoalescedEventRepository coalescedEventRepository) {
+        this.rules = parseRules(windowSpec);
+        this.notificationRepository = notificationRepository;
+        this.coalescedEventRepository = coalescedEventRepository;
+    }
+
+    /** True when the message was already folded into a window for this user. */
+    public boolean alreadyAbsorbed(Notification n) {
+        return !rules.isEmpty() && n.getMessageId() != null && n.getUserId() != null &&
+                coalescedEventRepository.existsByMessageIdAndUserId(n.getMessageId(), n.getUserId());
+    }
+
+    /**
+     * Splits a batch into rows to insert and events absorbed by open windows. Must run inside the batch's
+     * transaction and before any insert: open windows are locked until commit, and the first event of a
+     * burst with no open window becomes the anchor of a new one.
+     */
+    public Plan plan(List<Notification> fresh) {
+        if (rules.isEmpty()) return new Plan(fresh, List.of());
+        Instant now = Instant.now();
+        Map<String, Notification> anchors = new HashMap<>();
+        List<Notification> toInsert = new ArrayList<>(fresh.size());
+        List<Absorbed> absorbed = new ArrayList<>();
+        for (Notification n : fresh) {
+            Duration window = windowFor(n);
+            if (window == null) {
+                toInsert.add(n);
+                continue;
+            }
+            String key = key(n);
+            Notification anchor = anchors.containsKey(key) ? anchors.get(key) : lockOpenWindow(n, now);
+            boolean opened = false;
+            if (anchor == null) {
+                opened = notificationRepository.claimWindow(key, now.plus(window), now) == 1;
+                // Another consumer anchored this burst after our lookup and has committed by now
+                if (!opened) anchor = lockOpenWindow(n, now);
+            }
+            if (anchor != null) {
+                anchor.setEventCount(anchor.getEventCount() + 1);
+                absorbed.add(new Absorbed(anchor, n));
+                anchors.put(key, anchor);
+            } else {
+                // A lost claim with no window left to join (it closed meanwhile) stores the event on its own
+                if (opened) {
+                    n.setCoalesceUntil(now.plus(window));
+                    anchors.put(key, n);
+                }
+                toInsert.add(n);
+            }
+        }
+        return new Plan(toInsert, absorbed);
+    }
+
+    /** Records the absorbed events of a plan once its anchors have been saved. */
+    public void record(Plan plan) {
+        if (plan.absorbed().isEmpty()) return;
+        coalescedEventRepository.saveAll(plan.absorbed().stream()
+                .map(a -> new NotificationCoalescedEvent(a.anchor().getId(), a.event()))
+                .toList());
+    }
+
+    /**
+     * Closes expired windows and rewrites the anchor of each one that absorbed events as a digest. The read
+     * state is left alone. Must run in a transaction; windows locked by another replica are skipped.
+     *
+     * @return the rewritten digest rows
+     */
+    public List<Notification> closeExpired(Instant now) {
+        if (rules.isEmpty()) return List.of();
+        List<Notification> digests = new ArrayList<>();
+        Set<String> closedKeys = new HashSet<>();
+        for (Notification anchor : notificationRepository.lockExpiredWindows(now, PageRequest.of(0, FLUSH_BATCH_SIZE))) {
+            anchor.setCoalesceUntil(null);
+            closedKeys.add(key(anchor));
+            if (anchor.getEventCount() <= 1) continue;
+            coalescedEventRepository.findFirstByNotificationIdOrderByCreatedAtDesc(anchor.getId()).ifPresent(latest -> {
+                anchor.setEventType(latest.getEventType());
+                anchor.setTitle(latest.getTitle());
+                anchor.setMessage(NotificationTemplates.digestMessage(anchor.getEventCount(), latest.getMessage()));
+            });
+            digests.add(anchor);
+        }
+        if (!closedKeys.isEmpty()) notificationRepository.releaseWindows(closedKeys, now);
+        return digests;
+    }
+
+    private Notification lockOpenWindow(Notification n, Instant now) {
+        List<Notification> open = n.getUserId() != null
+                ? notificationRepository.lockOpenWindowsForUser(n.getUserId(), n.getType(), n.getAggregateId(), now)
+                : notificationRepository.lockOpenWindowsForRole(n.getRole(), n.getType(), n.getAggregateId(), now);
+        return open.isEmpty() ? null : open.get(0);
+    }
+
+    private String key(Notification n) {
+        String recipient = n.getUserId() != null ? "u:" + n.getUserId() : "r:" + n.getRole();
+        return recipient + "|" + n.getType() + "|" + n.getAggregateId();
+    }
+
+    private Duration windowFor(Notification n) {
+        if (n.getAggregateId() == null || n.getEventType() == null) return null;
+        if (n.getUserId() == null && n.getRole() == null) return null;
+        for (Rule rule : rules) {
+            if (rule.matches(n.getEventType())) return rule.window();
+        }
+        return null;
+    }
+
+    private static List<Rule> parseRules(String spec) {
+        List<Rule> rules = new ArrayList<>();
+        if (spec == null || spec.isBlank()) return rules;
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split("=", 2);
+            if (parts.length != 2 || parts[0].isBlank()) {
+                throw new IllegalArgumentException("Invalid coalescing window '" + entry + "', expected <eventType>=<duration>");
+            }
+            String type = parts[0].trim();
+            boolean prefix = type.endsWith("*");
+            rules.add(new Rule(prefix ? type.substring(0, type.length() - 1) : type, prefix,
+                    DurationStyle.detectAndParse(parts[1].trim())));
+        }
+        return rules;
+    }
+}
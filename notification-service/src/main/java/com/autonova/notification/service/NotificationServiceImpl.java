@@ -1,25 +1,43 @@
 package com.autonova.notification.service;
 
 import com.autonova.notification.domain.Notification;
+import com.autonova.notification.domain.NotificationPayload;
 import com.autonova.notification.dto.NotificationDto;
+import com.autonova.notification.repo.NotificationPayloadRepository;
 import com.autonova.notification.repo.NotificationRepository;
 import com.autonova.notification.sse.SseHub;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import reactor.core.publisher.Flux;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 public class NotificationServiceImpl implements NotificationService {
     private final NotificationRepository notificationRepository;
+    private final NotificationPayloadRepository payloadRepository;
     private final SseHub sseHub;
+    private final UnreadCountCache unreadCountCache;
+    private final NotificationCoalescer coalescer;
 
-    public NotificationServiceImpl(NotificationRepository notificationRepository, SseHub sseHub) {
+    public NotificationServiceImpl(NotificationRepository notificationRepository, NotificationPayloadRepository payloadRepository,
+                                   SseHub sseHub, UnreadCountCache unreadCountCache, NotificationCoalescer coalescer) {
         this.notificationRepository = notificationRepository;
+        this.payloadRepository = payloadRepository;
         this.sseHub = sseHub;
+        this.unreadCountCache = unreadCountCache;
+        this.coalescer = coalescer;
     }
 
     @Override
@@ -37,41 +55,124 @@ public class NotificationServiceImpl implements NotificationService {
     @Override
     public void markRead(UUID notificationId) {
         notificationRepository.findById(notificationId).ifPresent(notification -> {
+            boolean wasUnread = !notification.isReadFlag();
             notification.setReadFlag(true);
             Notification saved = notificationRepository.save(notification);
             // Optionally notify clients about the change
             sseHub.publish(toDto(saved));
+            if (wasUnread) unreadCountCache.decrement(saved.getUserId());
         });
     }
 
     @Override
+    @Transactional
     public void create(Notification notification) {
         // Idempotency: skip if messageId+userId already exists
-        if (notification.getMessageId() != null && notification.getUserId() != null &&
-                notificationRepository.existsByMessageIdAndUserId(notification.getMessageId(), notification.getUserId())) {
+        if (isDuplicate(notification)) {
             return;
         }
+        newPayloads(List.of(notification)).forEach(payloadRepository::save);
         Notification saved = notificationRepository.save(notification);
-        sseHub.publish(toDto(saved));
+        afterCommit(() -> publishCreated(saved));
     }
 
     @Override
+    @Transactional
     public void createAll(List<Notification> notifications) {
+        // Run all idempotency checks before any insert so the inserts are flushed as one JDBC batch
+        Set<String> seen = new HashSet<>();
+        List<Notification> fresh = new ArrayList<>(notifications.size());
         for (Notification n : notifications) {
-            create(n); // reuse idempotency logic
+            boolean repeatedInBatch = n.getMessageId() != null && !seen.add(n.getMessageId() + ":" + n.getUserId());
+            if (repeatedInBatch || isDuplicate(n)) continue;
+            fresh.add(n);
+        }
+        // Bursts for the same recipient and aggregate fold into the row that opened the coalescing window
+        NotificationCoalescer.Plan plan = coalescer.plan(fresh);
+        List<Notification> toInsert = plan.toInsert();
+        newPayloads(toInsert).forEach(payloadRepository::save);
+        List<Notification> saved = new ArrayList<>(toInsert.size());
+        for (Notification n : toInsert) {
+            saved.add(notificationRepository.save(n));
         }
+        coalescer.record(plan);
+        // Fan out only once the batch is committed so clients never see rows that roll back
+        afterCommit(() -> publishCreated(saved));
+    }
+
+    /**
+     * Rewrites the anchor row of every closed coalescing window as a digest and pushes it once.
+     * The digest keeps the anchor's read state, so a burst the user has already seen does not turn unread again.
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.coalescing.flush-interval-ms:1000}")
+    @Transactional
+    public void flushDigests() {
+        List<Notification> digests = coalescer.closeExpired(Instant.now());
+        afterCommit(() -> digests.forEach(n -> sseHub.publish(toDto(n))));
     }
 
     @Override
-    @Transactional(readOnly = true)
     public long unreadCount(Long userId) {
-        return notificationRepository.countByUserIdAndReadFlagFalse(userId);
+        return unreadCountCache.get(userId);
     }
 
     @Override
     @Transactional
     public void markAllRead(Long userId) {
         notificationRepository.markAllReadByUserId(userId);
+        // Reset after commit so a rollback never leaves a cached and pushed zero over rows still unread
+        afterCommit(() -> unreadCountCache.reset(userId));
+    }
+
+    private boolean isDuplicate(Notification n) {
+        return n.getMessageId() != null && n.getUserId() != null &&
+                (notificationRepository.existsByMessageIdAndUserId(n.getMessageId(), n.getUserId()) ||
+                        coalescer.alreadyAbsorbed(n));
+    }
+
+    /**
+     * Payload rows not yet stored for the given notifications, one per distinct payloadId.
+     */
+    private List<NotificationPayload> newPayloads(List<Notification> notifications) {
+        Set<String> seen = new HashSet<>();
+        List<NotificationPayload> payloads = new ArrayList<>();
+        for (Notification n : notifications) {
+            String payloadId = n.getPayloadId();
+            if (payloadId == null || n.getEventPayload() == null || !seen.add(payloadId)) continue;
+            if (!payloadRepository.existsById(payloadId)) {
+                payloads.add(new NotificationPayload(payloadId, n.getEventPayload()));
+            }
+        }
+        return payloads;
+    }
+
+    private void publishCreated(Notification saved) {
+        publishCreated(List.of(saved));
+    }
+
+    /**
+     * Pushes every saved row, then each recipient's unread count once for the whole batch.
+     */
+    private void publishCreated(List<Notification> saved) {
+        Map<Long, Long> unreadByUser = new HashMap<>();
+        for (Notification n : saved) {
+            sseHub.publish(toDto(n));
+            if (!n.isReadFlag() && n.getUserId() != null) unreadByUser.merge(n.getUserId(), 1L, Long::sum);
+        }
+        unreadByUser.forEach(unreadCountCache::add);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
     private NotificationDto toDto(Notification n) {
@@ -84,7 +185,8 @@ public class NotificationServiceImpl implements NotificationService {
                 n.getMessage(),
                 n.getMessageId(),
                 n.getCreatedAt(),
-                n.isReadFlag()
+                n.isReadFlag(),
+                n.getEventCount()
         );
     }
 }
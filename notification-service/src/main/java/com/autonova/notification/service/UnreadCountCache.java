@@ -0,0 +1,142 @@
+package com.autonova.notification.service;
+
+import com.autonova.notification.repo.NotificationRepository;
+import com.autonova.notification.sse.SseHub;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory per-user unread counters so the badge endpoint does not hit the DB on every poll.
+ * A user's counter is loaded from the repository on their first access, adjusted on insert/read, and
+ * periodically reconciled against the DB to correct any drift. Every change is pushed over the user's SSE stream.
+ */
+@Component
+public class UnreadCountCache {
+    private static final Logger log = LoggerFactory.getLogger(UnreadCountCache.class);
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    private final NotificationRepository notificationRepository;
+    private final SseHub sseHub;
+    private final int maxEntries;
+
+    public UnreadCountCache(NotificationRepository notificationRepository,
+                            SseHub sseHub,
+                            @Value("${app.notifications.unread.max-entries:100000}") int maxEntries) {
+        this.notificationRepository = notificationRepository;
+        this.sseHub = sseHub;
+        this.maxEntries = maxEntries;
+    }
+
+    public long get(Long userId) {
+        return counter(userId).value.get();
+    }
+
+    public void increment(Long userId) {
+        add(userId, 1);
+    }
+
+    public void decrement(Long userId) {
+        add(userId, -1);
+    }
+
+    /**
+     * Applies a committed change of {@code delta} unread rows in one step. A cold counter is loaded from the DB,
+     * which already includes the change, so the load counts as applying it; that holds for every caller racing
+     * to load the same user, which is why a batch has to arrive here as one delta rather than row by row.
+     */
+    public void add(Long userId, long delta) {
+        if (userId == null || delta == 0) return;
+        Counter existing = touch(userId);
+        long value = existing != null ? existing.value.updateAndGet(v -> Math.max(0, v + delta)) : get(userId);
+        sseHub.publishUnreadCount(userId, value);
+    }
+
+    public void reset(Long userId) {
+        if (userId == null) return;
+        counter(userId).value.set(0);
+        sseHub.publishUnreadCount(userId, 0);
+    }
+
+    /**
+     * Drops one user's counter; the next access loads it again from the DB.
+     */
+    public void evict(Long userId) {
+        if (userId != null) counters.remove(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.unread.reconcile-interval-ms:300000}",
+            initialDelayString = "${app.notifications.unread.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        evictLeastRecentlyUsed();
+        for (Map.Entry<Long, Counter> entry : counters.entrySet()) {
+            Long userId = entry.getKey();
+            AtomicLong value = entry.getValue().value;
+            try {
+                long cached = value.get();
+                long actual = notificationRepository.countByUserIdAndReadFlagFalse(userId);
+                // An insert or read that lands while the query runs moves the counter on; overwriting it
+                // would undo that change, so leave it to the next pass instead
+                if (!value.compareAndSet(cached, actual)) {
+                    log.debug("Unread count for user {} changed during reconcile, skipping", userId);
+                } else if (cached != actual) {
+                    log.debug("Reconciled unread count for user {}: {} -> {}", userId, cached, actual);
+                    sseHub.publishUnreadCount(userId, actual);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to reconcile unread count for user {}: {}", userId, e.getMessage());
+                counters.remove(userId);
+            }
+        }
+    }
+
+    int size() {
+        return counters.size();
+    }
+
+    /**
+     * Keeps the cache within {@code maxEntries} by dropping the users that were accessed longest ago.
+     */
+    private void evictLeastRecentlyUsed() {
+        int excess = counters.size() - maxEntries;
+        if (excess <= 0) return;
+        counters.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(counters::remove);
+        log.info("Unread counter cache exceeded {} entries, evicted {} least recently used", maxEntries, excess);
+    }
+
+    private Counter touch(Long userId) {
+        Counter existing = counters.get(userId);
+        if (existing != null) existing.lastAccess = System.nanoTime();
+        return existing;
+    }
+
+    private Counter counter(Long userId) {
+        Counter existing = touch(userId);
+        if (existing != null) return existing;
+        // Load outside the map lock so a slow query does not block other users' counters
+        Counter loaded = new Counter(notificationRepository.countByUserIdAndReadFlagFalse(userId));
+        Counter raced = counters.putIfAbsent(userId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    private static final class Counter {
+        final AtomicLong value;
+        volatile long lastAccess = System.nanoTime();
+
+        Counter(long initial) {
+            this.value = new AtomicLong(initial);
+        }
+    }
+}
@@ -25,11 +25,30 @@ public class SseHub {
                         "keepalive",
                         null,
                         Instant.now(),
-                        true
+                        true,
+                        0
                 ));
         return Flux.merge(sink.asFlux(), heartbeat);
     }
 
+    /**
+     * Pushes the current unread badge count as an {@code unread.count} event so clients can drop polling.
+     */
+    public void publishUnreadCount(Long userId, long count) {
+        publish(new NotificationDto(
+                null,
+                userId,
+                "badge",
+                "unread.count",
+                "Unread count",
+                String.valueOf(count),
+                null,
+                Instant.now(),
+                true,
+                0
+        ));
+    }
+
     public void publish(NotificationDto dto) {
         var sink = userSinks.computeIfAbsent(dto.userId(), id -> Sinks.many().multicast().onBackpressureBuffer(64, false));
         sink.tryEmitNext(dto);
@@ -0,0 +1,18 @@
+-- Baseline of the schema previously created outside of migrations
+CREATE TABLE IF NOT EXISTS notifications (
+    id UUID PRIMARY KEY,
+    message_id VARCHAR(100),
+    user_id BIGINT,
+    role VARCHAR(32),
+    type VARCHAR(255) NOT NULL,
+    event_type VARCHAR(255) NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    message VARCHAR(2000) NOT NULL,
+    event_payload TEXT,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    read_flag BOOLEAN NOT NULL DEFAULT FALSE,
+    CONSTRAINT uk_notifications_msg_user UNIQUE (message_id, user_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_notifications_user_read ON notifications (user_id, read_flag);
+CREATE INDEX IF NOT EXISTS idx_notifications_event_type ON notifications (event_type);
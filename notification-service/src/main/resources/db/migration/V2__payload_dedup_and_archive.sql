@@ -0,0 +1,47 @@
+-- One raw payload row per message shared by all of its recipients
+CREATE TABLE IF NOT EXISTS notification_payloads (
+    message_id VARCHAR(100) PRIMARY KEY,
+    payload TEXT COMPRESSION lz4 NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS payload_id VARCHAR(100);
+
+-- Role recipients use "<messageId>:<ROLE>" as their message id; they share the base message's payload
+UPDATE notifications
+SET payload_id = COALESCE(
+        CASE WHEN role IS NOT NULL AND message_id LIKE '%:' || role
+             THEN left(message_id, length(message_id) - length(role) - 1)
+             ELSE message_id END,
+        id::text)
+WHERE event_payload IS NOT NULL;
+
+INSERT INTO notification_payloads (message_id, payload, created_at)
+SELECT DISTINCT ON (payload_id) payload_id, event_payload, created_at
+FROM notifications
+WHERE payload_id IS NOT NULL
+ORDER BY payload_id, created_at
+ON CONFLICT (message_id) DO NOTHING;
+
+ALTER TABLE notifications DROP COLUMN IF EXISTS event_payload;
+
+-- Supports findTop50ByUserIdOrderByCreatedAtDesc
+CREATE INDEX IF NOT EXISTS idx_notifications_user_created ON notifications (user_id, created_at DESC);
+
+-- Read notifications past retention are moved here by NotificationArchiver; monthly partitions are created on demand
+CREATE TABLE IF NOT EXISTS notifications_archive (
+    id UUID NOT NULL,
+    message_id VARCHAR(100),
+    user_id BIGINT,
+    role VARCHAR(32),
+    type VARCHAR(255) NOT NULL,
+    event_type VARCHAR(255) NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    message VARCHAR(2000) COMPRESSION lz4 NOT NULL,
+    payload_id VARCHAR(100),
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    archived_at TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT now(),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX IF NOT EXISTS idx_notifications_archive_user_created ON notifications_archive (user_id, created_at DESC);
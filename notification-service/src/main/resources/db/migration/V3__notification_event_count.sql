@@ -0,0 +1,3 @@
+-- Number of events coalesced into a digest notification
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS event_count INTEGER NOT NULL DEFAULT 1;
+ALTER TABLE notifications_archive ADD COLUMN IF NOT EXISTS event_count INTEGER NOT NULL DEFAULT 1;
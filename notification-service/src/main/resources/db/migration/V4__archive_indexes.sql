@@ -0,0 +1,7 @@
+-- Built CONCURRENTLY so the hot table keeps taking writes; Flyway runs this file outside a transaction
+
+-- Lets NotificationArchiver read each batch's created_at range without scanning unread rows
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_read_created ON notifications (created_at) WHERE read_flag = TRUE;
+
+-- Lets the orphaned-payload purge check references by index
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_payload_id ON notifications (payload_id);
@@ -0,0 +1,18 @@
+-- Coalescing windows live on their anchor row: coalesce_until is set while the window is open and cleared
+-- once its digest has been written, so every replica sees and locks the same window
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS aggregate_id VARCHAR(100);
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS coalesce_until TIMESTAMP(6) WITH TIME ZONE;
+
+-- Events folded into a window; also the idempotency record for messages that never got their own row
+CREATE TABLE IF NOT EXISTS notification_coalesced_events (
+    notification_id UUID NOT NULL REFERENCES notifications (id) ON DELETE CASCADE DEFERRABLE INITIALLY DEFERRED,
+    message_id VARCHAR(100) NOT NULL,
+    user_id BIGINT,
+    event_type VARCHAR(255) NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    message VARCHAR(2000) NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (notification_id, message_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_coalesced_events_msg_user ON notification_coalesced_events (message_id, user_id);
@@ -0,0 +1,4 @@
+-- Built CONCURRENTLY so the hot table keeps taking writes; Flyway runs this file outside a transaction.
+-- Only open windows carry coalesce_until, so the partial index stays small
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_open_windows
+    ON notifications (type, aggregate_id, coalesce_until) WHERE coalesce_until IS NOT NULL;
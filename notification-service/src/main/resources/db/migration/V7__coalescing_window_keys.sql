@@ -0,0 +1,7 @@
+-- One row per recipient/type/aggregate key while a coalescing window is open on it. The primary key stops
+-- two consumers from both anchoring the same burst: the second claim waits for the first transaction and,
+-- once it commits, finds the key taken and joins that window instead
+CREATE TABLE IF NOT EXISTS notification_coalescing_windows (
+    window_key VARCHAR(512) PRIMARY KEY,
+    coalesce_until TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
@@ -157,7 +157,8 @@ class NotificationControllerTest {
                 message,
                 "msg-" + id,
                 Instant.now(),
-                read
+                read,
+                1
         );
     }
 }
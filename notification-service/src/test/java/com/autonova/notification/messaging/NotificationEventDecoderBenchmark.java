@@ -0,0 +1,62 @@
+package com.autonova.notification.messaging;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous {@code String} + {@code Map} decoding against the streaming decoder.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.autonova.notification.messaging.NotificationEventDecoderBenchmark};
+ * the GC profiler reports allocated bytes per message ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationEventDecoderBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final NotificationEventDecoder decoder = new NotificationEventDecoder(objectMapper);
+    private final byte[] body = ("{\"type\":\"appointment.rescheduled\",\"version\":1,\"data\":{"
+            + "\"appointment_id\":\"6f1c5f8e-8d0e-4b44-9a5b-0c3c1f0a7b11\",\"customer_id\":1042,"
+            + "\"vehicle_id\":\"0b6d0f9a-54a1-4f6e-8f2a-3b7e2a9d1c55\",\"service_type\":\"MAINTENANCE\","
+            + "\"scheduled_at\":\"2025-12-01T10:00:00Z\",\"status\":\"PENDING\",\"notes\":\"Customer prefers morning\"}}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Benchmark
+    public String mapDecoding() throws Exception {
+        Map<String, Object> payload = objectMapper.readValue(new String(body, StandardCharsets.UTF_8), new TypeReference<>() {});
+        Map<?, ?> data = (Map<?, ?>) payload.get("data");
+        return "Appointment rescheduled to " + data.get("scheduled_at") + "." + data.get("customer_id");
+    }
+
+    @Benchmark
+    public String streamingDecoding() throws Exception {
+        NotificationEvent event = decoder.decode(body, "appointment_id");
+        return NotificationTemplates.forEventType("appointment.rescheduled").message().apply(event) + event.recipientIds();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(NotificationEventDecoderBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,62 @@
+package com.autonova.notification.messaging;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NotificationEventDecoderTest {
+
+    private final NotificationEventDecoder decoder = new NotificationEventDecoder(new ObjectMapper());
+
+    @Test
+    void decode_extractsRecipientsAndTemplateFields_skippingEverythingElse() throws Exception {
+        String json = "{\"type\":\"payment.succeeded\",\"meta\":{\"nested\":[1,2]},\"data\":{"
+                + "\"customer_id\":\"12\",\"employee_id\":34,\"assigned_employee_ids\":[56,\"78\",\"not-a-number\"],"
+                + "\"notes\":{\"customer_id\":99},\"amount\":19900,\"scheduled_at\":\"2025-12-01T10:00:00Z\"}}";
+
+        NotificationEvent event = decoder.decode(bytes(json));
+
+        assertThat(event.recipientIds()).containsExactly(12L, 34L, 56L, 78L);
+        assertThat(event.amount()).isEqualTo("19900");
+        assertThat(event.scheduledAt()).isEqualTo("2025-12-01T10:00:00Z");
+    }
+
+    @Test
+    void decode_capturesRequestedAggregateField() throws Exception {
+        NotificationEvent event = decoder.decode(bytes("{\"data\":{\"project_id\":\"p-1\",\"customer_id\":5}}"), "project_id");
+
+        assertThat(event.aggregateId()).isEqualTo("p-1");
+        assertThat(decoder.decode(bytes("{\"data\":{\"project_id\":\"p-1\"}}")).aggregateId()).isNull();
+    }
+
+    @Test
+    void dataJson_returnsRawDataObjectSlice() throws Exception {
+        NotificationEvent event = decoder.decode(bytes("{\"version\":1,\"data\":{\"customer_id\":222,\"x\":\"é\"}}"));
+
+        assertThat(event.dataJson()).isEqualTo("{\"customer_id\":222,\"x\":\"é\"}");
+    }
+
+    @Test
+    void decode_withoutDataObject_returnsEmptyEvent() throws Exception {
+        NotificationEvent event = decoder.decode(bytes("{\"data\":[1,2,3]}"));
+
+        assertThat(event.recipientIds()).isEmpty();
+        assertThat(event.amount()).isNull();
+        assertThat(event.dataJson()).isEqualTo("{}");
+    }
+
+    @Test
+    void decode_rejectsNonObjectPayload() {
+        assertThatThrownBy(() -> decoder.decode(bytes("[1,2]"))).isInstanceOf(JsonParseException.class);
+        assertThatThrownBy(() -> decoder.decode(bytes("not valid json"))).isInstanceOf(JsonParseException.class);
+    }
+
+    private byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
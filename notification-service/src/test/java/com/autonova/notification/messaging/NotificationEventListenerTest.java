@@ -3,20 +3,27 @@ package com.autonova.notification.messaging;
 import com.autonova.notification.domain.Notification;
 import com.autonova.notification.service.NotificationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.AmqpAdmin;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.QueueInformation;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,14 +32,28 @@ class NotificationEventListenerTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private AmqpAdmin amqpAdmin;
+
+    @Mock
+    private Channel channel;
+
     private ObjectMapper objectMapper;
 
+    private SimpleMeterRegistry meterRegistry;
+
+    private ConsumerMetrics metrics;
+
     private NotificationEventListener listener;
 
+    private final AtomicLong deliveryTags = new AtomicLong();
+
     @BeforeEach
     void setUp() {
         objectMapper = new ObjectMapper();
-        listener = new NotificationEventListener(notificationService, objectMapper);
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new ConsumerMetrics(meterRegistry, amqpAdmin, "notification.events.queue");
+        listener = new NotificationEventListener(notificationService, new NotificationEventDecoder(objectMapper), metrics);
     }
 
     @Test
@@ -40,7 +61,7 @@ class NotificationEventListenerTest {
         String json = "{\"data\":{\"customer_id\":123}}";
         Message message = createMessage(json);
 
-        listener.handleEvent(message, "appointment.created", "appointment.created", "123", null, null);
+        handleEvent(message, "appointment.created", "appointment.created", "123", null, null);
 
         ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
         verify(notificationService).createAll(captor.capture());
@@ -57,7 +78,7 @@ class NotificationEventListenerTest {
         String json = "{\"data\":{}}";
         Message message = createMessage(json);
 
-        listener.handleEvent(message, "project.approved", "project.approved", null, "ADMIN,EMPLOYEE", null);
+        handleEvent(message, "project.approved", "project.approved", null, "ADMIN,EMPLOYEE", null);
 
         ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
         verify(notificationService).createAll(captor.capture());
@@ -66,6 +87,7 @@ class NotificationEventListenerTest {
         assertThat(notifications).hasSize(2);
         assertThat(notifications).allMatch(n -> n.getUserId() == null);
         assertThat(notifications).extracting(Notification::getRole).containsExactlyInAnyOrder("ADMIN", "EMPLOYEE");
+        assertThat(notifications).extracting(Notification::getPayloadId).containsOnly("test-message-id");
     }
 
     @Test
@@ -73,7 +95,7 @@ class NotificationEventListenerTest {
         String json = "{\"data\":{\"employee_id\":456}}";
         Message message = createMessage(json);
 
-        listener.handleEvent(message, "time_log.approved", "time_log.approved", null, null, null);
+        handleEvent(message, "time_log.approved", "time_log.approved", null, null, null);
 
         ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
         verify(notificationService).createAll(captor.capture());
@@ -88,7 +110,7 @@ class NotificationEventListenerTest {
         String json = "{\"data\":{\"customer_id\":123,\"employee_id\":456}}";
         Message message = createMessage(json);
 
-        listener.handleEvent(message, "project.completed", "project.completed", null, null, null);
+        handleEvent(message, "project.completed", "project.completed", null, null, null);
 
         ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
         verify(notificationService).createAll(captor.capture());
@@ -102,7 +124,7 @@ class NotificationEventListenerTest {
         String json = "{\"data\":{}}";
         Message message = createMessage(json);
 
-        listener.handleEvent(message, "unknown.event", "unknown.event", null, null, null);
+        handleEvent(message, "unknown.event", "unknown.event", null, null, null);
 
         verify(notificationService, never()).createAll(anyList());
     }
@@ -112,7 +134,7 @@ class NotificationEventListenerTest {
         String json = "{\"data\":{\"customer_id\":789}}";
         Message message = createMessage(json);
 
-        listener.handleEvent(message, "appointment.created", "appointment.created", "789", null, null);
+        handleEvent(message, "appointment.created", "appointment.created", "789", null, null);
 
         ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
         verify(notificationService).createAll(captor.capture());
@@ -128,7 +150,7 @@ class NotificationEventListenerTest {
         String json = "{\"data\":{\"amount\":\"$100.00\",\"customer_id\":999}}";
         Message message = createMessage(json);
 
-        listener.handleEvent(message, "payment.succeeded", "payment.succeeded", "999", null, null);
+        handleEvent(message, "payment.succeeded", "payment.succeeded", "999", null, null);
 
         ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
         verify(notificationService).createAll(captor.capture());
@@ -139,14 +161,46 @@ class NotificationEventListenerTest {
     }
 
     @Test
-    void handleEvent_withInvalidJson_handlesGracefully() {
+    void handleEvent_withInvalidJson_deadLettersMessage() throws IOException {
         String invalidJson = "not valid json";
         Message message = createMessage(invalidJson);
 
-        listener.handleEvent(message, "test.event", "test.event", "123", null, null);
+        handleEvent(message, "test.event", "test.event", "123", null, null);
 
-        // Should not throw exception, just log error
+        // Should not throw exception; the message is rejected without requeue so the broker dead-letters it
         verify(notificationService, never()).createAll(anyList());
+        verify(channel).basicNack(message.getMessageProperties().getDeliveryTag(), false, false);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+        assertThat(meterRegistry.counter("notification.consumer.messages", "outcome", "dead_lettered").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void handleBatch_persistsAllMessagesInOneCall_andAcksEach() throws IOException {
+        Message first = withHeaders(createMessage("{\"data\":{\"customer_id\":1}}"), "appointment.created", "appointment.created", null, null, null);
+        Message second = withHeaders(createMessage("{\"data\":{\"customer_id\":2}}"), "payment.failed", "payment.failed", null, null, null);
+
+        listener.handleBatch(List.of(first, second), channel);
+
+        ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
+        verify(notificationService).createAll(captor.capture());
+        assertThat(captor.getValue()).extracting(Notification::getUserId).containsExactly(1L, 2L);
+        verify(channel).basicAck(first.getMessageProperties().getDeliveryTag(), false);
+        verify(channel).basicAck(second.getMessageProperties().getDeliveryTag(), false);
+        assertThat(meterRegistry.summary("notification.consumer.batch.size").totalAmount()).isEqualTo(2.0);
+    }
+
+    @Test
+    void handleBatch_whenBatchPersistFails_retriesIndividuallyAndDeadLettersOnlyFailures() throws IOException {
+        Message good = withHeaders(createMessage("{\"data\":{\"customer_id\":1}}"), "appointment.created", "appointment.created", null, null, null);
+        Message bad = withHeaders(createMessage("{\"data\":{\"customer_id\":2}}"), "payment.failed", "payment.failed", null, null, null);
+        doThrow(new IllegalStateException("constraint violation"))
+                .when(notificationService).createAll(argThat(list -> list.size() == 2 || list.get(0).getUserId() == 2L));
+
+        listener.handleBatch(List.of(good, bad), channel);
+
+        verify(notificationService, times(3)).createAll(anyList());
+        verify(channel).basicAck(good.getMessageProperties().getDeliveryTag(), false);
+        verify(channel).basicNack(bad.getMessageProperties().getDeliveryTag(), false, false);
     }
 
     @Test
@@ -154,7 +208,7 @@ class NotificationEventListenerTest {
         String json = "{\"data\":{\"assigned_employee_ids\":[100,200,300]}}";
         Message message = createMessage(json);
 
-        listener.handleEvent(message, "project.assigned", "project.assigned", null, null, null);
+        handleEvent(message, "project.assigned", "project.assigned", null, null, null);
 
         ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
         verify(notificationService).createAll(captor.capture());
@@ -168,7 +222,7 @@ class NotificationEventListenerTest {
         String json = "{\"data\":{\"scheduled_at\":\"2025-12-01 10:00\",\"customer_id\":111}}";
         Message message = createMessage(json);
 
-        listener.handleEvent(message, "appointment.rescheduled", "appointment.rescheduled", "111", null, null);
+        handleEvent(message, "appointment.rescheduled", "appointment.rescheduled", "111", null, null);
 
         ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
         verify(notificationService).createAll(captor.capture());
@@ -183,7 +237,7 @@ class NotificationEventListenerTest {
         String json = "{\"data\":{\"customer_id\":222}}";
         Message message = createMessage(json);
 
-        listener.handleEvent(message, "custom.event", "custom.event", "222", null, null);
+        handleEvent(message, "custom.event", "custom.event", "222", null, null);
 
         ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
         verify(notificationService).createAll(captor.capture());
@@ -198,7 +252,7 @@ class NotificationEventListenerTest {
         String json = "{\"data\":{}}";
         Message message = createMessage(json);
 
-        listener.handleEvent(message, "invoice.created", "invoice.created", "555,666", "ADMIN", null);
+        handleEvent(message, "invoice.created", "invoice.created", "555,666", "ADMIN", null);
 
         ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
         verify(notificationService).createAll(captor.capture());
@@ -214,7 +268,7 @@ class NotificationEventListenerTest {
         String json = "{\"data\":{\"customer_id\":333}}";
         Message message = createMessage(json);
 
-        listener.handleEvent(message, "test.event", "test.event", "333", null, "legacy-msg-id");
+        handleEvent(message, "test.event", "test.event", "333", null, "legacy-msg-id");
 
         ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
         verify(notificationService).createAll(captor.capture());
@@ -240,15 +294,77 @@ class NotificationEventListenerTest {
             String json = "{\"data\":{\"customer_id\":111}}";
             Message message = createMessage(json);
 
-            listener.handleEvent(message, eventType, eventType, "111", null, null);
+            handleEvent(message, eventType, eventType, "111", null, null);
         }
 
         verify(notificationService, times(eventTypes.length)).createAll(anyList());
     }
 
+    @Test
+    void handleEvent_keepsNonAsciiPayloadAsUtf8() {
+        String json = "{\"data\":{\"customer_id\":123,\"note\":\"Bremsbeläge für Škoda – ok ✓\"}}";
+        Message message = createMessage(json);
+        message.getMessageProperties().setContentEncoding("utf-8");
+
+        handleEvent(message, "project.approved", "project.approved", null, null, null);
+
+        ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
+        verify(notificationService).createAll(captor.capture());
+        assertThat(captor.getValue().get(0).getEventPayload()).isEqualTo(json);
+    }
+
+    @Test
+    void handleEvent_withNonUtf8ContentEncoding_deadLettersMessage() throws IOException {
+        Message message = new Message("{\"data\":{\"customer_id\":1}}".getBytes(StandardCharsets.UTF_16), new MessageProperties());
+        message.getMessageProperties().setDeliveryTag(deliveryTags.incrementAndGet());
+        message.getMessageProperties().setContentEncoding("UTF-16");
+
+        handleEvent(message, "project.approved", "project.approved", null, null, null);
+
+        verify(notificationService, never()).createAll(anyList());
+        verify(channel).basicNack(message.getMessageProperties().getDeliveryTag(), false, false);
+    }
+
+    @Test
+    void queueDepthGauge_reportsLastSampleWithoutDeclaringOnScrape() {
+        when(amqpAdmin.getQueueInfo("notification.events.queue"))
+                .thenReturn(new QueueInformation("notification.events.queue", 42, 1));
+        var gauge = meterRegistry.get("notification.consumer.queue.depth").gauge();
+
+        assertThat(gauge.value()).isNaN();
+        verifyNoInteractions(amqpAdmin);
+
+        metrics.sampleQueueDepth();
+
+        assertThat(gauge.value()).isEqualTo(42.0);
+        assertThat(gauge.value()).isEqualTo(42.0);
+        verify(amqpAdmin, times(1)).getQueueInfo("notification.events.queue");
+    }
+
+    private void handleEvent(Message message, String routingKey, String eventName, String recipientsUserIds,
+                             String recipientsRoles, String legacyMessageId) {
+        try {
+            listener.handleBatch(List.of(withHeaders(message, routingKey, eventName, recipientsUserIds, recipientsRoles, legacyMessageId)), channel);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Message withHeaders(Message message, String routingKey, String eventName, String recipientsUserIds,
+                                String recipientsRoles, String legacyMessageId) {
+        MessageProperties props = message.getMessageProperties();
+        props.setReceivedRoutingKey(routingKey);
+        props.setHeader("x-event-name", eventName);
+        props.setHeader("x-recipients-user-ids", recipientsUserIds);
+        props.setHeader("x-recipients-roles", recipientsRoles);
+        props.setHeader("message_id", legacyMessageId);
+        return message;
+    }
+
     private Message createMessage(String json) {
         MessageProperties props = new MessageProperties();
         props.setMessageId("test-message-id");
+        props.setDeliveryTag(deliveryTags.incrementAndGet());
         return new Message(json.getBytes(StandardCharsets.UTF_8), props);
     }
 }
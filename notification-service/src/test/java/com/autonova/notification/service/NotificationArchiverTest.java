@@ -0,0 +1,70 @@
+package com.autonova.notification.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationArchiverTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void archive_createsPartitionsForTheBatchRangeOnlyAndPurgesPayloads() {
+        when(transactionTemplate.execute(any())).thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+        when(jdbcTemplate.queryForObject(contains("min(created_at)"), any(RowMapper.class), any(), any()))
+                .thenReturn(new Timestamp[]{ts("2025-01-20T10:00:00Z"), ts("2025-02-03T08:00:00Z")});
+        when(jdbcTemplate.update(contains("notifications_archive"), any(), any(), any())).thenReturn(7);
+        when(jdbcTemplate.update(contains("notification_payloads"), any(), any())).thenReturn(3);
+        NotificationArchiver archiver = new NotificationArchiver(jdbcTemplate, transactionTemplate, 90, 10);
+
+        archiver.archive();
+
+        ArgumentCaptor<String> ddl = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(2)).execute(ddl.capture());
+        assertThat(ddl.getAllValues()).satisfiesExactly(
+                sql -> assertThat(sql).contains("notifications_archive_2025_01", "FROM ('2025-01-01 00:00:00+00') TO ('2025-02-01 00:00:00+00')"),
+                sql -> assertThat(sql).contains("notifications_archive_2025_02"));
+        verify(jdbcTemplate).update(contains("notifications_archive"),
+                eq(ts("2025-01-01T00:00:00Z")), eq(ts("2025-03-01T00:00:00Z")), eq(10));
+        verify(jdbcTemplate).update(contains("notification_payloads"), any(Timestamp.class), eq(10));
+    }
+
+    @Test
+    void archive_withNothingToMove_createsNoPartitions() {
+        when(transactionTemplate.execute(any())).thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+        when(jdbcTemplate.queryForObject(contains("min(created_at)"), any(RowMapper.class), any(), any()))
+                .thenReturn(new Timestamp[]{null, null});
+        when(jdbcTemplate.update(contains("notification_payloads"), any(), any())).thenReturn(0);
+        NotificationArchiver archiver = new NotificationArchiver(jdbcTemplate, transactionTemplate, 90, 10);
+
+        archiver.archive();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(jdbcTemplate, never()).update(contains("notifications_archive"), any(), any(), any());
+    }
+
+    private static Timestamp ts(String instant) {
+        return Timestamp.from(Instant.parse(instant));
+    }
+}
@@ -0,0 +1,192 @@
+package com.autonova.notification.service;
+
+import com.autonova.notification.domain.Notification;
+import com.autonova.notification.domain.NotificationCoalescedEvent;
+import com.autonova.notification.repo.NotificationCoalescedEventRepository;
+import com.autonova.notification.repo.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationCoalescerTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private NotificationCoalescedEventRepository coalescedEventRepository;
+
+    private NotificationCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new NotificationCoalescer("project.*=1h,appointment.rescheduled=30s", notificationRepository, coalescedEventRepository);
+    }
+
+    @Test
+    void plan_withoutConfiguredWindows_insertsEverything() {
+        NotificationCoalescer disabled = new NotificationCoalescer("", notificationRepository, coalescedEventRepository);
+        List<Notification> batch = List.of(notification("m1", "project.approved", 1L, "p1"), notification("m2", "project.approved", 1L, "p1"));
+
+        NotificationCoalescer.Plan plan = disabled.plan(batch);
+
+        assertThat(plan.toInsert()).isEqualTo(batch);
+        assertThat(plan.absorbed()).isEmpty();
+        verifyNoInteractions(notificationRepository);
+    }
+
+    @Test
+    void plan_ignoresEventTypesWithoutWindow_andEventsWithoutAggregate() {
+        Notification payment = notification("m1", "payment.succeeded", 1L, "p1");
+        Notification noAggregate = notification("m2", "project.in_progress", 1L, null);
+
+        NotificationCoalescer.Plan plan = coalescer.plan(List.of(payment, noAggregate));
+
+        assertThat(plan.toInsert()).containsExactly(payment, noAggregate);
+        assertThat(payment.getCoalesceUntil()).isNull();
+        assertThat(noAggregate.getCoalesceUntil()).isNull();
+        verifyNoInteractions(notificationRepository);
+    }
+
+    @Test
+    void plan_opensWindowOnFirstEvent_andAbsorbsTheRestOfTheBurst() {
+        Notification first = notification("m1", "project.approved", 1L, "p1");
+        Notification second = notification("m2", "project.in_progress", 1L, "p1");
+        Notification otherUser = notification("m3", "project.in_progress", 2L, "p1");
+        when(notificationRepository.lockOpenWindowsForUser(any(), eq("project"), eq("p1"), any())).thenReturn(List.of());
+        when(notificationRepository.claimWindow(any(), any(), any())).thenReturn(1);
+
+        NotificationCoalescer.Plan plan = coalescer.plan(List.of(first, second, otherUser));
+
+        assertThat(plan.toInsert()).containsExactly(first, otherUser);
+        assertThat(first.getCoalesceUntil()).isAfter(Instant.now().plusSeconds(3500));
+        assertThat(first.getEventCount()).isEqualTo(2);
+        assertThat(plan.absorbed()).singleElement().satisfies(a -> {
+            assertThat(a.anchor()).isSameAs(first);
+            assertThat(a.event()).isSameAs(second);
+        });
+        verify(notificationRepository, times(1)).lockOpenWindowsForUser(eq(1L), eq("project"), eq("p1"), any());
+        verify(notificationRepository).claimWindow(eq("u:1|project|p1"), eq(first.getCoalesceUntil()), any());
+        verify(notificationRepository).claimWindow(eq("u:2|project|p1"), any(), any());
+    }
+
+    @Test
+    void plan_joinsTheWindowOfAConsumerThatClaimedTheKeyFirst() {
+        Notification winner = notification("m1", "project.approved", 1L, "p1");
+        winner.setCoalesceUntil(Instant.now().plusSeconds(3600));
+        Notification late = notification("m2", "project.in_progress", 1L, "p1");
+        Notification next = notification("m3", "project.completed", 1L, "p1");
+        // not committed yet when first looked up, committed once the claim has waited for it
+        when(notificationRepository.lockOpenWindowsForUser(eq(1L), eq("project"), eq("p1"), any()))
+                .thenReturn(List.of(), List.of(winner));
+        when(notificationRepository.claimWindow(eq("u:1|project|p1"), any(), any())).thenReturn(0);
+
+        NotificationCoalescer.Plan plan = coalescer.plan(List.of(late, next));
+
+        assertThat(plan.toInsert()).isEmpty();
+        assertThat(plan.absorbed()).extracting(NotificationCoalescer.Absorbed::anchor).containsOnly(winner);
+        assertThat(winner.getEventCount()).isEqualTo(3);
+        assertThat(late.getCoalesceUntil()).isNull();
+        verify(notificationRepository, times(1)).claimWindow(any(), any(), any());
+    }
+
+    @Test
+    void plan_storesTheEventOnItsOwnWhenTheClaimedWindowIsGoneBeforeItCanJoin() {
+        Notification late = notification("m2", "project.in_progress", 1L, "p1");
+        when(notificationRepository.lockOpenWindowsForUser(eq(1L), eq("project"), eq("p1"), any())).thenReturn(List.of());
+        when(notificationRepository.claimWindow(any(), any(), any())).thenReturn(0);
+
+        NotificationCoalescer.Plan plan = coalescer.plan(List.of(late));
+
+        assertThat(plan.toInsert()).containsExactly(late);
+        assertThat(plan.absorbed()).isEmpty();
+        assertThat(late.getCoalesceUntil()).isNull();
+    }
+
+    @Test
+    void plan_absorbsIntoWindowLockedInTheDb() {
+        Notification anchor = notification("m1", "project.approved", 1L, "p1");
+        anchor.setEventCount(3);
+        Notification next = notification("m4", "project.completed", 1L, "p1");
+        when(notificationRepository.lockOpenWindowsForUser(eq(1L), eq("project"), eq("p1"), any())).thenReturn(List.of(anchor));
+
+        NotificationCoalescer.Plan plan = coalescer.plan(List.of(next));
+
+        assertThat(plan.toInsert()).isEmpty();
+        assertThat(anchor.getEventCount()).isEqualTo(4);
+
+        coalescer.record(plan);
+
+        verify(coalescedEventRepository).saveAll(argThat((List<NotificationCoalescedEvent> events) ->
+                events.size() == 1 && events.get(0).getNotificationId().equals(anchor.getId())
+                        && events.get(0).getMessageId().equals("m4")));
+    }
+
+    @Test
+    void alreadyAbsorbed_checksRecordedEvents() {
+        Notification redelivered = notification("m2", "project.in_progress", 1L, "p1");
+        when(coalescedEventRepository.existsByMessageIdAndUserId("m2", 1L)).thenReturn(true);
+
+        assertThat(coalescer.alreadyAbsorbed(redelivered)).isTrue();
+    }
+
+    @Test
+    void closeExpired_rewritesDigestFromLatestEvent_andKeepsReadState() {
+        Notification digest = notification("m1", "project.approved", 1L, "p1");
+        digest.setEventCount(3);
+        digest.setReadFlag(true);
+        digest.setCoalesceUntil(Instant.now().minusSeconds(1));
+        Notification single = notification("m9", "project.approved", 1L, "p2");
+        single.setCoalesceUntil(Instant.now().minusSeconds(1));
+        Notification latestEvent = notification("m3", "project.completed", 1L, "p1");
+        when(notificationRepository.lockExpiredWindows(any(), any())).thenReturn(List.of(digest, single));
+        when(coalescedEventRepository.findFirstByNotificationIdOrderByCreatedAtDesc(digest.getId()))
+                .thenReturn(Optional.of(new NotificationCoalescedEvent(digest.getId(), latestEvent)));
+
+        List<Notification> digests = coalescer.closeExpired(Instant.now());
+
+        assertThat(digests).containsExactly(digest);
+        assertThat(digest.getMessage()).isEqualTo("3 updates. Latest: Message project.completed");
+        assertThat(digest.getEventType()).isEqualTo("project.completed");
+        assertThat(digest.isReadFlag()).isTrue();
+        assertThat(digest.getCoalesceUntil()).isNull();
+        assertThat(single.getCoalesceUntil()).isNull();
+        verify(notificationRepository).releaseWindows(argThat((Collection<String> keys) ->
+                keys.size() == 2 && keys.containsAll(List.of("u:1|project|p1", "u:1|project|p2"))), any());
+    }
+
+    @Test
+    void constructor_rejectsMalformedWindowSpec() {
+        assertThatThrownBy(() -> new NotificationCoalescer("project.*", notificationRepository, coalescedEventRepository))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Notification notification(String messageId, String eventType, Long userId, String aggregateId) {
+        Notification n = new Notification();
+        n.setId(UUID.randomUUID());
+        n.setMessageId(messageId);
+        n.setUserId(userId);
+        n.setType(eventType.substring(0, eventType.indexOf('.')));
+        n.setEventType(eventType);
+        n.setTitle("Title " + eventType);
+        n.setMessage("Message " + eventType);
+        n.setAggregateId(aggregateId);
+        n.setCreatedAt(Instant.now());
+        return n;
+    }
+}
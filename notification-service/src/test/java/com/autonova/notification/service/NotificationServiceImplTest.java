@@ -1,16 +1,21 @@
 package com.autonova.notification.service;
 
 import com.autonova.notification.domain.Notification;
+import com.autonova.notification.domain.NotificationCoalescedEvent;
+import com.autonova.notification.domain.NotificationPayload;
 import com.autonova.notification.dto.NotificationDto;
+import com.autonova.notification.repo.NotificationCoalescedEventRepository;
+import com.autonova.notification.repo.NotificationPayloadRepository;
 import com.autonova.notification.repo.NotificationRepository;
 import com.autonova.notification.sse.SseHub;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
 import java.util.Arrays;
@@ -21,6 +26,8 @@ import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,10 +36,15 @@ class NotificationServiceImplTest {
     @Mock
     private NotificationRepository notificationRepository;
 
+    @Mock
+    private NotificationPayloadRepository payloadRepository;
+
     @Mock
     private SseHub sseHub;
 
-    @InjectMocks
+    @Mock
+    private NotificationCoalescedEventRepository coalescedEventRepository;
+
     private NotificationServiceImpl notificationService;
 
     private Notification testNotification;
@@ -40,6 +52,9 @@ class NotificationServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        notificationService = new NotificationServiceImpl(notificationRepository, payloadRepository, sseHub,
+                new UnreadCountCache(notificationRepository, sseHub, 1000),
+                new NotificationCoalescer("", notificationRepository, coalescedEventRepository));
         notificationId = UUID.randomUUID();
         testNotification = createNotification(notificationId, 1L, "Test notification", false);
     }
@@ -162,6 +177,99 @@ class NotificationServiceImplTest {
         verify(sseHub, times(2)).publish(any(NotificationDto.class));
     }
 
+    @Test
+    void createAll_storesOnePayloadPerMessage_sharedAcrossRecipients() {
+        // Given
+        Notification forUser = createNotification(null, 1L, "Notification", false);
+        Notification forRole = createNotification(null, null, "Notification", false);
+        forUser.setMessageId("msg-1");
+        forUser.setPayloadId("msg-1");
+        forUser.setEventPayload("{\"data\":{}}");
+        forRole.setMessageId("msg-1:ADMIN");
+        forRole.setPayloadId("msg-1");
+        forRole.setEventPayload("{\"data\":{}}");
+        when(notificationRepository.existsByMessageIdAndUserId("msg-1", 1L)).thenReturn(false);
+        when(payloadRepository.existsById("msg-1")).thenReturn(false);
+        when(notificationRepository.save(any(Notification.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        notificationService.createAll(Arrays.asList(forUser, forRole));
+
+        // Then
+        ArgumentCaptor<NotificationPayload> captor = ArgumentCaptor.forClass(NotificationPayload.class);
+        verify(payloadRepository, times(1)).save(captor.capture());
+        assertThat(captor.getValue().getMessageId()).isEqualTo("msg-1");
+        verify(notificationRepository, times(2)).save(any(Notification.class));
+    }
+
+    @Test
+    void createAll_skipsPayload_whenAlreadyStored() {
+        // Given
+        Notification notification = createNotification(null, 2L, "Notification", false);
+        notification.setMessageId("msg-2");
+        notification.setPayloadId("msg-2");
+        notification.setEventPayload("{}");
+        when(notificationRepository.existsByMessageIdAndUserId("msg-2", 2L)).thenReturn(false);
+        when(payloadRepository.existsById("msg-2")).thenReturn(true);
+        when(notificationRepository.save(any(Notification.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        notificationService.createAll(List.of(notification));
+
+        // Then
+        verify(payloadRepository, never()).save(any(NotificationPayload.class));
+        verify(notificationRepository).save(notification);
+    }
+
+    @Test
+    void createAll_coalescesBurstForSameUserAndAggregate() {
+        // Given
+        NotificationCoalescer coalescer = new NotificationCoalescer("project.*=1h", notificationRepository, coalescedEventRepository);
+        notificationService = new NotificationServiceImpl(notificationRepository, payloadRepository, sseHub,
+                new UnreadCountCache(notificationRepository, sseHub, 1000), coalescer);
+        Notification first = createProjectNotification("msg-1", 1L, "project-a");
+        Notification second = createProjectNotification("msg-2", 1L, "project-a");
+        Notification otherProject = createProjectNotification("msg-3", 1L, "project-b");
+        when(notificationRepository.existsByMessageIdAndUserId(anyString(), anyLong())).thenReturn(false);
+        when(notificationRepository.lockOpenWindowsForUser(eq(1L), eq("project"), anyString(), any())).thenReturn(List.of());
+        when(notificationRepository.claimWindow(anyString(), any(), any())).thenReturn(1);
+        when(notificationRepository.save(any(Notification.class))).thenAnswer(invocation -> {
+            Notification n = invocation.getArgument(0);
+            if (n.getId() == null) n.setId(UUID.randomUUID());
+            return n;
+        });
+
+        // When
+        notificationService.createAll(Arrays.asList(first, second, otherProject));
+
+        // Then
+        verify(notificationRepository).save(first);
+        verify(notificationRepository, never()).save(second);
+        verify(notificationRepository).save(otherProject);
+        assertThat(first.getEventCount()).isEqualTo(2);
+        verify(coalescedEventRepository).saveAll(argThat((List<NotificationCoalescedEvent> events) ->
+                events.size() == 1 && events.get(0).getNotificationId().equals(first.getId())
+                        && events.get(0).getMessageId().equals("msg-2")));
+    }
+
+    @Test
+    void createAll_skipsRedeliveryOfAbsorbedEvent() {
+        // Given
+        NotificationCoalescer coalescer = new NotificationCoalescer("project.*=1h", notificationRepository, coalescedEventRepository);
+        notificationService = new NotificationServiceImpl(notificationRepository, payloadRepository, sseHub,
+                new UnreadCountCache(notificationRepository, sseHub, 1000), coalescer);
+        Notification redelivered = createProjectNotification("msg-2", 1L, "project-a");
+        when(notificationRepository.existsByMessageIdAndUserId("msg-2", 1L)).thenReturn(false);
+        when(coalescedEventRepository.existsByMessageIdAndUserId("msg-2", 1L)).thenReturn(true);
+
+        // When
+        notificationService.createAll(List.of(redelivered));
+
+        // Then
+        verify(notificationRepository, never()).save(any(Notification.class));
+        verify(notificationRepository, never()).lockOpenWindowsForUser(any(), any(), any(), any());
+    }
+
     @Test
     void unreadCount_returnsCount_whenUserHasUnreadNotifications() {
         // Given
@@ -190,6 +298,147 @@ class NotificationServiceImplTest {
         verify(notificationRepository).countByUserIdAndReadFlagFalse(userId);
     }
 
+    @Test
+    void unreadCount_servesFromCache_afterFirstLoad() {
+        // Given
+        Long userId = 1L;
+        when(notificationRepository.countByUserIdAndReadFlagFalse(userId)).thenReturn(3L);
+
+        // When
+        notificationService.unreadCount(userId);
+        long result = notificationService.unreadCount(userId);
+
+        // Then
+        assertThat(result).isEqualTo(3L);
+        verify(notificationRepository, times(1)).countByUserIdAndReadFlagFalse(userId);
+    }
+
+    @Test
+    void create_incrementsCachedUnreadCount_andPushesIt() {
+        // Given
+        Long userId = 1L;
+        when(notificationRepository.countByUserIdAndReadFlagFalse(userId)).thenReturn(2L);
+        notificationService.unreadCount(userId);
+        Notification notification = createNotification(null, userId, "New notification", false);
+        notification.setMessageId("msg-9");
+        when(notificationRepository.existsByMessageIdAndUserId("msg-9", userId)).thenReturn(false);
+        when(notificationRepository.save(notification)).thenReturn(notification);
+
+        // When
+        notificationService.create(notification);
+
+        // Then
+        assertThat(notificationService.unreadCount(userId)).isEqualTo(3L);
+        verify(sseHub).publishUnreadCount(userId, 3L);
+        verify(notificationRepository, times(1)).countByUserIdAndReadFlagFalse(userId);
+    }
+
+    @Test
+    void createAll_countsABatchOnceForAColdUser() {
+        // Given: nothing cached for the user yet, and the DB count after commit includes the whole batch
+        Long userId = 1L;
+        List<Notification> batch = Arrays.asList(
+                createNotification(null, userId, "Notification 1", false),
+                createNotification(null, userId, "Notification 2", false),
+                createNotification(null, userId, "Notification 3", false),
+                createNotification(null, 2L, "Other user", false));
+        for (int i = 0; i < batch.size(); i++) batch.get(i).setMessageId("msg-" + i);
+        when(notificationRepository.existsByMessageIdAndUserId(anyString(), anyLong())).thenReturn(false);
+        when(notificationRepository.save(any(Notification.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(notificationRepository.countByUserIdAndReadFlagFalse(userId)).thenReturn(5L);
+        when(notificationRepository.countByUserIdAndReadFlagFalse(2L)).thenReturn(1L);
+
+        // When
+        notificationService.createAll(batch);
+
+        // Then
+        assertThat(notificationService.unreadCount(userId)).isEqualTo(5L);
+        assertThat(notificationService.unreadCount(2L)).isEqualTo(1L);
+        verify(sseHub).publishUnreadCount(userId, 5L);
+        verify(sseHub, times(1)).publishUnreadCount(eq(userId), anyLong());
+    }
+
+    @Test
+    void createAll_addsTheBatchOnceToAWarmCount() {
+        // Given
+        Long userId = 1L;
+        when(notificationRepository.countByUserIdAndReadFlagFalse(userId)).thenReturn(2L);
+        notificationService.unreadCount(userId);
+        Notification first = createNotification(null, userId, "Notification 1", false);
+        Notification second = createNotification(null, userId, "Notification 2", false);
+        first.setMessageId("msg-1");
+        second.setMessageId("msg-2");
+        when(notificationRepository.existsByMessageIdAndUserId(anyString(), anyLong())).thenReturn(false);
+        when(notificationRepository.save(any(Notification.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        notificationService.createAll(Arrays.asList(first, second));
+
+        // Then
+        assertThat(notificationService.unreadCount(userId)).isEqualTo(4L);
+        verify(sseHub).publishUnreadCount(userId, 4L);
+        verify(notificationRepository, times(1)).countByUserIdAndReadFlagFalse(userId);
+    }
+
+    @Test
+    void markRead_decrementsCachedUnreadCount_onlyWhenPreviouslyUnread() {
+        // Given
+        Long userId = 1L;
+        when(notificationRepository.countByUserIdAndReadFlagFalse(userId)).thenReturn(2L);
+        notificationService.unreadCount(userId);
+        UUID unreadId = UUID.randomUUID();
+        UUID readId = UUID.randomUUID();
+        when(notificationRepository.findById(unreadId)).thenReturn(Optional.of(createNotification(unreadId, userId, "Unread", false)));
+        when(notificationRepository.findById(readId)).thenReturn(Optional.of(createNotification(readId, userId, "Read", true)));
+        when(notificationRepository.save(any(Notification.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        notificationService.markRead(unreadId);
+        notificationService.markRead(readId);
+
+        // Then
+        assertThat(notificationService.unreadCount(userId)).isEqualTo(1L);
+        verify(sseHub, times(1)).publishUnreadCount(userId, 1L);
+    }
+
+    @Test
+    void markAllRead_resetsUnreadCount_andPushesZero() {
+        // Given
+        Long userId = 1L;
+        when(notificationRepository.countByUserIdAndReadFlagFalse(userId)).thenReturn(4L);
+        notificationService.unreadCount(userId);
+
+        // When
+        notificationService.markAllRead(userId);
+
+        // Then
+        assertThat(notificationService.unreadCount(userId)).isEqualTo(0L);
+        verify(sseHub).publishUnreadCount(userId, 0L);
+    }
+
+    @Test
+    void markAllRead_resetsUnreadCountOnlyOnceTheTransactionCommits() {
+        // Given
+        Long userId = 1L;
+        when(notificationRepository.countByUserIdAndReadFlagFalse(userId)).thenReturn(4L);
+        notificationService.unreadCount(userId);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            notificationService.markAllRead(userId);
+
+            // Then
+            verify(sseHub, never()).publishUnreadCount(anyLong(), anyLong());
+            assertThat(notificationService.unreadCount(userId)).isEqualTo(4L);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(sseHub).publishUnreadCount(userId, 0L);
+            assertThat(notificationService.unreadCount(userId)).isEqualTo(0L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Test
     void markAllRead_marksAllNotificationsAsRead() {
         // Given
@@ -202,6 +451,15 @@ class NotificationServiceImplTest {
         verify(notificationRepository).markAllReadByUserId(userId);
     }
 
+    private Notification createProjectNotification(String messageId, Long userId, String projectId) {
+        Notification notification = createNotification(null, userId, "Project is now in progress.", false);
+        notification.setType("project");
+        notification.setEventType("project.in_progress");
+        notification.setMessageId(messageId);
+        notification.setAggregateId(projectId);
+        return notification;
+    }
+
     private Notification createNotification(UUID id, Long userId, String message, boolean read) {
         Notification notification = new Notification();
         notification.setId(id);
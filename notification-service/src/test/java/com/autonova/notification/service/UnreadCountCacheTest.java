@@ -0,0 +1,98 @@
+package com.autonova.notification.service;
+
+import com.autonova.notification.repo.NotificationRepository;
+import com.autonova.notification.sse.SseHub;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UnreadCountCacheTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private SseHub sseHub;
+
+    @Test
+    void get_loadsCountOnFirstAccessOnly() {
+        UnreadCountCache cache = new UnreadCountCache(notificationRepository, sseHub, 10);
+        when(notificationRepository.countByUserIdAndReadFlagFalse(1L)).thenReturn(3L);
+
+        assertThat(cache.get(1L)).isEqualTo(3);
+        assertThat(cache.get(1L)).isEqualTo(3);
+
+        verify(notificationRepository, times(1)).countByUserIdAndReadFlagFalse(1L);
+    }
+
+    @Test
+    void add_coldLoadsCountAsApplyingTheDelta_evenWhenTwoCallersRace() {
+        UnreadCountCache cache = new UnreadCountCache(notificationRepository, sseHub, 10);
+        when(notificationRepository.countByUserIdAndReadFlagFalse(1L))
+                .thenAnswer(inv -> {
+                    // another consumer commits two rows and warms the same user while this load runs
+                    cache.add(1L, 2);
+                    return 5L;
+                })
+                .thenReturn(5L);
+
+        // this caller committed three rows; the DB count already holds both batches
+        cache.add(1L, 3);
+
+        assertThat(cache.get(1L)).isEqualTo(5);
+        verify(sseHub, times(2)).publishUnreadCount(1L, 5L);
+    }
+
+    @Test
+    void reconcile_keepsIncrementThatLandsDuringTheQuery() {
+        UnreadCountCache cache = new UnreadCountCache(notificationRepository, sseHub, 10);
+        when(notificationRepository.countByUserIdAndReadFlagFalse(1L))
+                .thenReturn(3L)
+                .thenAnswer(inv -> {
+                    // a new notification is committed and counted while the reconcile query runs
+                    cache.increment(1L);
+                    return 5L;
+                });
+        cache.get(1L);
+
+        cache.reconcile();
+
+        assertThat(cache.get(1L)).isEqualTo(4);
+        verify(sseHub, never()).publishUnreadCount(1L, 5L);
+    }
+
+    @Test
+    void reconcile_correctsDriftAndPublishes() {
+        UnreadCountCache cache = new UnreadCountCache(notificationRepository, sseHub, 10);
+        when(notificationRepository.countByUserIdAndReadFlagFalse(1L)).thenReturn(3L, 7L);
+        cache.get(1L);
+
+        cache.reconcile();
+
+        assertThat(cache.get(1L)).isEqualTo(7);
+        verify(sseHub).publishUnreadCount(1L, 7L);
+    }
+
+    @Test
+    void reconcile_evictsLeastRecentlyUsedUsersOverTheLimit() {
+        UnreadCountCache cache = new UnreadCountCache(notificationRepository, sseHub, 2);
+        when(notificationRepository.countByUserIdAndReadFlagFalse(anyLong())).thenReturn(1L);
+        cache.get(1L);
+        cache.get(2L);
+        cache.get(3L);
+        cache.get(1L);
+
+        cache.reconcile();
+
+        assertThat(cache.size()).isEqualTo(2);
+        clearInvocations(notificationRepository);
+        cache.get(1L);
+        cache.get(3L);
+        verifyNoInteractions(notificationRepository);
+    }
+}
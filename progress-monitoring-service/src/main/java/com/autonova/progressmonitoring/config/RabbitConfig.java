@@ -27,9 +27,27 @@ public class RabbitConfig {
     @Value("${app.rabbit.routing-keys:project.*,quote.*,project.change-request.*}")
     private String routingKeys;
 
+    @Value("${app.rabbit.dead-letter-exchange:${app.rabbit.queue:progress.project.queue}.dlx}")
+    private String deadLetterExchangeName;
+
+    @Value("${app.rabbit.dead-letter-queue:${app.rabbit.queue:progress.project.queue}.dlq}")
+    private String deadLetterQueueName;
+
+    // Note: adding DLX arguments to an already-declared queue requires deleting it once on the broker
     @Bean
     public Queue projectQueue() {
-        return new Queue(queueName, true);
+        return QueueBuilder.durable(queueName)
+                .deadLetterExchange(deadLetterExchangeName)
+                .deadLetterRoutingKey(deadLetterQueueName)
+                .build();
+    }
+
+    // Batches that still fail after the listener's retries land here instead of being redelivered forever
+    @Bean
+    public Declarables projectDeadLetters() {
+        DirectExchange exchange = new DirectExchange(deadLetterExchangeName, true, false);
+        Queue queue = QueueBuilder.durable(deadLetterQueueName).build();
+        return new Declarables(exchange, queue, BindingBuilder.bind(queue).to(exchange).with(deadLetterQueueName));
     }
 
     @Bean
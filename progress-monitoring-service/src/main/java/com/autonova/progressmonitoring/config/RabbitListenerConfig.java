@@ -0,0 +1,65 @@
+package com.autonova.progressmonitoring.config;
+
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.retry.MessageBatchRecoverer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.interceptor.RetryOperationsInterceptor;
+
+import java.time.Duration;
+
+// Listener container for project events: messages are consumed in batches so each batch is persisted in one transaction
+@Configuration
+public class RabbitListenerConfig {
+
+    @Value("${app.rabbit.batch-size:100}")
+    private int batchSize;
+
+    // How long after a batch's first message a partial batch is handed over (bounds the added SSE latency)
+    @Value("${app.rabbit.batch-receive-timeout:50ms}")
+    private Duration batchReceiveTimeout;
+
+    // Attempts per batch, in place, before it is rejected to the dead-letter queue
+    @Value("${app.rabbit.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.rabbit.retry-backoff:500ms}")
+    private Duration retryBackoff;
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory projectBatchListenerFactory(SimpleRabbitListenerContainerFactoryConfigurer configurer,
+                                                                            ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(Math.max(1, batchSize));
+        // a deadline from the batch's first message; the per-poll receive timeout would restart on every message
+        factory.setBatchReceiveTimeout(batchReceiveTimeout.toMillis());
+        // keep the next batch in flight while the current one is written
+        factory.setPrefetchCount(Math.max(1, batchSize) * 2);
+        factory.setAdviceChain(batchRetry(maxAttempts, retryBackoff));
+        return factory;
+    }
+
+    /**
+     * Retries a failed batch in place with exponential backoff; once the attempts are used up the batch is
+     * rejected without requeue, so the broker moves it to the dead-letter queue.
+     */
+    static RetryOperationsInterceptor batchRetry(int maxAttempts, Duration backoff) {
+        long initial = Math.max(1, backoff.toMillis());
+        return RetryInterceptorBuilder.stateless()
+                .maxAttempts(Math.max(1, maxAttempts))
+                .backOffOptions(initial, 2.0, initial * 10)
+                .recoverer((MessageBatchRecoverer) (messages, cause) -> {
+                    throw new AmqpRejectAndDontRequeueException(
+                            "Project event batch of " + messages.size() + " failed after " + maxAttempts + " attempts", cause);
+                })
+                .build();
+    }
+}
@@ -0,0 +1,40 @@
+package com.autonova.progressmonitoring.config;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Fanout exchange that carries SSE frames between replicas. Every instance binds its own exclusive,
+ * auto-delete queue, so each one sees every frame and forwards it to the subscribers connected to it.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sse.backplane.enabled", havingValue = "true", matchIfMissing = true)
+public class SseBackplaneConfig {
+
+    @Value("${app.sse.backplane.exchange:progress.sse.backplane}")
+    private String exchangeName;
+
+    @Bean
+    public FanoutExchange sseBackplaneExchange() {
+        return new FanoutExchange(exchangeName, true, false);
+    }
+
+    // server-named per instance; goes away with the connection, so restarted or scaled-in nodes leave nothing behind
+    @Bean
+    public Queue sseBackplaneQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("progress.sse."));
+    }
+
+    @Bean
+    public Binding sseBackplaneBinding(Queue sseBackplaneQueue, FanoutExchange sseBackplaneExchange) {
+        return BindingBuilder.bind(sseBackplaneQueue).to(sseBackplaneExchange);
+    }
+}
@@ -0,0 +1,44 @@
+package com.autonova.progressmonitoring.controller;
+
+import com.autonova.progressmonitoring.storage.AttachmentStorage;
+import com.autonova.progressmonitoring.storage.S3AttachmentStorage;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriUtils;
+
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Attachment downloads for the S3 backend: stored URLs keep their service-relative shape and are redirected
+ * to a freshly presigned bucket URL, so the object store serves the bytes (ranges and ETags included).
+ */
+@RestController
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "s3")
+public class PresignedAttachmentController {
+
+    private final S3AttachmentStorage storage;
+
+    public PresignedAttachmentController(S3AttachmentStorage storage) {
+        this.storage = storage;
+    }
+
+    @GetMapping(AttachmentStorage.URL_PREFIX + "**")
+    public ResponseEntity<Void> download(HttpServletRequest request) throws URISyntaxException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String key = UriUtils.decode(path.substring(AttachmentStorage.URL_PREFIX.length()), StandardCharsets.UTF_8);
+        URL url = storage.presignedUrl(key);
+        if (url == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .header(HttpHeaders.LOCATION, url.toURI().toString())
+                // the signature expires, so the redirect itself must not be cached
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .build();
+    }
+}
@@ -1,13 +1,16 @@
 package com.autonova.progressmonitoring.controller;
 
 import com.autonova.progressmonitoring.dto.CreateStatusRequest;
+import com.autonova.progressmonitoring.dto.MessageSearchPage;
 import com.autonova.progressmonitoring.dto.ProjectMessageDto;
 import com.autonova.progressmonitoring.messaging.publisher.EventPublisher;
 import com.autonova.progressmonitoring.service.ProjectMessageService;
 import com.autonova.progressmonitoring.factory.ProjectMessageFactory;
 import com.autonova.progressmonitoring.storage.AttachmentStorage;
+import com.autonova.progressmonitoring.storage.AttachmentTooLargeException;
 import com.autonova.progressmonitoring.storage.StoredAttachment;
 import com.autonova.progressmonitoring.service.ProjectClientService;
+import com.autonova.progressmonitoring.service.AttachmentRenditionService;
 import com.autonova.progressmonitoring.client.ProjectServiceClient.ProjectServiceException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.data.domain.Slice;
@@ -19,6 +22,8 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.OffsetDateTime;
 import java.util.List;
@@ -38,21 +43,23 @@ public class ProjectMessageController {
     private final AttachmentStorage attachmentStorage;
     private final ProjectClientService projectClientService;
     private final ObjectMapper objectMapper;
+    private final AttachmentRenditionService renditionService;
 
-    public ProjectMessageController(ProjectMessageService service, EventPublisher publisher, AttachmentStorage attachmentStorage, ProjectClientService projectClientService, ObjectMapper objectMapper) {
+    public ProjectMessageController(ProjectMessageService service, EventPublisher publisher, AttachmentStorage attachmentStorage, ProjectClientService projectClientService, ObjectMapper objectMapper, AttachmentRenditionService renditionService) {
         this.service = service;
         this.publisher = publisher;
         this.attachmentStorage = attachmentStorage;
         this.projectClientService = projectClientService;
         this.objectMapper = objectMapper;
+        this.renditionService = renditionService;
     }
 
     @GetMapping("/my/statuses")
     @PreAuthorize("hasRole('CUSTOMER')")
-    public ResponseEntity<List<Map<String, Object>>> getMyProjectStatuses(HttpServletRequest request) {
+    public Mono<ResponseEntity<List<Map<String, Object>>>> getMyProjectStatuses(HttpServletRequest request) {
         Object uid = request.getAttribute("userId");
         if (uid == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null));
         }
 
         long userId;
@@ -63,73 +70,84 @@ public class ProjectMessageController {
             try {
                 userId = Long.parseLong(String.valueOf(uid));
             } catch (Exception e) {
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+                return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null));
             }
         }
 
-        try {
-            List<Map<String, Object>> projects = projectClientService.getProjectsForCustomer(userId);
-            List<Map<String, Object>> response = new ArrayList<>();
+        final long customerId = userId;
+        return projectClientService.getProjectsForCustomer(customerId)
+                // the latest-message lookup hits the DB, keep it off the HTTP client's event loop
+                .publishOn(Schedulers.boundedElastic())
+                .map(projects -> ResponseEntity.ok(toStatuses(projects)))
+                .onErrorResume(e -> {
+                    log.error("Error fetching projects for user {}: {}", customerId, e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null));
+                });
+    }
 
-            if (projects == null || projects.isEmpty()) {
-                return ResponseEntity.ok(response);
-            }
+    private List<Map<String, Object>> toStatuses(List<Map<String, Object>> projects) {
+        List<Map<String, Object>> response = new ArrayList<>();
+        if (projects == null || projects.isEmpty()) {
+            return response;
+        }
 
-            for (Map<String, Object> proj : projects) {
-                Map<String, Object> item = new HashMap<>();
-                item.put("project", proj);
-
-                Object projIdObj = proj.getOrDefault("projectId", proj.get("projectId"));
-                if (projIdObj != null) {
-                    try {
-                        UUID pid = UUID.fromString(String.valueOf(projIdObj));
-                        List<ProjectMessageDto> messages = service.getMessagesForProjectDto(pid);
-                        if (messages != null && !messages.isEmpty()) {
-                            ProjectMessageDto last = messages.get(0);
-                            Map<String, Object> lastMsg = new HashMap<>();
-                            lastMsg.put("message", last.getMessage());
-                            lastMsg.put("occurredAt", last.getOccurredAt());
-                            lastMsg.put("category", last.getCategory());
-                            item.put("lastMessage", lastMsg);
-                        }
-                    } catch (IllegalArgumentException ex) {
-                        // ignore invalid projectId format
-                    }
-                }
-
-                response.add(item);
+        List<UUID> projectIds = new ArrayList<>();
+        for (Map<String, Object> proj : projects) {
+            UUID pid = parseProjectId(proj);
+            if (pid != null) projectIds.add(pid);
+        }
+        Map<UUID, ProjectMessageDto> latest = projectIds.isEmpty() ? Map.of() : service.getLatestMessages(projectIds);
+
+        for (Map<String, Object> proj : projects) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("project", proj);
+
+            UUID pid = parseProjectId(proj);
+            ProjectMessageDto last = pid != null ? latest.get(pid) : null;
+            if (last != null) {
+                Map<String, Object> lastMsg = new HashMap<>();
+                lastMsg.put("message", last.getMessage());
+                lastMsg.put("occurredAt", last.getOccurredAt());
+                lastMsg.put("category", last.getCategory());
+                item.put("lastMessage", lastMsg);
             }
 
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            log.error("Error fetching projects for user {}: {}", userId, e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+            response.add(item);
         }
+        return response;
     }
 
     @GetMapping("/{projectId}/messages")
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE', 'CUSTOMER')")
-    public ResponseEntity<List<ProjectMessageDto>> getMessages(@PathVariable String projectId) {
+    public Mono<ResponseEntity<List<ProjectMessageDto>>> getMessages(@PathVariable String projectId) {
         UUID id;
         try {
             id = UUID.fromString(projectId);
         } catch (IllegalArgumentException ex) {
-            return ResponseEntity.badRequest().body(null); // Invalid UUID format
+            return Mono.just(ResponseEntity.badRequest().body(null)); // Invalid UUID format
         }
 
         try {
             List<ProjectMessageDto> messages = service.getMessagesForProjectDto(id);
-            projectClientService.enrichMessagesWithProjectTitle(projectId, messages);
-            return ResponseEntity.ok(messages);
-        } catch (ProjectServiceException e) {
+            // the response is written only after the (cached) project title has been applied
+            return projectClientService.enrichMessagesWithProjectTitle(projectId, messages)
+                    .defaultIfEmpty(messages)
+                    .map(ResponseEntity::ok)
+                    .onErrorResume(e -> Mono.just(errorResponse(projectId, e)));
+        } catch (Exception e) {
+            return Mono.just(errorResponse(projectId, e));
+        }
+    }
+
+    private ResponseEntity<List<ProjectMessageDto>> errorResponse(String projectId, Throwable e) {
+        if (e instanceof ProjectServiceException) {
             log.error("Error fetching project data for project {}: {}", projectId, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(null); // Internal error from Project Service Client
-        } catch (Exception e) {
-            log.error("Unexpected error occurred while fetching messages for project {}: {}", projectId, e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(null); // Generic error handling
         }
+        log.error("Unexpected error occurred while fetching messages for project {}: {}", projectId, e.getMessage());
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(null); // Generic error handling
     }
 
     @GetMapping("/{projectId}/messages/page")
@@ -192,6 +210,32 @@ public class ProjectMessageController {
         }
     }
 
+    @GetMapping("/{projectId}/messages/search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE', 'CUSTOMER')")
+    public ResponseEntity<MessageSearchPage> searchMessages(@PathVariable String projectId,
+                                                            @RequestParam String q,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "20") int size) {
+        UUID id;
+        try {
+            id = UUID.fromString(projectId);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        if (q.isBlank()) {
+            return ResponseEntity.badRequest().body(null);
+        }
+
+        try {
+            return ResponseEntity.ok(service.searchMessages(id, q, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null); // malformed cursor
+        } catch (Exception e) {
+            log.error("Error searching messages for project {}: {}", projectId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        }
+    }
+
     @PostMapping("/{projectId}/messages")
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE')")
     public ResponseEntity<ProjectMessageDto> postStatusMessage(@PathVariable String projectId,
@@ -255,6 +299,8 @@ public class ProjectMessageController {
         try {
             StoredAttachment att = attachmentStorage.store(file);
             ProjectMessageDto saved = service.saveMessage(ProjectMessageFactory.fromManualWithAttachment(id, category, message, att));
+            // thumbnails are produced in the background; the timeline uses the original until they exist
+            renditionService.generate(saved);
 
             try {
                 String jsonPayload = objectMapper.writeValueAsString(saved);
@@ -266,12 +312,26 @@ public class ProjectMessageController {
             }
 
             return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        } catch (AttachmentTooLargeException e) {
+            log.warn("Rejected attachment for project {}: {}", projectId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
         } catch (Exception e) {
             log.error("Error uploading file and saving message for project {}: {}", projectId, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    private static UUID parseProjectId(Map<String, Object> project) {
+        Object projIdObj = project.get("projectId");
+        if (projIdObj == null) return null;
+        try {
+            return UUID.fromString(String.valueOf(projIdObj));
+        } catch (IllegalArgumentException ex) {
+            // ignore invalid projectId format
+            return null;
+        }
+    }
+
     @GetMapping(value = "/{projectId}/messages/test")
     public String test() {
         return "Test";
@@ -8,6 +8,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
@@ -26,7 +27,8 @@ public class SseController {
 
     @GetMapping(path = "/projects/{projectId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE', 'CUSTOMER')")
-    public SseEmitter subscribeToProject(@PathVariable String projectId) {
+    public SseEmitter subscribeToProject(@PathVariable String projectId,
+                                         @RequestParam(defaultValue = "false") boolean includePayload) {
         try {
             UUID.fromString(projectId);
         } catch (Exception ex) {
@@ -34,7 +36,7 @@ public class SseController {
         }
 
         SseEmitter emitter = new SseEmitter(0L);
-        registry.register(projectId, emitter);
+        registry.register(projectId, emitter, includePayload);
 
         emitter.onCompletion(() -> {
             log.debug("SSE completed for project {}", projectId);
@@ -0,0 +1,12 @@
+package com.autonova.progressmonitoring.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class MessageSearchHit {
+    private ProjectMessageDto message;
+    // fragments of the message text with the matched terms wrapped in <mark>...</mark>
+    private String highlight;
+}
@@ -0,0 +1,15 @@
+package com.autonova.progressmonitoring.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class MessageSearchPage {
+    // newest first
+    private List<MessageSearchHit> hits;
+    // pass back as ?cursor= for the next page; null on the last page
+    private String nextCursor;
+}
@@ -2,12 +2,15 @@ package com.autonova.progressmonitoring.dto;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
 
 import java.time.OffsetDateTime;
+import java.util.Map;
 import java.util.UUID;
 
 @Data
 @Builder
+@Jacksonized
 public class ProjectMessageDto {
     private UUID id;
     private UUID projectId;
@@ -21,4 +24,6 @@ public class ProjectMessageDto {
     private String attachmentContentType;
     private String attachmentFilename;
     private Long attachmentSize;
+    // rendition name (thumb, preview) -> URL; only renditions that have been generated
+    private Map<String, String> attachmentRenditions;
 }
@@ -8,7 +8,23 @@ import java.time.OffsetDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "project_messages")
+@Table(name = "project_messages", indexes = {
+        @Index(name = "idx_project_messages_project_created", columnList = "project_id, created_at DESC")
+})
+// Full-text search over search_vector (see db/migration/V2__message_search_vector.sql), newest first with a (created_at, id) keyset.
+// Highlights are computed in the outer query so ts_headline only runs for the rows of the page.
+@NamedNativeQuery(name = "ProjectMessage.search", resultSetMapping = "ProjectMessage.searchHit",
+        query = "SELECT m.*, " + ProjectMessage.HEADLINE + " AS highlight FROM (SELECT * FROM project_messages "
+                + "WHERE project_id = :projectId AND search_vector @@ websearch_to_tsquery('english', :query) "
+                + "ORDER BY created_at DESC, id DESC LIMIT :limit) m ORDER BY m.created_at DESC, m.id DESC")
+@NamedNativeQuery(name = "ProjectMessage.searchBefore", resultSetMapping = "ProjectMessage.searchHit",
+        query = "SELECT m.*, " + ProjectMessage.HEADLINE + " AS highlight FROM (SELECT * FROM project_messages "
+                + "WHERE project_id = :projectId AND search_vector @@ websearch_to_tsquery('english', :query) "
+                + "AND (created_at, id) < (:beforeCreatedAt, :beforeId) "
+                + "ORDER BY created_at DESC, id DESC LIMIT :limit) m ORDER BY m.created_at DESC, m.id DESC")
+@SqlResultSetMapping(name = "ProjectMessage.searchHit",
+        entities = @EntityResult(entityClass = ProjectMessage.class),
+        columns = @ColumnResult(name = "highlight", type = String.class))
 @Getter
 @Setter
 @Builder
@@ -16,6 +32,9 @@ import java.util.UUID;
 @AllArgsConstructor
 public class ProjectMessage {
 
+    static final String HEADLINE = "ts_headline('english', coalesce(m.message, ''), websearch_to_tsquery('english', :query), "
+            + "'StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MinWords=5, MaxWords=20')";
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     @Column(name = "id", updatable = false, nullable = false)
@@ -54,6 +73,10 @@ public class ProjectMessage {
     @Column(name = "attachment_size")
     private Long attachmentSize;
 
+    // comma-separated names of the downscaled renditions generated so far, e.g. "preview,thumb"
+    @Column(name = "attachment_renditions")
+    private String attachmentRenditions;
+
     public ProjectMessage(UUID projectId, String category, String message, String payload, OffsetDateTime occurredAt) {
         this.projectId = projectId;
         this.category = category;
@@ -2,8 +2,11 @@ package com.autonova.progressmonitoring.mapper;
 
 import com.autonova.progressmonitoring.dto.ProjectMessageDto;
 import com.autonova.progressmonitoring.entity.ProjectMessage;
+import com.autonova.progressmonitoring.storage.AttachmentStorage;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class ProjectMessageMapper {
@@ -24,6 +27,7 @@ public class ProjectMessageMapper {
                 .attachmentContentType(pm.getAttachmentContentType())
                 .attachmentFilename(pm.getAttachmentFilename())
                 .attachmentSize(pm.getAttachmentSize())
+                .attachmentRenditions(renditionUrls(pm.getAttachmentUrl(), pm.getAttachmentRenditions()))
                 .build();
     }
 
@@ -40,9 +44,21 @@ public class ProjectMessageMapper {
         pm.setAttachmentContentType(dto.getAttachmentContentType());
         pm.setAttachmentFilename(dto.getAttachmentFilename());
         pm.setAttachmentSize(dto.getAttachmentSize());
+        if (dto.getAttachmentRenditions() != null && !dto.getAttachmentRenditions().isEmpty()) {
+            pm.setAttachmentRenditions(String.join(",", dto.getAttachmentRenditions().keySet()));
+        }
         return pm;
     }
 
+    private static Map<String, String> renditionUrls(String attachmentUrl, String renditions) {
+        if (attachmentUrl == null || renditions == null || renditions.isBlank()) return null;
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (String name : renditions.split(",")) {
+            if (!name.isBlank()) urls.put(name.trim(), AttachmentStorage.renditionUrl(attachmentUrl, name.trim()));
+        }
+        return urls;
+    }
+
     public static List<ProjectMessageDto> toDtos(List<ProjectMessage> list) {
         return list.stream().map(ProjectMessageMapper::toDto).collect(Collectors.toList());
     }
@@ -11,4 +11,11 @@ public interface EventPublisher {
 
     // broadcast a human-friendly message to all subscribers
     void broadcastMessage(String message);
+
+    // publish a single combined frame for a domain event: the human-friendly message plus the raw JSON payload,
+    // which is only delivered to subscribers that opted in to it
+    void publishEvent(String projectId, String message, String rawPayload);
+
+    // broadcast a combined event frame to all subscribers
+    void broadcastEvent(String message, String rawPayload);
 }
@@ -2,6 +2,13 @@ package com.autonova.progressmonitoring.messaging.rabbit;
 
 import org.springframework.amqp.core.Message;
 
+import java.util.List;
+
 public interface ProjectEventProcessor {
     void process(org.springframework.amqp.core.Message message);
+
+    // Messages delivered together by a batching listener, in queue order
+    default void processBatch(List<Message> messages) {
+        messages.forEach(this::process);
+    }
 }
@@ -1,22 +1,29 @@
 package com.autonova.progressmonitoring.messaging.rabbit;
 
+import com.autonova.progressmonitoring.dto.ProjectMessageDto;
 import com.autonova.progressmonitoring.enums.EventCategory;
 import com.autonova.progressmonitoring.factory.ProjectMessageFactory;
 import com.autonova.progressmonitoring.messaging.adapter.DomainEventAdapter;
 import com.autonova.progressmonitoring.messaging.mapper.EventMessageMapper;
 import com.autonova.progressmonitoring.messaging.publisher.EventPublisher;
+import com.autonova.progressmonitoring.service.ProjectCacheRelay;
+import com.autonova.progressmonitoring.service.ProjectClientService;
 import com.autonova.progressmonitoring.service.ProjectMessageService;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.core.Message;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -29,49 +36,97 @@ public class ProjectEventProcessorImpl implements ProjectEventProcessor {
     private final EventMessageMapper messageMapper;
     private final ProjectMessageService messageService;
     private final DomainEventAdapter domainEventAdapter;
+    private final ProjectClientService projectClientService;
+    private final ProjectCacheRelay cacheRelay;
 
     // Backward-compatible constructor (without DomainEventAdapter)
     public ProjectEventProcessorImpl(EventPublisher publisher, ObjectMapper mapper, EventMessageMapper messageMapper, ProjectMessageService messageService) {
-        this(publisher, mapper, messageMapper, messageService, null);
+        this(publisher, mapper, messageMapper, messageService, null, null);
     }
 
-    @Autowired
     public ProjectEventProcessorImpl(EventPublisher publisher, ObjectMapper mapper, EventMessageMapper messageMapper, ProjectMessageService messageService, DomainEventAdapter domainEventAdapter) {
+        this(publisher, mapper, messageMapper, messageService, domainEventAdapter, null);
+    }
+
+    public ProjectEventProcessorImpl(EventPublisher publisher, ObjectMapper mapper, EventMessageMapper messageMapper, ProjectMessageService messageService, DomainEventAdapter domainEventAdapter, ProjectClientService projectClientService) {
+        this(publisher, mapper, messageMapper, messageService, domainEventAdapter, projectClientService, null);
+    }
+
+    @Autowired
+    public ProjectEventProcessorImpl(EventPublisher publisher, ObjectMapper mapper, EventMessageMapper messageMapper, ProjectMessageService messageService, DomainEventAdapter domainEventAdapter, ProjectClientService projectClientService, @Nullable ProjectCacheRelay cacheRelay) {
         this.publisher = publisher;
         this.mapper = mapper;
         this.messageMapper = messageMapper;
         this.messageService = messageService;
         this.domainEventAdapter = domainEventAdapter;
+        this.projectClientService = projectClientService;
+        this.cacheRelay = cacheRelay;
         log.debug("ProjectEventProcessorImpl initialized and ready");
     }
 
     @Override
     public void process(Message message) {
+        ParsedEvent event = parse(message);
+        save(event.toSave());
+        publish(event);
+    }
+
+    /**
+     * Persists the events of the whole batch in one transaction and fans them out to SSE only after it has
+     * committed; the listener container acks the batch once this returns. If the database rejects a record
+     * the events are saved one by one, so a single bad record does not cost the rest of the batch. Any other
+     * persistence failure propagates and nothing of the batch is published, so the batch is redelivered.
+     */
+    @Override
+    public void processBatch(List<Message> messages) {
+        List<ParsedEvent> events = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            events.add(parse(message));
+        }
+
+        List<ProjectMessageDto> batch = new ArrayList<>(events.size());
+        for (ParsedEvent event : events) {
+            if (event.toSave() != null) batch.add(event.toSave());
+        }
+        if (!batch.isEmpty()) {
+            try {
+                messageService.saveMessages(batch);
+            } catch (DataIntegrityViolationException ex) {
+                log.warn("Batch insert of {} project messages rejected, saving them one by one: {}", batch.size(), ex.getMessage());
+                batch.forEach(this::save);
+            }
+        }
+
+        for (ParsedEvent event : events) {
+            publish(event);
+        }
+    }
+
+    private ParsedEvent parse(Message message) {
         String routingKey = Optional.ofNullable(message.getMessageProperties().getReceivedRoutingKey()).orElse("");
         String body = new String(message.getBody(), StandardCharsets.UTF_8);
         log.debug("Processing message (routingKey={}): {}", routingKey, body);
 
+        JsonNode node = null;
         try {
-            JsonNode node = mapper.readTree(body);
+            node = mapper.readTree(body);
             if (domainEventAdapter != null) {
                 var adapted = domainEventAdapter.adapt(routingKey, node);
                 if (adapted.projectId() != null) {
-                    publisher.publishToProject(adapted.projectId(), adapted.rawPayload());
-                    publisher.publishMessageToProject(adapted.projectId(), adapted.friendlyMessage());
+                    ProjectMessageDto toSave = null;
                     try {
                         UUID projectId = UUID.fromString(adapted.projectId());
-                        messageService.saveMessage(ProjectMessageFactory.fromEvent(projectId, adapted.category(), adapted.friendlyMessage(), adapted.rawPayload(), adapted.occurredAt()));
+                        toSave = ProjectMessageFactory.fromEvent(projectId, adapted.category(), adapted.friendlyMessage(), adapted.rawPayload(), adapted.occurredAt());
                     } catch (Exception ex) {
-                        log.error("Failed to persist adapted project message for project {}: {}", adapted.projectId(), ex.getMessage(), ex);
+                        log.error("Failed to build adapted project message for project {}: {}", adapted.projectId(), ex.getMessage(), ex);
                     }
-                    return;
+                    return new ParsedEvent(routingKey, adapted.projectId(), adapted.friendlyMessage(), adapted.rawPayload(), toSave);
                 }
             } else { // fallback original logic without adapter
                 String messageText = messageMapper.mapToMessage(routingKey, node);
                 if (node.has("projectId")) {
                     var projectIdText = node.get("projectId").asText();
-                    publisher.publishToProject(projectIdText, body);
-                    publisher.publishMessageToProject(projectIdText, messageText);
+                    ProjectMessageDto toSave = null;
                     try {
                         UUID projectId = UUID.fromString(projectIdText);
                         OffsetDateTime occurredAt = null;
@@ -79,20 +134,50 @@ public class ProjectEventProcessorImpl implements ProjectEventProcessor {
                             try { occurredAt = OffsetDateTime.parse(node.get("occurredAt").asText()); } catch (DateTimeParseException ex) { log.error("Could not parse occurredAt timestamp", ex); }
                         }
                         String category = EventCategory.resolve(routingKey, node).name();
-                        messageService.saveMessage(projectId, category, messageText, body, occurredAt);
+                        toSave = ProjectMessageFactory.fromEvent(projectId, category, messageText, body, occurredAt);
                     } catch (Exception ex) {
-                        log.error("Failed to persist project message for project {}: {}", projectIdText, ex.getMessage(), ex);
+                        log.error("Failed to build project message for project {}: {}", projectIdText, ex.getMessage(), ex);
                     }
-                    return;
+                    return new ParsedEvent(routingKey, projectIdText, messageText, body, toSave);
                 }
             }
         } catch (Exception ex) {
             log.error("Failed to parse or process message body as JSON", ex);
         }
 
-        // fallback: broadcast raw payload and a generic message
+        // fallback: broadcast a generic message, with the raw payload only if it is valid JSON
         String genericMessage = messageMapper.mapToMessage(routingKey, null);
-        publisher.broadcast(body);
-        publisher.broadcastMessage(genericMessage);
+        return new ParsedEvent(routingKey, null, genericMessage, node != null && !node.isMissingNode() ? body : null, null);
+    }
+
+    // A record the database rejects would be rejected on every redelivery, so it is dropped; other failures propagate
+    private void save(ProjectMessageDto toSave) {
+        if (toSave == null) return;
+        try {
+            messageService.saveMessage(toSave.getProjectId(), toSave.getCategory(), toSave.getMessage(), toSave.getPayload(), toSave.getOccurredAt());
+        } catch (DataIntegrityViolationException ex) {
+            log.error("Dropping project message for project {} rejected by the database: {}", toSave.getProjectId(), ex.getMessage(), ex);
+        }
     }
+
+    private void publish(ParsedEvent event) {
+        if (event.projectId() == null) {
+            publisher.broadcastEvent(event.message(), event.rawPayload());
+            return;
+        }
+        invalidateProjectMetadata(event.routingKey(), event.projectId());
+        publisher.publishEvent(event.projectId(), event.message(), event.rawPayload());
+    }
+
+    // Title and status of the project may have changed, so cached project-service lookups are stale
+    private void invalidateProjectMetadata(String routingKey, String projectId) {
+        if (projectClientService == null) return;
+        if ("project.updated".equals(routingKey) || "project.created".equals(routingKey)) {
+            projectClientService.invalidateProject(projectId);
+            if (cacheRelay != null) cacheRelay.projectChanged(projectId);
+        }
+    }
+
+    // projectId == null means the event could not be tied to a project and is broadcast; toSave is null when nothing is persisted
+    private record ParsedEvent(String routingKey, String projectId, String message, String rawPayload, ProjectMessageDto toSave) {}
 }
@@ -6,6 +6,8 @@ import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 public class RabbitProjectConsumer {
     private static final Logger log = LoggerFactory.getLogger(RabbitProjectConsumer.class);
@@ -16,14 +18,11 @@ public class RabbitProjectConsumer {
         this.processor = processor;
     }
 
-    @RabbitListener(queues = "${app.rabbit.queue:progress.project.queue}")
-    public void onMessage(Message message) {
-        log.info("Message received from rabbit: {}", message);
-        try {
-            log.info("Calling processing");
-            processor.process(message);
-        } catch (Exception ex) {
-            log.error("Error handling rabbit message", ex);
-        }
+    // Events arrive in batches (see RabbitListenerConfig#projectBatchListenerFactory); the batch is acked once this
+    // returns. A failure propagates so the container rejects the batch and the broker redelivers it.
+    @RabbitListener(queues = "${app.rabbit.queue:progress.project.queue}", containerFactory = "projectBatchListenerFactory")
+    public void onMessages(List<Message> messages) {
+        log.debug("Batch of {} messages received from rabbit", messages.size());
+        processor.processBatch(messages);
     }
 }
@@ -4,9 +4,12 @@ import com.autonova.progressmonitoring.entity.ProjectMessage;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -22,4 +25,19 @@ public interface ProjectMessageRepository extends JpaRepository<ProjectMessage,
 
     // For timeline: fetch newer than a cursor (rare, but useful for catching up)
     Slice<ProjectMessage> findByProjectIdAndCreatedAtAfterOrderByCreatedAtAsc(UUID projectId, OffsetDateTime after, Pageable pageable);
+
+    // Latest message of each project in one round trip; walks idx_project_messages_project_created
+    @Query(value = "SELECT DISTINCT ON (project_id) * FROM project_messages "
+            + "WHERE project_id IN (:projectIds) ORDER BY project_id, created_at DESC", nativeQuery = true)
+    List<ProjectMessage> findLatestByProjectIds(@Param("projectIds") Collection<UUID> projectIds);
+
+    // Full-text search, newest first; rows are [ProjectMessage, highlight]. See ProjectMessage.search
+    @Query(name = "ProjectMessage.search", nativeQuery = true)
+    List<Object[]> search(@Param("projectId") UUID projectId, @Param("query") String query, @Param("limit") int limit);
+
+    // Next search page: hits older than the (createdAt, id) of the last hit returned
+    @Query(name = "ProjectMessage.searchBefore", nativeQuery = true)
+    List<Object[]> searchBefore(@Param("projectId") UUID projectId, @Param("query") String query,
+                                @Param("beforeCreatedAt") OffsetDateTime beforeCreatedAt, @Param("beforeId") UUID beforeId,
+                                @Param("limit") int limit);
 }
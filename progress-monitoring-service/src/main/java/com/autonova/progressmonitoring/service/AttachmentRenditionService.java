@@ -0,0 +1,212 @@
+package com.autonova.progressmonitoring.service;
+
+import com.autonova.progressmonitoring.dto.ProjectMessageDto;
+import com.autonova.progressmonitoring.storage.AttachmentStorage;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates downscaled JPEG renditions (by default a 320px thumbnail and a 1280px preview) of uploaded photos
+ * in the background, stores them next to the original and records them on the message so timelines can
+ * link to a small image instead of the full-resolution upload. Work runs on a small bounded pool; when it is
+ * saturated the upload simply goes without renditions and clients fall back to the original.
+ */
+@Service
+public class AttachmentRenditionService {
+    private static final Logger log = LoggerFactory.getLogger(AttachmentRenditionService.class);
+    private static final String RENDITION_TYPE = "image/jpeg";
+    private static final float JPEG_QUALITY = 0.82f;
+
+    private final AttachmentStorage storage;
+    private final ProjectMessageService messageService;
+    // name -> longest edge in pixels, largest first
+    private final Map<String, Integer> sizes;
+    private final Executor executor;
+
+    @Autowired
+    public AttachmentRenditionService(AttachmentStorage storage,
+                                      ProjectMessageService messageService,
+                                      @Value("${app.renditions.sizes:preview:1280,thumb:320}") String sizes,
+                                      @Value("${app.renditions.threads:2}") int threads,
+                                      @Value("${app.renditions.queue-capacity:100}") int queueCapacity) {
+        this(storage, messageService, parseSizes(sizes),
+                new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), new CustomizableThreadFactory("renditions-")));
+    }
+
+    AttachmentRenditionService(AttachmentStorage storage, ProjectMessageService messageService,
+                               Map<String, Integer> sizes, Executor executor) {
+        this.storage = storage;
+        this.messageService = messageService;
+        this.sizes = sizes;
+        this.executor = executor;
+    }
+
+    /**
+     * Queues rendition generation for the message's attachment if it is an image ImageIO can decode.
+     * Returns immediately.
+     */
+    public void generate(ProjectMessageDto message) {
+        if (message == null || message.getId() == null || message.getAttachmentUrl() == null) return;
+        if (!isSupported(message.getAttachmentContentType())) return;
+
+        UUID messageId = message.getId();
+        String url = message.getAttachmentUrl();
+        try {
+            executor.execute(() -> render(messageId, url));
+        } catch (RejectedExecutionException e) {
+            log.warn("Rendition queue full, skipping renditions for {}", url);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor instanceof ExecutorService service) {
+            service.shutdown();
+        }
+    }
+
+    private void render(UUID messageId, String url) {
+        try {
+            BufferedImage image = decode(url);
+            if (image == null) return;
+
+            List<String> produced = new ArrayList<>();
+            BufferedImage source = image;
+            for (Map.Entry<String, Integer> size : sizes.entrySet()) {
+                // never upscale: a small original is already its own thumbnail
+                if (Math.max(image.getWidth(), image.getHeight()) <= size.getValue()) continue;
+                // each rendition is scaled from the previous, larger one
+                source = scale(source, size.getValue());
+                storage.storeRendition(url, size.getKey(), RENDITION_TYPE, encodeJpeg(source));
+                produced.add(size.getKey());
+            }
+            if (!produced.isEmpty()) {
+                messageService.recordRenditions(messageId, produced);
+                log.debug("Generated renditions {} for {}", produced, url);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to generate renditions for {}: {}", url, e.getMessage());
+        }
+    }
+
+    // Decodes with subsampling so a 50MP photo never has to be held in memory at full resolution
+    private BufferedImage decode(String url) throws IOException {
+        int largest = sizes.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+        try (InputStream in = storage.open(url); ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                // keep at least twice the largest rendition so the final downscale still has detail to work with
+                int step = Math.max(1, longest / Math.max(1, largest * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves the image until it is within 2x of the target, then draws the final size; cheap and avoids aliasing
+    private static BufferedImage scale(BufferedImage source, int maxEdge) {
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double ratio = (double) maxEdge / Math.max(width, height);
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            if (width < targetWidth * 2) width = targetWidth;
+            if (height < targetHeight * 2) height = targetHeight;
+
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                // JPEG has no alpha; flatten transparent PNGs onto white rather than black
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, width, height);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean isSupported(String contentType) {
+        return contentType != null && contentType.startsWith("image/")
+                && ImageIO.getImageReadersByMIMEType(contentType).hasNext();
+    }
+
+    // "preview:1280,thumb:320" -> ordered largest first
+    static Map<String, Integer> parseSizes(String spec) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split(":");
+            if (kv.length != 2 || kv[0].isBlank()) continue;
+            entries.add(Map.entry(kv[0].trim(), Integer.parseInt(kv[1].trim())));
+        }
+        entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        entries.forEach(e -> sizes.put(e.getKey(), e.getValue()));
+        return sizes;
+    }
+}
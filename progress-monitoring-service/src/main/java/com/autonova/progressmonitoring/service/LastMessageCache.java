@@ -0,0 +1,47 @@
+package com.autonova.progressmonitoring.service;
+
+import com.autonova.progressmonitoring.dto.ProjectMessageDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Most recent message per project, so status overviews do not have to query the timeline of every project.
+ * Entries are kept in access order and the least recently used project is evicted beyond {@code maxEntries}.
+ */
+@Component
+public class LastMessageCache {
+
+    private final Map<UUID, ProjectMessageDto> latest;
+
+    public LastMessageCache(@Value("${app.cache.last-message.max-entries:10000}") int maxEntries) {
+        this.latest = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, ProjectMessageDto> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized ProjectMessageDto get(UUID projectId) {
+        return latest.get(projectId);
+    }
+
+    // Keeps whichever message is newer, so a slow DB read can never replace a message saved after it
+    public synchronized void offer(ProjectMessageDto message) {
+        if (message == null || message.getProjectId() == null) return;
+        latest.merge(message.getProjectId(), message, (current, candidate) -> isNewer(candidate, current) ? candidate : current);
+    }
+
+    public synchronized void evict(UUID projectId) {
+        latest.remove(projectId);
+    }
+
+    private static boolean isNewer(ProjectMessageDto candidate, ProjectMessageDto current) {
+        if (candidate.getCreatedAt() == null || current.getCreatedAt() == null) return true;
+        return !candidate.getCreatedAt().isBefore(current.getCreatedAt());
+    }
+}
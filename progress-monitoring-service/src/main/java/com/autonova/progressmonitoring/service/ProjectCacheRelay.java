@@ -0,0 +1,17 @@
+package com.autonova.progressmonitoring.service;
+
+import com.autonova.progressmonitoring.dto.ProjectMessageDto;
+
+/**
+ * Passes changes already applied to this instance's caches on to the other replicas, so their
+ * {@link LastMessageCache}, {@link TimelineCache} and {@link ProjectClientService} entries do not go stale
+ * when the change was handled elsewhere. Only present when the SSE backplane is enabled.
+ */
+public interface ProjectCacheRelay {
+
+    // A message was committed (or its renditions updated)
+    void messageCommitted(ProjectMessageDto message);
+
+    // The project's metadata changed in the project service
+    void projectChanged(String projectId);
+}
@@ -3,41 +3,88 @@ package com.autonova.progressmonitoring.service;
 import com.autonova.progressmonitoring.client.ProjectServiceClient;
 import com.autonova.progressmonitoring.dto.ProjectMessageDto;
 import com.autonova.progressmonitoring.client.ProjectServiceClient.ProjectServiceException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Project metadata from the project service, cached for {@code app.project-client.cache-ttl}. Concurrent
+ * lookups for the same key share one in-flight request; failures are not cached. Entries are invalidated
+ * when a project event reports a change.
+ */
 @Service
 public class ProjectClientService {
 
     private static final Logger logger = LoggerFactory.getLogger(ProjectClientService.class);
 
     private final ProjectServiceClient projectClient;
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Map<String, Mono<Map<String, Object>>> projects = new ConcurrentHashMap<>();
+    private final Map<Long, Mono<List<Map<String, Object>>>> customerProjects = new ConcurrentHashMap<>();
 
-    public ProjectClientService(ProjectServiceClient projectClient) {
+    @Autowired
+    public ProjectClientService(ProjectServiceClient projectClient,
+                                @Value("${app.project-client.cache-ttl:PT5M}") Duration ttl,
+                                @Value("${app.project-client.max-entries:10000}") int maxEntries) {
         this.projectClient = projectClient;
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+    }
+
+    public ProjectClientService(ProjectServiceClient projectClient) {
+        this(projectClient, Duration.ofMinutes(5), 10000);
+    }
+
+    public Mono<Map<String, Object>> getProject(String projectId) {
+        return cached(projects, projectId, () -> projectClient.getProjectById(projectId));
     }
 
-    public void enrichMessagesWithProjectTitle(String projectId, List<ProjectMessageDto> messages) {
-        if (messages == null || messages.isEmpty()) return;
+    // Completes once the title has been applied, so callers can write the response afterwards
+    public Mono<List<ProjectMessageDto>> enrichMessagesWithProjectTitle(String projectId, List<ProjectMessageDto> messages) {
+        if (messages == null || messages.isEmpty()) return Mono.justOrEmpty(messages);
+
+        return getProject(projectId)
+                .doOnNext(proj -> applyTitleIfMissing(messages, proj))
+                .onErrorResume(error -> {
+                    handleProjectServiceError(projectId, error);
+                    return Mono.empty();
+                })
+                .thenReturn(messages);
+    }
+
+    public Mono<List<Map<String, Object>>> getProjectsForCustomer(long customerId) {
+        return cached(customerProjects, customerId, () -> projectClient.getProjectsByCustomerId(customerId))
+                .onErrorResume(ex -> {
+                    handleProjectServiceError(String.valueOf(customerId), ex);
+                    return Mono.just(Collections.emptyList());
+                })
+                .defaultIfEmpty(Collections.emptyList());
+    }
 
-        projectClient.getProjectById(projectId)
-                .doOnTerminate(() -> logger.info("Enrichment for project {} completed", projectId))
-                .subscribe(proj -> applyTitleIfMissing(messages, proj),
-                        error -> handleProjectServiceError(projectId, error));
+    // A project changed: drop its metadata and the customer project lists that may embed it
+    public void invalidateProject(String projectId) {
+        if (projectId != null) projects.remove(projectId);
+        customerProjects.clear();
     }
 
-    public java.util.List<Map<String, Object>> getProjectsForCustomer(long customerId) {
-        try {
-            return projectClient.getProjectsByCustomerId(customerId).block();
-        } catch (Exception ex) {
-            handleProjectServiceError(String.valueOf(customerId), ex);
-            return java.util.Collections.emptyList();
+    private <K, V> Mono<V> cached(Map<K, Mono<V>> cache, K key, Supplier<Mono<V>> loader) {
+        if (cache.size() >= maxEntries) {
+            cache.clear();
         }
+        // Mono.cache shares the in-flight call and keeps the value for the TTL; errors and empty results expire at once
+        return cache.computeIfAbsent(key, k -> loader.get().cache(value -> ttl, error -> Duration.ZERO, () -> Duration.ZERO));
     }
 
     private void applyTitleIfMissing(List<ProjectMessageDto> messages, Map<String, Object> proj) {
@@ -53,7 +100,7 @@ public class ProjectClientService {
     private void handleProjectServiceError(String projectId, Throwable error) {
         if (error instanceof ProjectServiceException) {
             ProjectServiceException projectError = (ProjectServiceException) error;
-            logger.error("Error occurred while fetching project with ID {}. Status: {}, Message: {}", 
+            logger.error("Error occurred while fetching project with ID {}. Status: {}, Message: {}",
                          projectId, projectError.getStatusCode(), projectError.getMessage());
         } else {
             logger.error("Unexpected error occurred while fetching project with ID {}: {}", projectId, error.getMessage());
@@ -1,40 +1,116 @@
 package com.autonova.progressmonitoring.service;
 
+import com.autonova.progressmonitoring.dto.MessageSearchHit;
+import com.autonova.progressmonitoring.dto.MessageSearchPage;
 import com.autonova.progressmonitoring.dto.ProjectMessageDto;
 import com.autonova.progressmonitoring.entity.ProjectMessage;
 import com.autonova.progressmonitoring.mapper.ProjectMessageMapper;
 import com.autonova.progressmonitoring.repository.ProjectMessageRepository;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.util.HtmlUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
 public class ProjectMessageService {
+    static final int MAX_SEARCH_PAGE_SIZE = 100;
 
     private final ProjectMessageRepository repository;
+    private final LastMessageCache lastMessageCache;
+    private final TimelineCache timelineCache;
+    private final ProjectCacheRelay cacheRelay;
 
-    public ProjectMessageService(ProjectMessageRepository repository) {
+    public ProjectMessageService(ProjectMessageRepository repository, LastMessageCache lastMessageCache, TimelineCache timelineCache) {
+        this(repository, lastMessageCache, timelineCache, null);
+    }
+
+    @Autowired
+    public ProjectMessageService(ProjectMessageRepository repository, LastMessageCache lastMessageCache, TimelineCache timelineCache,
+                                 @Nullable ProjectCacheRelay cacheRelay) {
         this.repository = repository;
+        this.lastMessageCache = lastMessageCache;
+        this.timelineCache = timelineCache;
+        this.cacheRelay = cacheRelay;
     }
 
     @Transactional
     public ProjectMessageDto saveMessage(UUID projectId, String category, String message, String payload, OffsetDateTime occurredAt) {
         ProjectMessage pm = new ProjectMessage(projectId, category, message, payload, occurredAt);
         ProjectMessage saved = repository.save(pm);
-        return ProjectMessageMapper.toDto(saved);
+        return rememberLatest(ProjectMessageMapper.toDto(saved));
     }
 
     @Transactional
     public ProjectMessageDto saveMessage(ProjectMessageDto dto) {
         ProjectMessage pm = ProjectMessageMapper.toEntity(dto);
         ProjectMessage saved = repository.save(pm);
-        return ProjectMessageMapper.toDto(saved);
+        return rememberLatest(ProjectMessageMapper.toDto(saved));
+    }
+
+    // Inserts the messages in one transaction; with hibernate.jdbc.batch_size set they go out as JDBC batches
+    @Transactional
+    public List<ProjectMessageDto> saveMessages(List<ProjectMessageDto> messages) {
+        if (messages.isEmpty()) return List.of();
+        List<ProjectMessage> entities = new ArrayList<>(messages.size());
+        for (ProjectMessageDto dto : messages) {
+            entities.add(ProjectMessageMapper.toEntity(dto));
+        }
+        List<ProjectMessageDto> saved = ProjectMessageMapper.toDtos(repository.saveAll(entities));
+        saved.forEach(this::rememberLatest);
+        return saved;
+    }
+
+    // Records which renditions of the message's attachment are now available
+    @Transactional
+    public void recordRenditions(UUID messageId, Collection<String> names) {
+        repository.findById(messageId).ifPresent(pm -> {
+            pm.setAttachmentRenditions(String.join(",", names));
+            ProjectMessageDto updated = ProjectMessageMapper.toDto(pm);
+            afterCommit(() -> {
+                timelineCache.append(updated);
+                relay(updated);
+            });
+        });
+    }
+
+    // Latest message per project; served from the cache where possible, the rest in a single query
+    @Transactional(readOnly = true)
+    public Map<UUID, ProjectMessageDto> getLatestMessages(Collection<UUID> projectIds) {
+        Map<UUID, ProjectMessageDto> latest = new HashMap<>();
+        List<UUID> misses = new ArrayList<>();
+        for (UUID projectId : projectIds) {
+            ProjectMessageDto cached = lastMessageCache.get(projectId);
+            if (cached != null) {
+                latest.put(projectId, cached);
+            } else {
+                misses.add(projectId);
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (ProjectMessage pm : repository.findLatestByProjectIds(misses)) {
+                ProjectMessageDto dto = ProjectMessageMapper.toDto(pm);
+                latest.put(pm.getProjectId(), dto);
+                lastMessageCache.offer(dto);
+            }
+        }
+        return latest;
     }
 
     @Transactional(readOnly = true)
@@ -49,11 +125,21 @@ public class ProjectMessageService {
     }
 
     // Pagination / timeline helpers
+    // The newest pages of recently read projects come from the timeline cache; the first miss seeds it
     @Transactional(readOnly = true)
     public Slice<ProjectMessageDto> getMessagesPage(UUID projectId, int page, int size) {
         Pageable pageable = PageRequest.of(Math.max(0, page), Math.max(1, size));
+        Slice<ProjectMessageDto> cached = timelineCache.page(projectId, pageable.getPageNumber(), pageable.getPageSize());
+        if (cached != null) return cached;
+
+        boolean seed = pageable.getPageNumber() == 0 && pageable.getPageSize() <= timelineCache.capacity();
+        Object token = seed ? timelineCache.beginLoad(projectId) : null;
         Slice<ProjectMessage> slice = repository.findByProjectIdOrderByCreatedAtDesc(projectId, pageable);
-        return slice.map(ProjectMessageMapper::toDto);
+        Slice<ProjectMessageDto> result = slice.map(ProjectMessageMapper::toDto);
+        if (seed) {
+            timelineCache.seed(projectId, token, result.getContent(), !result.hasNext());
+        }
+        return result;
     }
 
     @Transactional(readOnly = true)
@@ -66,7 +152,95 @@ public class ProjectMessageService {
     @Transactional(readOnly = true)
     public Slice<ProjectMessageDto> getMessagesAfter(UUID projectId, OffsetDateTime after, int size) {
         Pageable pageable = PageRequest.of(0, Math.max(1, size));
+        Slice<ProjectMessageDto> cached = timelineCache.after(projectId, after, pageable.getPageSize());
+        if (cached != null) return cached;
         Slice<ProjectMessage> slice = repository.findByProjectIdAndCreatedAtAfterOrderByCreatedAtAsc(projectId, after, pageable);
         return slice.map(ProjectMessageMapper::toDto);
     }
+
+    /**
+     * Full-text search over the project's message text and category, newest hits first.
+     * @param cursor the nextCursor of the previous page, or null for the first page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public MessageSearchPage searchMessages(UUID projectId, String query, String cursor, int size) {
+        int limit = Math.min(Math.max(1, size), MAX_SEARCH_PAGE_SIZE);
+        // one extra row tells whether there is a next page
+        List<Object[]> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = repository.search(projectId, query, limit + 1);
+        } else {
+            SearchPosition after = SearchPosition.decode(cursor);
+            rows = repository.searchBefore(projectId, query, after.createdAt(), after.id(), limit + 1);
+        }
+
+        List<MessageSearchHit> hits = new ArrayList<>(Math.min(rows.size(), limit));
+        for (int i = 0; i < rows.size() && i < limit; i++) {
+            hits.add(MessageSearchHit.builder()
+                    .message(ProjectMessageMapper.toDto((ProjectMessage) rows.get(i)[0]))
+                    .highlight(safeHighlight((String) rows.get(i)[1]))
+                    .build());
+        }
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            ProjectMessageDto last = hits.get(hits.size() - 1).getMessage();
+            nextCursor = new SearchPosition(last.getCreatedAt(), last.getId()).encode();
+        }
+        return MessageSearchPage.builder().hits(hits).nextCursor(nextCursor).build();
+    }
+
+    // Message text is user input; escape it so clients can render the highlight as HTML with only <mark> live
+    private static String safeHighlight(String headline) {
+        if (headline == null) return null;
+        return HtmlUtils.htmlEscape(headline)
+                .replace("&lt;mark&gt;", "<mark>")
+                .replace("&lt;/mark&gt;", "</mark>");
+    }
+
+    // (createdAt, id) of the last hit returned; handed to clients as an opaque cursor
+    private record SearchPosition(OffsetDateTime createdAt, UUID id) {
+
+        String encode() {
+            String position = createdAt + "," + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static SearchPosition decode(String cursor) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(",", 2);
+                if (parts.length != 2) throw new IllegalArgumentException("Malformed search cursor");
+                return new SearchPosition(OffsetDateTime.parse(parts[0]), UUID.fromString(parts[1]));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Malformed search cursor", e);
+            }
+        }
+    }
+
+    private ProjectMessageDto rememberLatest(ProjectMessageDto saved) {
+        afterCommit(() -> {
+            lastMessageCache.offer(saved);
+            timelineCache.append(saved);
+            relay(saved);
+        });
+        return saved;
+    }
+
+    private void relay(ProjectMessageDto message) {
+        if (cacheRelay != null) cacheRelay.messageCommitted(message);
+    }
+
+    // Only publish to the caches once the row is committed, so a rollback cannot leave a phantom message
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
 }
@@ -0,0 +1,231 @@
+package com.autonova.progressmonitoring.service;
+
+import com.autonova.progressmonitoring.dto.ProjectMessageDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * The newest {@code capacity} messages of recently read projects, kept in a ring buffer per project so the
+ * first timeline page and "what's new since" polls are answered without the database. A project's buffer
+ * only serves reads once it has been seeded from a database page; until then it just collects new messages
+ * so nothing committed while the seed query runs is lost. Messages for projects nobody has read are not
+ * buffered at all. A buffer is dropped {@code ttl} after it was loaded, so one that missed an update (e.g.
+ * written through another instance) is reloaded, and projects are evicted least recently used beyond
+ * {@code maxProjects}.
+ */
+@Component
+public class TimelineCache {
+
+    // newest first; a missing createdAt (not yet flushed) sorts as newest
+    private static final Comparator<ProjectMessageDto> NEWEST_FIRST = Comparator.comparing(
+            ProjectMessageDto::getCreatedAt, Comparator.nullsFirst(Comparator.<OffsetDateTime>reverseOrder()));
+
+    private final int capacity;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+    private final Map<UUID, Timeline> timelines;
+
+    @Autowired
+    public TimelineCache(@Value("${app.cache.timeline.capacity:50}") int capacity,
+                         @Value("${app.cache.timeline.max-projects:1000}") int maxProjects,
+                         @Value("${app.cache.timeline.ttl:PT5M}") Duration ttl) {
+        this(capacity, maxProjects, ttl, System::nanoTime);
+    }
+
+    TimelineCache(int capacity, int maxProjects, Duration ttl, LongSupplier ticker) {
+        this.capacity = Math.max(1, capacity);
+        this.ttlNanos = ttl.toNanos();
+        this.ticker = ticker;
+        this.timelines = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Timeline> eldest) {
+                return size() > maxProjects;
+            }
+        };
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // A newly committed message; also replaces an earlier copy of the same message. Only projects being read are buffered
+    public synchronized void append(ProjectMessageDto message) {
+        if (message == null || message.getProjectId() == null) return;
+        Timeline timeline = current(message.getProjectId());
+        if (timeline != null) timeline.add(message);
+    }
+
+    /**
+     * Call before reading a page from the database that will be passed to {@link #seed}.
+     * @return a token tying the seed to messages appended from now on
+     */
+    public synchronized Object beginLoad(UUID projectId) {
+        Timeline timeline = current(projectId);
+        if (timeline == null) {
+            timeline = new Timeline(capacity, ticker.getAsLong());
+            timelines.put(projectId, timeline);
+        }
+        return timeline;
+    }
+
+    /**
+     * Fills the project's buffer from the newest database page.
+     * @param complete the page holds the project's whole history
+     */
+    public synchronized void seed(UUID projectId, Object token, List<ProjectMessageDto> newest, boolean complete) {
+        Timeline timeline = timelines.get(projectId);
+        // evicted while the query ran: appends may have been lost, so the page cannot be trusted as the newest
+        if (timeline == null || timeline != token) return;
+        timeline.seed(newest, complete);
+        timeline.loadedAt = ticker.getAsLong();
+    }
+
+    /**
+     * @return the page from memory, or null when the buffer cannot answer it completely
+     */
+    public synchronized Slice<ProjectMessageDto> page(UUID projectId, int page, int size) {
+        Timeline timeline = current(projectId);
+        if (timeline == null || !timeline.seeded) return null;
+        int from = page * size;
+        int to = from + size;
+        if (to > timeline.count && !timeline.complete) return null;
+
+        List<ProjectMessageDto> content = new ArrayList<>(size);
+        for (int i = from; i < Math.min(to, timeline.count); i++) {
+            content.add(timeline.get(i));
+        }
+        // an incomplete buffer means older messages exist in the database
+        return new SliceImpl<>(content, PageRequest.of(page, size), to < timeline.count || !timeline.complete);
+    }
+
+    /**
+     * Messages created after {@code after}, oldest first.
+     * @return the slice from memory, or null when older messages may be missing from the buffer
+     */
+    public synchronized Slice<ProjectMessageDto> after(UUID projectId, OffsetDateTime after, int size) {
+        Timeline timeline = current(projectId);
+        if (timeline == null || !timeline.seeded || after == null) return null;
+        if (!timeline.complete) {
+            OffsetDateTime oldest = timeline.count == 0 ? null : timeline.get(timeline.count - 1).getCreatedAt();
+            if (oldest == null || oldest.isAfter(after)) return null;
+        }
+
+        List<ProjectMessageDto> content = new ArrayList<>(size);
+        boolean hasNext = false;
+        for (int i = timeline.count - 1; i >= 0; i--) {
+            ProjectMessageDto message = timeline.get(i);
+            if (message.getCreatedAt() == null || !message.getCreatedAt().isAfter(after)) continue;
+            if (content.size() == size) {
+                hasNext = true;
+                break;
+            }
+            content.add(message);
+        }
+        return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
+    }
+
+    public synchronized void evict(UUID projectId) {
+        timelines.remove(projectId);
+    }
+
+    // The project's buffer, or null when there is none or it has outlived the TTL
+    private Timeline current(UUID projectId) {
+        Timeline timeline = timelines.get(projectId);
+        if (timeline != null && ticker.getAsLong() - timeline.loadedAt >= ttlNanos) {
+            timelines.remove(projectId);
+            return null;
+        }
+        return timeline;
+    }
+
+    // Fixed-size ring, newest at head; the oldest entry is overwritten once full
+    private static final class Timeline {
+        private final ProjectMessageDto[] ring;
+        private int head = -1;
+        private int count;
+        private boolean seeded;
+        // every message of the project is in the ring
+        private boolean complete;
+        // ticker value when the load began, then when the seed landed
+        private long loadedAt;
+
+        private Timeline(int capacity, long loadedAt) {
+            this.ring = new ProjectMessageDto[capacity];
+            this.loadedAt = loadedAt;
+        }
+
+        // i = 0 is the newest message
+        private ProjectMessageDto get(int i) {
+            return ring[Math.floorMod(head - i, ring.length)];
+        }
+
+        private void add(ProjectMessageDto message) {
+            for (int i = 0; i < count; i++) {
+                if (message.getId() != null && message.getId().equals(get(i).getId())) {
+                    ring[Math.floorMod(head - i, ring.length)] = message;
+                    return;
+                }
+            }
+            if (count == 0 || NEWEST_FIRST.compare(message, get(0)) <= 0) {
+                head = (head + 1) % ring.length;
+                ring[head] = message;
+                if (count < ring.length) {
+                    count++;
+                } else {
+                    complete = false;
+                }
+                return;
+            }
+            // committed out of order (e.g. two transactions finishing in reverse); rare, so just rebuild
+            List<ProjectMessageDto> all = snapshot();
+            all.add(message);
+            load(all, complete);
+        }
+
+        private void seed(List<ProjectMessageDto> newest, boolean allMessages) {
+            List<ProjectMessageDto> all = snapshot();
+            for (ProjectMessageDto message : newest) {
+                if (all.stream().noneMatch(m -> m.getId() != null && Objects.equals(m.getId(), message.getId()))) {
+                    all.add(message);
+                }
+            }
+            load(all, allMessages);
+            seeded = true;
+        }
+
+        private void load(List<ProjectMessageDto> messages, boolean allMessages) {
+            messages.sort(NEWEST_FIRST);
+            int kept = Math.min(messages.size(), ring.length);
+            complete = allMessages && messages.size() <= ring.length;
+            count = kept;
+            head = kept - 1;
+            // oldest kept at index 0, newest at head
+            for (int i = 0; i < kept; i++) {
+                ring[kept - 1 - i] = messages.get(i);
+            }
+        }
+
+        private List<ProjectMessageDto> snapshot() {
+            List<ProjectMessageDto> all = new ArrayList<>(count + 1);
+            for (int i = 0; i < count; i++) {
+                all.add(get(i));
+            }
+            return all;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.autonova.progressmonitoring.sse;
+
+// What to do when a subscriber's outbound queue is full because the client is reading too slowly
+public enum OverflowPolicy {
+    // discard the oldest queued event to make room for the new one
+    DROP_OLDEST,
+    // close the connection; the client is expected to reconnect and reload the timeline
+    DISCONNECT
+}
@@ -0,0 +1,170 @@
+package com.autonova.progressmonitoring.sse;
+
+import com.autonova.progressmonitoring.dto.ProjectMessageDto;
+import com.autonova.progressmonitoring.messaging.publisher.EventPublisher;
+import com.autonova.progressmonitoring.service.LastMessageCache;
+import com.autonova.progressmonitoring.service.ProjectCacheRelay;
+import com.autonova.progressmonitoring.service.ProjectClientService;
+import com.autonova.progressmonitoring.service.TimelineCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Publishes SSE frames through the backplane exchange instead of straight to the local registry, so a
+ * subscriber gets every event no matter which replica it is connected to or which one handled the event.
+ * Frames come back to every instance, this one included, through {@link #onFrame} and are handed to the
+ * local {@link SseEmitterRegistry}. If the broker cannot be reached the frame is still delivered locally.
+ * <p>
+ * Cache changes travel the same way: a committed message or changed project is applied to every instance's
+ * caches, so replicas that did not handle the change do not serve stale timelines, latest messages or project
+ * metadata. The instance that made the change has already applied it and gets it back too; applying it again
+ * is harmless.
+ */
+@Component
+@ConditionalOnProperty(name = "app.sse.backplane.enabled", havingValue = "true", matchIfMissing = true)
+public class SseBackplanePublisher implements EventPublisher, ProjectCacheRelay {
+    private static final Logger log = LoggerFactory.getLogger(SseBackplanePublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final SseEmitterRegistry registry;
+    private final ObjectMapper mapper;
+    private final String exchange;
+    private final LastMessageCache lastMessageCache;
+    private final TimelineCache timelineCache;
+    private final ProjectClientService projectClientService;
+
+    public SseBackplanePublisher(RabbitTemplate rabbitTemplate, SseEmitterRegistry registry, ObjectMapper mapper,
+                                 @Value("${app.sse.backplane.exchange:progress.sse.backplane}") String exchange,
+                                 LastMessageCache lastMessageCache, TimelineCache timelineCache,
+                                 ProjectClientService projectClientService) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.registry = registry;
+        this.mapper = mapper;
+        this.exchange = exchange;
+        this.lastMessageCache = lastMessageCache;
+        this.timelineCache = timelineCache;
+        this.projectClientService = projectClientService;
+    }
+
+    @Override
+    public void publishToProject(String projectId, String payload) {
+        send(new Frame(Kind.PROJECT, projectId, payload, null));
+    }
+
+    @Override
+    public void broadcast(String payload) {
+        send(new Frame(Kind.BROADCAST, null, payload, null));
+    }
+
+    @Override
+    public void publishMessageToProject(String projectId, String message) {
+        send(new Frame(Kind.PROJECT_MESSAGE, projectId, message, null));
+    }
+
+    @Override
+    public void broadcastMessage(String message) {
+        send(new Frame(Kind.BROADCAST_MESSAGE, null, message, null));
+    }
+
+    @Override
+    public void publishEvent(String projectId, String message, String rawPayload) {
+        send(new Frame(Kind.EVENT, projectId, message, rawPayload));
+    }
+
+    @Override
+    public void broadcastEvent(String message, String rawPayload) {
+        send(new Frame(Kind.BROADCAST_EVENT, null, message, rawPayload));
+    }
+
+    @Override
+    public void messageCommitted(ProjectMessageDto message) {
+        try {
+            send(new Frame(Kind.MESSAGE_COMMITTED, String.valueOf(message.getProjectId()), mapper.writeValueAsString(message), null));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not relay committed message {} to other instances: {}", message.getId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void projectChanged(String projectId) {
+        send(new Frame(Kind.PROJECT_CHANGED, projectId, null, null));
+    }
+
+    @RabbitListener(queues = "#{sseBackplaneQueue.name}")
+    public void onFrame(Message message) {
+        try {
+            Frame frame = mapper.readValue(message.getBody(), Frame.class);
+            if (frame.kind().isCacheChange()) {
+                apply(frame);
+            } else {
+                deliver(frame);
+            }
+        } catch (IOException e) {
+            log.warn("Dropping malformed SSE backplane frame: {}", e.getMessage());
+        }
+    }
+
+    private void send(Frame frame) {
+        try {
+            Message message = MessageBuilder.withBody(mapper.writeValueAsBytes(frame))
+                    .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                    .build();
+            rabbitTemplate.send(exchange, "", message);
+        } catch (AmqpException | IOException e) {
+            if (frame.kind().isCacheChange()) {
+                // already applied here; other instances keep their entry until it expires or a newer change replaces it
+                log.warn("SSE backplane unavailable, cache change not relayed: {}", e.getMessage());
+                return;
+            }
+            // remote subscribers miss this one, but the ones on this node still get it
+            log.warn("SSE backplane unavailable, delivering frame locally only: {}", e.getMessage());
+            deliver(frame);
+        }
+    }
+
+    private void deliver(Frame frame) {
+        switch (frame.kind()) {
+            case PROJECT -> registry.publishToProject(frame.projectId(), frame.data());
+            case BROADCAST -> registry.broadcast(frame.data());
+            case PROJECT_MESSAGE -> registry.publishMessageToProject(frame.projectId(), frame.data());
+            case BROADCAST_MESSAGE -> registry.broadcastMessage(frame.data());
+            case EVENT -> registry.publishEvent(frame.projectId(), frame.data(), frame.rawPayload());
+            case BROADCAST_EVENT -> registry.broadcastEvent(frame.data(), frame.rawPayload());
+        }
+    }
+
+    private void apply(Frame frame) throws IOException {
+        switch (frame.kind()) {
+            case MESSAGE_COMMITTED -> {
+                ProjectMessageDto message = mapper.readValue(frame.data(), ProjectMessageDto.class);
+                lastMessageCache.offer(message);
+                timelineCache.append(message);
+            }
+            case PROJECT_CHANGED -> projectClientService.invalidateProject(frame.projectId());
+        }
+    }
+
+    enum Kind {
+        PROJECT, BROADCAST, PROJECT_MESSAGE, BROADCAST_MESSAGE, EVENT, BROADCAST_EVENT, MESSAGE_COMMITTED, PROJECT_CHANGED;
+
+        boolean isCacheChange() {
+            return this == MESSAGE_COMMITTED || this == PROJECT_CHANGED;
+        }
+    }
+
+    // One EventPublisher or ProjectCacheRelay call; data is the payload, message or message JSON depending on the kind
+    record Frame(Kind kind, String projectId, String data, String rawPayload) {}
+}
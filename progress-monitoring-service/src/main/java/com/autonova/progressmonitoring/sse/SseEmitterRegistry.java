@@ -1,73 +1,167 @@
 package com.autonova.progressmonitoring.sse;
 
 import com.autonova.progressmonitoring.messaging.publisher.EventPublisher;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Fallback;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Fans events out to SSE subscribers without blocking the publisher. Every subscriber owns a small bounded
+ * queue; publishing only enqueues, and a writer pool drains each queue in order. A subscriber that cannot
+ * keep up loses its oldest queued events or is disconnected, depending on {@link OverflowPolicy}.
+ * <p>
+ * A writer writes at most {@code frames-per-drain} frames for one subscriber before handing the thread to the
+ * next, and a watchdog disconnects any subscriber whose write has been blocked for longer than
+ * {@code send-timeout}, so a few stalled connections cannot hold the whole pool. Completing an emitter waits
+ * for the write in progress on it (and a blocked socket write may ignore the interrupt), so emitters are closed
+ * on a separate closer pool; neither the watchdog nor a publisher ever waits on a stalled client.
+ * <p>
+ * Each event is encoded into a complete SSE frame once and the same bytes are written to every subscriber.
+ * It is the {@link EventPublisher} only when no other one (such as {@link SseBackplanePublisher}) is defined.
+ */
+@Fallback
 @Component
 public class SseEmitterRegistry implements EventPublisher {
-    private final Map<String, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private static final Logger log = LoggerFactory.getLogger(SseEmitterRegistry.class);
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final Map<String, ProjectChannel> channels = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Executor writer;
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final int framesPerDrain;
+    private final long sendTimeoutNanos;
+    private final ScheduledExecutorService watchdog;
+    private final ExecutorService closer;
+
+    @Autowired
+    public SseEmitterRegistry(MeterRegistry meterRegistry,
+                              @Value("${app.sse.writer-threads:8}") int writerThreads,
+                              @Value("${app.sse.queue-capacity:64}") int queueCapacity,
+                              @Value("${app.sse.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy,
+                              @Value("${app.sse.frames-per-drain:16}") int framesPerDrain,
+                              @Value("${app.sse.send-timeout:PT30S}") Duration sendTimeout) {
+        this(meterRegistry, Executors.newFixedThreadPool(writerThreads, new CustomizableThreadFactory("sse-writer-")),
+                queueCapacity, overflowPolicy, framesPerDrain, sendTimeout);
+    }
+
+    SseEmitterRegistry(MeterRegistry meterRegistry, Executor writer, int queueCapacity, OverflowPolicy overflowPolicy) {
+        this(meterRegistry, writer, queueCapacity, overflowPolicy, Integer.MAX_VALUE, null);
+    }
+
+    SseEmitterRegistry(MeterRegistry meterRegistry, Executor writer, int queueCapacity, OverflowPolicy overflowPolicy,
+                       int framesPerDrain, Duration sendTimeout) {
+        this.meterRegistry = meterRegistry;
+        this.writer = writer;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.overflowPolicy = overflowPolicy;
+        this.framesPerDrain = Math.max(1, framesPerDrain);
+        this.sendTimeoutNanos = sendTimeout == null ? 0 : sendTimeout.toNanos();
+        CustomizableThreadFactory closerThreads = new CustomizableThreadFactory("sse-closer-");
+        closerThreads.setDaemon(true);
+        // unbounded: each thread is only held for as long as the connector takes to fail the stalled write
+        this.closer = Executors.newCachedThreadPool(closerThreads);
+        if (sendTimeoutNanos > 0) {
+            CustomizableThreadFactory threads = new CustomizableThreadFactory("sse-watchdog-");
+            threads.setDaemon(true);
+            this.watchdog = Executors.newSingleThreadScheduledExecutor(threads);
+            long period = Math.max(TimeUnit.MILLISECONDS.toNanos(10), sendTimeoutNanos / 4);
+            watchdog.scheduleWithFixedDelay(this::disconnectStalledSends, period, period, TimeUnit.NANOSECONDS);
+        } else {
+            this.watchdog = null;
+        }
+    }
 
     public SseEmitter register(String projectId, SseEmitter emitter) {
-        emitters.computeIfAbsent(projectId, k -> new CopyOnWriteArrayList<>()).add(emitter);
+        return register(projectId, emitter, false);
+    }
+
+    // includePayload: the subscriber also wants the raw domain event inside project.event frames
+    public SseEmitter register(String projectId, SseEmitter emitter, boolean includePayload) {
+        channels.compute(projectId, (k, channel) -> {
+            ProjectChannel target = channel != null ? channel : new ProjectChannel(k);
+            target.clients.add(new Client(target, emitter, includePayload));
+            return target;
+        });
         return emitter;
     }
 
     public void remove(String projectId, SseEmitter emitter) {
-        var list = emitters.get(projectId);
-        if (list != null) {
-            list.remove(emitter);
-            if (list.isEmpty()) {
-                emitters.remove(projectId);
-            }
-        }
+        channels.computeIfPresent(projectId, (k, channel) -> {
+            channel.clients.removeIf(c -> c.emitter == emitter && c.close());
+            if (!channel.clients.isEmpty()) return channel;
+            channel.unregisterMeters();
+            return null;
+        });
     }
 
     public void sendToProject(String projectId, String eventJson) {
-        var list = emitters.get(projectId);
-        if (list == null) return;
-
-        for (SseEmitter emitter : list) {
-            try {
-                emitter.send(SseEmitter.event().name("message").data(eventJson));
-            } catch (Exception e) {
-                // IOException, IllegalStateException, or other send issues -> remove emitter
-                remove(projectId, emitter);
-            }
-        }
+        enqueue(projectId, Frame.of("message", eventJson));
     }
 
     public void sendMessageToProject(String projectId, String message) {
-        var list = emitters.get(projectId);
-        if (list == null) return;
+        enqueue(projectId, Frame.of("project.message", message));
+    }
 
-        for (SseEmitter emitter : list) {
-            try {
-                emitter.send(SseEmitter.event().name("project.message").data(message));
-            } catch (Exception e) {
-                remove(projectId, emitter);
-            }
-        }
+    public void sendEventToProject(String projectId, String message, String rawPayload) {
+        enqueue(projectId, eventFrame(projectId, message, rawPayload));
     }
 
     public void broadcastToAll(String eventJson) {
         // snapshot keys to avoid concurrent modification while iterating
-        for (String key : List.copyOf(emitters.keySet())) {
+        for (String key : List.copyOf(channels.keySet())) {
             sendToProject(key, eventJson);
         }
     }
 
     public void broadcastMessageToAll(String message) {
-        for (String key : List.copyOf(emitters.keySet())) {
+        for (String key : List.copyOf(channels.keySet())) {
             sendMessageToProject(key, message);
         }
     }
 
+    public void broadcastEventToAll(String message, String rawPayload) {
+        Frame frame = eventFrame(null, message, rawPayload);
+        for (String key : List.copyOf(channels.keySet())) {
+            enqueue(key, frame);
+        }
+    }
+
     @Override
     public void publishToProject(String projectId, String payload) {
         sendToProject(projectId, payload);
@@ -87,4 +181,267 @@ public class SseEmitterRegistry implements EventPublisher {
     public void broadcastMessage(String message) {
         broadcastMessageToAll(message);
     }
+
+    @Override
+    public void publishEvent(String projectId, String message, String rawPayload) {
+        sendEventToProject(projectId, message, rawPayload);
+    }
+
+    @Override
+    public void broadcastEvent(String message, String rawPayload) {
+        broadcastEventToAll(message, rawPayload);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+        }
+        closer.shutdown();
+        if (writer instanceof ExecutorService executor) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Disconnects subscribers whose current write has been blocked for longer than the send timeout and
+     * interrupts the writer thread stuck in it. The emitter is completed on the closer pool, since that waits
+     * for the stuck write to give up its lock.
+     */
+    void disconnectStalledSends() {
+        long now = System.nanoTime();
+        for (ProjectChannel channel : List.copyOf(channels.values())) {
+            for (Client client : channel.clients) {
+                if (client.sendStalledSince(now) > sendTimeoutNanos) {
+                    log.warn("SSE write to a subscriber of project {} blocked for over {} ms, disconnecting",
+                            channel.projectId, TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+                    remove(channel.projectId, client.emitter);
+                    client.abortSend();
+                    closeLater(() -> client.emitter.completeWithError(new IOException("SSE send timed out")));
+                }
+            }
+        }
+    }
+
+    private void closeLater(Runnable close) {
+        try {
+            closer.execute(close);
+        } catch (RejectedExecutionException e) {
+            // shutting down; the connector closes whatever is left
+        }
+    }
+
+    private void enqueue(String projectId, Frame frame) {
+        ProjectChannel channel = channels.get(projectId);
+        if (channel == null) return;
+        for (Client client : channel.clients) {
+            client.offer(frame);
+        }
+    }
+
+    private static Frame eventFrame(String projectId, String message, String rawPayload) {
+        byte[] withoutPayload = encode("project.event", eventJson(projectId, message, null));
+        byte[] withPayload = rawPayload == null ? withoutPayload : encode("project.event", eventJson(projectId, message, rawPayload));
+        return new Frame(frameData(withoutPayload), frameData(withPayload), System.nanoTime());
+    }
+
+    // rawPayload is already JSON, so it is embedded verbatim instead of being parsed and re-serialised
+    private static String eventJson(String projectId, String message, String rawPayload) {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator gen = JSON.createGenerator(out)) {
+            gen.writeStartObject();
+            if (projectId != null) gen.writeStringField("projectId", projectId);
+            gen.writeStringField("message", message);
+            if (rawPayload != null) {
+                gen.writeFieldName("payload");
+                gen.writeRawValue(rawPayload);
+            }
+            gen.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    private static byte[] encode(String name, String data) {
+        StringBuilder frame = new StringBuilder(data == null ? 32 : data.length() + 32);
+        frame.append("event:").append(name).append('\n');
+        // multi-line data has to be split over several data: fields or the client sees a truncated event
+        for (String line : String.valueOf(data).split("\r\n|\r|\n", -1)) {
+            frame.append("data:").append(line).append('\n');
+        }
+        return frame.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Set<DataWithMediaType> frameData(byte[] bytes) {
+        return Collections.singleton(new DataWithMediaType(bytes, MediaType.TEXT_EVENT_STREAM));
+    }
+
+    private record Frame(Set<DataWithMediaType> compact, Set<DataWithMediaType> full, long enqueuedAt) {
+        static Frame of(String name, String data) {
+            Set<DataWithMediaType> encoded = frameData(encode(name, data));
+            return new Frame(encoded, encoded, System.nanoTime());
+        }
+    }
+
+    private final class ProjectChannel {
+        private final String projectId;
+        private final List<Client> clients = new CopyOnWriteArrayList<>();
+        private final Counter dropped;
+        private final Timer lag;
+        private final Gauge depth;
+
+        private ProjectChannel(String projectId) {
+            this.projectId = projectId;
+            this.dropped = Counter.builder("sse.events.dropped")
+                    .description("Events discarded because a subscriber's queue was full")
+                    .tag("project", projectId)
+                    .register(meterRegistry);
+            this.lag = Timer.builder("sse.delivery.lag")
+                    .description("Time from publish to the event being written to a subscriber")
+                    .tag("project", projectId)
+                    .register(meterRegistry);
+            this.depth = Gauge.builder("sse.queue.depth", this, ProjectChannel::queued)
+                    .description("Events waiting to be written across the project's subscribers")
+                    .tag("project", projectId)
+                    .register(meterRegistry);
+        }
+
+        private double queued() {
+            int total = 0;
+            for (Client client : clients) {
+                total += client.size();
+            }
+            return total;
+        }
+
+        private void unregisterMeters() {
+            meterRegistry.remove(dropped);
+            meterRegistry.remove(lag);
+            meterRegistry.remove(depth);
+        }
+    }
+
+    private final class Client {
+        private final ProjectChannel channel;
+        private final SseEmitter emitter;
+        private final boolean includePayload;
+        private final ArrayDeque<Frame> queue = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        // guarded by this: the thread inside emitter.send and when it started, null/0 while idle
+        private Thread sender;
+        private long sendStartedAt;
+
+        private Client(ProjectChannel channel, SseEmitter emitter, boolean includePayload) {
+            this.channel = channel;
+            this.emitter = emitter;
+            this.includePayload = includePayload;
+        }
+
+        private void offer(Frame frame) {
+            if (closed) return;
+            boolean overflow = false;
+            synchronized (queue) {
+                if (queue.size() >= queueCapacity) {
+                    channel.dropped.increment();
+                    overflow = true;
+                    if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+                        queue.pollFirst();
+                    }
+                }
+                if (!overflow || overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+                    queue.addLast(frame);
+                }
+            }
+            if (overflow && overflowPolicy == OverflowPolicy.DISCONNECT) {
+                log.debug("SSE subscriber for project {} fell behind, disconnecting", channel.projectId);
+                remove(channel.projectId, emitter);
+                closeLater(emitter::complete);
+                return;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (!draining.compareAndSet(false, true)) return;
+            try {
+                writer.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+            }
+        }
+
+        private void drain() {
+            int written = 0;
+            while (!closed) {
+                if (written == framesPerDrain) {
+                    // give the thread to other subscribers and continue from the back of the writer queue
+                    try {
+                        writer.execute(this::drain);
+                    } catch (RejectedExecutionException e) {
+                        draining.set(false);
+                    }
+                    return;
+                }
+                Frame frame;
+                synchronized (queue) {
+                    frame = queue.pollFirst();
+                }
+                if (frame == null) {
+                    draining.set(false);
+                    // an offer may have slipped in after the poll but before the flag was cleared
+                    if (size() == 0 || !draining.compareAndSet(false, true)) return;
+                    continue;
+                }
+                try {
+                    beginSend();
+                    emitter.send(includePayload ? frame.full() : frame.compact());
+                    channel.lag.record(System.nanoTime() - frame.enqueuedAt(), TimeUnit.NANOSECONDS);
+                    written++;
+                } catch (Exception e) {
+                    // IOException, IllegalStateException, or other send issues -> remove emitter
+                    remove(channel.projectId, emitter);
+                    return;
+                } finally {
+                    endSend();
+                }
+            }
+        }
+
+        private synchronized void beginSend() {
+            sender = Thread.currentThread();
+            sendStartedAt = System.nanoTime();
+        }
+
+        private synchronized void endSend() {
+            sender = null;
+            sendStartedAt = 0;
+            // the watchdog may have interrupted this thread just as the send returned; the pool thread moves on
+            if (closed) Thread.interrupted();
+        }
+
+        private synchronized long sendStalledSince(long now) {
+            return sender == null ? 0 : now - sendStartedAt;
+        }
+
+        private synchronized void abortSend() {
+            closed = true;
+            if (sender != null) sender.interrupt();
+        }
+
+        private int size() {
+            synchronized (queue) {
+                return queue.size();
+            }
+        }
+
+        private boolean close() {
+            closed = true;
+            synchronized (queue) {
+                queue.clear();
+            }
+            return true;
+        }
+    }
 }
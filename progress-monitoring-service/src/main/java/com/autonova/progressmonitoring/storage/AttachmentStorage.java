@@ -2,6 +2,8 @@ package com.autonova.progressmonitoring.storage;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+
 /**
  * Abstraction for storing binary attachments (e.g. images) and returning their metadata.
  * <p>Implementations MUST either:
@@ -15,6 +17,12 @@ import org.springframework.web.multipart.MultipartFile;
  * a user-friendly error message or fallback behavior.
  */
 public interface AttachmentStorage {
+    /**
+     * Path under which stored attachments are addressed, regardless of the backend. Stored URLs are
+     * {@code URL_PREFIX + key} so switching backends does not change the shape of persisted links.
+     */
+    String URL_PREFIX = "/api/projects/progress/uploads/";
+
     /**
      * Store the given multipart file and return immutable metadata describing the stored attachment.
      * @param file multipart file to persist (must not be null or empty)
@@ -23,4 +31,29 @@ public interface AttachmentStorage {
      * @throws com.autonova.progressmonitoring.storage.AttachmentStorageException wrapping low-level storage failures
      */
     StoredAttachment store(MultipartFile file);
+
+    /**
+     * Open a previously stored attachment for reading.
+     * @param url the URL returned by {@link #store(MultipartFile)}
+     * @throws com.autonova.progressmonitoring.storage.AttachmentStorageException if it cannot be read
+     */
+    InputStream open(String url);
+
+    /**
+     * Store a derived rendition (e.g. a thumbnail) next to an attachment, at {@link #renditionUrl(String, String)}.
+     * @param originalUrl URL of the stored original
+     * @param name short rendition name such as {@code thumb}
+     * @param contentType content type of the rendition bytes
+     * @return metadata of the stored rendition
+     */
+    StoredAttachment storeRendition(String originalUrl, String name, String contentType, byte[] content);
+
+    /**
+     * Where the rendition {@code name} of the attachment at {@code url} lives: {@code <url without extension>-<name>.jpg}.
+     */
+    static String renditionUrl(String url, String name) {
+        int slash = url.lastIndexOf('/');
+        int dot = url.lastIndexOf('.');
+        return (dot > slash ? url.substring(0, dot) : url) + "-" + name + ".jpg";
+    }
 }
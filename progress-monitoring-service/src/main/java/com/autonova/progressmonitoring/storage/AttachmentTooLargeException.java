@@ -0,0 +1,8 @@
+package com.autonova.progressmonitoring.storage;
+
+/**
+ * Thrown by {@link AttachmentStorage} implementations when an upload exceeds the configured size limit.
+ */
+public class AttachmentTooLargeException extends AttachmentStorageException {
+    public AttachmentTooLargeException(String message) { super(message); }
+}
@@ -2,52 +2,153 @@ package com.autonova.progressmonitoring.storage;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
 
+/**
+ * Stores attachments on local disk under the SHA-256 of their content, so the same photo uploaded twice is
+ * kept once. Uploads are streamed to a temp file while being hashed and size-checked, then moved into place.
+ * Layout: {@code <root>/<first two hex chars>/<sha256>.<ext>}.
+ */
 @Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local", matchIfMissing = true)
 public class LocalAttachmentStorage implements AttachmentStorage {
     private static final Logger log = LoggerFactory.getLogger(LocalAttachmentStorage.class);
+    private static final Pattern CONTENT_KEY = Pattern.compile("[0-9a-f]{2}/([0-9a-f]{64})(-[a-z0-9]{1,16})?(\\.[a-z0-9]{1,10})?");
+
     private final Path root;
+    private final Path tmp;
+    private final long maxFileSize;
 
-    public LocalAttachmentStorage() {
+    @Autowired
+    public LocalAttachmentStorage(@Value("${uploads.max-file-size:200MB}") DataSize maxFileSize) {
         // Use /app/uploads in Docker, or ./uploads for local development
-        String uploadPath = System.getenv("UPLOADS_DIR");
-        if (uploadPath == null || uploadPath.isBlank()) {
-            uploadPath = "uploads";
-        }
-        this.root = Path.of(uploadPath);
-        
-        try { 
-            Files.createDirectories(root); 
+        this(uploadRoot(), maxFileSize);
+    }
+
+    LocalAttachmentStorage(Path root, DataSize maxFileSize) {
+        this.root = root.toAbsolutePath().normalize();
+        this.tmp = this.root.resolve(".tmp");
+        this.maxFileSize = maxFileSize.toBytes();
+
+        try {
+            Files.createDirectories(tmp);
         } catch (IOException e) {
-            log.error("Failed to create uploads dir at {}", root.toAbsolutePath(), e);
+            log.error("Failed to create uploads dir at {}", this.root, e);
             throw new AttachmentStorageException("Failed to initialize storage directory", e);
         }
-        log.info("Initialized attachment storage at: {}", root.toAbsolutePath());
+        log.info("Initialized attachment storage at: {}", this.root);
     }
 
     @Override
     public StoredAttachment store(MultipartFile file) {
         if (file == null || file.isEmpty()) throw new IllegalArgumentException("Empty file");
         String original = file.getOriginalFilename() == null ? "file" : file.getOriginalFilename();
-        String sanitized = System.currentTimeMillis() + "_" + original;
-        Path target = root.resolve(sanitized);
-        try {
-            Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
+
+        try (StagedUpload staged = StagedUpload.stage(file, tmp, maxFileSize)) {
+            String key = staged.key(original);
+            Path target = root.resolve(key);
+            if (Files.exists(target)) {
+                log.debug("Attachment {} already stored, reusing it", key);
+            } else {
+                Files.createDirectories(target.getParent());
+                // identical content may race us here; either way the target ends up with the same bytes
+                Files.move(staged.file(), target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return StoredAttachment.builder()
+                    .url(URL_PREFIX + key)
+                    .contentType(file.getContentType())
+                    .originalFilename(original)
+                    .size(staged.size())
+                    .checksum(staged.checksum())
+                    .build();
         } catch (IOException e) {
             throw new AttachmentStorageException("Failed to store file", e);
         }
+    }
+
+    @Override
+    public InputStream open(String url) {
+        Path file = url != null && url.startsWith(URL_PREFIX) ? resolve(url.substring(URL_PREFIX.length())) : null;
+        if (file == null) throw new AttachmentStorageException("Not a stored attachment: " + url);
+        try {
+            return Files.newInputStream(file);
+        } catch (IOException e) {
+            throw new AttachmentStorageException("Failed to read " + url, e);
+        }
+    }
+
+    @Override
+    public StoredAttachment storeRendition(String originalUrl, String name, String contentType, byte[] content) {
+        if (originalUrl == null || !originalUrl.startsWith(URL_PREFIX)) {
+            throw new AttachmentStorageException("Not a stored attachment: " + originalUrl);
+        }
+        String url = AttachmentStorage.renditionUrl(originalUrl, name);
+        Path target = resolve(url.substring(URL_PREFIX.length()));
+        if (target == null) throw new AttachmentStorageException("Not a stored attachment: " + originalUrl);
+        try {
+            Path part = Files.createTempFile(tmp, "rendition-", ".part");
+            try {
+                Files.write(part, content);
+                Files.createDirectories(target.getParent());
+                Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(part);
+            }
+        } catch (IOException e) {
+            throw new AttachmentStorageException("Failed to store rendition " + url, e);
+        }
         return StoredAttachment.builder()
-                .url("/api/projects/progress/uploads/" + sanitized)
-                .contentType(file.getContentType())
-                .originalFilename(original)
-                .size(file.getSize())
+                .url(url)
+                .contentType(contentType)
+                .originalFilename(target.getFileName().toString())
+                .size(content.length)
                 .build();
     }
+
+    /**
+     * Resolves a key (the part of the URL after {@link #URL_PREFIX}) to a file under the storage root.
+     * @return the file, or null if the key points outside the root
+     */
+    public Path resolve(String key) {
+        if (key == null || key.isBlank()) return null;
+        Path file = root.resolve(key).normalize();
+        return file.startsWith(root) && !file.startsWith(tmp) ? file : null;
+    }
+
+    /**
+     * @return the content hash when the key is content-addressed, null for files stored under their upload name
+     * and for renditions, whose bytes change under the same key when they are regenerated
+     */
+    public static String checksumOf(String key) {
+        var matcher = CONTENT_KEY.matcher(key);
+        return matcher.matches() && matcher.group(2) == null ? matcher.group(1) : null;
+    }
+
+    /**
+     * @return true when the key names a rendition stored next to a content-addressed original
+     */
+    public static boolean isRendition(String key) {
+        var matcher = CONTENT_KEY.matcher(key);
+        return matcher.matches() && matcher.group(2) != null;
+    }
+
+    private static Path uploadRoot() {
+        String uploadPath = System.getenv("UPLOADS_DIR");
+        if (uploadPath == null || uploadPath.isBlank()) {
+            uploadPath = "uploads";
+        }
+        return Path.of(uploadPath);
+    }
 }
@@ -0,0 +1,234 @@
+package com.autonova.progressmonitoring.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores attachments in an S3-compatible bucket (AWS S3, MinIO) under the same content-addressed keys as
+ * {@link LocalAttachmentStorage}. Uploads are staged to a temp file first so the hash is known before the
+ * object is written; files above {@code multipart-threshold} go up as a multipart upload in
+ * {@code part-size} slices read straight from that file. Downloads are served from presigned URLs.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "s3")
+public class S3AttachmentStorage implements AttachmentStorage {
+    private static final Logger log = LoggerFactory.getLogger(S3AttachmentStorage.class);
+    // S3 rejects multipart parts smaller than 5MB, except the last one
+    private static final long MIN_PART_SIZE = DataSize.ofMegabytes(5).toBytes();
+
+    private final S3Client s3;
+    private final S3Presigner presigner;
+    private final String bucket;
+    private final Duration presignTtl;
+    private final long multipartThreshold;
+    private final long partSize;
+    private final long maxFileSize;
+    private final Path tmp;
+
+    @Autowired
+    public S3AttachmentStorage(S3Client s3, S3Presigner presigner,
+                               @Value("${app.storage.s3.bucket}") String bucket,
+                               @Value("${app.storage.s3.presign-ttl:PT15M}") Duration presignTtl,
+                               @Value("${app.storage.s3.multipart-threshold:16MB}") DataSize multipartThreshold,
+                               @Value("${app.storage.s3.part-size:8MB}") DataSize partSize,
+                               @Value("${uploads.max-file-size:200MB}") DataSize maxFileSize) {
+        this(s3, presigner, bucket, presignTtl, multipartThreshold, partSize, maxFileSize,
+                Path.of(System.getProperty("java.io.tmpdir"), "progress-uploads"));
+    }
+
+    S3AttachmentStorage(S3Client s3, S3Presigner presigner, String bucket, Duration presignTtl,
+                        DataSize multipartThreshold, DataSize partSize, DataSize maxFileSize, Path tmp) {
+        this.s3 = s3;
+        this.presigner = presigner;
+        this.bucket = bucket;
+        this.presignTtl = presignTtl;
+        this.multipartThreshold = multipartThreshold.toBytes();
+        this.partSize = Math.max(MIN_PART_SIZE, partSize.toBytes());
+        this.maxFileSize = maxFileSize.toBytes();
+        this.tmp = tmp;
+
+        try {
+            Files.createDirectories(tmp);
+        } catch (IOException e) {
+            throw new AttachmentStorageException("Failed to initialize upload staging directory", e);
+        }
+        log.info("Initialized S3 attachment storage for bucket: {}", bucket);
+    }
+
+    @Override
+    public StoredAttachment store(MultipartFile file) {
+        if (file == null || file.isEmpty()) throw new IllegalArgumentException("Empty file");
+        String original = file.getOriginalFilename() == null ? "file" : file.getOriginalFilename();
+
+        try (StagedUpload staged = StagedUpload.stage(file, tmp, maxFileSize)) {
+            String key = staged.key(original);
+            if (exists(key)) {
+                log.debug("Attachment {} already stored, reusing it", key);
+            } else if (staged.size() < multipartThreshold) {
+                s3.putObject(b -> b.bucket(bucket).key(key).contentType(file.getContentType())
+                                .metadata(Map.of("sha256", staged.checksum())),
+                        RequestBody.fromFile(staged.file()));
+            } else {
+                uploadMultipart(key, file.getContentType(), staged);
+            }
+            return StoredAttachment.builder()
+                    .url(URL_PREFIX + key)
+                    .contentType(file.getContentType())
+                    .originalFilename(original)
+                    .size(staged.size())
+                    .checksum(staged.checksum())
+                    .build();
+        } catch (IOException | SdkException e) {
+            throw new AttachmentStorageException("Failed to store file", e);
+        }
+    }
+
+    @Override
+    public InputStream open(String url) {
+        String key = keyOf(url);
+        try {
+            return s3.getObject(b -> b.bucket(bucket).key(key));
+        } catch (SdkException e) {
+            throw new AttachmentStorageException("Failed to read " + url, e);
+        }
+    }
+
+    @Override
+    public StoredAttachment storeRendition(String originalUrl, String name, String contentType, byte[] content) {
+        String url = AttachmentStorage.renditionUrl(URL_PREFIX + keyOf(originalUrl), name);
+        String key = keyOf(url);
+        try {
+            s3.putObject(b -> b.bucket(bucket).key(key).contentType(contentType), RequestBody.fromBytes(content));
+        } catch (SdkException e) {
+            throw new AttachmentStorageException("Failed to store rendition " + url, e);
+        }
+        return StoredAttachment.builder()
+                .url(url)
+                .contentType(contentType)
+                .originalFilename(key.substring(key.lastIndexOf('/') + 1))
+                .size(content.length)
+                .build();
+    }
+
+    /**
+     * A short-lived GET URL for the object, so the bytes go from the bucket to the client directly.
+     * @return the URL, or null if the key is not a valid attachment key
+     */
+    public URL presignedUrl(String key) {
+        if (key == null || key.isBlank() || key.startsWith("/") || key.contains("..")) return null;
+        return presigner.presignGetObject(p -> p.signatureDuration(presignTtl)
+                .getObjectRequest(g -> g.bucket(bucket).key(key))).url();
+    }
+
+    private static String keyOf(String url) {
+        if (url == null || !url.startsWith(URL_PREFIX)) throw new AttachmentStorageException("Not a stored attachment: " + url);
+        return url.substring(URL_PREFIX.length());
+    }
+
+    private boolean exists(String key) {
+        try {
+            s3.headObject(b -> b.bucket(bucket).key(key));
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        } catch (S3Exception e) {
+            // HEAD responses carry no body, so a missing object can surface as a bare 404
+            if (e.statusCode() == 404) return false;
+            throw e;
+        }
+    }
+
+    private void uploadMultipart(String key, String contentType, StagedUpload staged) {
+        String uploadId = s3.createMultipartUpload(b -> b.bucket(bucket).key(key).contentType(contentType)
+                .metadata(Map.of("sha256", staged.checksum()))).uploadId();
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            int partNumber = 1;
+            for (long offset = 0; offset < staged.size(); offset += partSize, partNumber++) {
+                long length = Math.min(partSize, staged.size() - offset);
+                long position = offset;
+                int number = partNumber;
+                // the provider reopens the slice on every attempt, so SDK retries resend the same bytes
+                String etag = s3.uploadPart(b -> b.bucket(bucket).key(key).uploadId(uploadId).partNumber(number).contentLength(length),
+                        RequestBody.fromContentProvider(() -> openSlice(staged.file(), position, length), length, "application/octet-stream")).eTag();
+                parts.add(CompletedPart.builder().partNumber(number).eTag(etag).build());
+            }
+            s3.completeMultipartUpload(b -> b.bucket(bucket).key(key).uploadId(uploadId)
+                    .multipartUpload(m -> m.parts(parts)));
+        } catch (RuntimeException e) {
+            try {
+                s3.abortMultipartUpload(b -> b.bucket(bucket).key(key).uploadId(uploadId));
+            } catch (SdkException abortError) {
+                log.warn("Failed to abort multipart upload {} for {}", uploadId, key, abortError);
+            }
+            throw e;
+        }
+    }
+
+    private static InputStream openSlice(Path file, long position, long length) {
+        try {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ).position(position);
+            return new SliceInputStream(Channels.newInputStream(channel), length);
+        } catch (IOException e) {
+            throw new AttachmentStorageException("Failed to read staged upload", e);
+        }
+    }
+
+    // Reads at most `remaining` bytes from the underlying stream
+    private static final class SliceInputStream extends InputStream {
+        private final InputStream in;
+        private long remaining;
+
+        private SliceInputStream(InputStream in, long length) {
+            this.in = in;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) return -1;
+            int b = in.read();
+            if (b >= 0) remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            if (remaining <= 0) return -1;
+            int read = in.read(buffer, off, (int) Math.min(len, remaining));
+            if (read > 0) remaining -= read;
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.autonova.progressmonitoring.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * An upload streamed to a local temp file while being hashed and size-checked, shared by the storage
+ * backends so each can place the verified bytes under their content-addressed key. Closing it removes
+ * the temp file unless a backend moved it away.
+ */
+final class StagedUpload implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(StagedUpload.class);
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,10}");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final String checksum;
+    private final long size;
+
+    private StagedUpload(Path file, String checksum, long size) {
+        this.file = file;
+        this.checksum = checksum;
+        this.size = size;
+    }
+
+    static StagedUpload stage(MultipartFile upload, Path tmpDir, long maxFileSize) throws IOException {
+        if (upload.getSize() > maxFileSize) throw tooLarge(maxFileSize);
+        Path part = Files.createTempFile(tmpDir, "upload-", ".part");
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            long size = 0;
+            try (InputStream in = upload.getInputStream(); OutputStream out = Files.newOutputStream(part)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxFileSize) throw tooLarge(maxFileSize);
+                    sha256.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+            return new StagedUpload(part, HexFormat.of().formatHex(sha256.digest()), size);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(part);
+            throw e;
+        } catch (NoSuchAlgorithmException e) {
+            deleteQuietly(part);
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    Path file() {
+        return file;
+    }
+
+    String checksum() {
+        return checksum;
+    }
+
+    long size() {
+        return size;
+    }
+
+    // <first two hex chars>/<sha256>.<ext>, the key layout shared by all backends
+    String key(String originalFilename) {
+        return checksum.substring(0, 2) + "/" + checksum + extension(originalFilename);
+    }
+
+    @Override
+    public void close() {
+        deleteQuietly(file);
+    }
+
+    private static AttachmentTooLargeException tooLarge(long maxFileSize) {
+        return new AttachmentTooLargeException("Attachment exceeds the maximum size of " + DataSize.ofBytes(maxFileSize).toMegabytes() + "MB");
+    }
+
+    private static String extension(String filename) {
+        int dot = filename == null ? -1 : filename.lastIndexOf('.');
+        if (dot < 0) return "";
+        String ext = filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(ext).matches() ? "." + ext : "";
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete temp upload {}", path, e);
+        }
+    }
+}
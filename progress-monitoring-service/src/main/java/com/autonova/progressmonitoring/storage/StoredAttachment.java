@@ -10,5 +10,7 @@ public class StoredAttachment {
     String contentType;
     String originalFilename;
     long size;
+    // hex SHA-256 of the content, also the storage key for content-addressed backends
+    String checksum;
 }
 
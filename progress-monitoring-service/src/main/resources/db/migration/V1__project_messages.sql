@@ -0,0 +1,17 @@
+-- The table as Hibernate created it before migrations existed; a no-op on those databases
+CREATE TABLE IF NOT EXISTS project_messages (
+    id                      UUID PRIMARY KEY,
+    project_id              UUID NOT NULL,
+    category                VARCHAR(255),
+    message                 TEXT,
+    payload                 TEXT,
+    occurred_at             TIMESTAMP(6) WITH TIME ZONE,
+    created_at              TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    attachment_url          VARCHAR(255),
+    attachment_content_type VARCHAR(255),
+    attachment_filename     VARCHAR(255),
+    attachment_size         BIGINT,
+    attachment_renditions   VARCHAR(255)
+);
+
+CREATE INDEX IF NOT EXISTS idx_project_messages_project_created ON project_messages (project_id, created_at DESC);
@@ -0,0 +1,5 @@
+-- Full-text search column; PostgreSQL keeps a stored generated column current on every insert.
+-- Category matches rank above message text.
+ALTER TABLE project_messages ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (setweight(to_tsvector('english'::regconfig, coalesce(category, '')), 'A')
+        || setweight(to_tsvector('english'::regconfig, coalesce(message, '')), 'B')) STORED;
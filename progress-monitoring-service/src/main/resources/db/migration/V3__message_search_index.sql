@@ -0,0 +1,2 @@
+-- Built CONCURRENTLY so the table keeps taking writes; Flyway runs this file outside a transaction
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_project_messages_search ON project_messages USING GIN (search_vector);
@@ -0,0 +1,153 @@
+package com.autonova.progressmonitoring.controller;
+
+import com.autonova.progressmonitoring.storage.LocalAttachmentStorage;
+import com.autonova.progressmonitoring.storage.StoredAttachment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AttachmentControllerTest {
+
+    @TempDir
+    Path root;
+
+    private LocalAttachmentStorage storage;
+    private AttachmentController controller;
+    private StoredAttachment stored;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        var constructor = LocalAttachmentStorage.class.getDeclaredConstructor(Path.class, DataSize.class);
+        constructor.setAccessible(true);
+        storage = constructor.newInstance(root, DataSize.ofMegabytes(1));
+        stored = storage.store(new MockMultipartFile("file", "clip.mp4", "video/mp4", "0123456789".getBytes(StandardCharsets.UTF_8)));
+        controller = new AttachmentController(storage);
+    }
+
+    private MockHttpServletRequest get(String url) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", url);
+        request.setRequestURI(url);
+        return request;
+    }
+
+    @Test
+    void download_returnsWholeFileWithStrongEtag() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.download(get(stored.getUrl()), response);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+        assertThat(response.getHeader("ETag")).isEqualTo("\"" + stored.getChecksum() + "\"");
+        assertThat(response.getHeader("Accept-Ranges")).isEqualTo("bytes");
+        assertThat(response.getContentType()).isEqualTo("video/mp4");
+    }
+
+    @Test
+    void download_revalidatesRenditionsSinceTheyAreRegeneratedInPlace() throws Exception {
+        StoredAttachment thumb = storage.storeRendition(stored.getUrl(), "thumb", "image/jpeg", new byte[]{1, 2, 3});
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        controller.download(get(thumb.getUrl()), first);
+
+        assertThat(first.getHeader("ETag")).startsWith("W/");
+        assertThat(first.getHeader("Cache-Control")).doesNotContain("immutable").contains("must-revalidate");
+
+        Files.setLastModifiedTime(storage.resolve(thumb.getUrl().substring(LocalAttachmentStorage.URL_PREFIX.length())),
+                FileTime.fromMillis(0));
+        storage.storeRendition(stored.getUrl(), "thumb", "image/jpeg", new byte[]{4, 5, 6, 7});
+        MockHttpServletRequest revalidate = get(thumb.getUrl());
+        revalidate.addHeader("If-None-Match", first.getHeader("ETag"));
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        controller.download(revalidate, second);
+
+        assertThat(second.getStatus()).isEqualTo(200);
+        assertThat(second.getContentAsByteArray()).containsExactly(4, 5, 6, 7);
+    }
+
+    @Test
+    void download_servesRequestedRange() throws Exception {
+        MockHttpServletRequest request = get(stored.getUrl());
+        request.addHeader("Range", "bytes=2-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.download(request, response);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsString()).isEqualTo("2345");
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 2-5/10");
+        assertThat(response.getContentLengthLong()).isEqualTo(4);
+    }
+
+    @Test
+    void download_ignoresRangeWhenIfRangeIsStale() throws Exception {
+        MockHttpServletRequest request = get(stored.getUrl());
+        request.addHeader("Range", "bytes=5-");
+        request.addHeader("If-Range", "\"something-else\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.download(request, response);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+    }
+
+    @Test
+    void download_rejectsUnsatisfiableRange() throws Exception {
+        MockHttpServletRequest request = get(stored.getUrl());
+        request.addHeader("Range", "bytes=50-60");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.download(request, response);
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes */10");
+    }
+
+    @Test
+    void download_returnsNotModifiedForMatchingEtag() throws Exception {
+        MockHttpServletRequest request = get(stored.getUrl());
+        request.addHeader("If-None-Match", "\"" + stored.getChecksum() + "\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.download(request, response);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void download_handsBodyToSendfileWhenSupported() throws Exception {
+        MockHttpServletRequest request = get(stored.getUrl());
+        request.setAttribute(AttachmentController.SENDFILE_SUPPORTED, Boolean.TRUE);
+        request.addHeader("Range", "bytes=-3");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.download(request, response);
+
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(request.getAttribute(AttachmentController.SENDFILE_START)).isEqualTo(7L);
+        assertThat(request.getAttribute(AttachmentController.SENDFILE_END)).isEqualTo(10L);
+    }
+
+    @Test
+    void download_unknownOrEscapingPath_returnsNotFound() throws Exception {
+        MockHttpServletResponse missing = new MockHttpServletResponse();
+        controller.download(get(LocalAttachmentStorage.URL_PREFIX + "ab/nope.jpg"), missing);
+        assertThat(missing.getStatus()).isEqualTo(404);
+
+        MockHttpServletResponse escaping = new MockHttpServletResponse();
+        controller.download(get(LocalAttachmentStorage.URL_PREFIX + "..%2F..%2Fetc%2Fpasswd"), escaping);
+        assertThat(escaping.getStatus()).isEqualTo(404);
+    }
+}
@@ -2,9 +2,11 @@ package com.autonova.progressmonitoring.controller;
 
 import com.autonova.progressmonitoring.client.ProjectServiceClient.ProjectServiceException;
 import com.autonova.progressmonitoring.dto.CreateStatusRequest;
+import com.autonova.progressmonitoring.dto.MessageSearchPage;
 import com.autonova.progressmonitoring.dto.ProjectMessageDto;
 import com.autonova.progressmonitoring.factory.ProjectMessageFactory;
 import com.autonova.progressmonitoring.messaging.publisher.EventPublisher;
+import com.autonova.progressmonitoring.service.AttachmentRenditionService;
 import com.autonova.progressmonitoring.service.ProjectClientService;
 import com.autonova.progressmonitoring.service.ProjectMessageService;
 import com.autonova.progressmonitoring.storage.AttachmentStorage;
@@ -22,6 +24,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Mono;
 
 import java.time.OffsetDateTime;
 import java.util.*;
@@ -48,6 +51,9 @@ class ProjectMessageControllerTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private AttachmentRenditionService renditionService;
+
     @Mock
     private HttpServletRequest request;
 
@@ -55,14 +61,14 @@ class ProjectMessageControllerTest {
 
     @BeforeEach
     void setUp() {
-        controller = new ProjectMessageController(service, publisher, attachmentStorage, projectClientService, objectMapper);
+        controller = new ProjectMessageController(service, publisher, attachmentStorage, projectClientService, objectMapper, renditionService);
     }
 
     @Test
     void getMyProjectStatuses_withNullUserId_returnsUnauthorized() {
         when(request.getAttribute("userId")).thenReturn(null);
 
-        ResponseEntity<List<Map<String, Object>>> response = controller.getMyProjectStatuses(request);
+        ResponseEntity<List<Map<String, Object>>> response = controller.getMyProjectStatuses(request).block();
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
     }
@@ -78,7 +84,7 @@ class ProjectMessageControllerTest {
         project.put("title", "Test Project");
 
         List<Map<String, Object>> projects = Collections.singletonList(project);
-        when(projectClientService.getProjectsForCustomer(userId)).thenReturn(projects);
+        when(projectClientService.getProjectsForCustomer(userId)).thenReturn(Mono.just(projects));
 
         ProjectMessageDto message = ProjectMessageDto.builder()
                 .id(UUID.randomUUID())
@@ -87,24 +93,26 @@ class ProjectMessageControllerTest {
                 .message("Test message")
                 .occurredAt(OffsetDateTime.now())
                 .build();
-        when(service.getMessagesForProjectDto(projectId)).thenReturn(Collections.singletonList(message));
+        when(service.getLatestMessages(List.of(projectId))).thenReturn(Map.of(projectId, message));
 
-        ResponseEntity<List<Map<String, Object>>> response = controller.getMyProjectStatuses(request);
+        ResponseEntity<List<Map<String, Object>>> response = controller.getMyProjectStatuses(request).block();
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
         assertThat(response.getBody()).hasSize(1);
         assertThat(response.getBody().get(0)).containsKey("project");
         assertThat(response.getBody().get(0)).containsKey("lastMessage");
+        // one batched lookup instead of loading each project's full history
+        verify(service, never()).getMessagesForProjectDto(any());
     }
 
     @Test
     void getMyProjectStatuses_withEmptyProjects_returnsEmptyList() throws Exception {
         Long userId = 123L;
         when(request.getAttribute("userId")).thenReturn(userId);
-        when(projectClientService.getProjectsForCustomer(userId)).thenReturn(Collections.emptyList());
+        when(projectClientService.getProjectsForCustomer(userId)).thenReturn(Mono.just(Collections.emptyList()));
 
-        ResponseEntity<List<Map<String, Object>>> response = controller.getMyProjectStatuses(request);
+        ResponseEntity<List<Map<String, Object>>> response = controller.getMyProjectStatuses(request).block();
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEmpty();
@@ -114,7 +122,7 @@ class ProjectMessageControllerTest {
     void getMyProjectStatuses_withInvalidUserId_returnsInternalServerError() {
         when(request.getAttribute("userId")).thenReturn("invalid");
 
-        ResponseEntity<List<Map<String, Object>>> response = controller.getMyProjectStatuses(request);
+        ResponseEntity<List<Map<String, Object>>> response = controller.getMyProjectStatuses(request).block();
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
     }
@@ -130,9 +138,9 @@ class ProjectMessageControllerTest {
 
         List<ProjectMessageDto> messages = Collections.singletonList(message);
         when(service.getMessagesForProjectDto(projectId)).thenReturn(messages);
-        doNothing().when(projectClientService).enrichMessagesWithProjectTitle(projectId.toString(), messages);
+        when(projectClientService.enrichMessagesWithProjectTitle(projectId.toString(), messages)).thenReturn(Mono.just(messages));
 
-        ResponseEntity<List<ProjectMessageDto>> response = controller.getMessages(projectId.toString());
+        ResponseEntity<List<ProjectMessageDto>> response = controller.getMessages(projectId.toString()).block();
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).hasSize(1);
@@ -141,7 +149,7 @@ class ProjectMessageControllerTest {
 
     @Test
     void getMessages_withInvalidProjectId_returnsBadRequest() {
-        ResponseEntity<List<ProjectMessageDto>> response = controller.getMessages("invalid-uuid");
+        ResponseEntity<List<ProjectMessageDto>> response = controller.getMessages("invalid-uuid").block();
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
@@ -153,10 +161,10 @@ class ProjectMessageControllerTest {
                 ProjectMessageDto.builder().id(UUID.randomUUID()).build()
         );
         when(service.getMessagesForProjectDto(projectId)).thenReturn(messages);
-        doThrow(new ProjectServiceException("Service error", 500))
-                .when(projectClientService).enrichMessagesWithProjectTitle(projectId.toString(), messages);
+        when(projectClientService.enrichMessagesWithProjectTitle(projectId.toString(), messages))
+                .thenReturn(Mono.error(new ProjectServiceException("Service error", 500)));
 
-        ResponseEntity<List<ProjectMessageDto>> response = controller.getMessages(projectId.toString());
+        ResponseEntity<List<ProjectMessageDto>> response = controller.getMessages(projectId.toString()).block();
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
     }
@@ -239,6 +247,28 @@ class ProjectMessageControllerTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
 
+    @Test
+    void searchMessages_withValidQuery_returnsHits() {
+        UUID projectId = UUID.randomUUID();
+        MessageSearchPage page = MessageSearchPage.builder().hits(List.of()).build();
+        when(service.searchMessages(projectId, "brake", null, 20)).thenReturn(page);
+
+        ResponseEntity<MessageSearchPage> response = controller.searchMessages(projectId.toString(), "brake", null, 20);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isSameAs(page);
+    }
+
+    @Test
+    void searchMessages_withBlankQueryOrBadCursor_returnsBadRequest() {
+        UUID projectId = UUID.randomUUID();
+        when(service.searchMessages(projectId, "brake", "garbage", 20)).thenThrow(new IllegalArgumentException("Malformed search cursor"));
+
+        assertThat(controller.searchMessages(projectId.toString(), " ", null, 20).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(controller.searchMessages("invalid-uuid", "brake", null, 20).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(controller.searchMessages(projectId.toString(), "brake", "garbage", 20).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
     @Test
     void postStatusMessage_withValidRequest_createsMessage() throws Exception {
         UUID projectId = UUID.randomUUID();
@@ -326,6 +356,7 @@ class ProjectMessageControllerTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
         assertThat(response.getBody()).isEqualTo(savedMessage);
         verify(attachmentStorage).store(file);
+        verify(renditionService).generate(savedMessage);
         verify(publisher).publishToProject(eq(projectId.toString()), anyString());
     }
 
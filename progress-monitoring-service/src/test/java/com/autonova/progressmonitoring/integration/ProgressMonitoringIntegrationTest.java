@@ -1,13 +1,19 @@
 package com.autonova.progressmonitoring.integration;
 
+import com.autonova.progressmonitoring.dto.MessageSearchHit;
+import com.autonova.progressmonitoring.dto.MessageSearchPage;
 import com.autonova.progressmonitoring.dto.ProjectMessageDto;
 import com.autonova.progressmonitoring.entity.ProjectMessage;
 import com.autonova.progressmonitoring.repository.ProjectMessageRepository;
 import com.autonova.progressmonitoring.service.ProjectMessageService;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
@@ -52,12 +58,24 @@ class ProgressMonitoringIntegrationTest {
         registry.add("spring.rabbitmq.password", () -> "guest");
     }
 
+    // well below what batched inserts reach against a local container, so only a regression trips it
+    private static final double MIN_EVENTS_PER_SECOND = 200;
+
     @Autowired
     private ProjectMessageService projectMessageService;
 
     @Autowired
     private ProjectMessageRepository projectMessageRepository;
 
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.rabbit.exchange:autonova.events}")
+    private String exchange;
+
     private UUID projectId;
 
     @BeforeEach
@@ -181,4 +199,88 @@ class ProgressMonitoringIntegrationTest {
         assertThat(page.getContent()).hasSize(3);
         assertThat(page.hasNext()).isTrue();
     }
+
+    @Test
+    void migrations_createTheSearchColumnAndAValidGinIndex() {
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT is_generated FROM information_schema.columns WHERE table_name = 'project_messages' AND column_name = 'search_vector'",
+                String.class)).isEqualTo("ALWAYS");
+        // an interrupted CONCURRENTLY build leaves an invalid index behind
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT i.indisvalid FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = 'idx_project_messages_search'",
+                Boolean.class)).isTrue();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM flyway_schema_history WHERE NOT success", Integer.class)).isZero();
+    }
+
+    @Test
+    void searchMessages_matchesCategoryAndIgnoresOtherProjects() {
+        projectMessageService.saveMessage(projectId, "INSPECTION", "Underbody checked", null, OffsetDateTime.now());
+        projectMessageService.saveMessage(projectId, "UPDATE", "Inspection booked", null, OffsetDateTime.now());
+        projectMessageService.saveMessage(UUID.randomUUID(), "INSPECTION", "Other project", null, OffsetDateTime.now());
+
+        MessageSearchPage page = projectMessageService.searchMessages(projectId, "inspections -booked", null, 10);
+
+        assertThat(page.getHits()).extracting(hit -> hit.getMessage().getMessage()).containsExactly("Underbody checked");
+    }
+
+    @Test
+    void searchMessages_findsStemmedMatchesAndPagesByCursor() {
+        // Given
+        projectMessageService.saveMessage(projectId, "UPDATE", "Replaced the front brake pads", null, OffsetDateTime.now());
+        projectMessageService.saveMessage(projectId, "UPDATE", "Oil changed", null, OffsetDateTime.now());
+        projectMessageService.saveMessage(projectId, "UPDATE", "Brake fluid flushed and braking tested", null, OffsetDateTime.now());
+        projectMessageService.saveMessage(UUID.randomUUID(), "UPDATE", "Brake pads on another project", null, OffsetDateTime.now());
+
+        // When
+        MessageSearchPage first = projectMessageService.searchMessages(projectId, "brakes", null, 1);
+        MessageSearchPage second = projectMessageService.searchMessages(projectId, "brakes", first.getNextCursor(), 1);
+
+        // Then - newest first, only this project, matched terms highlighted
+        assertThat(first.getHits()).extracting(hit -> hit.getMessage().getMessage())
+                .containsExactly("Brake fluid flushed and braking tested");
+        assertThat(first.getHits().get(0).getHighlight()).contains("<mark>Brake</mark>");
+        assertThat(second.getHits()).extracting(MessageSearchHit::getMessage).extracting(ProjectMessageDto::getMessage)
+                .containsExactly("Replaced the front brake pads");
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void publishedProjectEvents_arePersistedExactlyOnce() throws InterruptedException {
+        int events = 250;
+        publishStatusUpdates(events);
+
+        assertThat(awaitPersisted(events, 30_000)).isEqualTo(events);
+        // nothing persisted twice once the batches are acked
+        Thread.sleep(500);
+        assertThat(projectMessageRepository.count()).isEqualTo(events);
+    }
+
+    // Sustained consumer throughput; run with -Pbenchmark
+    @Test
+    @Tag("benchmark")
+    void publishedProjectEvents_sustainMinimumThroughput() throws InterruptedException {
+        int events = 2000;
+        long started = System.nanoTime();
+        publishStatusUpdates(events);
+
+        assertThat(awaitPersisted(events, 60_000)).isEqualTo(events);
+        double seconds = (System.nanoTime() - started) / 1e9;
+        assertThat(events / seconds).as("events persisted per second").isGreaterThan(MIN_EVENTS_PER_SECOND);
+    }
+
+    private void publishStatusUpdates(int events) {
+        for (int i = 0; i < events; i++) {
+            rabbitTemplate.convertAndSend(exchange, "project.updated",
+                    "{\"projectId\":\"" + projectId + "\",\"status\":\"IN_PROGRESS\",\"seq\":" + i + "}");
+        }
+    }
+
+    private long awaitPersisted(int events, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (projectMessageRepository.count() < events && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        return projectMessageRepository.count();
+    }
 }
@@ -5,6 +5,7 @@ import com.autonova.progressmonitoring.messaging.mapper.DefaultEventMessageMappe
 import com.autonova.progressmonitoring.messaging.mapper.EventMessageMapper;
 import com.autonova.progressmonitoring.messaging.publisher.EventPublisher;
 import com.autonova.progressmonitoring.messaging.rabbit.ProjectEventProcessorImpl;
+import com.autonova.progressmonitoring.service.ProjectClientService;
 import com.autonova.progressmonitoring.service.ProjectMessageService;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -19,7 +20,9 @@ import org.springframework.amqp.core.MessageProperties;
 import java.nio.charset.StandardCharsets;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.MockitoAnnotations.openMocks;
 
 @org.junit.jupiter.api.extension.ExtendWith(MockitoExtension.class)
@@ -43,7 +46,7 @@ class ProjectEventProcessorImplTest {
     }
 
     @Test
-    void process_withProjectId_callsPublishToProject() {
+    void process_withProjectId_publishesSingleEvent() {
         // use a valid UUID string literal for tests
         String validProjectId = "11111111-2222-3333-4444-555555555555";
         String json = "{\"projectId\":\"" + validProjectId + "\", \"status\":\"updated\"}";
@@ -55,7 +58,8 @@ class ProjectEventProcessorImplTest {
 
         ArgumentCaptor<String> idCaptor = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<String> payloadCaptor = ArgumentCaptor.forClass(String.class);
-        verify(publisher).publishToProject(idCaptor.capture(), payloadCaptor.capture());
+        verify(publisher).publishEvent(idCaptor.capture(), org.mockito.ArgumentMatchers.anyString(), payloadCaptor.capture());
+        verifyNoMoreInteractions(publisher);
 
         assertEquals(validProjectId, idCaptor.getValue());
         assertEquals(json, payloadCaptor.getValue());
@@ -73,20 +77,88 @@ class ProjectEventProcessorImplTest {
         processor.process(msg);
 
         ArgumentCaptor<String> payloadCaptor = ArgumentCaptor.forClass(String.class);
-        verify(publisher).broadcast(payloadCaptor.capture());
+        verify(publisher).broadcastEvent(org.mockito.ArgumentMatchers.anyString(), payloadCaptor.capture());
         assertEquals(json, payloadCaptor.getValue());
     }
 
     @Test
-    void process_invalidJson_callsBroadcast() {
+    void process_invalidJson_broadcastsMessageWithoutPayload() {
         String body = "not-a-json";
         MessageProperties props = new MessageProperties();
         Message msg = new Message(body.getBytes(StandardCharsets.UTF_8), props);
 
         processor.process(msg);
 
-        ArgumentCaptor<String> payloadCaptor = ArgumentCaptor.forClass(String.class);
-        verify(publisher).broadcast(payloadCaptor.capture());
-        assertEquals(body, payloadCaptor.getValue());
+        // the body is not JSON, so it cannot be embedded in the event frame
+        verify(publisher).broadcastEvent(org.mockito.ArgumentMatchers.anyString(), isNull());
+    }
+
+    @Test
+    void process_projectUpdated_invalidatesCachedProjectMetadata() {
+        ProjectClientService projectClientService = org.mockito.Mockito.mock(ProjectClientService.class);
+        ProjectEventProcessorImpl invalidating = new ProjectEventProcessorImpl(publisher, mapper, new DefaultEventMessageMapper(), messageService, null, projectClientService);
+        String projectId = "11111111-2222-3333-4444-555555555555";
+        MessageProperties props = new MessageProperties();
+        props.setReceivedRoutingKey("project.updated");
+        Message msg = new Message(("{\"projectId\":\"" + projectId + "\"}").getBytes(StandardCharsets.UTF_8), props);
+
+        invalidating.process(msg);
+
+        verify(projectClientService).invalidateProject(projectId);
+    }
+
+    @Test
+    void processBatch_persistsOnceThenPublishesInOrder() {
+        String first = "11111111-2222-3333-4444-555555555555";
+        String second = "66666666-7777-8888-9999-000000000000";
+        Message a = projectMessage("project.updated", "{\"projectId\":\"" + first + "\"}");
+        Message b = projectMessage("project.updated", "{\"projectId\":\"" + second + "\"}");
+        Message broken = projectMessage("project.updated", "not-a-json");
+
+        processor.processBatch(java.util.List.of(a, broken, b));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<java.util.List<com.autonova.progressmonitoring.dto.ProjectMessageDto>> batch = ArgumentCaptor.forClass(java.util.List.class);
+        org.mockito.InOrder inOrder = org.mockito.Mockito.inOrder(messageService, publisher);
+        inOrder.verify(messageService).saveMessages(batch.capture());
+        inOrder.verify(publisher).publishEvent(org.mockito.ArgumentMatchers.eq(first), org.mockito.ArgumentMatchers.anyString(), org.mockito.ArgumentMatchers.anyString());
+        inOrder.verify(publisher).broadcastEvent(org.mockito.ArgumentMatchers.anyString(), isNull());
+        inOrder.verify(publisher).publishEvent(org.mockito.ArgumentMatchers.eq(second), org.mockito.ArgumentMatchers.anyString(), org.mockito.ArgumentMatchers.anyString());
+        assertEquals(2, batch.getValue().size());
+        verify(messageService, org.mockito.Mockito.never()).saveMessage(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any());
+    }
+
+    @Test
+    void processBatch_fallsBackToSingleInsertsWhenTheDatabaseRejectsARecord() {
+        String projectId = "11111111-2222-3333-4444-555555555555";
+        Message a = projectMessage("project.updated", "{\"projectId\":\"" + projectId + "\",\"n\":1}");
+        Message b = projectMessage("project.updated", "{\"projectId\":\"" + projectId + "\",\"n\":2}");
+        org.mockito.Mockito.doThrow(new org.springframework.dao.DataIntegrityViolationException("value too long")).when(messageService).saveMessages(org.mockito.ArgumentMatchers.anyList());
+        org.mockito.Mockito.doThrow(new org.springframework.dao.DataIntegrityViolationException("value too long")).doReturn(null)
+                .when(messageService).saveMessage(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any());
+
+        processor.processBatch(java.util.List.of(a, b));
+
+        verify(messageService, org.mockito.Mockito.times(2)).saveMessage(org.mockito.ArgumentMatchers.eq(java.util.UUID.fromString(projectId)), org.mockito.ArgumentMatchers.anyString(), org.mockito.ArgumentMatchers.anyString(), org.mockito.ArgumentMatchers.anyString(), org.mockito.ArgumentMatchers.any());
+        verify(publisher, org.mockito.Mockito.times(2)).publishEvent(org.mockito.ArgumentMatchers.eq(projectId), org.mockito.ArgumentMatchers.anyString(), org.mockito.ArgumentMatchers.anyString());
+    }
+
+    @Test
+    void processBatch_propagatesPersistenceFailuresWithoutPublishing() {
+        String projectId = "11111111-2222-3333-4444-555555555555";
+        Message a = projectMessage("project.updated", "{\"projectId\":\"" + projectId + "\",\"n\":1}");
+        org.mockito.Mockito.doThrow(new org.springframework.dao.DataAccessResourceFailureException("connection refused")).when(messageService).saveMessages(org.mockito.ArgumentMatchers.anyList());
+
+        org.junit.jupiter.api.Assertions.assertThrows(org.springframework.dao.DataAccessResourceFailureException.class,
+                () -> processor.processBatch(java.util.List.of(a)));
+
+        verify(messageService, org.mockito.Mockito.never()).saveMessage(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any());
+        org.mockito.Mockito.verifyNoInteractions(publisher);
+    }
+
+    private static Message projectMessage(String routingKey, String body) {
+        MessageProperties props = new MessageProperties();
+        props.setReceivedRoutingKey(routingKey);
+        return new Message(body.getBytes(StandardCharsets.UTF_8), props);
     }
 }
@@ -55,11 +55,9 @@ class ProjectEventProcessorProjectServiceEventsTest {
 
         processor.process(msg);
 
-        // publish raw
-        verify(publisher).publishToProject(eq(projectId), eq(json));
-        // publish human-friendly
+        // one combined frame with the human-friendly message and the raw payload
         ArgumentCaptor<String> messageCaptor = ArgumentCaptor.forClass(String.class);
-        verify(publisher).publishMessageToProject(eq(projectId), messageCaptor.capture());
+        verify(publisher).publishEvent(eq(projectId), messageCaptor.capture(), eq(json));
 
         // message should mention Quote and approved
         String friendly = messageCaptor.getValue();
@@ -83,9 +81,8 @@ class ProjectEventProcessorProjectServiceEventsTest {
 
         processor.process(msg);
 
-        verify(publisher).publishToProject(eq(projectId), eq(json));
         ArgumentCaptor<String> messageCaptor = ArgumentCaptor.forClass(String.class);
-        verify(publisher).publishMessageToProject(eq(projectId), messageCaptor.capture());
+        verify(publisher).publishEvent(eq(projectId), messageCaptor.capture(), eq(json));
 
         String friendly = messageCaptor.getValue();
         org.assertj.core.api.Assertions.assertThat(friendly.toLowerCase()).contains("change request").contains("applied");
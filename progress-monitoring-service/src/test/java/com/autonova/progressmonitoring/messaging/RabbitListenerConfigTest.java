@@ -0,0 +1,93 @@
+package com.autonova.progressmonitoring.messaging;
+
+import com.autonova.progressmonitoring.config.RabbitConfig;
+import com.autonova.progressmonitoring.config.RabbitListenerConfig;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.listener.support.ContainerUtils;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RabbitListenerConfigTest {
+
+    // stands in for the container's listener invocation (channel, batch), which the advice chain wraps
+    interface BatchInvoker {
+        void invoke(Object channel, Object batch);
+    }
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            // Duration properties like "80ms" need Boot's converters
+            .withInitializer(ctx -> ctx.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withConfiguration(AutoConfigurations.of(RabbitAutoConfiguration.class))
+            .withUserConfiguration(RabbitConfig.class, RabbitListenerConfig.class)
+            .withPropertyValues(
+                    "app.rabbit.exchange=test.exchange",
+                    "app.rabbit.queue=test.queue",
+                    "app.rabbit.routing-key=project.#",
+                    "app.rabbit.batch-receive-timeout=80ms",
+                    "app.rabbit.max-attempts=2",
+                    "app.rabbit.retry-backoff=1ms"
+            );
+
+    @Test
+    void partialBatchesUseADeadlineFromTheFirstMessage_notThePerPollTimeout() {
+        contextRunner.run(ctx -> {
+            SimpleRabbitListenerContainerFactory factory = ctx.getBean("projectBatchListenerFactory", SimpleRabbitListenerContainerFactory.class);
+
+            assertThat(ReflectionTestUtils.getField(factory, "batchReceiveTimeout")).isEqualTo(80L);
+            assertThat(ReflectionTestUtils.getField(factory, "receiveTimeout")).isNull();
+        });
+    }
+
+    @Test
+    void projectQueue_deadLettersToItsOwnQueue() {
+        contextRunner.run(ctx -> {
+            Queue queue = ctx.getBean(Queue.class);
+            Declarables deadLetters = ctx.getBean("projectDeadLetters", Declarables.class);
+
+            assertThat(queue.getArguments())
+                    .containsEntry("x-dead-letter-exchange", "test.queue.dlx")
+                    .containsEntry("x-dead-letter-routing-key", "test.queue.dlq");
+            assertThat(deadLetters.getDeclarablesByType(Queue.class))
+                    .extracting(Queue::getName).containsExactly("test.queue.dlq");
+        });
+    }
+
+    @Test
+    void failingBatch_isRetriedThenRejectedWithoutRequeue() {
+        contextRunner.run(ctx -> {
+            SimpleRabbitListenerContainerFactory factory = ctx.getBean("projectBatchListenerFactory", SimpleRabbitListenerContainerFactory.class);
+            AtomicInteger attempts = new AtomicInteger();
+            ProxyFactory proxy = new ProxyFactory((BatchInvoker) (channel, batch) -> {
+                attempts.incrementAndGet();
+                throw new QueryTimeoutException("database down");
+            });
+            proxy.addAdvice(factory.getAdviceChain()[0]);
+            BatchInvoker invoker = (BatchInvoker) proxy.getProxy();
+            Message msg = new Message("{}".getBytes(StandardCharsets.UTF_8), new MessageProperties());
+
+            assertThatThrownBy(() -> invoker.invoke(null, List.of(msg)))
+                    .isInstanceOfSatisfying(AmqpRejectAndDontRequeueException.class, e ->
+                            assertThat(ContainerUtils.shouldRequeue(true, e, LogFactory.getLog(RabbitListenerConfigTest.class))).isFalse());
+            assertThat(attempts).hasValue(2);
+        });
+    }
+}
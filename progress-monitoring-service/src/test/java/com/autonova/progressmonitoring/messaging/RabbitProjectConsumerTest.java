@@ -2,15 +2,24 @@ package com.autonova.progressmonitoring.messaging;
 
 import com.autonova.progressmonitoring.messaging.rabbit.ProjectEventProcessor;
 import com.autonova.progressmonitoring.messaging.rabbit.RabbitProjectConsumer;
+import org.apache.commons.logging.LogFactory;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.listener.ConditionalRejectingErrorHandler;
+import org.springframework.amqp.rabbit.listener.support.ContainerUtils;
+import org.springframework.amqp.rabbit.support.ListenerExecutionFailedException;
+import org.springframework.transaction.CannotCreateTransactionException;
 
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.MockitoAnnotations.openMocks;
@@ -35,25 +44,27 @@ class RabbitProjectConsumerTest {
     }
 
     @Test
-    void onMessage_delegatesToProcessor() {
-        String body = "{\"projectId\":\"p1\"}";
-        MessageProperties props = new MessageProperties();
-        Message msg = new Message(body.getBytes(StandardCharsets.UTF_8), props);
+    void onMessages_delegatesBatchToProcessor() {
+        Message first = new Message("{\"projectId\":\"p1\"}".getBytes(StandardCharsets.UTF_8), new MessageProperties());
+        Message second = new Message("{\"projectId\":\"p2\"}".getBytes(StandardCharsets.UTF_8), new MessageProperties());
 
-        consumer.onMessage(msg);
+        consumer.onMessages(List.of(first, second));
 
-        verify(processor).process(msg);
+        verify(processor).processBatch(List.of(first, second));
     }
 
     @Test
-    void onMessage_swallowsProcessorException() {
-        String body = "{\"projectId\":\"p2\"}";
-        MessageProperties props = new MessageProperties();
-        Message msg = new Message(body.getBytes(StandardCharsets.UTF_8), props);
+    void onMessages_processorFailure_rejectsTheBatchForRedelivery() {
+        Message msg = new Message("{}".getBytes(StandardCharsets.UTF_8), new MessageProperties());
+        RuntimeException failure = new CannotCreateTransactionException("database down");
+        doThrow(failure).when(processor).processBatch(List.of(msg));
 
-        doThrow(new RuntimeException("boom")).when(processor).process(msg);
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> consumer.onMessages(List.of(msg)));
+        assertSame(failure, thrown);
 
-        // should not throw
-        assertDoesNotThrow(() -> consumer.onMessage(msg));
+        // the container's default error handler treats it as non-fatal, so the batch is nacked with requeue
+        ListenerExecutionFailedException wrapped = new ListenerExecutionFailedException("listener failed", thrown, msg);
+        assertDoesNotThrow(() -> new ConditionalRejectingErrorHandler().handleError(wrapped));
+        assertTrue(ContainerUtils.shouldRequeue(true, wrapped, LogFactory.getLog(RabbitProjectConsumerTest.class)));
     }
 }
@@ -0,0 +1,131 @@
+package com.autonova.progressmonitoring.service;
+
+import com.autonova.progressmonitoring.dto.ProjectMessageDto;
+import com.autonova.progressmonitoring.storage.AttachmentStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentRenditionServiceTest {
+
+    private static final String URL = AttachmentStorage.URL_PREFIX + "ab/abcdef.png";
+
+    @Mock
+    AttachmentStorage storage;
+
+    @Mock
+    ProjectMessageService messageService;
+
+    private AttachmentRenditionService renditions;
+
+    @BeforeEach
+    void setUp() {
+        renditions = new AttachmentRenditionService(storage, messageService,
+                AttachmentRenditionService.parseSizes("thumb:32,preview:128"), Runnable::run);
+    }
+
+    @Test
+    void generate_storesEachRenditionAndRecordsThem() throws IOException {
+        when(storage.open(URL)).thenReturn(new ByteArrayInputStream(png(400, 200)));
+        ProjectMessageDto message = message("image/png");
+
+        renditions.generate(message);
+
+        ArgumentCaptor<byte[]> preview = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<byte[]> thumb = ArgumentCaptor.forClass(byte[].class);
+        verify(storage).storeRendition(eq(URL), eq("preview"), eq("image/jpeg"), preview.capture());
+        verify(storage).storeRendition(eq(URL), eq("thumb"), eq("image/jpeg"), thumb.capture());
+        assertDimensions(preview.getValue(), 128, 64);
+        assertDimensions(thumb.getValue(), 32, 16);
+        verify(messageService).recordRenditions(message.getId(), List.of("preview", "thumb"));
+    }
+
+    @Test
+    void generate_skipsRenditionsLargerThanTheOriginal() throws IOException {
+        when(storage.open(URL)).thenReturn(new ByteArrayInputStream(png(100, 50)));
+        ProjectMessageDto message = message("image/png");
+
+        renditions.generate(message);
+
+        verify(storage, never()).storeRendition(anyString(), eq("preview"), anyString(), any());
+        verify(messageService).recordRenditions(message.getId(), List.of("thumb"));
+    }
+
+    @Test
+    void generate_ignoresNonImageAttachments() {
+        renditions.generate(message("application/pdf"));
+        renditions.generate(message("video/mp4"));
+
+        verifyNoInteractions(storage, messageService);
+    }
+
+    @Test
+    void generate_dropsWorkWhenThePoolIsSaturated() {
+        Executor saturated = task -> { throw new RejectedExecutionException("full"); };
+        renditions = new AttachmentRenditionService(storage, messageService, Map.of("thumb", 32), saturated);
+
+        renditions.generate(message("image/png"));
+
+        verifyNoInteractions(storage, messageService);
+    }
+
+    @Test
+    void generate_swallowsUndecodableImages() {
+        when(storage.open(URL)).thenReturn(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+
+        renditions.generate(message("image/png"));
+
+        verify(messageService, never()).recordRenditions(any(), any());
+    }
+
+    @Test
+    void parseSizes_ordersLargestFirst() {
+        assertThat(AttachmentRenditionService.parseSizes("thumb:320, preview:1280,bogus").keySet())
+                .containsExactly("preview", "thumb");
+    }
+
+    private static ProjectMessageDto message(String contentType) {
+        return ProjectMessageDto.builder()
+                .id(UUID.randomUUID())
+                .projectId(UUID.randomUUID())
+                .attachmentUrl(URL)
+                .attachmentContentType(contentType)
+                .build();
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", out);
+        return out.toByteArray();
+    }
+
+    private static void assertDimensions(byte[] jpeg, int width, int height) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(jpeg));
+        assertThat(image.getWidth()).isEqualTo(width);
+        assertThat(image.getHeight()).isEqualTo(height);
+    }
+}
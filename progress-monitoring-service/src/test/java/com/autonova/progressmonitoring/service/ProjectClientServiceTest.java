@@ -5,12 +5,12 @@ import com.autonova.progressmonitoring.dto.ProjectMessageDto;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Mono;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -23,7 +23,6 @@ class ProjectClientServiceTest {
     @Mock
     private ProjectServiceClient projectClient;
 
-    @InjectMocks
     private ProjectClientService projectClientService;
 
     private String projectId;
@@ -32,6 +31,7 @@ class ProjectClientServiceTest {
 
     @BeforeEach
     void setUp() {
+        projectClientService = new ProjectClientService(projectClient);
         projectId = UUID.randomUUID().toString();
         
         ProjectMessageDto message = ProjectMessageDto.builder()
@@ -54,14 +54,7 @@ class ProjectClientServiceTest {
                 .thenReturn(Mono.just(projectData));
 
         // When
-        projectClientService.enrichMessagesWithProjectTitle(projectId, messages);
-
-        // Give async operation time to complete
-        try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        projectClientService.enrichMessagesWithProjectTitle(projectId, messages).block();
 
         // Then
         verify(projectClient).getProjectById(projectId);
@@ -73,7 +66,7 @@ class ProjectClientServiceTest {
         List<ProjectMessageDto> emptyMessages = new ArrayList<>();
 
         // When
-        projectClientService.enrichMessagesWithProjectTitle(projectId, emptyMessages);
+        projectClientService.enrichMessagesWithProjectTitle(projectId, emptyMessages).block();
 
         // Then
         verify(projectClient, never()).getProjectById(anyString());
@@ -82,7 +75,7 @@ class ProjectClientServiceTest {
     @Test
     void enrichMessagesWithProjectTitle_withNullMessages_doesNotCallClient() {
         // When
-        projectClientService.enrichMessagesWithProjectTitle(projectId, null);
+        projectClientService.enrichMessagesWithProjectTitle(projectId, null).block();
 
         // Then
         verify(projectClient, never()).getProjectById(anyString());
@@ -97,14 +90,7 @@ class ProjectClientServiceTest {
                 .thenReturn(Mono.error(exception));
 
         // When
-        projectClientService.enrichMessagesWithProjectTitle(projectId, messages);
-
-        // Give async operation time to complete
-        try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        projectClientService.enrichMessagesWithProjectTitle(projectId, messages).block();
 
         // Then
         verify(projectClient).getProjectById(projectId);
@@ -124,7 +110,7 @@ class ProjectClientServiceTest {
                 .thenReturn(Mono.just(expectedProjects));
 
         // When
-        List<Map<String, Object>> result = projectClientService.getProjectsForCustomer(customerId);
+        List<Map<String, Object>> result = projectClientService.getProjectsForCustomer(customerId).block();
 
         // Then
         assertThat(result).isNotNull();
@@ -144,7 +130,7 @@ class ProjectClientServiceTest {
                 .thenReturn(Mono.error(exception));
 
         // When
-        List<Map<String, Object>> result = projectClientService.getProjectsForCustomer(customerId);
+        List<Map<String, Object>> result = projectClientService.getProjectsForCustomer(customerId).block();
 
         // Then
         assertThat(result).isNotNull();
@@ -160,7 +146,7 @@ class ProjectClientServiceTest {
                 .thenReturn(Mono.error(new RuntimeException("Unexpected error")));
 
         // When
-        List<Map<String, Object>> result = projectClientService.getProjectsForCustomer(customerId);
+        List<Map<String, Object>> result = projectClientService.getProjectsForCustomer(customerId).block();
 
         // Then
         assertThat(result).isNotNull();
@@ -176,17 +162,11 @@ class ProjectClientServiceTest {
                 .thenReturn(Mono.just(projectData));
 
         // When
-        projectClientService.enrichMessagesWithProjectTitle(projectId, messages);
-
-        // Give async operation time to complete
-        try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        projectClientService.enrichMessagesWithProjectTitle(projectId, messages).block();
 
         // Then
         verify(projectClient).getProjectById(projectId);
+        assertThat(messages.get(0).getPayload()).isEqualTo("project_title:Test Project");
     }
 
     @Test
@@ -197,16 +177,64 @@ class ProjectClientServiceTest {
                 .thenReturn(Mono.just(projectData));
 
         // When
-        projectClientService.enrichMessagesWithProjectTitle(projectId, messages);
-
-        // Give async operation time to complete
-        try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        projectClientService.enrichMessagesWithProjectTitle(projectId, messages).block();
 
         // Then
         verify(projectClient).getProjectById(projectId);
     }
+
+    @Test
+    void enrichMessagesWithProjectTitle_withProjectServiceError_returnsMessagesUnchanged() {
+        when(projectClient.getProjectById(projectId))
+                .thenReturn(Mono.error(new ProjectServiceClient.ProjectServiceException("Service unavailable", 503)));
+
+        List<ProjectMessageDto> result = projectClientService.enrichMessagesWithProjectTitle(projectId, messages).block();
+
+        assertThat(result).isSameAs(messages);
+        assertThat(messages.get(0).getPayload()).isNull();
+    }
+
+    @Test
+    void getProject_cachesAndSharesLookups() {
+        AtomicInteger calls = new AtomicInteger();
+        when(projectClient.getProjectById(projectId))
+                .thenReturn(Mono.fromCallable(() -> {
+                    calls.incrementAndGet();
+                    return projectData;
+                }));
+
+        projectClientService.getProject(projectId).block();
+        projectClientService.getProject(projectId).block();
+
+        assertThat(calls.get()).isEqualTo(1);
+        verify(projectClient, times(1)).getProjectById(projectId);
+    }
+
+    @Test
+    void getProject_doesNotCacheFailures() {
+        AtomicInteger calls = new AtomicInteger();
+        when(projectClient.getProjectById(projectId))
+                .thenReturn(Mono.defer(() -> calls.incrementAndGet() == 1
+                        ? Mono.error(new ProjectServiceClient.ProjectServiceException("Service unavailable", 503))
+                        : Mono.just(projectData)));
+
+        assertThat(projectClientService.getProject(projectId).onErrorResume(e -> Mono.empty()).block()).isNull();
+        assertThat(projectClientService.getProject(projectId).block()).isEqualTo(projectData);
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidateProject_forcesFreshLookup() {
+        when(projectClient.getProjectById(projectId)).thenReturn(Mono.just(projectData));
+        when(projectClient.getProjectsByCustomerId(anyLong())).thenReturn(Mono.just(List.of(projectData)));
+
+        projectClientService.getProject(projectId).block();
+        projectClientService.getProjectsForCustomer(7L).block();
+        projectClientService.invalidateProject(projectId);
+        projectClientService.getProject(projectId).block();
+        projectClientService.getProjectsForCustomer(7L).block();
+
+        verify(projectClient, times(2)).getProjectById(projectId);
+        verify(projectClient, times(2)).getProjectsByCustomerId(7L);
+    }
 }
@@ -1,5 +1,6 @@
 package com.autonova.progressmonitoring.service;
 
+import com.autonova.progressmonitoring.dto.MessageSearchPage;
 import com.autonova.progressmonitoring.dto.ProjectMessageDto;
 import com.autonova.progressmonitoring.entity.ProjectMessage;
 import com.autonova.progressmonitoring.repository.ProjectMessageRepository;
@@ -8,14 +9,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -25,6 +32,12 @@ class ProjectMessageServiceTest {
     @Mock
     ProjectMessageRepository repository;
 
+    @Spy
+    LastMessageCache lastMessageCache = new LastMessageCache(100);
+
+    @Spy
+    TimelineCache timelineCache = new TimelineCache(50, 100, Duration.ofMinutes(5));
+
     @InjectMocks
     ProjectMessageService service;
 
@@ -102,4 +115,156 @@ class ProjectMessageServiceTest {
         verify(repository, times(1)).findByProjectIdOrderByCreatedAtDesc(eq(projectId), any());
         assertThat(result).isSameAs(mappedSlice);
     }
+
+    @Test
+    void getLatestMessages_queriesOnlyCacheMissesInOneCall() {
+        UUID cachedProject = UUID.randomUUID();
+        UUID coldProject = UUID.randomUUID();
+        ProjectMessageDto cached = ProjectMessageDto.builder().projectId(cachedProject).message("cached").build();
+        lastMessageCache.offer(cached);
+        ProjectMessage latest = new ProjectMessage(coldProject, "info", "from db", null, OffsetDateTime.now());
+        when(repository.findLatestByProjectIds(List.of(coldProject))).thenReturn(List.of(latest));
+
+        Map<UUID, ProjectMessageDto> result = service.getLatestMessages(List.of(cachedProject, coldProject));
+
+        assertThat(result.get(cachedProject)).isSameAs(cached);
+        assertThat(result.get(coldProject).getMessage()).isEqualTo("from db");
+        verify(repository, times(1)).findLatestByProjectIds(List.of(coldProject));
+        // the cold project is now cached as well
+        assertThat(lastMessageCache.get(coldProject).getMessage()).isEqualTo("from db");
+    }
+
+    @Test
+    void saveMessage_updatesLastMessageCache() {
+        UUID projectId = UUID.randomUUID();
+        when(repository.save(any(ProjectMessage.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        service.saveMessage(projectId, "info", "newest", null, OffsetDateTime.now());
+
+        assertThat(lastMessageCache.get(projectId).getMessage()).isEqualTo("newest");
+        Map<UUID, ProjectMessageDto> result = service.getLatestMessages(List.of(projectId));
+        assertThat(result.get(projectId).getMessage()).isEqualTo("newest");
+        verify(repository, never()).findLatestByProjectIds(any());
+    }
+
+    @Test
+    void saveMessages_insertsAllInOneCallAndCachesThem() {
+        UUID projectId = UUID.randomUUID();
+        when(repository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        List<ProjectMessageDto> batch = List.of(
+                ProjectMessageDto.builder().projectId(projectId).message("first").build(),
+                ProjectMessageDto.builder().projectId(projectId).message("second").build());
+
+        List<ProjectMessageDto> saved = service.saveMessages(batch);
+
+        assertThat(saved).extracting(ProjectMessageDto::getMessage).containsExactly("first", "second");
+        verify(repository, times(1)).saveAll(any());
+        verify(repository, never()).save(any());
+        assertThat(lastMessageCache.get(projectId)).isNotNull();
+    }
+
+    @Test
+    void getMessagesPage_servesRepeatedFirstPagesFromTheTimelineCache() {
+        UUID projectId = UUID.randomUUID();
+        OffsetDateTime now = OffsetDateTime.now();
+        ProjectMessage older = persisted(projectId, "older", now.minusMinutes(2));
+        ProjectMessage newer = persisted(projectId, "newer", now.minusMinutes(1));
+        when(repository.findByProjectIdOrderByCreatedAtDesc(eq(projectId), any()))
+                .thenReturn(new SliceImpl<>(List.of(newer, older), PageRequest.of(0, 20), false));
+
+        service.getMessagesPage(projectId, 0, 20);
+        when(repository.save(any(ProjectMessage.class))).thenAnswer(invocation -> {
+            ProjectMessage arg = invocation.getArgument(0);
+            arg.setCreatedAt(now);
+            return arg;
+        });
+        service.saveMessage(projectId, "info", "newest", null, now);
+        Slice<ProjectMessageDto> page = service.getMessagesPage(projectId, 0, 20);
+
+        assertThat(page.getContent()).extracting(ProjectMessageDto::getMessage).containsExactly("newest", "newer", "older");
+        assertThat(page.hasNext()).isFalse();
+        verify(repository, times(1)).findByProjectIdOrderByCreatedAtDesc(eq(projectId), any());
+    }
+
+    @Test
+    void getMessagesAfter_servesCursorReadsCoveredByTheTimelineCache() {
+        UUID projectId = UUID.randomUUID();
+        OffsetDateTime now = OffsetDateTime.now();
+        ProjectMessage first = persisted(projectId, "first", now.minusMinutes(3));
+        ProjectMessage second = persisted(projectId, "second", now.minusMinutes(2));
+        ProjectMessage third = persisted(projectId, "third", now.minusMinutes(1));
+        when(repository.findByProjectIdOrderByCreatedAtDesc(eq(projectId), any()))
+                .thenReturn(new SliceImpl<>(List.of(third, second, first), PageRequest.of(0, 3), true));
+        service.getMessagesPage(projectId, 0, 3);
+
+        Slice<ProjectMessageDto> after = service.getMessagesAfter(projectId, now.minusMinutes(3), 1);
+
+        assertThat(after.getContent()).extracting(ProjectMessageDto::getMessage).containsExactly("second");
+        assertThat(after.hasNext()).isTrue();
+        verify(repository, never()).findByProjectIdAndCreatedAtAfterOrderByCreatedAtAsc(any(), any(), any());
+
+        // older than anything buffered, and the buffer does not hold the whole history: go to the database
+        when(repository.findByProjectIdAndCreatedAtAfterOrderByCreatedAtAsc(eq(projectId), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of()));
+        service.getMessagesAfter(projectId, now.minusHours(1), 10);
+        verify(repository).findByProjectIdAndCreatedAtAfterOrderByCreatedAtAsc(eq(projectId), any(), any());
+    }
+
+    @Test
+    void searchMessages_returnsHighlightedHitsAndACursorToTheNextPage() {
+        UUID projectId = UUID.randomUUID();
+        OffsetDateTime now = OffsetDateTime.now();
+        ProjectMessage newer = persisted(projectId, "Brake pads replaced", now.minusMinutes(1));
+        ProjectMessage older = persisted(projectId, "Brake fluid flushed", now.minusMinutes(2));
+        ProjectMessage oldest = persisted(projectId, "Brake inspection booked", now.minusMinutes(3));
+        when(repository.search(projectId, "brake", 3)).thenReturn(List.of(
+                new Object[]{newer, "<mark>Brake</mark> pads replaced"},
+                new Object[]{older, "<mark>Brake</mark> fluid flushed"},
+                new Object[]{oldest, "<mark>Brake</mark> inspection booked"}));
+
+        MessageSearchPage first = service.searchMessages(projectId, "brake", null, 2);
+
+        assertThat(first.getHits()).extracting(hit -> hit.getMessage().getMessage())
+                .containsExactly("Brake pads replaced", "Brake fluid flushed");
+        assertThat(first.getHits().get(0).getHighlight()).isEqualTo("<mark>Brake</mark> pads replaced");
+        assertThat(first.getNextCursor()).isNotNull();
+
+        when(repository.searchBefore(projectId, "brake", older.getCreatedAt(), older.getId(), 3))
+                .thenReturn(List.<Object[]>of(new Object[]{oldest, "<mark>Brake</mark> inspection booked"}));
+
+        MessageSearchPage second = service.searchMessages(projectId, "brake", first.getNextCursor(), 2);
+
+        assertThat(second.getHits()).extracting(hit -> hit.getMessage().getMessage()).containsExactly("Brake inspection booked");
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void searchMessages_escapesMessageMarkupInHighlights() {
+        UUID projectId = UUID.randomUUID();
+        ProjectMessage hit = persisted(projectId, "<b>Brake</b> done", OffsetDateTime.now());
+        when(repository.search(projectId, "brake", 21)).thenReturn(List.<Object[]>of(new Object[]{hit, "<b><mark>Brake</mark></b> done"}));
+
+        MessageSearchPage page = service.searchMessages(projectId, "brake", null, 20);
+
+        assertThat(page.getHits().get(0).getHighlight()).isEqualTo("&lt;b&gt;<mark>Brake</mark>&lt;/b&gt; done");
+    }
+
+    @Test
+    void searchMessages_rejectsMalformedCursors() {
+        UUID projectId = UUID.randomUUID();
+
+        assertThatThrownBy(() -> service.searchMessages(projectId, "brake", "bm90LWEtY3Vyc29y", 20))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(repository);
+    }
+
+    private static ProjectMessage persisted(UUID projectId, String message, OffsetDateTime createdAt) {
+        return ProjectMessage.builder()
+                .id(UUID.randomUUID())
+                .projectId(projectId)
+                .category("info")
+                .message(message)
+                .createdAt(createdAt)
+                .build();
+    }
 }
@@ -0,0 +1,114 @@
+package com.autonova.progressmonitoring.service;
+
+import com.autonova.progressmonitoring.dto.ProjectMessageDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Slice;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimelineCacheTest {
+
+    private static final OffsetDateTime T0 = OffsetDateTime.parse("2025-01-01T10:00:00Z");
+    private static final Duration TTL = Duration.ofMinutes(5);
+    private final UUID projectId = UUID.randomUUID();
+    private long now;
+
+    @Test
+    void page_isNullUntilSeeded() {
+        TimelineCache cache = new TimelineCache(3, 10, TTL, () -> now);
+        cache.append(message("a", 1));
+
+        assertThat(cache.page(projectId, 0, 2)).isNull();
+    }
+
+    @Test
+    void append_ignoresProjectsNobodyIsReading() {
+        TimelineCache cache = new TimelineCache(3, 10, TTL, () -> now);
+        cache.append(message("a", 1));
+
+        cache.seed(projectId, cache.beginLoad(projectId), List.of(message("b", 2)), true);
+
+        assertThat(cache.page(projectId, 0, 3).getContent()).extracting(ProjectMessageDto::getMessage).containsExactly("b");
+    }
+
+    @Test
+    void page_isNullOnceTheBufferOutlivesItsTtl() {
+        TimelineCache cache = new TimelineCache(3, 10, TTL, () -> now);
+        cache.seed(projectId, cache.beginLoad(projectId), List.of(message("a", 1)), true);
+        now += TTL.toNanos() - 1;
+        assertThat(cache.page(projectId, 0, 3)).isNotNull();
+
+        now += 1;
+
+        assertThat(cache.page(projectId, 0, 3)).isNull();
+        cache.append(message("b", 2));
+        Object token = cache.beginLoad(projectId);
+        cache.seed(projectId, token, List.of(message("a", 1)), true);
+        assertThat(cache.page(projectId, 0, 3).getContent()).extracting(ProjectMessageDto::getMessage).containsExactly("a");
+    }
+
+    @Test
+    void append_overwritesTheOldestOnceTheRingIsFull() {
+        TimelineCache cache = new TimelineCache(3, 10, TTL, () -> now);
+        cache.seed(projectId, cache.beginLoad(projectId), List.of(), true);
+        for (int i = 1; i <= 5; i++) cache.append(message("m" + i, i));
+
+        Slice<ProjectMessageDto> page = cache.page(projectId, 0, 3);
+
+        assertThat(page.getContent()).extracting(ProjectMessageDto::getMessage).containsExactly("m5", "m4", "m3");
+        // m1 and m2 only live in the database now
+        assertThat(page.hasNext()).isTrue();
+        assertThat(cache.page(projectId, 0, 4)).isNull();
+    }
+
+    @Test
+    void seed_keepsMessagesAppendedWhileTheQueryRan() {
+        TimelineCache cache = new TimelineCache(5, 10, TTL, () -> now);
+        Object token = cache.beginLoad(projectId);
+        ProjectMessageDto concurrent = message("committed during load", 3);
+        cache.append(concurrent);
+
+        cache.seed(projectId, token, List.of(message("b", 2), message("a", 1)), true);
+
+        assertThat(cache.page(projectId, 0, 5).getContent()).extracting(ProjectMessageDto::getMessage)
+                .containsExactly("committed during load", "b", "a");
+    }
+
+    @Test
+    void seed_isIgnoredWhenTheProjectWasEvictedMeanwhile() {
+        TimelineCache cache = new TimelineCache(5, 1, TTL, () -> now);
+        Object token = cache.beginLoad(projectId);
+        cache.beginLoad(UUID.randomUUID());
+
+        cache.seed(projectId, token, List.of(message("a", 1)), true);
+
+        assertThat(cache.page(projectId, 0, 5)).isNull();
+    }
+
+    @Test
+    void append_insertsOutOfOrderCommitsAtTheirPlace() {
+        TimelineCache cache = new TimelineCache(5, 10, TTL, () -> now);
+        cache.seed(projectId, cache.beginLoad(projectId), List.of(message("c", 3), message("a", 1)), true);
+
+        cache.append(message("b", 2));
+
+        assertThat(cache.page(projectId, 0, 5).getContent()).extracting(ProjectMessageDto::getMessage)
+                .containsExactly("c", "b", "a");
+        assertThat(cache.after(projectId, T0.plusMinutes(1), 5).getContent()).extracting(ProjectMessageDto::getMessage)
+                .containsExactly("b", "c");
+    }
+
+    private ProjectMessageDto message(String text, int minute) {
+        return ProjectMessageDto.builder()
+                .id(UUID.randomUUID())
+                .projectId(projectId)
+                .message(text)
+                .createdAt(T0.plusMinutes(minute))
+                .build();
+    }
+}
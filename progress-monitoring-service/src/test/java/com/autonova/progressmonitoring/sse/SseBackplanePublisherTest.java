@@ -0,0 +1,149 @@
+package com.autonova.progressmonitoring.sse;
+
+import com.autonova.progressmonitoring.dto.ProjectMessageDto;
+import com.autonova.progressmonitoring.service.LastMessageCache;
+import com.autonova.progressmonitoring.service.ProjectClientService;
+import com.autonova.progressmonitoring.service.TimelineCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class SseBackplanePublisherTest {
+
+    private static final String PROJECT = "11111111-2222-3333-4444-555555555555";
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    RabbitTemplate rabbitTemplate;
+
+    @Mock
+    SseEmitterRegistry registry;
+
+    @Mock
+    ProjectClientService projectClientService;
+
+    private SseBackplanePublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new SseBackplanePublisher(rabbitTemplate, registry, MAPPER, "test.backplane",
+                new LastMessageCache(10), new TimelineCache(10, 10, Duration.ofMinutes(5)), projectClientService);
+    }
+
+    @Test
+    void publishEvent_goesThroughTheBackplaneNotStraightToLocalSubscribers() {
+        publisher.publishEvent(PROJECT, "Project updated", "{\"status\":\"DONE\"}");
+
+        verify(rabbitTemplate).send(eq("test.backplane"), eq(""), any(Message.class));
+        verifyNoInteractions(registry);
+    }
+
+    @Test
+    void framesReceivedFromTheBackplaneAreDeliveredLocally() {
+        ArgumentCaptor<Message> sent = ArgumentCaptor.forClass(Message.class);
+        publisher.publishEvent(PROJECT, "Project updated", "{\"status\":\"DONE\"}");
+        publisher.publishToProject(PROJECT, "{\"id\":1}");
+        publisher.broadcastEvent("Maintenance", null);
+        verify(rabbitTemplate, org.mockito.Mockito.times(3)).send(anyString(), anyString(), sent.capture());
+
+        sent.getAllValues().forEach(publisher::onFrame);
+
+        verify(registry).publishEvent(PROJECT, "Project updated", "{\"status\":\"DONE\"}");
+        verify(registry).publishToProject(PROJECT, "{\"id\":1}");
+        verify(registry).broadcastEvent("Maintenance", null);
+    }
+
+    @Test
+    void deliversLocallyWhenTheBrokerIsDown() {
+        doThrow(new AmqpConnectException(new ConnectException("refused")))
+                .when(rabbitTemplate).send(anyString(), anyString(), any(Message.class));
+
+        publisher.publishMessageToProject(PROJECT, "Quote approved");
+
+        verify(registry).publishMessageToProject(PROJECT, "Quote approved");
+    }
+
+    @Test
+    void twoInstances_shareSseFramesAndCacheChanges() {
+        // a fanout exchange in memory: whatever either instance sends reaches both
+        List<SseBackplanePublisher> instances = new ArrayList<>();
+        RabbitTemplate broker = mock(RabbitTemplate.class);
+        doAnswer(inv -> {
+            Message message = inv.getArgument(2);
+            instances.forEach(instance -> instance.onFrame(message));
+            return null;
+        }).when(broker).send(anyString(), anyString(), any(Message.class));
+        SseEmitterRegistry registryA = mock(SseEmitterRegistry.class);
+        SseEmitterRegistry registryB = mock(SseEmitterRegistry.class);
+        ProjectClientService projectsB = mock(ProjectClientService.class);
+        LastMessageCache latestB = new LastMessageCache(10);
+        TimelineCache timelineB = new TimelineCache(10, 10, Duration.ofMinutes(5));
+        UUID projectId = UUID.fromString(PROJECT);
+        timelineB.seed(projectId, timelineB.beginLoad(projectId), List.of(), true);
+        SseBackplanePublisher a = new SseBackplanePublisher(broker, registryA, MAPPER, "test.backplane",
+                new LastMessageCache(10), new TimelineCache(10, 10, Duration.ofMinutes(5)), mock(ProjectClientService.class));
+        SseBackplanePublisher b = new SseBackplanePublisher(broker, registryB, MAPPER, "test.backplane",
+                latestB, timelineB, projectsB);
+        instances.add(a);
+        instances.add(b);
+
+        ProjectMessageDto committed = ProjectMessageDto.builder().id(UUID.randomUUID()).projectId(projectId)
+                .message("Brakes replaced").createdAt(OffsetDateTime.parse("2025-01-01T10:00:00Z")).build();
+        a.publishEvent(PROJECT, "Project updated", null);
+        a.messageCommitted(committed);
+        a.projectChanged(PROJECT);
+
+        verify(registryA).publishEvent(PROJECT, "Project updated", null);
+        verify(registryB).publishEvent(PROJECT, "Project updated", null);
+        assertEquals(committed.getId(), latestB.get(projectId).getId());
+        assertEquals(List.of("Brakes replaced"), timelineB.page(projectId, 0, 10).getContent().stream()
+                .map(ProjectMessageDto::getMessage).toList());
+        verify(projectsB).invalidateProject(PROJECT);
+        verifyNoMoreInteractions(registryB);
+    }
+
+    @Test
+    void cacheChanges_areNotDeliveredToSubscribersWhenTheBrokerIsDown() {
+        doThrow(new AmqpConnectException(new ConnectException("refused")))
+                .when(rabbitTemplate).send(anyString(), anyString(), any(Message.class));
+
+        publisher.projectChanged(PROJECT);
+
+        verifyNoInteractions(registry, projectClientService);
+    }
+
+    @Test
+    void onFrame_ignoresMalformedFrames() {
+        publisher.onFrame(new Message("not-json".getBytes(StandardCharsets.UTF_8), new MessageProperties()));
+
+        verifyNoInteractions(registry);
+    }
+}
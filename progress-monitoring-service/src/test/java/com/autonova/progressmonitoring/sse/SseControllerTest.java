@@ -27,7 +27,7 @@ class SseControllerTest {
 
     @Test
     void subscribeToProject_invalidProjectId_throws() {
-        assertThrows(IllegalArgumentException.class, () -> controller.subscribeToProject("not-a-uuid"));
+        assertThrows(IllegalArgumentException.class, () -> controller.subscribeToProject("not-a-uuid", false));
     }
 
     @Test
@@ -36,12 +36,12 @@ class SseControllerTest {
 
         // capture the emitter passed to registry and return it
         ArgumentCaptor<SseEmitter> captor = ArgumentCaptor.forClass(SseEmitter.class);
-        when(registry.register(org.mockito.ArgumentMatchers.eq(projectId), captor.capture()))
+        when(registry.register(org.mockito.ArgumentMatchers.eq(projectId), captor.capture(), org.mockito.ArgumentMatchers.eq(true)))
                 .thenAnswer(inv -> inv.getArgument(1));
 
-        SseEmitter emitter = controller.subscribeToProject(projectId);
+        SseEmitter emitter = controller.subscribeToProject(projectId, true);
 
-        verify(registry).register(org.mockito.ArgumentMatchers.eq(projectId), org.mockito.ArgumentMatchers.any(SseEmitter.class));
+        verify(registry).register(org.mockito.ArgumentMatchers.eq(projectId), org.mockito.ArgumentMatchers.any(SseEmitter.class), org.mockito.ArgumentMatchers.eq(true));
         assertNotNull(emitter);
     }
 }
@@ -1,26 +1,62 @@
 package com.autonova.progressmonitoring.sse;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class SseEmitterRegistryTest {
 
     private SseEmitterRegistry registry;
+    private SimpleMeterRegistry meterRegistry;
+    private final List<Runnable> pendingWrites = new ArrayList<>();
 
     @BeforeEach
     void setUp() {
-        registry = new SseEmitterRegistry();
+        meterRegistry = new SimpleMeterRegistry();
+        // writes run inline so assertions can observe them immediately
+        registry = new SseEmitterRegistry(meterRegistry, Runnable::run, 64, OverflowPolicy.DROP_OLDEST);
+    }
+
+    // a writer that only runs when the test says so, simulating a client that is not reading
+    private SseEmitterRegistry stalledRegistry(int capacity, OverflowPolicy policy) {
+        return new SseEmitterRegistry(meterRegistry, pendingWrites::add, capacity, policy);
+    }
+
+    private void runPendingWrites() {
+        List<Runnable> tasks = new ArrayList<>(pendingWrites);
+        pendingWrites.clear();
+        tasks.forEach(Runnable::run);
     }
 
     static class TestSseEmitter extends SseEmitter {
         final AtomicInteger sendCount = new AtomicInteger();
+        final List<String> frames = new ArrayList<>();
+        final List<byte[]> frameBytes = new ArrayList<>();
         final boolean shouldThrow;
+        final CountDownLatch completed = new CountDownLatch(1);
 
         TestSseEmitter(long timeout, boolean shouldThrow) {
             super(timeout);
@@ -28,9 +64,19 @@ class SseEmitterRegistryTest {
         }
 
         @Override
-        public void send(SseEmitter.SseEventBuilder event) throws IOException {
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) throws IOException {
             if (shouldThrow) throw new IOException("broken");
             sendCount.incrementAndGet();
+            for (ResponseBodyEmitter.DataWithMediaType item : items) {
+                byte[] bytes = (byte[]) item.getData();
+                frameBytes.add(bytes);
+                frames.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
         }
 
         // Keep default behavior for other overloads
@@ -79,4 +125,216 @@ class SseEmitterRegistryTest {
         assertEquals(1, e1.sendCount.get());
         assertEquals(1, e2.sendCount.get());
     }
+
+    @Test
+    void publishToProject_doesNotWriteOnPublisherThread() {
+        TestSseEmitter emitter = new TestSseEmitter(0L, false);
+        SseEmitterRegistry stalled = stalledRegistry(4, OverflowPolicy.DROP_OLDEST);
+        stalled.register("proj-3", emitter);
+
+        stalled.publishToProject("proj-3", "{\"x\":1}");
+        stalled.publishToProject("proj-3", "{\"x\":2}");
+
+        assertEquals(0, emitter.sendCount.get());
+        assertEquals(1, pendingWrites.size());
+        assertEquals(2.0, meterRegistry.get("sse.queue.depth").tag("project", "proj-3").gauge().value());
+
+        runPendingWrites();
+
+        assertEquals(2, emitter.sendCount.get());
+        assertEquals(2, meterRegistry.get("sse.delivery.lag").tag("project", "proj-3").timer().count());
+    }
+
+    @Test
+    void dropOldest_keepsNewestEventsWhenQueueIsFull() {
+        TestSseEmitter emitter = new TestSseEmitter(0L, false);
+        SseEmitterRegistry stalled = stalledRegistry(2, OverflowPolicy.DROP_OLDEST);
+        stalled.register("proj-4", emitter);
+
+        stalled.publishToProject("proj-4", "a");
+        stalled.publishToProject("proj-4", "b");
+        stalled.publishToProject("proj-4", "c");
+        runPendingWrites();
+
+        assertEquals(List.of("event:message\ndata:b\n\n", "event:message\ndata:c\n\n"), emitter.frames);
+        assertEquals(1.0, meterRegistry.get("sse.events.dropped").tag("project", "proj-4").counter().count());
+    }
+
+    @Test
+    void disconnect_closesSlowSubscriberWhenQueueIsFull() throws InterruptedException {
+        TestSseEmitter slow = new TestSseEmitter(0L, false);
+        SseEmitterRegistry stalled = stalledRegistry(1, OverflowPolicy.DISCONNECT);
+        stalled.register("proj-5", slow);
+
+        stalled.publishToProject("proj-5", "a");
+        stalled.publishToProject("proj-5", "b");
+
+        // completed off the publishing thread, which must not wait on the subscriber's write lock
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+        runPendingWrites();
+        assertEquals(0, slow.sendCount.get());
+        // the last subscriber left, so the project's meters are gone too
+        assertNull(meterRegistry.find("sse.queue.depth").tag("project", "proj-5").gauge());
+    }
+
+    @Test
+    void drain_yieldsTheWriterAfterFramesPerDrain() {
+        TestSseEmitter busy = new TestSseEmitter(0L, false);
+        SseEmitterRegistry fair = new SseEmitterRegistry(meterRegistry, pendingWrites::add, 8, OverflowPolicy.DROP_OLDEST, 2, null);
+        fair.register("proj-8", busy);
+
+        fair.publishToProject("proj-8", "a");
+        fair.publishToProject("proj-8", "b");
+        fair.publishToProject("proj-8", "c");
+        runPendingWrites();
+
+        assertEquals(2, busy.sendCount.get());
+        // the rest is resubmitted behind whatever else is waiting for a writer
+        assertEquals(1, pendingWrites.size());
+
+        runPendingWrites();
+
+        assertEquals(3, busy.sendCount.get());
+        assertTrue(pendingWrites.isEmpty());
+    }
+
+    /**
+     * A real {@link SseEmitter} attached to a handler whose writes block until {@code release} opens, like a
+     * servlet write to a client that stopped reading. With {@code honourInterrupt} false the write swallows the
+     * interrupt, as Tomcat's blocking write does, so the emitter's write lock stays held.
+     */
+    private static SseEmitter blockingEmitter(CountDownLatch release, boolean honourInterrupt,
+                                              CountDownLatch completedWithError) throws Exception {
+        Class<?> handlerType = Class.forName(ResponseBodyEmitter.class.getName() + "$Handler");
+        Object handler = Proxy.newProxyInstance(handlerType.getClassLoader(), new Class<?>[]{handlerType},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "send" -> {
+                        while (true) {
+                            try {
+                                release.await();
+                                yield null;
+                            } catch (InterruptedException e) {
+                                if (honourInterrupt) throw new InterruptedIOException("interrupted");
+                            }
+                        }
+                    }
+                    case "completeWithError" -> {
+                        completedWithError.countDown();
+                        yield null;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "blocking handler";
+                    default -> null;
+                });
+        SseEmitter emitter = new SseEmitter(0L);
+        Method initialize = ResponseBodyEmitter.class.getDeclaredMethod("initialize", handlerType);
+        initialize.setAccessible(true);
+        initialize.invoke(emitter, handler);
+        return emitter;
+    }
+
+    private void awaitRemoved(String projectId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.find("sse.queue.depth").tag("project", projectId).gauge() != null) {
+            assertTrue(System.nanoTime() < deadline, projectId + " was never disconnected");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void blockedEmitter_doesNotDelayOtherSubscribers() throws Exception {
+        ExecutorService singleWriter = Executors.newSingleThreadExecutor();
+        SseEmitterRegistry guarded = new SseEmitterRegistry(meterRegistry, singleWriter, 8, OverflowPolicy.DROP_OLDEST,
+                16, Duration.ofMillis(100));
+        CountDownLatch never = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        SseEmitter stuck = blockingEmitter(never, true, closed);
+        SseEmitter healthy = new SseEmitter(0L) {
+            @Override
+            public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) {
+                delivered.countDown();
+            }
+        };
+        try {
+            guarded.register("proj-stuck", stuck);
+            guarded.register("proj-ok", healthy);
+
+            long start = System.nanoTime();
+            guarded.publishToProject("proj-stuck", "a");
+            guarded.publishToProject("proj-ok", "b");
+
+            // the only writer thread is stuck, so delivery depends on the watchdog freeing it
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+            // the interrupted write releases the emitter's lock, so the close goes through
+            assertTrue(closed.await(5, TimeUnit.SECONDS));
+
+            // the stuck subscriber is gone, so later events never reach it
+            guarded.publishToProject("proj-stuck", "c");
+            assertNull(meterRegistry.find("sse.queue.depth").tag("project", "proj-stuck").gauge());
+        } finally {
+            guarded.shutdown();
+            singleWriter.shutdownNow();
+        }
+    }
+
+    @Test
+    void stalledWritesThatIgnoreInterrupts_doNotStopTheWatchdog() throws Exception {
+        ExecutorService writers = Executors.newFixedThreadPool(2);
+        SseEmitterRegistry guarded = new SseEmitterRegistry(meterRegistry, writers, 8, OverflowPolicy.DROP_OLDEST,
+                16, Duration.ofMillis(100));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(2);
+        try {
+            guarded.register("proj-a", blockingEmitter(release, false, closed));
+            guarded.register("proj-b", blockingEmitter(release, false, closed));
+
+            guarded.publishToProject("proj-a", "a");
+            guarded.publishToProject("proj-b", "b");
+
+            // closing the first one waits on its write lock; the second must still be disconnected
+            awaitRemoved("proj-a");
+            awaitRemoved("proj-b");
+            assertEquals(2, closed.getCount());
+
+            // once the connector gives up on the writes, both emitters are completed with the timeout
+            release.countDown();
+            assertTrue(closed.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            guarded.shutdown();
+            writers.shutdownNow();
+        }
+    }
+
+    @Test
+    void publishEvent_sendsOneFrameAndPayloadOnlyToOptedInSubscribers() {
+        TestSseEmitter compact = new TestSseEmitter(0L, false);
+        TestSseEmitter otherCompact = new TestSseEmitter(0L, false);
+        TestSseEmitter full = new TestSseEmitter(0L, false);
+        registry.register("proj-6", compact);
+        registry.register("proj-6", otherCompact, false);
+        registry.register("proj-6", full, true);
+
+        registry.publishEvent("proj-6", "Project updated", "{\"status\":\"done\"}");
+
+        assertEquals(List.of("event:project.event\ndata:{\"projectId\":\"proj-6\",\"message\":\"Project updated\"}\n\n"), compact.frames);
+        assertEquals(List.of("event:project.event\ndata:{\"projectId\":\"proj-6\",\"message\":\"Project updated\",\"payload\":{\"status\":\"done\"}}\n\n"), full.frames);
+        // encoded once, the same bytes go to every subscriber of the same variant
+        assertSame(compact.frameBytes.get(0), otherCompact.frameBytes.get(0));
+    }
+
+    @Test
+    void publishEvent_splitsMultiLinePayloadIntoDataFields() {
+        TestSseEmitter emitter = new TestSseEmitter(0L, false);
+        registry.register("proj-7", emitter, true);
+
+        registry.publishEvent("proj-7", "hi", "{\n\"a\":1\n}");
+
+        String frame = emitter.frames.get(0);
+        assertEquals("event:project.event\ndata:{\"projectId\":\"proj-7\",\"message\":\"hi\",\"payload\":{\ndata:\"a\":1\ndata:}}\n\n", frame);
+        assertFalse(frame.substring(0, frame.length() - 2).contains("\n\n"));
+    }
 }
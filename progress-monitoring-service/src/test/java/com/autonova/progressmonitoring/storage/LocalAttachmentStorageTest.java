@@ -0,0 +1,95 @@
+package com.autonova.progressmonitoring.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalAttachmentStorageTest {
+
+    @TempDir
+    Path root;
+
+    private LocalAttachmentStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new LocalAttachmentStorage(root, DataSize.ofBytes(16));
+    }
+
+    @Test
+    void store_writesContentUnderItsHash() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "Front Bumper.JPG", "image/jpeg", "photo".getBytes(StandardCharsets.UTF_8));
+
+        StoredAttachment stored = storage.store(file);
+
+        String checksum = "55c64d0fcd6f9d5f7c828093857e3fdfda68478bb4e9bd24d481ef391c7804e8"; // sha256("photo")
+        assertThat(stored.getChecksum()).isEqualTo(checksum);
+        assertThat(stored.getUrl()).isEqualTo(LocalAttachmentStorage.URL_PREFIX + "55/" + checksum + ".jpg");
+        assertThat(stored.getSize()).isEqualTo(5);
+        assertThat(stored.getOriginalFilename()).isEqualTo("Front Bumper.JPG");
+        Path onDisk = storage.resolve(stored.getUrl().substring(LocalAttachmentStorage.URL_PREFIX.length()));
+        assertThat(Files.readString(onDisk)).isEqualTo("photo");
+    }
+
+    @Test
+    void store_deduplicatesIdenticalContent() throws IOException {
+        StoredAttachment first = storage.store(new MockMultipartFile("file", "a.png", "image/png", new byte[]{1, 2, 3}));
+        StoredAttachment second = storage.store(new MockMultipartFile("file", "b.png", "image/png", new byte[]{1, 2, 3}));
+
+        assertThat(second.getUrl()).isEqualTo(first.getUrl());
+        assertThat(second.getOriginalFilename()).isEqualTo("b.png");
+        try (Stream<Path> files = Files.walk(root)) {
+            assertThat(files.filter(Files::isRegularFile).count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void store_rejectsOversizedUploadsAndLeavesNoTempFiles() throws IOException {
+        MockMultipartFile big = new MockMultipartFile("file", "video.mp4", "video/mp4", new byte[17]);
+
+        assertThatThrownBy(() -> storage.store(big)).isInstanceOf(AttachmentTooLargeException.class);
+        try (Stream<Path> files = Files.walk(root)) {
+            assertThat(files.filter(Files::isRegularFile).count()).isZero();
+        }
+    }
+
+    @Test
+    void storeRendition_writesNextToTheOriginal() throws IOException {
+        StoredAttachment original = storage.store(new MockMultipartFile("file", "a.png", "image/png", new byte[]{1, 2, 3}));
+
+        StoredAttachment thumb = storage.storeRendition(original.getUrl(), "thumb", "image/jpeg", new byte[]{4, 5});
+
+        assertThat(thumb.getUrl()).isEqualTo(original.getUrl().replace(".png", "-thumb.jpg"));
+        try (var in = storage.open(thumb.getUrl())) {
+            assertThat(in.readAllBytes()).containsExactly(4, 5);
+        }
+        String key = thumb.getUrl().substring(LocalAttachmentStorage.URL_PREFIX.length());
+        assertThat(LocalAttachmentStorage.checksumOf(key)).isNull();
+        assertThat(LocalAttachmentStorage.isRendition(key)).isTrue();
+    }
+
+    @Test
+    void resolve_rejectsPathsOutsideTheRoot() {
+        assertThat(storage.resolve("../secret.txt")).isNull();
+        assertThat(storage.resolve(".tmp/upload-1.part")).isNull();
+        assertThat(storage.resolve("ab/file.jpg")).isEqualTo(root.resolve("ab/file.jpg").toAbsolutePath().normalize());
+    }
+
+    @Test
+    void checksumOf_onlyRecognisesContentAddressedKeys() {
+        String hash = "0".repeat(64);
+        assertThat(LocalAttachmentStorage.checksumOf("00/" + hash + ".jpg")).isEqualTo(hash);
+        assertThat(LocalAttachmentStorage.checksumOf("1700000000000_photo.jpg")).isNull();
+    }
+}
@@ -0,0 +1,232 @@
+package com.autonova.progressmonitoring.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class S3AttachmentStorageTest {
+
+    private static final String CHECKSUM = "55c64d0fcd6f9d5f7c828093857e3fdfda68478bb4e9bd24d481ef391c7804e8"; // sha256("photo")
+
+    @TempDir
+    Path tmp;
+
+    private InMemoryS3 s3;
+    private S3Presigner presigner;
+    private S3AttachmentStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        s3 = new InMemoryS3();
+        presigner = S3Presigner.builder()
+                .region(Region.US_EAST_1)
+                .endpointOverride(URI.create("http://localhost:9000"))
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("minio", "minio123")))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .build();
+        storage = new S3AttachmentStorage(s3, presigner, "attachments", Duration.ofMinutes(5),
+                DataSize.ofMegabytes(1), DataSize.ofMegabytes(5), DataSize.ofMegabytes(20), tmp);
+    }
+
+    @AfterEach
+    void tearDown() {
+        presigner.close();
+    }
+
+    @Test
+    void store_putsSmallFilesUnderTheirHash() {
+        StoredAttachment stored = storage.store(new MockMultipartFile("file", "Front Bumper.JPG", "image/jpeg", "photo".getBytes(StandardCharsets.UTF_8)));
+
+        String key = "55/" + CHECKSUM + ".jpg";
+        assertThat(stored.getUrl()).isEqualTo(AttachmentStorage.URL_PREFIX + key);
+        assertThat(stored.getChecksum()).isEqualTo(CHECKSUM);
+        assertThat(stored.getSize()).isEqualTo(5);
+        assertThat(new String(s3.objects.get(key), StandardCharsets.UTF_8)).isEqualTo("photo");
+        assertThat(s3.puts).isEqualTo(1);
+        assertThat(s3.multipartUploads).isZero();
+    }
+
+    @Test
+    void store_skipsUploadWhenContentAlreadyExists() {
+        storage.store(new MockMultipartFile("file", "a.jpg", "image/jpeg", "photo".getBytes(StandardCharsets.UTF_8)));
+        StoredAttachment second = storage.store(new MockMultipartFile("file", "b.jpg", "image/jpeg", "photo".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(second.getOriginalFilename()).isEqualTo("b.jpg");
+        assertThat(s3.puts).isEqualTo(1);
+    }
+
+    @Test
+    void store_usesMultipartUploadAboveThreshold() throws IOException {
+        byte[] video = new byte[(int) DataSize.ofMegabytes(5).toBytes() + 1024];
+        for (int i = 0; i < video.length; i++) video[i] = (byte) i;
+
+        StoredAttachment stored = storage.store(new MockMultipartFile("file", "walkaround.mp4", "video/mp4", video));
+
+        String key = stored.getUrl().substring(AttachmentStorage.URL_PREFIX.length());
+        assertThat(s3.multipartUploads).isEqualTo(1);
+        assertThat(s3.puts).isZero();
+        assertThat(s3.objects.get(key)).isEqualTo(video);
+        assertNoStagedFiles();
+    }
+
+    @Test
+    void store_abortsMultipartUploadWhenAPartFails() throws IOException {
+        s3.failParts = true;
+        byte[] video = new byte[(int) DataSize.ofMegabytes(5).toBytes() + 1];
+
+        assertThatThrownBy(() -> storage.store(new MockMultipartFile("file", "walkaround.mp4", "video/mp4", video)))
+                .isInstanceOf(AttachmentStorageException.class);
+        assertThat(s3.aborted).isEqualTo(1);
+        assertThat(s3.objects).isEmpty();
+        assertNoStagedFiles();
+    }
+
+    @Test
+    void store_rejectsOversizedUploads() {
+        storage = new S3AttachmentStorage(s3, presigner, "attachments", Duration.ofMinutes(5),
+                DataSize.ofMegabytes(1), DataSize.ofMegabytes(5), DataSize.ofBytes(4), tmp);
+
+        assertThatThrownBy(() -> storage.store(new MockMultipartFile("file", "a.jpg", "image/jpeg", "photo".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(AttachmentTooLargeException.class);
+        assertThat(s3.objects).isEmpty();
+    }
+
+    @Test
+    void presignedUrl_signsAShortLivedGetForTheKey() {
+        URL url = storage.presignedUrl("55/" + CHECKSUM + ".jpg");
+
+        assertThat(url.toString()).startsWith("http://localhost:9000/attachments/55/" + CHECKSUM + ".jpg?");
+        assertThat(url.getQuery()).contains("X-Amz-Expires=300").contains("X-Amz-Signature=");
+        assertThat(storage.presignedUrl("../other-bucket/secret")).isNull();
+        assertThat(storage.presignedUrl("")).isNull();
+    }
+
+    private void assertNoStagedFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tmp)) {
+            assertThat(files.count()).isZero();
+        }
+    }
+
+    // Just enough of S3 to exercise the upload paths without a MinIO container
+    private static final class InMemoryS3 implements S3Client {
+        final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        final Map<String, TreeMap<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+        int puts;
+        int multipartUploads;
+        int aborted;
+        boolean failParts;
+
+        @Override
+        public HeadObjectResponse headObject(HeadObjectRequest request) {
+            byte[] object = objects.get(request.key());
+            if (object == null) throw NoSuchKeyException.builder().statusCode(404).build();
+            return HeadObjectResponse.builder().contentLength((long) object.length).build();
+        }
+
+        @Override
+        public PutObjectResponse putObject(PutObjectRequest request, RequestBody body) {
+            puts++;
+            objects.put(request.key(), read(body));
+            return PutObjectResponse.builder().build();
+        }
+
+        @Override
+        public CreateMultipartUploadResponse createMultipartUpload(CreateMultipartUploadRequest request) {
+            String uploadId = "upload-" + uploads.size();
+            uploads.put(uploadId, new TreeMap<>());
+            return CreateMultipartUploadResponse.builder().uploadId(uploadId).build();
+        }
+
+        @Override
+        public UploadPartResponse uploadPart(UploadPartRequest request, RequestBody body) {
+            if (failParts) throw SdkClientException.create("connection reset");
+            byte[] part = read(body);
+            assertThat((long) part.length).isEqualTo(request.contentLength());
+            uploads.get(request.uploadId()).put(request.partNumber(), part);
+            return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+        }
+
+        @Override
+        public CompleteMultipartUploadResponse completeMultipartUpload(CompleteMultipartUploadRequest request) {
+            TreeMap<Integer, byte[]> parts = uploads.remove(request.uploadId());
+            List<Integer> numbers = new ArrayList<>();
+            for (CompletedPart part : request.multipartUpload().parts()) numbers.add(part.partNumber());
+            assertThat(numbers).containsExactlyElementsOf(parts.keySet());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            parts.values().forEach(out::writeBytes);
+            objects.put(request.key(), out.toByteArray());
+            multipartUploads++;
+            return CompleteMultipartUploadResponse.builder().build();
+        }
+
+        @Override
+        public AbortMultipartUploadResponse abortMultipartUpload(AbortMultipartUploadRequest request) {
+            uploads.remove(request.uploadId());
+            aborted++;
+            return AbortMultipartUploadResponse.builder().build();
+        }
+
+        @Override
+        public String serviceName() {
+            return "s3";
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private static byte[] read(RequestBody body) {
+            try (InputStream in = body.contentStreamProvider().newStream()) {
+                return in.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}